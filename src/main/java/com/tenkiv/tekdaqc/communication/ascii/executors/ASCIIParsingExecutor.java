@@ -1,10 +1,14 @@
 package com.tenkiv.tekdaqc.communication.ascii.executors;
 
 import com.tenkiv.tekdaqc.communication.ascii.message.parsing.AASCIIMessage;
+import com.tenkiv.tekdaqc.communication.ascii.message.parsing.ASCIIDataRecordDecoder;
 import com.tenkiv.tekdaqc.communication.ascii.message.parsing.ASCIIMessageUtils;
 import com.tenkiv.tekdaqc.communication.executors.AParsingExecutor;
+import com.tenkiv.tekdaqc.communication.executors.IDataRecordSink;
 
+import java.nio.charset.StandardCharsets;
 import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
 
 /**
  * Encapsulation of Tekdaqc message parsing. This class allows for safe, threaded parsing of
@@ -31,19 +35,51 @@ public class ASCIIParsingExecutor extends AParsingExecutor {
         super(numThreads);
     }
 
+    /**
+     * Constructor.
+     *
+     * @param numThreads int The number of threads to use in the parsing pool.
+     * @param order      {@link ParsingOrder} The ordering guarantee to provide.
+     */
+    public ASCIIParsingExecutor(final int numThreads, final ParsingOrder order) {
+        super(numThreads, order);
+    }
+
+    /**
+     * Constructor for an executor which runs on a shared pool.
+     *
+     * @param pool      {@link Executor} The pool to run tasks on.
+     * @param laneCount int The number of ordered lanes to shard tasks onto when ordering per channel.
+     * @param order     {@link ParsingOrder} The ordering guarantee to provide.
+     */
+    public ASCIIParsingExecutor(final Executor pool, final int laneCount, final ParsingOrder order) {
+        super(pool, laneCount, order);
+    }
+
     /**
      * Submit a message for parsing. When parsing is complete, the specified callback will be called with the result.
      *
      * @param messageData {@link String} The raw message data to parse.
      * @param callback    The callback to be called when parsing is complete.
      */
+    @Override
     public void parseMessage(final String messageData, final IParsingListener callback) {
-        mExecutor.submit(new ParsingTask(messageData, callback));
+        submit(ASCIIDataRecordDecoder.channelKey(messageData),
+                new ParsingTask(messageData, null, nextSequence(), callback));
     }
 
+    /**
+     * Submit a raw message for parsing. Decoding of the bytes is deferred to the parsing thread so that the thread
+     * reading from the Tekdaqc does no more than frame records. If the callback is an {@link IDataRecordSink}, data
+     * records are decoded straight into it by the {@link ASCIIDataRecordDecoder}.
+     *
+     * @param messageData {@code byte}[] The raw message data to parse. Ownership passes to the executor.
+     * @param callback    The callback to be called when parsing is complete.
+     */
     @Override
     public void parseMessage(final byte[] messageData, final IParsingListener callback) {
-        parseMessage(new String(messageData), callback);
+        submit(ASCIIDataRecordDecoder.channelKey(messageData, 0, messageData.length),
+                new ParsingTask(null, messageData, nextSequence(), callback));
     }
 
     /**
@@ -56,25 +92,51 @@ public class ASCIIParsingExecutor extends AParsingExecutor {
     private static final class ParsingTask extends AParsingTask implements Callable<Void> {
 
         /**
-         * The raw message data
+         * The raw message data, if it was provided as a {@link String}.
          */
         private final String mMessageData;
 
+        /**
+         * The raw message data, if it was provided as bytes.
+         */
+        private final byte[] mRecord;
+
+        /**
+         * The sequence number of the record.
+         */
+        private final long mSequence;
+
         /**
          * Constructor.
          *
-         * @param messageData {@link String} The raw message data.
+         * @param messageData {@link String} The raw message data, or null if provided as bytes.
+         * @param record      {@code byte}[] The raw message bytes, or null if provided as a {@link String}.
+         * @param sequence    long The sequence number of the record.
          * @param callback    The callback for parsed messages.
          */
-        public ParsingTask(final String messageData, final IParsingListener callback) {
+        public ParsingTask(final String messageData, final byte[] record, final long sequence,
+                           final IParsingListener callback) {
             super(callback);
             mMessageData = messageData;
+            mRecord = record;
+            mSequence = sequence;
         }
 
         @Override
         public Void call() throws Exception {
             try {
-                final AASCIIMessage message = ASCIIMessageUtils.parseMessage(mMessageData);
+                if (mCallback instanceof IDataRecordSink) {
+                    final byte[] record = (mRecord != null) ? mRecord
+                            : (ASCIIDataRecordDecoder.channelKey(mMessageData) != ASCIIDataRecordDecoder.NON_DATA_KEY)
+                            ? mMessageData.getBytes(StandardCharsets.US_ASCII) : null;
+                    if (record != null && ASCIIDataRecordDecoder.decode(
+                            record, 0, record.length, mSequence, (IDataRecordSink) mCallback)) {
+                        return null;
+                    }
+                }
+                final String data = (mMessageData != null)
+                        ? mMessageData : new String(mRecord, StandardCharsets.US_ASCII);
+                final AASCIIMessage message = ASCIIMessageUtils.parseMessage(data);
                 if (message != null) mCallback.onParsingComplete(message);
             } catch (final Exception e) {
                 System.out.println("ASCIIParsingExecutor absorbing Exception: ");
@@ -14,6 +14,11 @@ import java.io.ObjectOutput;
  */
 public abstract class AASCIIMessage extends ABoardMessage {
 
+    /**
+     * If this message was drawn from a pool by {@link ASCIIMessageUtils}, and has not yet been returned to it.
+     */
+    transient boolean mPooled;
+
     protected void setData(final String raw) {
         parse(raw);
     }
@@ -39,14 +44,4 @@ public abstract class AASCIIMessage extends ABoardMessage {
     protected void writeOut(final ObjectOutput output) throws IOException {
         // Do nothing
     }
-
-    @Override
-    protected void finalize() throws Throwable {
-        // Provided to ensure the message is returned to the pool if use code
-        // fails to return it. This is primarily
-        // necessary in Android due to its extremely aggressive garbage
-        // collection.
-        super.finalize();
-        /*ASCIIMessageUtils.returnMessage(this);*/
-    }
 }
@@ -99,7 +99,7 @@ public class ASCIIAnalogInputDataMessage extends AASCIIMessage implements IDataP
 
     @Override
     public DataPoint toDataPoints() {
-        return new AnalogInputCountData(mNumber, mName, Long.parseLong(mTimestamps.replaceAll("\\s", "")), mReadings);
+        return new AnalogInputCountData(mNumber, mName, ASCIIDataRecordDecoder.parseLong(mTimestamps), mReadings);
     }
 
     @Override
@@ -0,0 +1,284 @@
+package com.tenkiv.tekdaqc.communication.ascii.message.parsing;
+
+import com.tenkiv.tekdaqc.communication.executors.IDataRecordSink;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decoder for the V2 ASCII data records ({@code ?A}, {@code ?D} and {@code ?P}). Records are decoded directly from
+ * their raw bytes and the resulting values are written to an {@link IDataRecordSink}, without creating any
+ * intermediate objects. Debug, status, error and other messages are not handled here and should continue to go
+ * through {@link ASCIIMessageUtils#parseMessage(String)}.
+ *
+ * The record layouts are:
+ * <pre>
+ * ?A[channel]\r\n[timestamp],[count]
+ * ?D[channel]\r\n[timestamp],[H|L]
+ * ?P[channel]\r\n[transitions],[percentage]\n[timestamp]
+ * </pre>
+ * Whitespace within numeric fields is ignored, matching the behavior of the message classes.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+public final class ASCIIDataRecordDecoder {
+
+    private static final byte RECORD_MARKER = '?';
+
+    private static final byte ANALOG_MARKER = 'A';
+
+    private static final byte DIGITAL_MARKER = 'D';
+
+    private static final byte PWM_MARKER = 'P';
+
+    private static final byte HIGH_MARKER = 'H';
+
+    private static final byte FIELD_SEPARATOR = ',';
+
+    private static final byte DECIMAL_POINT = '.';
+
+    /**
+     * Powers of ten which are exactly representable as a double.
+     */
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    /**
+     * Largest mantissa for which conversion through {@link #POWERS_OF_TEN} is exact.
+     */
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    private ASCIIDataRecordDecoder() {
+        // Static utility class
+    }
+
+    /**
+     * Key returned by the lane key methods for records which are not data records.
+     */
+    public static final int NON_DATA_KEY = 0;
+
+    /**
+     * Compute a key identifying the input a record belongs to, from the record header alone. Records of the same
+     * type and channel always produce the same key, and different channels of the same type produce different keys.
+     *
+     * @param buffer {@code byte}[] The buffer containing the record.
+     * @param offset int The offset of the first byte of the record.
+     * @param length int The length of the record.
+     * @return int The key, or {@link #NON_DATA_KEY} if this is not a data record.
+     */
+    public static int channelKey(final byte[] buffer, final int offset, final int length) {
+        final int end = offset + length;
+        final int start = skipWhitespace(buffer, offset, end);
+        if (end - start < 2 || buffer[start] != RECORD_MARKER) return NON_DATA_KEY;
+        final byte type = buffer[start + 1];
+        if (type != ANALOG_MARKER && type != DIGITAL_MARKER && type != PWM_MARKER) return NON_DATA_KEY;
+        int channel = 0;
+        for (int i = start + 2; i < end && buffer[i] >= '0' && buffer[i] <= '9'; ++i) {
+            channel = channel * 10 + (buffer[i] - '0');
+        }
+        return (type << 16) | (channel & 0xFFFF);
+    }
+
+    /**
+     * Compute a key identifying the input a record belongs to. See {@link #channelKey(byte[], int, int)}.
+     *
+     * @param record {@link CharSequence} The record.
+     * @return int The key, or {@link #NON_DATA_KEY} if this is not a data record.
+     */
+    public static int channelKey(final CharSequence record) {
+        final int end = record.length();
+        int start = 0;
+        while (start < end && Character.isWhitespace(record.charAt(start))) ++start;
+        if (end - start < 2 || record.charAt(start) != RECORD_MARKER) return NON_DATA_KEY;
+        final char type = record.charAt(start + 1);
+        if (type != ANALOG_MARKER && type != DIGITAL_MARKER && type != PWM_MARKER) return NON_DATA_KEY;
+        int channel = 0;
+        for (int i = start + 2; i < end && record.charAt(i) >= '0' && record.charAt(i) <= '9'; ++i) {
+            channel = channel * 10 + (record.charAt(i) - '0');
+        }
+        return (type << 16) | (channel & 0xFFFF);
+    }
+
+    /**
+     * Determine if the provided record is a data record which can be handled by this decoder.
+     *
+     * @param buffer {@code byte}[] The buffer containing the record.
+     * @param offset int The offset of the first byte of the record.
+     * @param length int The length of the record.
+     * @return boolean True if this is an analog, digital or PWM data record.
+     */
+    public static boolean isDataRecord(final byte[] buffer, final int offset, final int length) {
+        final int end = offset + length;
+        final int start = skipWhitespace(buffer, offset, end);
+        if (end - start < 2 || buffer[start] != RECORD_MARKER) return false;
+        final byte type = buffer[start + 1];
+        return type == ANALOG_MARKER || type == DIGITAL_MARKER || type == PWM_MARKER;
+    }
+
+    /**
+     * Decode a data record and deliver its contents to the provided sink.
+     *
+     * @param buffer   {@code byte}[] The buffer containing the record.
+     * @param offset   int The offset of the first byte of the record.
+     * @param length   int The length of the record.
+     * @param sequence long The sequence number of the record within its stream.
+     * @param sink     {@link IDataRecordSink} The sink for the decoded sample.
+     * @return boolean True if the record was a data record and was delivered, false if it is some other message.
+     * @throws NumberFormatException If the record is a data record but is malformed.
+     */
+    public static boolean decode(final byte[] buffer, final int offset, final int length, final long sequence,
+                                 final IDataRecordSink sink)
+            throws NumberFormatException {
+        final int end = offset + length;
+        final int start = skipWhitespace(buffer, offset, end);
+        if (end - start < 2 || buffer[start] != RECORD_MARKER) return false;
+
+        final byte type = buffer[start + 1];
+        if (type != ANALOG_MARKER && type != DIGITAL_MARKER && type != PWM_MARKER) return false;
+
+        final int headerEnd = indexOf(buffer, start + 2, end, (byte) ASCIIMessageUtils.NEW_LINE_CHAR);
+        if (headerEnd < 0) throw malformed(buffer, offset, length);
+        final int channel = parseInt(buffer, start + 2, headerEnd);
+
+        final int separator = indexOf(buffer, headerEnd + 1, end, FIELD_SEPARATOR);
+        if (separator < 0) throw malformed(buffer, offset, length);
+
+        switch (type) {
+            case ANALOG_MARKER:
+                sink.onAnalogSample(channel, sequence,
+                        parseLong(buffer, headerEnd + 1, separator),
+                        parseInt(buffer, separator + 1, end));
+                break;
+            case DIGITAL_MARKER:
+                sink.onDigitalSample(channel, sequence,
+                        parseLong(buffer, headerEnd + 1, separator),
+                        indexOf(buffer, separator + 1, end, HIGH_MARKER) >= 0);
+                break;
+            default:
+                final int percentEnd = indexOf(buffer, separator + 1, end, (byte) ASCIIMessageUtils.NEW_LINE_CHAR);
+                if (percentEnd < 0) throw malformed(buffer, offset, length);
+                final int transitions = parseInt(buffer, headerEnd + 1, separator);
+                final double percentage = parseDouble(buffer, separator + 1, percentEnd);
+                sink.onPWMSample(channel, sequence, parseLong(buffer, percentEnd + 1, end), percentage, transitions);
+                break;
+        }
+        return true;
+    }
+
+    /**
+     * Parse a signed decimal integer from the provided characters, ignoring any whitespace. This is a
+     * replacement for {@code Long.parseLong(value.replaceAll("\\s", ""))} which does not allocate.
+     *
+     * @param value {@link CharSequence} The characters to parse.
+     * @return long The parsed value.
+     * @throws NumberFormatException If the characters do not form a valid integer.
+     */
+    public static long parseLong(final CharSequence value) throws NumberFormatException {
+        if (value == null) throw new NumberFormatException("null");
+        final int end = value.length();
+        long result = 0;
+        int digits = 0;
+        boolean signed = false;
+        boolean negative = false;
+        for (int i = 0; i < end; ++i) {
+            final char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++digits > 18) throw new NumberFormatException("Value out of range: " + value);
+                result = result * 10 + (c - '0');
+            } else if ((c == '-' || c == '+') && digits == 0 && !signed) {
+                signed = true;
+                negative = (c == '-');
+            } else if (!Character.isWhitespace(c)) {
+                throw new NumberFormatException("For input string: \"" + value + "\"");
+            }
+        }
+        if (digits == 0) throw new NumberFormatException("For input string: \"" + value + "\"");
+        return negative ? -result : result;
+    }
+
+    static int parseInt(final byte[] buffer, final int from, final int to) throws NumberFormatException {
+        final long value = parseLong(buffer, from, to);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) throw malformed(buffer, from, to - from);
+        return (int) value;
+    }
+
+    static long parseLong(final byte[] buffer, final int from, final int to) throws NumberFormatException {
+        long result = 0;
+        int digits = 0;
+        boolean signed = false;
+        boolean negative = false;
+        for (int i = from; i < to; ++i) {
+            final byte b = buffer[i];
+            if (b >= '0' && b <= '9') {
+                if (++digits > 18) throw malformed(buffer, from, to - from);
+                result = result * 10 + (b - '0');
+            } else if ((b == '-' || b == '+') && digits == 0 && !signed) {
+                signed = true;
+                negative = (b == '-');
+            } else if (!isWhitespace(b)) {
+                throw malformed(buffer, from, to - from);
+            }
+        }
+        if (digits == 0) throw malformed(buffer, from, to - from);
+        return negative ? -result : result;
+    }
+
+    static double parseDouble(final byte[] buffer, final int from, final int to) throws NumberFormatException {
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean fraction = false;
+        boolean signed = false;
+        boolean negative = false;
+        for (int i = from; i < to; ++i) {
+            final byte b = buffer[i];
+            if (b >= '0' && b <= '9') {
+                mantissa = mantissa * 10 + (b - '0');
+                if (fraction) ++fractionDigits;
+                if (++digits > 18 || mantissa >= MAX_EXACT_MANTISSA) return parseDoubleSlow(buffer, from, to);
+            } else if (b == DECIMAL_POINT && !fraction) {
+                fraction = true;
+            } else if ((b == '-' || b == '+') && digits == 0 && !fraction && !signed) {
+                signed = true;
+                negative = (b == '-');
+            } else if (isWhitespace(b)) {
+                // Ignored
+            } else {
+                // Exponents and special values are rare enough that the standard parser is fine
+                return parseDoubleSlow(buffer, from, to);
+            }
+        }
+        if (digits == 0) throw malformed(buffer, from, to - from);
+        if (fractionDigits >= POWERS_OF_TEN.length) return parseDoubleSlow(buffer, from, to);
+        // Both operands are exact, so the single division is correctly rounded
+        final double value = mantissa / POWERS_OF_TEN[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    private static double parseDoubleSlow(final byte[] buffer, final int from, final int to) {
+        return Double.parseDouble(new String(buffer, from, to - from, StandardCharsets.US_ASCII).trim());
+    }
+
+    private static int indexOf(final byte[] buffer, final int from, final int to, final byte target) {
+        for (int i = from; i < to; ++i) {
+            if (buffer[i] == target) return i;
+        }
+        return -1;
+    }
+
+    private static int skipWhitespace(final byte[] buffer, final int from, final int to) {
+        int i = from;
+        while (i < to && isWhitespace(buffer[i])) ++i;
+        return i;
+    }
+
+    private static boolean isWhitespace(final byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\n' || b == 0x0B || b == 0x0C;
+    }
+
+    private static NumberFormatException malformed(final byte[] buffer, final int offset, final int length) {
+        return new NumberFormatException("Malformed data record: "
+                + new String(buffer, offset, length, StandardCharsets.US_ASCII));
+    }
+}
@@ -102,7 +102,7 @@ public class ASCIIDigitalInputDataMessage extends AASCIIMessage implements IData
 
     @Override
     public DataPoint toDataPoints() {
-        return new DigitalInputData(mNumber, mName, Long.parseLong(mTimestamps.replaceAll("\\s", "")), mReadings);
+        return new DigitalInputData(mNumber, mName, ASCIIDataRecordDecoder.parseLong(mTimestamps), mReadings);
     }
 
     @Override
@@ -1,5 +1,9 @@
 package com.tenkiv.tekdaqc.communication.ascii.message.parsing;
 
+import com.tenkiv.tekdaqc.utility.ObjectPool;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.regex.Pattern;
 
 /**
@@ -69,59 +73,305 @@ public class ASCIIMessageUtils {
     public static final Pattern RECORD_SEPARATOR_PATTERN = Pattern
             .compile("\\x1E");
 
+    /**
+     * Number of leading characters the dispatch table is indexed by.
+     */
+    private static final int DISPATCH_TABLE_SIZE = 128;
+
+    /**
+     * Header decoders indexed by the first character of their header. Replaced as a whole on registration so that
+     * lookups need no locking.
+     */
+    private static volatile HeaderDecoder[][] sDispatchTable = new HeaderDecoder[DISPATCH_TABLE_SIZE][];
+
+    /**
+     * Number of records which were not recognized by their prefix, but were by their content.
+     */
+    private static final LongAdder sFallbackCount = new LongAdder();
+
+    /**
+     * Number of records which could not be recognized at all.
+     */
+    private static final LongAdder sUnrecognizedCount = new LongAdder();
+
+    /**
+     * Maximum number of idle data messages retained of each type.
+     */
+    private static final int MESSAGE_POOL_CAPACITY = 256;
+
+    private static final ObjectPool<ASCIIAnalogInputDataMessage> ANALOG_MESSAGE_POOL =
+            new ObjectPool<>(MESSAGE_POOL_CAPACITY, ASCIIAnalogInputDataMessage::new, AASCIIMessage::reset);
+
+    private static final ObjectPool<ASCIIDigitalInputDataMessage> DIGITAL_MESSAGE_POOL =
+            new ObjectPool<>(MESSAGE_POOL_CAPACITY, ASCIIDigitalInputDataMessage::new, AASCIIMessage::reset);
+
+    private static final ObjectPool<ASCIIPWMInputDataMessage> PWM_MESSAGE_POOL =
+            new ObjectPool<>(MESSAGE_POOL_CAPACITY, ASCIIPWMInputDataMessage::new, AASCIIMessage::reset);
+
+    /**
+     * If data messages are drawn from the message pools.
+     */
+    private static volatile boolean sMessagePooling = false;
+
+    static {
+        registerMessageDecoder(V2_ANALOG_INPUT_HEADER, messageData -> sMessagePooling
+                ? acquire(ANALOG_MESSAGE_POOL, messageData) : new ASCIIAnalogInputDataMessage(messageData));
+        registerMessageDecoder(V2_DIGITAL_INPUT_HEADER, messageData -> sMessagePooling
+                ? acquire(DIGITAL_MESSAGE_POOL, messageData) : new ASCIIDigitalInputDataMessage(messageData));
+        registerMessageDecoder(DIGITAL_PWM_INPUT_HEADER, messageData -> sMessagePooling
+                ? acquire(PWM_MESSAGE_POOL, messageData) : new ASCIIPWMInputDataMessage(messageData));
+        registerMessageDecoder(DEBUG_MESSAGE_HEADER, ASCIIDebugMessage::new);
+        registerMessageDecoder(STATUS_MESSAGE_HEADER, messageData -> {
+            final AASCIIMessage message = new ASCIIStatusMessage(messageData);
+            message.setData(messageData);
+            return message;
+        });
+        registerMessageDecoder(ERROR_MESSAGE_HEADER, ASCIIErrorMessage::new);
+        registerMessageDecoder(COMMAND_MESSAGE_HEADER, ASCIICommandMessage::new);
+        registerMessageDecoder(V1_ANALOG_INPUT_HEADER, ASCIIAnalogInputDataMessage::new);
+        registerMessageDecoder(V1_DIGITAL_INPUT_HEADER, ASCIIDigitalInputDataMessage::new);
+        registerMessageDecoder(DIGITAL_OUTPUT_HEADER, ASCIIDigitalOutputDataMessage::new);
+    }
+
     /**
      * Factory method to produce the appropriate messages from the provided raw
-     * message data.
+     * message data. The message type is decided from the header the record begins with, ignoring leading
+     * whitespace. Records which do not begin with a registered header are classified by searching their content
+     * for a known header.
      *
      * @param messageData {@link String} The raw message data.
      * @return {@link AASCIIMessage} The constructed message.
      */
     public static AASCIIMessage parseMessage(final String messageData) {
-        final AASCIIMessage message;
         try {
             if (messageData == null)
                 return null;
-            /*
-			 * The order here is important because debug/status/error messages
-			 * may contain tags which could register as other message types.
-			 */
-            if (messageData.contains(DEBUG_MESSAGE_HEADER)) {
-                // This is an ASCII Debug message
-                message = new ASCIIDebugMessage(messageData);
-            } else if (messageData.contains(STATUS_MESSAGE_HEADER)) {
-                // This is an ASCII Status message
-                message = new ASCIIStatusMessage(messageData);
-                message.setData(messageData);
-            } else if (messageData.contains(ERROR_MESSAGE_HEADER)) {
-                // This is an ASCII Error message
-                message = new ASCIIErrorMessage(messageData);
-            } else if (messageData.contains(COMMAND_MESSAGE_HEADER)) {
-                message = new ASCIICommandMessage(messageData);
-            } else if (messageData.contains(V1_ANALOG_INPUT_HEADER)
-                    || messageData.contains(V2_ANALOG_INPUT_HEADER)) {
-                // This is an ASCII Analog Input Data message
-                message = new ASCIIAnalogInputDataMessage(messageData);
-            } else if (messageData.contains(V1_DIGITAL_INPUT_HEADER)
-                    || messageData.contains(V2_DIGITAL_INPUT_HEADER)) {
-                // This is an ASCII Digital Input Data message
-                message = new ASCIIDigitalInputDataMessage(messageData);
-            } else if (messageData.contains(DIGITAL_OUTPUT_HEADER)) {
-                // This is an ASCII Digital Output Data message
-                message = new ASCIIDigitalOutputDataMessage(messageData);
-            }else if (messageData.contains(DIGITAL_PWM_INPUT_HEADER)) {
-                // This is an ASCII Digital PWM Input Data message
-                message = new ASCIIPWMInputDataMessage(messageData);
+            final IMessageDecoder decoder = findDecoder(messageData);
+            if (decoder != null) return decoder.decode(messageData);
+            final AASCIIMessage message = parseMessageByContent(messageData);
+            if (message != null) {
+                sFallbackCount.increment();
             } else {
-                // This is an unrecognized message format
-                message = null;
+                sUnrecognizedCount.increment();
             }
+            return message;
         } catch (final Exception e) {
             e.printStackTrace();
             return null;
         }
+    }
+
+    /**
+     * Register a decoder for records which begin with a header. Headers are matched in the order they were
+     * registered, so a header which is a prefix of another must be registered after it. Registering a header
+     * again replaces its decoder.
+     *
+     * @param header  {@link String} The header, which must begin with an ASCII character.
+     * @param decoder {@link IMessageDecoder} The decoder for records beginning with the header.
+     */
+    public static synchronized void registerMessageDecoder(final String header, final IMessageDecoder decoder) {
+        if (header == null || header.isEmpty() || header.charAt(0) >= DISPATCH_TABLE_SIZE) {
+            throw new IllegalArgumentException("Header must begin with an ASCII character.");
+        }
+        if (decoder == null) throw new IllegalArgumentException("Decoder cannot be null.");
+        final HeaderDecoder[][] table = sDispatchTable.clone();
+        final int index = header.charAt(0);
+        final HeaderDecoder[] bucket = (table[index] != null) ? table[index] : new HeaderDecoder[0];
+        int existing = -1;
+        for (int i = 0; i < bucket.length; ++i) {
+            if (bucket[i].mHeader.equals(header)) existing = i;
+        }
+        final HeaderDecoder[] updated;
+        if (existing >= 0) {
+            updated = bucket.clone();
+            updated[existing] = new HeaderDecoder(header, decoder);
+        } else {
+            updated = Arrays.copyOf(bucket, bucket.length + 1);
+            updated[bucket.length] = new HeaderDecoder(header, decoder);
+        }
+        table[index] = updated;
+        sDispatchTable = table;
+    }
+
+    /**
+     * Enable or disable recycling of analog, digital and PWM data messages. When enabled, the messages produced by
+     * {@link #parseMessage(String)} for data records are drawn from pools, and should be handed back with
+     * {@link #returnMessage(AASCIIMessage)} once they have been consumed. Messages which are not returned are simply
+     * garbage collected.
+     *
+     * @param enabled boolean True to enable message pooling.
+     */
+    public static void setMessagePooling(final boolean enabled) {
+        sMessagePooling = enabled;
+    }
+
+    /**
+     * Check if data messages are being pooled.
+     *
+     * @return boolean True if message pooling is enabled.
+     */
+    public static boolean isMessagePooling() {
+        return sMessagePooling;
+    }
+
+    /**
+     * Return a message to its pool once it has been consumed. Only messages which were drawn from a pool are
+     * returned; all others, such as those created while pooling was disabled, are ignored. The caller must not use
+     * the message afterwards.
+     *
+     * @param message {@link AASCIIMessage} The message to return.
+     */
+    public static void returnMessage(final AASCIIMessage message) {
+        if (message == null || !message.mPooled) return;
+        message.mPooled = false;
+        if (message instanceof ASCIIAnalogInputDataMessage) {
+            ANALOG_MESSAGE_POOL.release((ASCIIAnalogInputDataMessage) message);
+        } else if (message instanceof ASCIIDigitalInputDataMessage) {
+            DIGITAL_MESSAGE_POOL.release((ASCIIDigitalInputDataMessage) message);
+        } else if (message instanceof ASCIIPWMInputDataMessage) {
+            PWM_MESSAGE_POOL.release((ASCIIPWMInputDataMessage) message);
+        }
+    }
+
+    /**
+     * Enable or disable leak detection for the message pools.
+     *
+     * @param enabled boolean True to enable leak detection.
+     */
+    public static void setMessagePoolLeakDetection(final boolean enabled) {
+        ANALOG_MESSAGE_POOL.setLeakDetection(enabled);
+        DIGITAL_MESSAGE_POOL.setLeakDetection(enabled);
+        PWM_MESSAGE_POOL.setLeakDetection(enabled);
+    }
+
+    private static <T extends AASCIIMessage> T acquire(final ObjectPool<T> pool, final String messageData) {
+        final T message = pool.acquire();
+        try {
+            message.setData(messageData);
+        } catch (final RuntimeException e) {
+            pool.release(message);
+            throw e;
+        }
+        message.mPooled = true;
+        return message;
+    }
+
+    /**
+     * Get the number of records which did not begin with a registered header, but were recognized by their content.
+     *
+     * @return long The number of records.
+     */
+    public static long getFallbackCount() {
+        return sFallbackCount.sum();
+    }
+
+    /**
+     * Get the number of records which could not be recognized.
+     *
+     * @return long The number of records.
+     */
+    public static long getUnrecognizedCount() {
+        return sUnrecognizedCount.sum();
+    }
+
+    /**
+     * Find the decoder registered for the header a record begins with.
+     *
+     * @param messageData {@link String} The raw message data.
+     * @return {@link IMessageDecoder} The decoder, or null if the record does not begin with a registered header.
+     */
+    static IMessageDecoder findDecoder(final String messageData) {
+        final int length = messageData.length();
+        int start = 0;
+        while (start < length && messageData.charAt(start) <= ' ') ++start;
+        if (start == length) return null;
+        final char first = messageData.charAt(start);
+        if (first >= DISPATCH_TABLE_SIZE) return null;
+        final HeaderDecoder[] bucket = sDispatchTable[first];
+        if (bucket == null) return null;
+        for (final HeaderDecoder entry : bucket) {
+            if (messageData.startsWith(entry.mHeader, start)) return entry.mDecoder;
+        }
+        return null;
+    }
+
+    /**
+     * Produce a message by searching the raw message data for each known header in turn.
+     *
+     * @param messageData {@link String} The raw message data.
+     * @return {@link AASCIIMessage} The constructed message, or null if no header was found.
+     */
+    static AASCIIMessage parseMessageByContent(final String messageData) {
+        final AASCIIMessage message;
+        /*
+         * The order here is important because debug/status/error messages
+         * may contain tags which could register as other message types.
+         */
+        if (messageData.contains(DEBUG_MESSAGE_HEADER)) {
+            // This is an ASCII Debug message
+            message = new ASCIIDebugMessage(messageData);
+        } else if (messageData.contains(STATUS_MESSAGE_HEADER)) {
+            // This is an ASCII Status message
+            message = new ASCIIStatusMessage(messageData);
+            message.setData(messageData);
+        } else if (messageData.contains(ERROR_MESSAGE_HEADER)) {
+            // This is an ASCII Error message
+            message = new ASCIIErrorMessage(messageData);
+        } else if (messageData.contains(COMMAND_MESSAGE_HEADER)) {
+            message = new ASCIICommandMessage(messageData);
+        } else if (messageData.contains(V1_ANALOG_INPUT_HEADER)
+                || messageData.contains(V2_ANALOG_INPUT_HEADER)) {
+            // This is an ASCII Analog Input Data message
+            message = new ASCIIAnalogInputDataMessage(messageData);
+        } else if (messageData.contains(V1_DIGITAL_INPUT_HEADER)
+                || messageData.contains(V2_DIGITAL_INPUT_HEADER)) {
+            // This is an ASCII Digital Input Data message
+            message = new ASCIIDigitalInputDataMessage(messageData);
+        } else if (messageData.contains(DIGITAL_OUTPUT_HEADER)) {
+            // This is an ASCII Digital Output Data message
+            message = new ASCIIDigitalOutputDataMessage(messageData);
+        } else if (messageData.contains(DIGITAL_PWM_INPUT_HEADER)) {
+            // This is an ASCII Digital PWM Input Data message
+            message = new ASCIIPWMInputDataMessage(messageData);
+        } else {
+            // This is an unrecognized message format
+            message = null;
+        }
         return message;
     }
 
+    /**
+     * Decoder which constructs the message for records beginning with a registered header.
+     *
+     * @author Tenkiv (software@tenkiv.com)
+     * @since v2.1.0.0
+     */
+    public interface IMessageDecoder {
+
+        /**
+         * Construct the message for a record.
+         *
+         * @param messageData {@link String} The raw message data.
+         * @return {@link AASCIIMessage} The constructed message.
+         */
+        AASCIIMessage decode(String messageData);
+    }
+
+    /**
+     * Entry of the dispatch table.
+     */
+    private static final class HeaderDecoder {
+
+        private final String mHeader;
+
+        private final IMessageDecoder mDecoder;
+
+        private HeaderDecoder(final String header, final IMessageDecoder decoder) {
+            mHeader = header;
+            mDecoder = decoder;
+        }
+    }
+
     /**
      * Message type enumeration.
      */
@@ -94,7 +94,7 @@ public class ASCIIPWMInputDataMessage extends AASCIIMessage implements IDataPoin
     public DataPoint toDataPoints() {
         return new PWMInputData(mNumber,
                 mName,
-                Long.parseLong(mTimestamp.replaceAll("\\s", "")),
+                ASCIIDataRecordDecoder.parseLong(mTimestamp),
                 mOnPercentage,
                 mTotalTransitions);
     }
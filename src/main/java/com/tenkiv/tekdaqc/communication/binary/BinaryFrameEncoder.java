@@ -0,0 +1,184 @@
+package com.tenkiv.tekdaqc.communication.binary;
+
+import com.tenkiv.tekdaqc.communication.command.queue.Params;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Builds frames of the {@link BinaryProtocol}. An encoder reuses its buffer between frames, so it is not thread safe;
+ * each returned frame is a new array.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+public final class BinaryFrameEncoder {
+
+    private byte[] mBuffer = new byte[256];
+
+    private int mLength;
+
+    /**
+     * Build a text frame.
+     *
+     * @param message {@link String} The ASCII message.
+     * @return {@code byte}[] The frame.
+     */
+    public byte[] text(final String message) {
+        begin(BinaryProtocol.TYPE_TEXT);
+        final byte[] bytes = message.getBytes(StandardCharsets.US_ASCII);
+        writeBytes(bytes, 0, bytes.length);
+        return finish();
+    }
+
+    /**
+     * Build a frame of analog samples. Counts must fit in 24 bits.
+     *
+     * @param channel    int The input number.
+     * @param timestamps {@code long}[] The sample timestamps.
+     * @param counts     {@code int}[] The sample counts.
+     * @param offset     int The index of the first sample.
+     * @param length     int The number of samples.
+     * @return {@code byte}[] The frame.
+     */
+    public byte[] analog(final int channel, final long[] timestamps, final int[] counts, final int offset,
+                         final int length) {
+        beginData(BinaryProtocol.TYPE_ANALOG, channel, timestamps, offset, length);
+        for (int i = offset; i < offset + length; ++i) {
+            if (i > offset) writeVarLong(BinaryProtocol.zigZagEncode(timestamps[i] - timestamps[i - 1]));
+            final int count = counts[i];
+            if (count < BinaryProtocol.MINIMUM_COUNT || count > BinaryProtocol.MAXIMUM_COUNT) {
+                throw new IllegalArgumentException("Count does not fit in 24 bits: " + count);
+            }
+            writeByte(count >> 16);
+            writeByte(count >> 8);
+            writeByte(count);
+        }
+        return finish();
+    }
+
+    /**
+     * Build a frame of digital samples.
+     *
+     * @param channel    int The input number.
+     * @param timestamps {@code long}[] The sample timestamps.
+     * @param states     {@code boolean}[] The sample states.
+     * @param offset     int The index of the first sample.
+     * @param length     int The number of samples.
+     * @return {@code byte}[] The frame.
+     */
+    public byte[] digital(final int channel, final long[] timestamps, final boolean[] states, final int offset,
+                          final int length) {
+        beginData(BinaryProtocol.TYPE_DIGITAL, channel, timestamps, offset, length);
+        for (int i = offset; i < offset + length; ++i) {
+            if (i > offset) writeVarLong(BinaryProtocol.zigZagEncode(timestamps[i] - timestamps[i - 1]));
+            writeByte(states[i] ? 1 : 0);
+        }
+        return finish();
+    }
+
+    /**
+     * Build a frame of PWM samples.
+     *
+     * @param channel      int The input number.
+     * @param timestamps   {@code long}[] The sample timestamps.
+     * @param percentages  {@code double}[] The percentage of time each sample was on.
+     * @param transitions  {@code int}[] The total transitions of each sample.
+     * @param offset       int The index of the first sample.
+     * @param length       int The number of samples.
+     * @return {@code byte}[] The frame.
+     */
+    public byte[] pwm(final int channel, final long[] timestamps, final double[] percentages, final int[] transitions,
+                      final int offset, final int length) {
+        beginData(BinaryProtocol.TYPE_PWM, channel, timestamps, offset, length);
+        for (int i = offset; i < offset + length; ++i) {
+            if (i > offset) writeVarLong(BinaryProtocol.zigZagEncode(timestamps[i] - timestamps[i - 1]));
+            writeVarLong(transitions[i] & 0xFFFFFFFFL);
+            final long bits = Double.doubleToLongBits(percentages[i]);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                writeByte((int) (bits >>> shift));
+            }
+        }
+        return finish();
+    }
+
+    /**
+     * Build a command frame.
+     *
+     * @param commandType byte The ordinal of the {@link com.tenkiv.tekdaqc.communication.command.queue.Commands}.
+     * @param params      {@link Params}[] The parameters.
+     * @param values      {@link String}[] The value of each parameter.
+     * @return {@code byte}[] The frame.
+     */
+    public byte[] command(final byte commandType, final Params[] params, final String[] values) {
+        if (params.length != values.length) throw new IllegalArgumentException("Each parameter requires a value.");
+        if (params.length > 0xFF) throw new IllegalArgumentException("Too many parameters.");
+        begin(BinaryProtocol.TYPE_COMMAND);
+        writeByte(commandType);
+        writeByte(params.length);
+        for (int i = 0; i < params.length; ++i) {
+            writeByte(params[i].ordinal());
+            final byte[] value = values[i].getBytes(StandardCharsets.US_ASCII);
+            writeVarLong(value.length);
+            writeBytes(value, 0, value.length);
+        }
+        return finish();
+    }
+
+    private void beginData(final byte type, final int channel, final long[] timestamps, final int offset,
+                           final int length) {
+        if (channel < 0 || channel > 0xFF) throw new IllegalArgumentException("Channel out of range: " + channel);
+        if (length < 1) throw new IllegalArgumentException("A data frame requires at least one sample.");
+        if (timestamps[offset] < 0) throw new IllegalArgumentException("Timestamps cannot be negative.");
+        begin(type);
+        writeByte(channel);
+        writeVarLong(length);
+        writeVarLong(timestamps[offset]);
+    }
+
+    private void begin(final byte type) {
+        mLength = 0;
+        writeByte(BinaryProtocol.SYNC);
+        writeByte(type);
+        // Length is filled in by finish()
+        writeByte(0);
+        writeByte(0);
+    }
+
+    private byte[] finish() {
+        final int payloadLength = mLength - 1 - BinaryProtocol.HEADER_LENGTH;
+        if (payloadLength > BinaryProtocol.MAXIMUM_PAYLOAD_LENGTH) {
+            throw new IllegalArgumentException("Frame payload exceeds " + BinaryProtocol.MAXIMUM_PAYLOAD_LENGTH
+                    + " bytes, use fewer samples per frame.");
+        }
+        mBuffer[2] = (byte) (payloadLength >> 8);
+        mBuffer[3] = (byte) payloadLength;
+        writeByte(BinaryProtocol.crc8(0, mBuffer, 1, mLength - 1));
+        return Arrays.copyOf(mBuffer, mLength);
+    }
+
+    private void writeVarLong(long value) {
+        while ((value & ~0x7FL) != 0) {
+            writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        writeByte((int) value);
+    }
+
+    private void writeByte(final int b) {
+        ensureCapacity(1);
+        mBuffer[mLength++] = (byte) b;
+    }
+
+    private void writeBytes(final byte[] data, final int offset, final int length) {
+        ensureCapacity(length);
+        System.arraycopy(data, offset, mBuffer, mLength, length);
+        mLength += length;
+    }
+
+    private void ensureCapacity(final int additional) {
+        if (mLength + additional > mBuffer.length) {
+            mBuffer = Arrays.copyOf(mBuffer, Math.max(mLength + additional, mBuffer.length * 2));
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.tenkiv.tekdaqc.communication.binary;
+
+/**
+ * Definition of the framing used by {@link com.tenkiv.tekdaqc.hardware.ATekdaqc.COMMUNICATION_ENCODING#BINARY}.
+ *
+ * Each frame is laid out as:
+ * <pre>
+ * | SYNC (0xA5) | TYPE | LENGTH (2, big endian) | PAYLOAD (LENGTH bytes) | CRC-8 |
+ * </pre>
+ * The CRC covers the type, length and payload. A framed record, as delivered to a parsing executor, is the frame
+ * without its sync byte and CRC, so that its payload starts at {@link #HEADER_LENGTH}.
+ *
+ * Data frames carry a batch of samples for a single input:
+ * <pre>
+ * ANALOG:  | CHANNEL | N (varint) | TIMESTAMP (varint) | COUNT (3, signed) | { DELTA (zigzag varint) | COUNT (3) } * (N-1)
+ * DIGITAL: | CHANNEL | N (varint) | TIMESTAMP (varint) | STATE | { DELTA (zigzag varint) | STATE } * (N-1)
+ * PWM:     | CHANNEL | N (varint) | TIMESTAMP (varint) | TRANSITIONS (varint) | PERCENT (8, IEEE 754) | ... * (N-1)
+ * </pre>
+ * where DELTA is the difference from the previous sample's timestamp. Text frames carry a message exactly as it would
+ * be sent with ASCII encoding. Command frames carry the command ordinal, the number of parameters and for each
+ * parameter its ordinal followed by a varint length prefixed ASCII value.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+public final class BinaryProtocol {
+
+    /**
+     * Byte which begins every frame.
+     */
+    public static final byte SYNC = (byte) 0xA5;
+
+    /**
+     * Length of the type and length fields which precede the payload of a record.
+     */
+    public static final int HEADER_LENGTH = 3;
+
+    /**
+     * Maximum length of a frame payload.
+     */
+    public static final int MAXIMUM_PAYLOAD_LENGTH = 0xFFFF;
+
+    /**
+     * Frame carrying an ASCII coded message, such as a status or error message.
+     */
+    public static final byte TYPE_TEXT = 0x01;
+
+    /**
+     * Frame carrying a batch of analog input samples.
+     */
+    public static final byte TYPE_ANALOG = 0x02;
+
+    /**
+     * Frame carrying a batch of digital input samples.
+     */
+    public static final byte TYPE_DIGITAL = 0x03;
+
+    /**
+     * Frame carrying a batch of PWM input samples.
+     */
+    public static final byte TYPE_PWM = 0x04;
+
+    /**
+     * Frame carrying a command to the Tekdaqc.
+     */
+    public static final byte TYPE_COMMAND = 0x10;
+
+    /**
+     * Smallest and largest values of a 24 bit analog count.
+     */
+    public static final int MINIMUM_COUNT = -(1 << 23);
+    public static final int MAXIMUM_COUNT = (1 << 23) - 1;
+
+    /**
+     * Lookup table for CRC-8 with polynomial 0x07.
+     */
+    private static final byte[] CRC_TABLE = new byte[256];
+
+    static {
+        for (int i = 0; i < 256; ++i) {
+            int crc = i;
+            for (int bit = 0; bit < 8; ++bit) {
+                crc = ((crc & 0x80) != 0) ? (crc << 1) ^ 0x07 : crc << 1;
+            }
+            CRC_TABLE[i] = (byte) crc;
+        }
+    }
+
+    private BinaryProtocol() {
+        // Static utility class
+    }
+
+    /**
+     * Determine if a frame type carries input samples.
+     *
+     * @param type byte The frame type.
+     * @return boolean True for analog, digital and PWM frames.
+     */
+    public static boolean isDataType(final byte type) {
+        return type == TYPE_ANALOG || type == TYPE_DIGITAL || type == TYPE_PWM;
+    }
+
+    /**
+     * Continue a CRC-8 computation over a range of bytes.
+     *
+     * @param crc    int The CRC of the preceding bytes, 0 to start.
+     * @param data   {@code byte}[] The data.
+     * @param offset int The offset of the first byte.
+     * @param length int The number of bytes.
+     * @return int The updated CRC.
+     */
+    public static int crc8(int crc, final byte[] data, final int offset, final int length) {
+        final int end = offset + length;
+        for (int i = offset; i < end; ++i) {
+            crc = CRC_TABLE[(crc ^ data[i]) & 0xFF] & 0xFF;
+        }
+        return crc;
+    }
+
+    /**
+     * Continue a CRC-8 computation over a single byte.
+     *
+     * @param crc int The CRC of the preceding bytes, 0 to start.
+     * @param b   int The byte.
+     * @return int The updated CRC.
+     */
+    public static int crc8(final int crc, final int b) {
+        return CRC_TABLE[(crc ^ b) & 0xFF] & 0xFF;
+    }
+
+    /**
+     * ZigZag encode a signed value so that values of small magnitude have short varints.
+     *
+     * @param value long The signed value.
+     * @return long The encoded value.
+     */
+    public static long zigZagEncode(final long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    /**
+     * Reverse {@link #zigZagEncode(long)}.
+     *
+     * @param value long The encoded value.
+     * @return long The signed value.
+     */
+    public static long zigZagDecode(final long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
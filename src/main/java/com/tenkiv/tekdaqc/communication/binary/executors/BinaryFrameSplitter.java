@@ -0,0 +1,187 @@
+package com.tenkiv.tekdaqc.communication.binary.executors;
+
+import com.tenkiv.tekdaqc.communication.binary.BinaryProtocol;
+import com.tenkiv.tekdaqc.communication.executors.AParsingExecutor;
+import com.tenkiv.tekdaqc.communication.executors.IRecordFramer;
+
+/**
+ * Framing of the raw {@link BinaryProtocol} data stream. Frames are located by their sync byte, length checked and
+ * CRC verified, and each valid frame is handed to a {@link AParsingExecutor.IParsingListener} without its sync byte
+ * and CRC. Frames which fail verification are dropped and the splitter searches for the next sync byte.
+ *
+ * Frames which are wholly contained in a single chunk of input are delivered directly from the caller's buffer;
+ * others are accumulated into an internal buffer. In both cases the slice is only valid for the duration of the
+ * callback.
+ *
+ * This class is not thread safe and is intended to be driven by a single reading thread.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+public final class BinaryFrameSplitter implements IRecordFramer {
+
+    private static final int STATE_SYNC = 0;
+
+    private static final int STATE_TYPE = 1;
+
+    private static final int STATE_LENGTH_HIGH = 2;
+
+    private static final int STATE_LENGTH_LOW = 3;
+
+    private static final int STATE_PAYLOAD = 4;
+
+    private static final int STATE_CRC = 5;
+
+    /**
+     * The listener which receives framed records.
+     */
+    private final AParsingExecutor.IParsingListener mListener;
+
+    /**
+     * Buffer holding a record which spans several chunks.
+     */
+    private final byte[] mRecord = new byte[BinaryProtocol.HEADER_LENGTH + BinaryProtocol.MAXIMUM_PAYLOAD_LENGTH];
+
+    /**
+     * Copy of a buffered record which failed verification, rescanned for the next sync byte. Created on first use.
+     */
+    private byte[] mRescan;
+
+    private int mState = STATE_SYNC;
+
+    /**
+     * Number of valid bytes in {@link #mRecord}.
+     */
+    private int mRecordLength;
+
+    /**
+     * Payload length of the current frame.
+     */
+    private int mPayloadLength;
+
+    /**
+     * Number of frames dropped because they failed verification.
+     */
+    private long mDroppedFrames;
+
+    /**
+     * Constructor.
+     *
+     * @param listener {@link AParsingExecutor.IParsingListener} The listener to notify of complete records.
+     */
+    public BinaryFrameSplitter(final AParsingExecutor.IParsingListener listener) {
+        if (listener == null) throw new IllegalArgumentException("Listener cannot be null.");
+        mListener = listener;
+    }
+
+    @Override
+    public void feed(final byte[] data, final int offset, final int length) {
+        final int end = offset + length;
+        int i = offset;
+        // Start of the record being buffered, if it began in this chunk
+        int recordStart = -1;
+        while (i < end) {
+            switch (mState) {
+                case STATE_SYNC:
+                    while (i < end && data[i] != BinaryProtocol.SYNC) ++i;
+                    if (i == end) return;
+                    ++i;
+                    // Deliver straight from the caller's buffer if the whole frame is present
+                    if (end - i >= BinaryProtocol.HEADER_LENGTH) {
+                        final int payload = ((data[i + 1] & 0xFF) << 8) | (data[i + 2] & 0xFF);
+                        final int recordLength = BinaryProtocol.HEADER_LENGTH + payload;
+                        if (end - i > recordLength) {
+                            if (verify(data, i, recordLength, data[i + recordLength])) {
+                                mListener.onRecordDetected(data, i, recordLength);
+                                i += recordLength + 1;
+                            }
+                            // Otherwise the search resumes from the byte after the false sync
+                            continue;
+                        }
+                    }
+                    recordStart = i;
+                    mRecordLength = 0;
+                    mState = STATE_TYPE;
+                    break;
+                case STATE_TYPE:
+                    mRecord[mRecordLength++] = data[i++];
+                    mState = STATE_LENGTH_HIGH;
+                    break;
+                case STATE_LENGTH_HIGH:
+                    mPayloadLength = (data[i] & 0xFF) << 8;
+                    mRecord[mRecordLength++] = data[i++];
+                    mState = STATE_LENGTH_LOW;
+                    break;
+                case STATE_LENGTH_LOW:
+                    mPayloadLength |= data[i] & 0xFF;
+                    mRecord[mRecordLength++] = data[i++];
+                    mState = (mPayloadLength > 0) ? STATE_PAYLOAD : STATE_CRC;
+                    break;
+                case STATE_PAYLOAD:
+                    final int needed = BinaryProtocol.HEADER_LENGTH + mPayloadLength - mRecordLength;
+                    final int available = Math.min(needed, end - i);
+                    System.arraycopy(data, i, mRecord, mRecordLength, available);
+                    mRecordLength += available;
+                    i += available;
+                    if (available == needed) mState = STATE_CRC;
+                    break;
+                default:
+                    mState = STATE_SYNC;
+                    if (verify(mRecord, 0, mRecordLength, data[i])) {
+                        mListener.onRecordDetected(mRecord, 0, mRecordLength);
+                        ++i;
+                    } else if (recordStart >= 0) {
+                        // As on the direct path, the search resumes from the byte after the false sync
+                        i = recordStart;
+                    } else {
+                        rescan();
+                    }
+                    recordStart = -1;
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Frames are self delimiting, so an incomplete frame at the end of the stream cannot be recovered and is
+     * discarded.
+     */
+    @Override
+    public void flush() {
+        if (mState != STATE_SYNC) ++mDroppedFrames;
+        reset();
+    }
+
+    @Override
+    public void reset() {
+        mState = STATE_SYNC;
+        mRecordLength = 0;
+    }
+
+    /**
+     * Get the number of frames which have been dropped because their CRC did not match.
+     *
+     * @return long The number of dropped frames.
+     */
+    public long getDroppedFrames() {
+        return mDroppedFrames;
+    }
+
+    /**
+     * Searches the buffered bytes of a failed record, which began in an earlier chunk, for the next sync byte. The
+     * chunk being fed continues from the failed record's CRC byte afterwards.
+     */
+    private void rescan() {
+        if (mRescan == null) mRescan = new byte[mRecord.length];
+        final int length = mRecordLength;
+        System.arraycopy(mRecord, 0, mRescan, 0, length);
+        mRecordLength = 0;
+        feed(mRescan, 0, length);
+    }
+
+    private boolean verify(final byte[] record, final int offset, final int length, final byte crc) {
+        if (BinaryProtocol.crc8(0, record, offset, length) == (crc & 0xFF)) return true;
+        ++mDroppedFrames;
+        return false;
+    }
+}
@@ -0,0 +1,146 @@
+package com.tenkiv.tekdaqc.communication.binary.executors;
+
+import com.tenkiv.tekdaqc.communication.ascii.message.parsing.AASCIIMessage;
+import com.tenkiv.tekdaqc.communication.ascii.message.parsing.ASCIIMessageUtils;
+import com.tenkiv.tekdaqc.communication.binary.BinaryFrameEncoder;
+import com.tenkiv.tekdaqc.communication.binary.BinaryProtocol;
+import com.tenkiv.tekdaqc.communication.binary.message.parsing.BinaryFrameDecoder;
+import com.tenkiv.tekdaqc.communication.executors.AParsingExecutor;
+import com.tenkiv.tekdaqc.communication.executors.IDataRecordSink;
+
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+
+/**
+ * Parsing executor for records of the {@link BinaryProtocol}. Data frames are decoded straight into the callback when
+ * it is an {@link IDataRecordSink}, with each sample of a frame assigned its own sequence number. Text frames are
+ * parsed as ASCII messages.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+public class BinaryParsingExecutor extends AParsingExecutor {
+
+    /**
+     * Constructor.
+     *
+     * @param numThreads int The number of threads to use in the parsing pool.
+     * @param order      {@link ParsingOrder} The ordering guarantee to provide.
+     */
+    public BinaryParsingExecutor(final int numThreads, final ParsingOrder order) {
+        super(numThreads, order);
+    }
+
+    /**
+     * Constructor for an executor which runs on a shared pool.
+     *
+     * @param pool      {@link Executor} The pool to run tasks on.
+     * @param laneCount int The number of ordered lanes to shard tasks onto when ordering per channel.
+     * @param order     {@link ParsingOrder} The ordering guarantee to provide.
+     */
+    public BinaryParsingExecutor(final Executor pool, final int laneCount, final ParsingOrder order) {
+        super(pool, laneCount, order);
+    }
+
+    /**
+     * Submit a framed record for parsing.
+     *
+     * @param messageData {@code byte}[] The record, without its sync byte and CRC. Ownership passes to the executor.
+     * @param callback    The callback to be called when parsing is complete.
+     */
+    @Override
+    public void parseMessage(final byte[] messageData, final IParsingListener callback) {
+        final int key = BinaryFrameDecoder.channelKey(messageData, 0, messageData.length);
+        if (key == BinaryFrameDecoder.NON_DATA_KEY) {
+            submit(MESSAGE_LANE_KEY, new ParsingTask(messageData, nextSequence(), callback));
+        } else {
+            final int samples = BinaryFrameDecoder.sampleCount(messageData, 0, messageData.length);
+            submit(key, new ParsingTask(messageData, nextSequences(Math.max(samples, 1)), callback));
+        }
+    }
+
+    /**
+     * Submit an ASCII message for parsing, as if it had been received in a text frame.
+     *
+     * @param messageData {@link String} The message to parse.
+     * @param callback    The callback to be called when parsing is complete.
+     */
+    @Override
+    public void parseMessage(final String messageData, final IParsingListener callback) {
+        // Strip the sync byte and CRC so that the record matches one delivered by the splitter
+        final byte[] frame = new BinaryFrameEncoder().text(messageData);
+        parseMessage(Arrays.copyOfRange(frame, 1, frame.length - 1), callback);
+    }
+
+    /**
+     * Parsing task to be submitted to the executor for binary records.
+     */
+    private static final class ParsingTask extends AParsingTask {
+
+        private final byte[] mRecord;
+
+        private final long mSequence;
+
+        private ParsingTask(final byte[] record, final long sequence, final IParsingListener callback) {
+            super(callback);
+            mRecord = record;
+            mSequence = sequence;
+        }
+
+        @Override
+        public Void call() throws Exception {
+            try {
+                final byte type = BinaryFrameDecoder.type(mRecord, 0);
+                if (BinaryProtocol.isDataType(type)) {
+                    final IDataRecordSink sink = (mCallback instanceof IDataRecordSink)
+                            ? (IDataRecordSink) mCallback : new MessageSink(mCallback);
+                    BinaryFrameDecoder.decode(mRecord, 0, mRecord.length, mSequence, sink);
+                } else if (type == BinaryProtocol.TYPE_TEXT) {
+                    final AASCIIMessage message =
+                            ASCIIMessageUtils.parseMessage(BinaryFrameDecoder.text(mRecord, 0, mRecord.length));
+                    if (message != null) mCallback.onParsingComplete(message);
+                } else {
+                    System.err.println("Unknown binary frame type: " + type);
+                }
+            } catch (final Exception e) {
+                System.out.println("BinaryParsingExecutor absorbing Exception: ");
+                e.printStackTrace();
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Sink for listeners which only accept messages, which converts each sample to its equivalent ASCII message.
+     */
+    private static final class MessageSink implements IDataRecordSink {
+
+        private final IParsingListener mListener;
+
+        private MessageSink(final IParsingListener listener) {
+            mListener = listener;
+        }
+
+        @Override
+        public void onAnalogSample(final int channel, final long sequence, final long timestamp, final int count) {
+            deliver("?A" + channel + "\r\n" + timestamp + "," + count);
+        }
+
+        @Override
+        public void onDigitalSample(final int channel, final long sequence, final long timestamp,
+                                    final boolean state) {
+            deliver("?D" + channel + "\r\n" + timestamp + "," + (state ? 'H' : 'L'));
+        }
+
+        @Override
+        public void onPWMSample(final int channel, final long sequence, final long timestamp,
+                                final double percentageOn, final int totalTransitions) {
+            deliver("?P" + channel + "\r\n" + totalTransitions + "," + percentageOn + "\n" + timestamp);
+        }
+
+        private void deliver(final String record) {
+            final AASCIIMessage message = ASCIIMessageUtils.parseMessage(record);
+            if (message != null) mListener.onParsingComplete(message);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.tenkiv.tekdaqc.communication.binary.message.parsing;
+
+import com.tenkiv.tekdaqc.communication.binary.BinaryProtocol;
+import com.tenkiv.tekdaqc.communication.executors.IDataRecordSink;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decoder for records of the {@link BinaryProtocol}, as delivered by a
+ * {@link com.tenkiv.tekdaqc.communication.binary.executors.BinaryFrameSplitter}. Data frames are decoded straight into
+ * an {@link IDataRecordSink} without creating any intermediate objects.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+public final class BinaryFrameDecoder {
+
+    /**
+     * Key returned by {@link #channelKey(byte[], int, int)} for records which are not data frames.
+     */
+    public static final int NON_DATA_KEY = 0;
+
+    private BinaryFrameDecoder() {
+        // Static utility class
+    }
+
+    /**
+     * Get the frame type of a record.
+     *
+     * @param record {@code byte}[] The buffer containing the record.
+     * @param offset int The offset of the record.
+     * @return byte The frame type.
+     */
+    public static byte type(final byte[] record, final int offset) {
+        return record[offset];
+    }
+
+    /**
+     * Compute a key identifying the input a record belongs to.
+     *
+     * @param record {@code byte}[] The buffer containing the record.
+     * @param offset int The offset of the record.
+     * @param length int The length of the record.
+     * @return int The key, or {@link #NON_DATA_KEY} if this is not a data frame.
+     */
+    public static int channelKey(final byte[] record, final int offset, final int length) {
+        if (length <= BinaryProtocol.HEADER_LENGTH || !BinaryProtocol.isDataType(record[offset])) return NON_DATA_KEY;
+        return (record[offset] << 16) | (record[offset + BinaryProtocol.HEADER_LENGTH] & 0xFF);
+    }
+
+    /**
+     * Get the number of samples carried by a data frame.
+     *
+     * @param record {@code byte}[] The buffer containing the record.
+     * @param offset int The offset of the record.
+     * @param length int The length of the record.
+     * @return int The number of samples, or 0 if this is not a data frame.
+     */
+    public static int sampleCount(final byte[] record, final int offset, final int length) {
+        if (channelKey(record, offset, length) == NON_DATA_KEY) return 0;
+        final Cursor cursor = new Cursor(record, offset + BinaryProtocol.HEADER_LENGTH + 1, offset + length);
+        return (int) cursor.readVarLong();
+    }
+
+    /**
+     * Get the message carried by a text frame.
+     *
+     * @param record {@code byte}[] The buffer containing the record.
+     * @param offset int The offset of the record.
+     * @param length int The length of the record.
+     * @return {@link String} The message.
+     */
+    public static String text(final byte[] record, final int offset, final int length) {
+        return new String(record, offset + BinaryProtocol.HEADER_LENGTH, length - BinaryProtocol.HEADER_LENGTH,
+                StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Decode a data frame into a sink. Samples are assigned consecutive sequence numbers.
+     *
+     * @param record   {@code byte}[] The buffer containing the record.
+     * @param offset   int The offset of the record.
+     * @param length   int The length of the record.
+     * @param sequence long The sequence number of the first sample.
+     * @param sink     {@link IDataRecordSink} The sink to deliver the samples to.
+     * @return boolean True if the record was a data frame and was delivered, false if it is not a data frame.
+     * @throws IllegalArgumentException Thrown if the frame is malformed.
+     */
+    public static boolean decode(final byte[] record, final int offset, final int length, long sequence,
+                                 final IDataRecordSink sink) {
+        if (channelKey(record, offset, length) == NON_DATA_KEY) return false;
+        final byte type = record[offset];
+        final Cursor cursor = new Cursor(record, offset + BinaryProtocol.HEADER_LENGTH, offset + length);
+        final int channel = cursor.readByte();
+        final long count = cursor.readVarLong();
+        long timestamp = cursor.readVarLong();
+        for (long i = 0; i < count; ++i) {
+            if (i > 0) timestamp += BinaryProtocol.zigZagDecode(cursor.readVarLong());
+            switch (type) {
+                case BinaryProtocol.TYPE_ANALOG:
+                    // Sign extend the 24 bit count
+                    final int value = (cursor.readByte() << 24 | cursor.readByte() << 16 | cursor.readByte() << 8) >> 8;
+                    sink.onAnalogSample(channel, sequence++, timestamp, value);
+                    break;
+                case BinaryProtocol.TYPE_DIGITAL:
+                    sink.onDigitalSample(channel, sequence++, timestamp, cursor.readByte() != 0);
+                    break;
+                default:
+                    final int transitions = (int) cursor.readVarLong();
+                    long bits = 0;
+                    for (int b = 0; b < 8; ++b) {
+                        bits = (bits << 8) | cursor.readByte();
+                    }
+                    sink.onPWMSample(channel, sequence++, timestamp, Double.longBitsToDouble(bits), transitions);
+                    break;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Bounds checked reader over a record.
+     */
+    private static final class Cursor {
+
+        private final byte[] mData;
+
+        private final int mEnd;
+
+        private int mPosition;
+
+        private Cursor(final byte[] data, final int position, final int end) {
+            mData = data;
+            mPosition = position;
+            mEnd = end;
+        }
+
+        private int readByte() {
+            if (mPosition >= mEnd) throw new IllegalArgumentException("Binary frame is truncated.");
+            return mData[mPosition++] & 0xFF;
+        }
+
+        private long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                final int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return value;
+            }
+            throw new IllegalArgumentException("Binary frame contains a malformed varint.");
+        }
+    }
+}
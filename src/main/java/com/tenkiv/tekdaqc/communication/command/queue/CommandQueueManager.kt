@@ -49,11 +49,6 @@ class CommandQueueManager(private val mTekdaqc: ATekdaqc) : ICommandManager, IMe
      */
     private val commandCondition = queueLock.newCondition()
 
-    /**
-     * [ExecutorService] to handle threads.
-     */
-    private val executor: ExecutorService
-
     /**
      * [Deque] of [IQueueObject] to be turned into either callbacks or commands.
      */
@@ -80,7 +75,6 @@ class CommandQueueManager(private val mTekdaqc: ATekdaqc) : ICommandManager, IMe
     private var lastCommand: ABaseQueueVal? = null
 
     init {
-        executor = Executors.newSingleThreadExecutor(Factory())
         commandDeque = LinkedBlockingDeque<IQueueObject>()
         mTekdaqc.messageBroadcaster.commandQueueAddListener(mTekdaqc, this)
     }
@@ -115,7 +109,7 @@ class CommandQueueManager(private val mTekdaqc: ATekdaqc) : ICommandManager, IMe
         lastCommand = queueObject
 
         //Submit new writing thread to send command.
-        executor.submit(CommandWriterThread(mTekdaqc, queueObject))
+        mTekdaqc.executionRuntime.getCommandExecutor(mTekdaqc).execute(CommandWriterThread(mTekdaqc, queueObject))
         //Lock the queue so we don't send more.
         queueLock.lock()
         try {
@@ -251,26 +245,4 @@ class CommandQueueManager(private val mTekdaqc: ATekdaqc) : ICommandManager, IMe
     override fun onDigitalOutputDataReceived(tekdaqc: ATekdaqc, message: BooleanArray) {
 
     }
-
-    /**
-     * Custom thread factory for this class's internal executor. Ensures that all threads will have the appropriate
-     * priority level and name.
-
-     * @author Tenkiv (software@tenkiv.com)
-     * *
-     * @since v1.0.0.0
-     */
-    private inner class Factory : ThreadFactory {
-
-        private val commandThreadName = "TEKDAQC_COMMAND_THREAD"
-
-        private val commandThreadPriority = 4 // Equivalent to Android's Process.THREAD_PRIORITY_BACKGROUND
-
-        override fun newThread(r: Runnable): Thread {
-            val thread = Thread(r)
-            thread.priority = commandThreadPriority
-            thread.name = commandThreadName
-            return thread
-        }
-    }
 }
\ No newline at end of file
@@ -26,7 +26,7 @@ internal class CommandWriterThread(val tekdaqc: ATekdaqc, val mValue: ABaseQueue
     }
 
     /**
-     * Method to get and write out command bytes to Telnet.
+     * Method to get and write out command bytes to Telnet, encoded for the [ATekdaqc.currentEncoding].
 
      * @param command The command to be executed
      * *
@@ -35,7 +35,7 @@ internal class CommandWriterThread(val tekdaqc: ATekdaqc, val mValue: ABaseQueue
     @Throws(IOException::class)
     private fun writeToStream(command: ABaseQueueVal) {
         val out = BufferedOutputStream(tekdaqc.outputStream)
-        out.write(command.generateCommandBytes())
+        out.write(command.generateCommandBytes(tekdaqc.currentEncoding))
         out.flush()
     }
 }
\ No newline at end of file
@@ -1,7 +1,9 @@
 package com.tenkiv.tekdaqc.communication.command.queue.values;
 
+import com.tenkiv.tekdaqc.communication.binary.BinaryFrameEncoder;
 import com.tenkiv.tekdaqc.communication.command.queue.Commands;
 import com.tenkiv.tekdaqc.communication.command.queue.Params;
+import com.tenkiv.tekdaqc.hardware.ATekdaqc;
 
 import java.io.IOException;
 import java.io.ObjectInput;
@@ -44,6 +46,28 @@ public abstract class ABaseQueueVal implements IQueueObject {
      */
     public abstract byte[] generateCommandBytes();
 
+    /**
+     * Call to generate the {@link Commands} and its {@link Params} in a specific
+     * {@link ATekdaqc.COMMUNICATION_ENCODING}.
+     *
+     * @param encoding {@link ATekdaqc.COMMUNICATION_ENCODING} The encoding the {@link ATekdaqc} communicates with.
+     * @return {@link Arrays} of {@link Byte} to be sent over Telnet.
+     */
+    public byte[] generateCommandBytes(final ATekdaqc.COMMUNICATION_ENCODING encoding) {
+        return (encoding == ATekdaqc.COMMUNICATION_ENCODING.BINARY)
+                ? generateBinaryCommandBytes() : generateCommandBytes();
+    }
+
+    /**
+     * Call to generate a binary command frame. The default implementation sends the {@link Commands} without
+     * {@link Params}.
+     *
+     * @return {@link Arrays} of {@link Byte} to be sent over Telnet.
+     */
+    protected byte[] generateBinaryCommandBytes() {
+        return new BinaryFrameEncoder().command(mCommandType, new Params[0], new String[0]);
+    }
+
     @Override
     public void writeExternal(final ObjectOutput out) throws IOException {
         out.writeByte(mCommandType);
@@ -1,5 +1,6 @@
 package com.tenkiv.tekdaqc.communication.command.queue.values
 
+import com.tenkiv.tekdaqc.communication.binary.BinaryFrameEncoder
 import com.tenkiv.tekdaqc.communication.command.queue.Commands
 import com.tenkiv.tekdaqc.communication.command.queue.Params
 import com.tenkiv.tekdaqc.communication.command.queue.QueueUtil
@@ -41,6 +42,11 @@ class QueueValue: ABaseQueueVal {
         return builder.toString().toByteArray()
     }
 
+    override fun generateBinaryCommandBytes(): ByteArray = BinaryFrameEncoder().command(
+            mCommandType,
+            parameters.map { it.first }.toTypedArray(),
+            parameters.map { it.second.toString() }.toTypedArray())
+
 
     override fun writeExternal(out: ObjectOutput) {
         super.writeExternal(out)
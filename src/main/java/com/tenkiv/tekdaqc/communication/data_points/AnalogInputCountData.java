@@ -35,6 +35,15 @@ public class AnalogInputCountData extends DataPoint {
         mData = data;
     }
 
+    /**
+     * Reinitialize a pooled data point. See {@link DataPointPool}.
+     */
+    AnalogInputCountData reinitialize(final int channel, final String name, final long timestamp, final int data) {
+        reinitialize(name, channel, timestamp);
+        mData = data;
+        return this;
+    }
+
     /**
      * Retrieve the data for this data point.
      *
@@ -0,0 +1,148 @@
+package com.tenkiv.tekdaqc.communication.data_points;
+
+import com.tenkiv.tekdaqc.hardware.Tekdaqc_RevD;
+
+/**
+ * The latest value of every channel of one Tekdaqc, held in a {@link LatestValueTable}. Values are written as they
+ * are broadcast and can be read from any thread without locking or allocating.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+public final class BoardLatestValues {
+
+    private final String mSerial;
+
+    private final StampedSlots mAnalog;
+
+    private final StampedSlots mDigital;
+
+    private final StampedSlots mPWM;
+
+    /**
+     * Constructor for the inputs of a {@link Tekdaqc_RevD}, including its temperature reference.
+     *
+     * @param serial String The serial number of the Tekdaqc.
+     */
+    BoardLatestValues(final String serial) {
+        mSerial = serial;
+        mAnalog = new StampedSlots(Tekdaqc_RevD.ANALOG_INPUT_TEMP_SENSOR + 1);
+        mDigital = new StampedSlots(Tekdaqc_RevD.DIGITAL_INPUT_COUNT);
+        mPWM = new StampedSlots(Tekdaqc_RevD.DIGITAL_INPUT_COUNT);
+    }
+
+    public String getSerial() {
+        return mSerial;
+    }
+
+    public int getAnalogChannelCount() {
+        return mAnalog.getCount();
+    }
+
+    public int getDigitalChannelCount() {
+        return mDigital.getCount();
+    }
+
+    /**
+     * Record the latest value of an analog input. Values of unknown channels are ignored.
+     *
+     * @param channel   int The physical channel number.
+     * @param timestamp long The timestamp of the value.
+     * @param count     int The count measured by the ADC.
+     * @param volts     double The voltage the count represents.
+     */
+    public void putAnalog(final int channel, final long timestamp, final int count, final double volts) {
+        if (channel >= 0 && channel < mAnalog.getCount()) {
+            mAnalog.write(channel, timestamp, count, Double.doubleToRawLongBits(volts));
+        }
+    }
+
+    /**
+     * Record the latest value of a digital input. Values of unknown channels are ignored.
+     *
+     * @param channel   int The physical channel number.
+     * @param timestamp long The timestamp of the value.
+     * @param level     boolean True if the input is high.
+     */
+    public void putDigital(final int channel, final long timestamp, final boolean level) {
+        if (channel >= 0 && channel < mDigital.getCount()) mDigital.write(channel, timestamp, level ? 1 : 0, 0);
+    }
+
+    /**
+     * Record the latest PWM value of a digital input. Values of unknown channels are ignored.
+     *
+     * @param channel          int The physical channel number.
+     * @param timestamp        long The timestamp of the value.
+     * @param percentageOn     double The percentage of time the input was on.
+     * @param totalTransitions int The total number of transitions of the input.
+     */
+    public void putPWM(final int channel, final long timestamp, final double percentageOn,
+                       final int totalTransitions) {
+        if (channel >= 0 && channel < mPWM.getCount()) {
+            mPWM.write(channel, timestamp, Double.doubleToRawLongBits(percentageOn), totalTransitions);
+        }
+    }
+
+    /**
+     * Get the number of values an analog input has received, without reading the value.
+     *
+     * @param channel int The physical channel number.
+     * @return long The version of the channel.
+     */
+    public long getAnalogVersion(final int channel) {
+        return mAnalog.getVersion(channel);
+    }
+
+    /**
+     * Get the number of values a digital input has received, without reading the value.
+     *
+     * @param channel int The physical channel number.
+     * @return long The version of the channel.
+     */
+    public long getDigitalVersion(final int channel) {
+        return mDigital.getVersion(channel);
+    }
+
+    /**
+     * Get the number of PWM values a digital input has received, without reading the value.
+     *
+     * @param channel int The physical channel number.
+     * @return long The version of the channel.
+     */
+    public long getPWMVersion(final int channel) {
+        return mPWM.getVersion(channel);
+    }
+
+    /**
+     * Read the latest value of an analog input.
+     *
+     * @param channel int The physical channel number.
+     * @param sample  {@link LatestSample} The holder to copy the value into.
+     * @return boolean True if a value was copied, false if the channel has not received one.
+     */
+    public boolean readAnalog(final int channel, final LatestSample sample) {
+        return mAnalog.read(channel, sample);
+    }
+
+    /**
+     * Read the latest value of a digital input.
+     *
+     * @param channel int The physical channel number.
+     * @param sample  {@link LatestSample} The holder to copy the value into.
+     * @return boolean True if a value was copied, false if the channel has not received one.
+     */
+    public boolean readDigital(final int channel, final LatestSample sample) {
+        return mDigital.read(channel, sample);
+    }
+
+    /**
+     * Read the latest PWM value of a digital input.
+     *
+     * @param channel int The physical channel number.
+     * @param sample  {@link LatestSample} The holder to copy the value into.
+     * @return boolean True if a value was copied, false if the channel has not received one.
+     */
+    public boolean readPWM(final int channel, final LatestSample sample) {
+        return mPWM.read(channel, sample);
+    }
+}
@@ -0,0 +1,134 @@
+package com.tenkiv.tekdaqc.communication.data_points;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Ring buffer holding the most recent samples of a single channel as primitive timestamps and values. There must be
+ * only one writer at a time, but any number of threads may read concurrently without locking or allocating. Each
+ * sample is numbered by the order it was written in, starting at zero, so readers can follow the channel without
+ * missing or repeating samples.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+public final class ChannelHistory {
+
+    private final int mDepth;
+
+    /**
+     * Number of slots, one more than the depth so that a sample being overwritten is never one which can be read.
+     */
+    private final int mCapacity;
+
+    private final AtomicLongArray mTimestamps;
+
+    private final AtomicIntegerArray mValues;
+
+    /**
+     * Number of samples written, which is also the sequence number of the next sample.
+     */
+    private final AtomicLong mWritten = new AtomicLong();
+
+    /**
+     * Constructor.
+     *
+     * @param depth int The number of samples retained.
+     */
+    public ChannelHistory(final int depth) {
+        if (depth < 1) throw new IllegalArgumentException("Depth must be positive.");
+        mDepth = depth;
+        mCapacity = depth + 1;
+        mTimestamps = new AtomicLongArray(mCapacity);
+        mValues = new AtomicIntegerArray(mCapacity);
+    }
+
+    public int getDepth() {
+        return mDepth;
+    }
+
+    /**
+     * Get the number of samples written, which is the sequence number the next sample will have.
+     *
+     * @return long The number of samples written.
+     */
+    public long getWrittenCount() {
+        return mWritten.get();
+    }
+
+    /**
+     * Add a sample. Must not be called by more than one thread at a time.
+     *
+     * @param timestamp long The timestamp of the sample.
+     * @param value     int The value of the sample.
+     */
+    public void add(final long timestamp, final int value) {
+        final long sequence = mWritten.get();
+        final int slot = (int) (sequence % mCapacity);
+        mTimestamps.lazySet(slot, timestamp);
+        mValues.lazySet(slot, value);
+        // Publishing after the slot is written means a reader which sees this sequence also sees the sample
+        mWritten.lazySet(sequence + 1);
+    }
+
+    /**
+     * Copy the most recent samples, oldest first. As many samples are copied as fit in the arrays, up to the depth.
+     *
+     * @param timestamps long[] The array to copy timestamps into.
+     * @param values     int[] The array to copy values into.
+     * @return int The number of samples copied.
+     */
+    public int readLatest(final long[] timestamps, final int[] values) {
+        final int max = Math.min(Math.min(timestamps.length, values.length), mDepth);
+        final long end = mWritten.get();
+        final long start = Math.max(0, end - max);
+        int length = (int) (end - start);
+        copy(start, timestamps, values, length);
+
+        // Samples overwritten during the copy are dropped from the front of the result
+        final long firstValid = firstValidSequence();
+        if (start < firstValid) {
+            final int overwritten = (int) Math.min(firstValid - start, length);
+            length -= overwritten;
+            System.arraycopy(timestamps, overwritten, timestamps, 0, length);
+            System.arraycopy(values, overwritten, values, 0, length);
+        }
+        return length;
+    }
+
+    /**
+     * Copy samples, oldest first, starting at the sample numbered {@code sequence}. As many samples are copied as fit
+     * in the arrays. A reader following the channel should advance its sequence by the number of samples copied.
+     *
+     * @param sequence   long The sequence number of the first sample to copy.
+     * @param timestamps long[] The array to copy timestamps into.
+     * @param values     int[] The array to copy values into.
+     * @return int The number of samples copied, or -1 if the sample numbered {@code sequence} is no longer retained.
+     */
+    public int readFrom(final long sequence, final long[] timestamps, final int[] values) {
+        if (sequence < 0) throw new IllegalArgumentException("Sequence cannot be negative.");
+        final long end = mWritten.get();
+        if (sequence >= end) return 0;
+        final int length = (int) Math.min(end - sequence, Math.min(timestamps.length, values.length));
+        if (sequence < firstValidSequence()) return -1;
+        copy(sequence, timestamps, values, length);
+        return (sequence < firstValidSequence()) ? -1 : length;
+    }
+
+    private void copy(final long start, final long[] timestamps, final int[] values, final int length) {
+        int slot = (int) (start % mCapacity);
+        for (int i = 0; i < length; ++i) {
+            timestamps[i] = mTimestamps.get(slot);
+            values[i] = mValues.get(slot);
+            if (++slot == mCapacity) slot = 0;
+        }
+    }
+
+    /**
+     * Get the sequence number of the oldest sample which cannot be in the process of being overwritten.
+     */
+    private long firstValidSequence() {
+        return mWritten.get() + 1 - mCapacity;
+    }
+}
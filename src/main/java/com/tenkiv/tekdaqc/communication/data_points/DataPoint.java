@@ -14,6 +14,11 @@ import java.math.BigInteger;
  */
 public abstract class DataPoint implements Externalizable {
 
+    /**
+     * Sequence value of data points which were not decoded from a board's data stream.
+     */
+    public static final long NO_SEQUENCE = -1;
+
     /**
      * The name of the channel this data came from. Can be null.
      */
@@ -26,6 +31,11 @@ public abstract class DataPoint implements Externalizable {
      * The timestamp of this data point.
      */
     protected long mTimeStamp;
+    /**
+     * The position of the record this data point was decoded from in the stream received from its board.
+     * This is not serialized.
+     */
+    protected long mSequence = NO_SEQUENCE;
 
     /**
      * Provided for externalization. User code should not use this constructor.
@@ -75,6 +85,39 @@ public abstract class DataPoint implements Externalizable {
         return mTimeStamp;
     }
 
+    /**
+     * Retrieve the sequence number for this data point. Sequence numbers increase in the order records were
+     * received from the board, so consumers can use them to check the order of delivery.
+     *
+     * @return long The sequence number, or {@link #NO_SEQUENCE} if it is not known.
+     */
+    public long getSequence() {
+        return mSequence;
+    }
+
+    /**
+     * Set the sequence number for this data point.
+     *
+     * @param sequence long The sequence number.
+     */
+    public void setSequence(final long sequence) {
+        mSequence = sequence;
+    }
+
+    /**
+     * Reinitialize a pooled data point with new values. The sequence number is cleared.
+     *
+     * @param name      {@link String} The name of the channel for this data. Can be null.
+     * @param channel   int The physical channel for this data.
+     * @param timestamp long The timestamp of this data point.
+     */
+    void reinitialize(final String name, final int channel, final long timestamp) {
+        mName = name;
+        mPhysicalChannel = channel;
+        mTimeStamp = timestamp;
+        mSequence = NO_SEQUENCE;
+    }
+
     @Override
     public void readExternal(final ObjectInput input) throws IOException, ClassNotFoundException {
         mName = (String) input.readObject();
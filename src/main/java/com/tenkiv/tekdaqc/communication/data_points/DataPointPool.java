@@ -0,0 +1,122 @@
+package com.tenkiv.tekdaqc.communication.data_points;
+
+import com.tenkiv.tekdaqc.utility.ObjectPool;
+
+/**
+ * Pools of reusable {@link DataPoint}s, shared by all boards. Data points are only drawn from these pools for boards
+ * which have data point pooling enabled; see {@link com.tenkiv.tekdaqc.hardware.ATekdaqc#setDataPointPooling}.
+ * Pooled data points are released as soon as every listener has been called, so listeners of such boards must copy
+ * any values they need to keep rather than retaining the data point.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+public final class DataPointPool {
+
+    /**
+     * Maximum number of idle data points retained of each type.
+     */
+    private static final int CAPACITY = 1024;
+
+    private static final ObjectPool<AnalogInputCountData> ANALOG_POOL =
+            new ObjectPool<>(CAPACITY, AnalogInputCountData::new, null);
+
+    private static final ObjectPool<DigitalInputData> DIGITAL_POOL =
+            new ObjectPool<>(CAPACITY, DigitalInputData::new, null);
+
+    private static final ObjectPool<PWMInputData> PWM_POOL =
+            new ObjectPool<>(CAPACITY, PWMInputData::new, null);
+
+    private DataPointPool() {
+        // Static utility class
+    }
+
+    /**
+     * Acquire an analog data point.
+     *
+     * @param channel   int The physical channel number.
+     * @param name      {@link String} The channel name. Can be null.
+     * @param timestamp long The timestamp of the sample.
+     * @param data      int The sample data, in ADC counts.
+     * @return {@link AnalogInputCountData} The data point, which must be passed to {@link #release(DataPoint)}.
+     */
+    public static AnalogInputCountData acquireAnalog(final int channel, final String name, final long timestamp,
+                                                     final int data) {
+        return ANALOG_POOL.acquire().reinitialize(channel, name, timestamp, data);
+    }
+
+    /**
+     * Acquire a digital data point.
+     *
+     * @param channel   int The physical channel number.
+     * @param name      {@link String} The channel name. Can be null.
+     * @param timestamp long The timestamp of the sample.
+     * @param state     boolean The state of the input.
+     * @return {@link DigitalInputData} The data point, which must be passed to {@link #release(DataPoint)}.
+     */
+    public static DigitalInputData acquireDigital(final int channel, final String name, final long timestamp,
+                                                  final boolean state) {
+        return DIGITAL_POOL.acquire().reinitialize(channel, name, timestamp, state);
+    }
+
+    /**
+     * Acquire a PWM data point.
+     *
+     * @param channel      int The physical channel number.
+     * @param name         {@link String} The channel name. Can be null.
+     * @param timestamp    long The timestamp of the sample.
+     * @param percentageOn double The percentage of time the input was on.
+     * @param totalCount   int The total number of transitions.
+     * @return {@link PWMInputData} The data point, which must be passed to {@link #release(DataPoint)}.
+     */
+    public static PWMInputData acquirePWM(final int channel, final String name, final long timestamp,
+                                          final double percentageOn, final int totalCount) {
+        return PWM_POOL.acquire().reinitialize(channel, name, timestamp, percentageOn, totalCount);
+    }
+
+    /**
+     * Return a data point to its pool.
+     *
+     * @param dataPoint {@link DataPoint} A data point acquired from this class.
+     */
+    public static void release(final DataPoint dataPoint) {
+        if (dataPoint instanceof AnalogInputCountData) {
+            ANALOG_POOL.release((AnalogInputCountData) dataPoint);
+        } else if (dataPoint instanceof DigitalInputData) {
+            DIGITAL_POOL.release((DigitalInputData) dataPoint);
+        } else if (dataPoint instanceof PWMInputData) {
+            PWM_POOL.release((PWMInputData) dataPoint);
+        } else {
+            throw new IllegalArgumentException("Data point type is not pooled: " + dataPoint);
+        }
+    }
+
+    /**
+     * Enable or disable leak detection for all data point pools.
+     *
+     * @param enabled boolean True to enable leak detection.
+     */
+    public static void setLeakDetection(final boolean enabled) {
+        ANALOG_POOL.setLeakDetection(enabled);
+        DIGITAL_POOL.setLeakDetection(enabled);
+        PWM_POOL.setLeakDetection(enabled);
+    }
+
+    /**
+     * Get the number of data points detected to have been collected without being released.
+     *
+     * @return long The number of leaks.
+     */
+    public static long getLeakCount() {
+        return ANALOG_POOL.getLeakCount() + DIGITAL_POOL.getLeakCount() + PWM_POOL.getLeakCount();
+    }
+
+    /**
+     * Get the number of data points created by all pools.
+     *
+     * @return long The number of data points created.
+     */
+    public static long getCreatedCount() {
+        return ANALOG_POOL.getCreatedCount() + DIGITAL_POOL.getCreatedCount() + PWM_POOL.getCreatedCount();
+    }
+}
@@ -38,6 +38,15 @@ public class DigitalInputData extends DataPoint {
         mState = state;
     }
 
+    /**
+     * Reinitialize a pooled data point. See {@link DataPointPool}.
+     */
+    DigitalInputData reinitialize(final int channel, final String name, final long timestamp, final boolean state) {
+        reinitialize(name, channel, timestamp);
+        mState = state;
+        return this;
+    }
+
     /**
      * Retrieve the data for this data point.
      *
@@ -0,0 +1,96 @@
+package com.tenkiv.tekdaqc.communication.data_points;
+
+/**
+ * Reusable holder for a value read from a {@link BoardLatestValues}. Which accessors are meaningful depends on the
+ * kind of channel read: analog channels have a count and a voltage, digital channels a level, and PWM channels a duty
+ * cycle and a transition count. A single instance can be used to read any number of channels without allocating.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+public final class LatestSample {
+
+    private long mVersion;
+
+    private long mTimestamp;
+
+    private long mFirst;
+
+    private long mSecond;
+
+    void set(final long version, final long timestamp, final long first, final long second) {
+        mVersion = version;
+        mTimestamp = timestamp;
+        mFirst = first;
+        mSecond = second;
+    }
+
+    /**
+     * Get the number of values the channel had received when this one was read. A poller can skip a channel whose
+     * version has not changed since it was last read.
+     *
+     * @return long The version of the channel.
+     */
+    public long getVersion() {
+        return mVersion;
+    }
+
+    /**
+     * Get the timestamp of the value.
+     *
+     * @return long The timestamp, in milliseconds since the epoch.
+     */
+    public long getTimestamp() {
+        return mTimestamp;
+    }
+
+    /**
+     * Get the count of an analog value.
+     *
+     * @return int The count measured by the ADC.
+     */
+    public int getCount() {
+        return (int) mFirst;
+    }
+
+    /**
+     * Get the voltage of an analog value.
+     *
+     * @return double The voltage measured by the ADC.
+     */
+    public double getVolts() {
+        return Double.longBitsToDouble(mSecond);
+    }
+
+    /**
+     * Get the level of a digital value.
+     *
+     * @return boolean True if the input is high.
+     */
+    public boolean getLevel() {
+        return mFirst != 0;
+    }
+
+    /**
+     * Get the duty cycle of a PWM value.
+     *
+     * @return double The percentage of time the input was on.
+     */
+    public double getPercentageOn() {
+        return Double.longBitsToDouble(mFirst);
+    }
+
+    /**
+     * Get the transition count of a PWM value.
+     *
+     * @return int The total number of transitions of the input.
+     */
+    public int getTotalTransitions() {
+        return (int) mSecond;
+    }
+
+    @Override
+    public String toString() {
+        return "LatestSample{version=" + mVersion + ", timestamp=" + mTimestamp + "}";
+    }
+}
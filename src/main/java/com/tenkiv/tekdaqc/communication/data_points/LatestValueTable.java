@@ -0,0 +1,85 @@
+package com.tenkiv.tekdaqc.communication.data_points;
+
+import java.util.Arrays;
+
+/**
+ * Table of the latest value of every channel of every Tekdaqc which publishes to it, keyed by serial number. Boards
+ * are added and removed rarely, so the set of boards is copied on write and can be iterated without locking.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+public final class LatestValueTable {
+
+    private static final LatestValueTable DEFAULT = new LatestValueTable();
+
+    private static final BoardLatestValues[] NO_BOARDS = new BoardLatestValues[0];
+
+    private volatile BoardLatestValues[] mBoards = NO_BOARDS;
+
+    /**
+     * Get the table shared by the whole process.
+     *
+     * @return {@link LatestValueTable} The process wide table.
+     */
+    public static LatestValueTable getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Get the values of a Tekdaqc, adding it to the table if it is not yet present.
+     *
+     * @param serial String The serial number of the Tekdaqc.
+     * @return {@link BoardLatestValues} The values of the Tekdaqc.
+     */
+    public synchronized BoardLatestValues register(final String serial) {
+        final BoardLatestValues existing = getBoard(serial);
+        if (existing != null) return existing;
+        final BoardLatestValues[] boards = Arrays.copyOf(mBoards, mBoards.length + 1);
+        final BoardLatestValues values = new BoardLatestValues(serial);
+        boards[boards.length - 1] = values;
+        mBoards = boards;
+        return values;
+    }
+
+    /**
+     * Remove a Tekdaqc from the table.
+     *
+     * @param serial String The serial number of the Tekdaqc.
+     */
+    public synchronized void remove(final String serial) {
+        final BoardLatestValues[] boards = mBoards;
+        for (int i = 0; i < boards.length; ++i) {
+            if (boards[i].getSerial().equals(serial)) {
+                final BoardLatestValues[] updated = new BoardLatestValues[boards.length - 1];
+                System.arraycopy(boards, 0, updated, 0, i);
+                System.arraycopy(boards, i + 1, updated, i, boards.length - i - 1);
+                mBoards = updated;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Get the values of a Tekdaqc.
+     *
+     * @param serial String The serial number of the Tekdaqc.
+     * @return {@link BoardLatestValues} The values of the Tekdaqc, or null if it is not in the table.
+     */
+    public BoardLatestValues getBoard(final String serial) {
+        for (final BoardLatestValues board : mBoards) {
+            if (board.getSerial().equals(serial)) return board;
+        }
+        return null;
+    }
+
+    /**
+     * Get every Tekdaqc in the table. The returned array is a snapshot shared with other callers and must not be
+     * modified.
+     *
+     * @return {@link BoardLatestValues}[] The values of each Tekdaqc.
+     */
+    public BoardLatestValues[] getBoards() {
+        return mBoards;
+    }
+}
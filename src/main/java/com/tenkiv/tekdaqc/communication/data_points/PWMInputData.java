@@ -31,6 +31,17 @@ public class PWMInputData extends DataPoint {
         mTotalTransitions = totalCount;
     }
 
+    /**
+     * Reinitialize a pooled data point. See {@link DataPointPool}.
+     */
+    PWMInputData reinitialize(final int channel, final String name, final long timestamp, final double percentageOn,
+                              final int totalCount) {
+        reinitialize(name, channel, timestamp);
+        mPercentageOn = percentageOn;
+        mTotalTransitions = totalCount;
+        return this;
+    }
+
     /**
      * Gets the total number of transitions between High and Low state
      *
@@ -0,0 +1,96 @@
+package com.tenkiv.tekdaqc.communication.data_points;
+
+import com.tenkiv.tekdaqc.hardware.Tekdaqc_RevD;
+
+/**
+ * The most recent samples of every input of a Tekdaqc, held in a {@link ChannelHistory} per channel. Analog inputs
+ * retain their counts, and digital inputs retain their states as 1 for high and 0 for low. Memory for every channel
+ * is allocated up front, twelve bytes per sample retained.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+public final class SampleHistory {
+
+    private final int mDepth;
+
+    private final ChannelHistory[] mAnalog;
+
+    private final ChannelHistory[] mDigital;
+
+    /**
+     * Constructor for the inputs of a {@link Tekdaqc_RevD}, including its temperature reference.
+     *
+     * @param depth int The number of samples retained for each channel.
+     */
+    public SampleHistory(final int depth) {
+        this(depth, Tekdaqc_RevD.ANALOG_INPUT_TEMP_SENSOR + 1, Tekdaqc_RevD.DIGITAL_INPUT_COUNT);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param depth           int The number of samples retained for each channel.
+     * @param analogChannels  int The number of analog channels.
+     * @param digitalChannels int The number of digital channels.
+     */
+    public SampleHistory(final int depth, final int analogChannels, final int digitalChannels) {
+        if (depth < 1) throw new IllegalArgumentException("Depth must be positive.");
+        if (analogChannels < 0 || digitalChannels < 0) {
+            throw new IllegalArgumentException("Channel counts cannot be negative.");
+        }
+        mDepth = depth;
+        mAnalog = new ChannelHistory[analogChannels];
+        for (int i = 0; i < analogChannels; ++i) mAnalog[i] = new ChannelHistory(depth);
+        mDigital = new ChannelHistory[digitalChannels];
+        for (int i = 0; i < digitalChannels; ++i) mDigital[i] = new ChannelHistory(depth);
+    }
+
+    public int getDepth() {
+        return mDepth;
+    }
+
+    /**
+     * Get the history of an analog input.
+     *
+     * @param channel int The physical channel number.
+     * @return {@link ChannelHistory} The history of the channel, or null if there is no such channel.
+     */
+    public ChannelHistory getAnalog(final int channel) {
+        return (channel >= 0 && channel < mAnalog.length) ? mAnalog[channel] : null;
+    }
+
+    /**
+     * Get the history of a digital input.
+     *
+     * @param channel int The physical channel number.
+     * @return {@link ChannelHistory} The history of the channel, or null if there is no such channel.
+     */
+    public ChannelHistory getDigital(final int channel) {
+        return (channel >= 0 && channel < mDigital.length) ? mDigital[channel] : null;
+    }
+
+    /**
+     * Record an analog sample. Samples of each channel must be recorded by one thread at a time, and samples of
+     * unknown channels are ignored.
+     *
+     * @param channel   int The physical channel number.
+     * @param timestamp long The timestamp of the sample.
+     * @param count     int The count of the sample.
+     */
+    public void recordAnalog(final int channel, final long timestamp, final int count) {
+        if (channel >= 0 && channel < mAnalog.length) mAnalog[channel].add(timestamp, count);
+    }
+
+    /**
+     * Record a digital sample. Samples of each channel must be recorded by one thread at a time, and samples of
+     * unknown channels are ignored.
+     *
+     * @param channel   int The physical channel number.
+     * @param timestamp long The timestamp of the sample.
+     * @param state     boolean The state of the sample.
+     */
+    public void recordDigital(final int channel, final long timestamp, final boolean state) {
+        if (channel >= 0 && channel < mDigital.length) mDigital[channel].add(timestamp, state ? 1 : 0);
+    }
+}
@@ -0,0 +1,96 @@
+package com.tenkiv.tekdaqc.communication.data_points;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed set of slots, each holding a timestamp and two values under a version stamp. Writers claim a slot by making
+ * its stamp odd and release it by making it even again, so readers can copy a slot without locking and retry if it
+ * changed while they read it. The stamp of a slot is twice the number of writes to it.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+final class StampedSlots {
+
+    private static final int STRIDE = 4;
+
+    private static final int TIMESTAMP = 1;
+
+    private static final int FIRST = 2;
+
+    private static final int SECOND = 3;
+
+    private final int mCount;
+
+    private final AtomicLongArray mData;
+
+    /**
+     * Constructor.
+     *
+     * @param count int The number of slots.
+     */
+    StampedSlots(final int count) {
+        mCount = count;
+        mData = new AtomicLongArray(count * STRIDE);
+    }
+
+    int getCount() {
+        return mCount;
+    }
+
+    /**
+     * Write a slot. Concurrent writers of the same slot take turns.
+     *
+     * @param slot      int The slot to write.
+     * @param timestamp long The timestamp of the values.
+     * @param first     long The first value.
+     * @param second    long The second value.
+     */
+    void write(final int slot, final long timestamp, final long first, final long second) {
+        final int base = slot * STRIDE;
+        long stamp;
+        do {
+            stamp = mData.get(base);
+        } while ((stamp & 1) != 0 || !mData.compareAndSet(base, stamp, stamp + 1));
+        mData.lazySet(base + TIMESTAMP, timestamp);
+        mData.lazySet(base + FIRST, first);
+        mData.lazySet(base + SECOND, second);
+        mData.lazySet(base, stamp + 2);
+    }
+
+    /**
+     * Get the number of completed writes to a slot.
+     *
+     * @param slot int The slot.
+     * @return long The version of the slot.
+     */
+    long getVersion(final int slot) {
+        return mData.get(slot * STRIDE) >>> 1;
+    }
+
+    /**
+     * Copy a consistent snapshot of a slot.
+     *
+     * @param slot   int The slot to read.
+     * @param sample {@link LatestSample} The sample to copy into.
+     * @return boolean True if the slot has been written, false if it is still empty.
+     */
+    boolean read(final int slot, final LatestSample sample) {
+        final int base = slot * STRIDE;
+        while (true) {
+            final long stamp = mData.get(base);
+            if ((stamp & 1) != 0) {
+                Thread.yield();
+                continue;
+            }
+            if (stamp == 0) return false;
+            final long timestamp = mData.get(base + TIMESTAMP);
+            final long first = mData.get(base + FIRST);
+            final long second = mData.get(base + SECOND);
+            if (mData.get(base) == stamp) {
+                sample.set(stamp >>> 1, timestamp, first, second);
+                return true;
+            }
+        }
+    }
+}
@@ -4,9 +4,12 @@ import com.tenkiv.tekdaqc.communication.ascii.executors.ThrowableExecutor;
 import com.tenkiv.tekdaqc.communication.message.ABoardMessage;
 import com.tenkiv.tekdaqc.hardware.ATekdaqc;
 
+import java.nio.charset.StandardCharsets;
 import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Abstract Threaded executor for parsing of messages received from a {@link ATekdaqc}.
@@ -27,22 +30,162 @@ public abstract class AParsingExecutor implements ITekdaqcExecutor {
     private static final int PARSING_THREAD_PRIORITY = 4; // Equivilant to Android's Process.THREAD_PRIORITY_BACKGROUND
 
     /**
-     * The executor service.
+     * Lane key used for all records which are not associated with a specific input.
      */
-    protected final ExecutorService mExecutor;
+    protected static final int MESSAGE_LANE_KEY = 0;
 
     /**
-     * Constructor.
+     * The executor tasks are run on.
+     */
+    protected final Executor mExecutor;
+
+    /**
+     * If {@link #mExecutor} was created by this instance and should be shut down with it.
+     */
+    private final boolean mOwnsExecutor;
+
+    /**
+     * If this executor has been shut down.
+     */
+    private volatile boolean mIsShutdown;
+
+    /**
+     * The ordering guarantee provided by this executor.
+     */
+    private final ParsingOrder mOrder;
+
+    /**
+     * Ordered lanes which tasks are sharded onto, or null if {@link ParsingOrder#UNORDERED}.
+     */
+    private final SerialExecutor[] mLanes;
+
+    /**
+     * Source of record sequence numbers.
+     */
+    private final AtomicLong mSequence = new AtomicLong();
+
+    /**
+     * Constructor. Records are delivered in order per channel.
      *
      * @param numThreads int The number of threads to use in the parsing pool.
      */
     public AParsingExecutor(final int numThreads) {
-        mExecutor = new ThrowableExecutor(numThreads, new Factory());
+        this(numThreads, ParsingOrder.PER_CHANNEL);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param numThreads int The number of threads to use in the parsing pool.
+     * @param order      {@link ParsingOrder} The ordering guarantee to provide.
+     */
+    public AParsingExecutor(final int numThreads, final ParsingOrder order) {
+        this(new ThrowableExecutor(numThreads, new Factory()), true, numThreads, order);
+    }
+
+    /**
+     * Constructor for an executor which runs on a shared pool, such as one provided by a
+     * {@link TekdaqcExecutionRuntime}. The pool is not shut down with this executor.
+     *
+     * @param pool      {@link Executor} The pool to run tasks on.
+     * @param laneCount int The number of ordered lanes to shard tasks onto when ordering per channel.
+     * @param order     {@link ParsingOrder} The ordering guarantee to provide.
+     */
+    public AParsingExecutor(final Executor pool, final int laneCount, final ParsingOrder order) {
+        this(pool, false, laneCount, order);
+    }
+
+    private AParsingExecutor(final Executor pool, final boolean ownsPool, final int laneCount,
+                             final ParsingOrder order) {
+        if (pool == null) throw new IllegalArgumentException("Pool cannot be null.");
+        if (order == null) throw new IllegalArgumentException("Parsing order cannot be null.");
+        if (laneCount < 1) throw new IllegalArgumentException("Lane count must be positive.");
+        mExecutor = pool;
+        mOwnsExecutor = ownsPool;
+        mOrder = order;
+        switch (order) {
+            case PER_CHANNEL:
+                mLanes = new SerialExecutor[laneCount];
+                break;
+            case PER_BOARD:
+                mLanes = new SerialExecutor[1];
+                break;
+            default:
+                mLanes = null;
+                break;
+        }
+        if (mLanes != null) {
+            for (int i = 0; i < mLanes.length; ++i) {
+                mLanes[i] = new SerialExecutor(mExecutor);
+            }
+        }
     }
 
     @Override
     public void shutdown() {
-        mExecutor.shutdownNow();
+        mIsShutdown = true;
+        if (mOwnsExecutor) ((ExecutorService) mExecutor).shutdownNow();
+    }
+
+    /**
+     * Check if this executor has been shut down. Messages submitted after shutdown are discarded.
+     *
+     * @return boolean True if the executor has been shut down.
+     */
+    public boolean isShutdown() {
+        return mIsShutdown;
+    }
+
+    /**
+     * Get the ordering guarantee provided by this executor.
+     *
+     * @return {@link ParsingOrder} The ordering mode.
+     */
+    public ParsingOrder getParsingOrder() {
+        return mOrder;
+    }
+
+    /**
+     * Assign the next sequence number. Sequence numbers increase by one for each record submitted, in the order
+     * the records were received.
+     *
+     * @return long The sequence number.
+     */
+    protected long nextSequence() {
+        return mSequence.getAndIncrement();
+    }
+
+    /**
+     * Assign a block of consecutive sequence numbers, for a record which carries several samples.
+     *
+     * @param count int The number of sequence numbers to assign.
+     * @return long The first sequence number of the block.
+     */
+    protected long nextSequences(final int count) {
+        return mSequence.getAndAdd(count);
+    }
+
+    /**
+     * Submit a parsing task. Tasks with the same lane key are run in submission order when this executor is
+     * ordered; tasks with different keys may run concurrently.
+     *
+     * @param laneKey int The key of the input the task belongs to, or {@link #MESSAGE_LANE_KEY}.
+     * @param task    {@link AParsingTask} The task to run.
+     */
+    protected void submit(final int laneKey, final AParsingTask task) {
+        if (mIsShutdown) return;
+        if (mLanes == null) {
+            mExecutor.execute(task);
+        } else {
+            mLanes[laneIndex(laneKey, mLanes.length)].execute(task);
+        }
+    }
+
+    private static int laneIndex(final int laneKey, final int laneCount) {
+        if (laneCount == 1) return 0;
+        // Spread the keys, which differ mostly in their low bits, over the lanes
+        final int hash = laneKey * 0x9E3779B1;
+        return ((hash ^ (hash >>> 16)) & 0x7FFFFFFF) % laneCount;
     }
 
     /**
@@ -53,6 +196,17 @@ public abstract class AParsingExecutor implements ITekdaqcExecutor {
      */
     public abstract void parseMessage(final byte[] messageData, IParsingListener callback);
 
+    /**
+     * Submit a message which has already been decoded to a {@link String} for parsing. The default implementation
+     * encodes it back to ASCII and submits the bytes.
+     *
+     * @param messageData {@link String} The message to parse.
+     * @param callback    {@link IParsingListener} The callback to be called when parsing is complete.
+     */
+    public void parseMessage(final String messageData, final IParsingListener callback) {
+        parseMessage(messageData.getBytes(StandardCharsets.US_ASCII), callback);
+    }
+
     /**
      * Interface to allow for various objects to request data parsing and receive the results.
      *
@@ -67,7 +221,47 @@ public abstract class AParsingExecutor implements ITekdaqcExecutor {
          */
         void onParsingComplete(final ABoardMessage message);
 
+        /**
+         * Called when a complete message has been detected in the data stream.
+         *
+         * @param message {@link String} The raw message.
+         */
         void onMessageDetected(final String message);
+
+        /**
+         * Called when a complete record has been framed from the raw data stream. The buffer is owned by the framing
+         * layer and will be reused, so implementations must copy any bytes they need beyond the duration of this call.
+         * The default implementation decodes the record and passes it on to {@link #onMessageDetected(String)}.
+         *
+         * @param buffer {@code byte}[] The buffer containing the record.
+         * @param offset int The offset of the first byte of the record.
+         * @param length int The length of the record.
+         */
+        default void onRecordDetected(final byte[] buffer, final int offset, final int length) {
+            onMessageDetected(new String(buffer, offset, length, StandardCharsets.US_ASCII));
+        }
+    }
+
+    /**
+     * Delivery order guarantees which a parsing executor can provide.
+     *
+     * @author Tenkiv (software@tenkiv.com)
+     * @since v2.1.0.0
+     */
+    public enum ParsingOrder {
+        /**
+         * Records are parsed fully in parallel and may be delivered in any order.
+         */
+        UNORDERED,
+        /**
+         * Records for the same input are delivered in the order they were received. Different inputs are
+         * parsed in parallel.
+         */
+        PER_CHANNEL,
+        /**
+         * All records are delivered in the order they were received.
+         */
+        PER_BOARD
     }
 
     /**
@@ -76,7 +270,7 @@ public abstract class AParsingExecutor implements ITekdaqcExecutor {
      *
      * @since v1.0.0.0
      */
-    protected static abstract class AParsingTask implements Callable<Void> {
+    protected static abstract class AParsingTask implements Callable<Void>, Runnable {
 
         /**
          * Callback for parsed message handling.
@@ -91,6 +285,16 @@ public abstract class AParsingExecutor implements ITekdaqcExecutor {
         public AParsingTask(final IParsingListener callback) {
             mCallback = callback;
         }
+
+        @Override
+        public void run() {
+            try {
+                call();
+            } catch (final Exception e) {
+                System.out.println("AParsingExecutor absorbing Exception: ");
+                e.printStackTrace();
+            }
+        }
     }
 
     /**
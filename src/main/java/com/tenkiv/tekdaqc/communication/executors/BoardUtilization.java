@@ -0,0 +1,105 @@
+package com.tenkiv.tekdaqc.communication.executors;
+
+import com.tenkiv.tekdaqc.hardware.ATekdaqc;
+
+/**
+ * Snapshot of the work a {@link TekdaqcExecutionRuntime} has performed on behalf of a single {@link ATekdaqc}.
+ * Busy times are measured in thread time, so a utilization of 1.0 means the board kept one thread fully occupied
+ * over the measured period.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+public final class BoardUtilization {
+
+    private final long mElapsedNanos;
+
+    private final long mParsingBusyNanos;
+
+    private final long mParsingRuns;
+
+    private final long mCommandBusyNanos;
+
+    private final long mCommandWrites;
+
+    private final long mBytesRead;
+
+    /**
+     * Constructor.
+     *
+     * @param elapsedNanos     long Wall clock time the board has been tracked for.
+     * @param parsingBusyNanos long Thread time spent parsing and dispatching the board's data.
+     * @param parsingRuns      long Number of parsing pool executions for the board.
+     * @param commandBusyNanos long Thread time spent writing commands to the board.
+     * @param commandWrites    long Number of commands written to the board.
+     * @param bytesRead        long Number of bytes read from the board.
+     */
+    public BoardUtilization(final long elapsedNanos, final long parsingBusyNanos, final long parsingRuns,
+                            final long commandBusyNanos, final long commandWrites, final long bytesRead) {
+        mElapsedNanos = elapsedNanos;
+        mParsingBusyNanos = parsingBusyNanos;
+        mParsingRuns = parsingRuns;
+        mCommandBusyNanos = commandBusyNanos;
+        mCommandWrites = commandWrites;
+        mBytesRead = bytesRead;
+    }
+
+    public long getElapsedNanos() {
+        return mElapsedNanos;
+    }
+
+    public long getParsingBusyNanos() {
+        return mParsingBusyNanos;
+    }
+
+    public long getParsingRuns() {
+        return mParsingRuns;
+    }
+
+    public long getCommandBusyNanos() {
+        return mCommandBusyNanos;
+    }
+
+    public long getCommandWrites() {
+        return mCommandWrites;
+    }
+
+    public long getBytesRead() {
+        return mBytesRead;
+    }
+
+    /**
+     * Get the fraction of a thread this board has occupied with parsing.
+     *
+     * @return double The parsing utilization.
+     */
+    public double getParsingUtilization() {
+        return (mElapsedNanos > 0) ? (double) mParsingBusyNanos / mElapsedNanos : 0.0;
+    }
+
+    /**
+     * Get the fraction of a thread this board has occupied with command writing.
+     *
+     * @return double The command writing utilization.
+     */
+    public double getCommandUtilization() {
+        return (mElapsedNanos > 0) ? (double) mCommandBusyNanos / mElapsedNanos : 0.0;
+    }
+
+    /**
+     * Get the average rate data has been read from this board.
+     *
+     * @return double The read rate in bytes per second.
+     */
+    public double getBytesPerSecond() {
+        return (mElapsedNanos > 0) ? mBytesRead * 1e9 / mElapsedNanos : 0.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("parsing: %.2f%% (%d runs), commands: %.2f%% (%d writes), read: %.0f B/s",
+                getParsingUtilization() * 100, mParsingRuns,
+                getCommandUtilization() * 100, mCommandWrites,
+                getBytesPerSecond());
+    }
+}
@@ -0,0 +1,316 @@
+package com.tenkiv.tekdaqc.communication.executors;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded, ordered queue of deliveries to a single subscriber, drained one task at a time on a shared backing
+ * {@link Executor}. Like {@link SerialExecutor}, many lanes can share one pool without dedicating a thread to each,
+ * but a lane also limits how far its subscriber may fall behind. What happens when the lane is full is decided by
+ * its {@link OverflowPolicy}.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+public final class DeliveryLane {
+
+    /**
+     * Default maximum number of pending deliveries.
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * Maximum number of tasks run before the lane yields its thread back to the pool.
+     */
+    private static final int MAXIMUM_BATCH = 64;
+
+    private final Executor mBackingExecutor;
+
+    private final int mCapacity;
+
+    private final OverflowPolicy mPolicy;
+
+    private final ReentrantLock mLock = new ReentrantLock();
+
+    private final Condition mNotFull = mLock.newCondition();
+
+    private final ArrayDeque<Delivery> mPending = new ArrayDeque<>();
+
+    /**
+     * The drain task submitted to the backing executor.
+     */
+    private final Runnable mDrain = this::drain;
+
+    /**
+     * If a drain of this lane is currently scheduled or running. Guarded by {@link #mLock}.
+     */
+    private boolean mScheduled;
+
+    /**
+     * If this lane no longer accepts deliveries. Guarded by {@link #mLock}.
+     */
+    private boolean mClosed;
+
+    /**
+     * Thread currently draining this lane, if any.
+     */
+    private volatile Thread mDrainingThread;
+
+    private long mDelivered;
+
+    private long mDropped;
+
+    private long mCoalesced;
+
+    private long mLastLagNanos;
+
+    private long mMaxLagNanos;
+
+    /**
+     * Constructor.
+     *
+     * @param backingExecutor {@link Executor} The executor which will run the deliveries.
+     * @param capacity        int The maximum number of pending deliveries.
+     * @param policy          {@link OverflowPolicy} What to do when a delivery is offered to a full lane.
+     */
+    public DeliveryLane(final Executor backingExecutor, final int capacity, final OverflowPolicy policy) {
+        if (backingExecutor == null) throw new IllegalArgumentException("Backing executor cannot be null.");
+        if (policy == null) throw new IllegalArgumentException("Overflow policy cannot be null.");
+        if (capacity < 1) throw new IllegalArgumentException("Capacity must be positive.");
+        mBackingExecutor = backingExecutor;
+        mCapacity = capacity;
+        mPolicy = policy;
+    }
+
+    public int getCapacity() {
+        return mCapacity;
+    }
+
+    public OverflowPolicy getPolicy() {
+        return mPolicy;
+    }
+
+    /**
+     * Queue a delivery. Deliveries with the same non-null key are interchangeable, so a lane using
+     * {@link OverflowPolicy#COALESCE} replaces a pending delivery with the newer one instead of queueing both.
+     * Deliveries offered after {@link #close()} are discarded.
+     *
+     * @param key  Object Key identifying interchangeable deliveries, or null if this delivery is unique.
+     * @param task {@link Runnable} The delivery to run.
+     */
+    public void offer(final Object key, final Runnable task) {
+        offer(key, task, false);
+    }
+
+    /**
+     * Queue a delivery which must not be lost, such as a status or error message. It is never replaced under
+     * {@link OverflowPolicy#COALESCE}, and when a dropping lane is full the oldest delivery which may be lost is
+     * discarded in its place. Should every pending delivery be lossless, a dropping lane holds more than its capacity
+     * rather than lose one. Deliveries offered after {@link #close()} are still discarded.
+     *
+     * @param task {@link Runnable} The delivery to run.
+     */
+    public void offerLossless(final Runnable task) {
+        offer(null, task, true);
+    }
+
+    private void offer(final Object key, final Runnable task, final boolean lossless) {
+        if (task == null) throw new NullPointerException();
+        final long now = System.nanoTime();
+        mLock.lock();
+        try {
+            if (mClosed) return;
+            if (mPolicy == OverflowPolicy.COALESCE && key != null && replacePending(key, task)) {
+                ++mCoalesced;
+                return;
+            }
+            if (mPending.size() >= mCapacity) {
+                if (mPolicy == OverflowPolicy.BLOCK && Thread.currentThread() != mDrainingThread) {
+                    while (mPending.size() >= mCapacity && !mClosed) {
+                        mNotFull.awaitUninterruptibly();
+                    }
+                    if (mClosed) return;
+                } else if (mPolicy != OverflowPolicy.BLOCK) {
+                    if (dropOldestLossy()) {
+                        ++mDropped;
+                    } else if (!lossless) {
+                        // Only lossless deliveries are pending, so the new delivery is the only one which may be lost
+                        ++mDropped;
+                        return;
+                    }
+                }
+                // A subscriber offering to its own full blocking lane would deadlock, so it is allowed to overfill
+            }
+            mPending.add(new Delivery(key, task, now, lossless));
+            if (!mScheduled) {
+                mScheduled = true;
+                schedule();
+            }
+        } finally {
+            mLock.unlock();
+        }
+    }
+
+    /**
+     * Stop accepting deliveries and discard any which are pending. A delivery already running is not interrupted.
+     */
+    public void close() {
+        mLock.lock();
+        try {
+            mClosed = true;
+            mPending.clear();
+            mNotFull.signalAll();
+        } finally {
+            mLock.unlock();
+        }
+    }
+
+    /**
+     * Get how far the subscriber of this lane has fallen behind, along with its delivery counts.
+     *
+     * @return {@link DeliveryLaneMetrics} Snapshot of the lane.
+     */
+    public DeliveryLaneMetrics getMetrics() {
+        mLock.lock();
+        try {
+            final Delivery oldest = mPending.peek();
+            final long oldestWait = (oldest != null) ? System.nanoTime() - oldest.mEnqueued : 0;
+            return new DeliveryLaneMetrics(mPending.size(), oldestWait, mLastLagNanos, mMaxLagNanos,
+                    mDelivered, mDropped, mCoalesced);
+        } finally {
+            mLock.unlock();
+        }
+    }
+
+    private boolean replacePending(final Object key, final Runnable task) {
+        final Iterator<Delivery> iterator = mPending.descendingIterator();
+        while (iterator.hasNext()) {
+            final Delivery delivery = iterator.next();
+            if (key.equals(delivery.mKey)) {
+                // The replacement keeps its place in line, so the subscriber still sees keys in order
+                delivery.mTask = task;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Discard the oldest pending delivery which was not offered as lossless.
+     *
+     * @return boolean True if one was discarded, false if every pending delivery is lossless.
+     */
+    private boolean dropOldestLossy() {
+        final Iterator<Delivery> iterator = mPending.iterator();
+        while (iterator.hasNext()) {
+            if (!iterator.next().mLossless) {
+                iterator.remove();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Submit the drain task. Must be called holding {@link #mLock} with {@link #mScheduled} set.
+     */
+    private void schedule() {
+        try {
+            mBackingExecutor.execute(mDrain);
+        } catch (final RejectedExecutionException e) {
+            // The backing executor has been shut down, pending work is discarded
+            mScheduled = false;
+            mPending.clear();
+            mNotFull.signalAll();
+        }
+    }
+
+    private void drain() {
+        mDrainingThread = Thread.currentThread();
+        try {
+            for (int i = 0; i < MAXIMUM_BATCH; ++i) {
+                final Delivery delivery;
+                mLock.lock();
+                try {
+                    delivery = mPending.poll();
+                    if (delivery == null) break;
+                    mNotFull.signal();
+                    final long lag = System.nanoTime() - delivery.mEnqueued;
+                    mLastLagNanos = lag;
+                    if (lag > mMaxLagNanos) mMaxLagNanos = lag;
+                    ++mDelivered;
+                } finally {
+                    mLock.unlock();
+                }
+                try {
+                    delivery.mTask.run();
+                } catch (final RuntimeException e) {
+                    System.err.println("DeliveryLane absorbing Exception: ");
+                    e.printStackTrace();
+                }
+            }
+        } finally {
+            mDrainingThread = null;
+            mLock.lock();
+            try {
+                // Reschedule if work arrived after the last poll, or if the batch limit was reached
+                if (mPending.isEmpty()) {
+                    mScheduled = false;
+                } else {
+                    schedule();
+                }
+            } finally {
+                mLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Policy applied when a delivery is offered to a full {@link DeliveryLane}.
+     */
+    public enum OverflowPolicy {
+
+        /**
+         * The offering thread waits until the subscriber has made room. Nothing is lost, but a slow subscriber holds
+         * up the thread broadcasting to it, which for board messages is a parsing thread shared by every board.
+         */
+        BLOCK,
+
+        /**
+         * The oldest pending delivery is discarded. Deliveries offered through {@link #offerLossless(Runnable)} are
+         * passed over.
+         */
+        DROP_OLDEST,
+
+        /**
+         * A pending delivery with the same key is replaced by the newer one. When there is none, the oldest pending
+         * delivery is discarded as under {@link #DROP_OLDEST}.
+         */
+        COALESCE
+    }
+
+    /**
+     * A pending delivery.
+     */
+    private static final class Delivery {
+
+        private final Object mKey;
+
+        private final long mEnqueued;
+
+        private final boolean mLossless;
+
+        private Runnable mTask;
+
+        private Delivery(final Object key, final Runnable task, final long enqueued, final boolean lossless) {
+            mKey = key;
+            mTask = task;
+            mEnqueued = enqueued;
+            mLossless = lossless;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.tenkiv.tekdaqc.communication.executors;
+
+/**
+ * Snapshot of a {@link DeliveryLane}, showing how far its subscriber has fallen behind. Lag is the time a delivery
+ * waited in the lane before it started running.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+public final class DeliveryLaneMetrics {
+
+    private final int mPending;
+
+    private final long mOldestPendingNanos;
+
+    private final long mLastLagNanos;
+
+    private final long mMaxLagNanos;
+
+    private final long mDelivered;
+
+    private final long mDropped;
+
+    private final long mCoalesced;
+
+    /**
+     * Constructor.
+     *
+     * @param pending            int Number of deliveries waiting in the lane.
+     * @param oldestPendingNanos long Time the oldest pending delivery has waited so far.
+     * @param lastLagNanos       long Lag of the most recently started delivery.
+     * @param maxLagNanos        long Largest lag of any delivery.
+     * @param delivered          long Number of deliveries started.
+     * @param dropped            long Number of deliveries discarded because the lane was full.
+     * @param coalesced          long Number of deliveries merged into a pending delivery with the same key.
+     */
+    public DeliveryLaneMetrics(final int pending, final long oldestPendingNanos, final long lastLagNanos,
+                               final long maxLagNanos, final long delivered, final long dropped,
+                               final long coalesced) {
+        mPending = pending;
+        mOldestPendingNanos = oldestPendingNanos;
+        mLastLagNanos = lastLagNanos;
+        mMaxLagNanos = maxLagNanos;
+        mDelivered = delivered;
+        mDropped = dropped;
+        mCoalesced = coalesced;
+    }
+
+    public int getPending() {
+        return mPending;
+    }
+
+    public long getOldestPendingNanos() {
+        return mOldestPendingNanos;
+    }
+
+    public long getLastLagNanos() {
+        return mLastLagNanos;
+    }
+
+    public long getMaxLagNanos() {
+        return mMaxLagNanos;
+    }
+
+    public long getDelivered() {
+        return mDelivered;
+    }
+
+    public long getDropped() {
+        return mDropped;
+    }
+
+    public long getCoalesced() {
+        return mCoalesced;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("pending: %d (oldest %.1f ms), lag: %.1f ms (max %.1f ms), delivered: %d, dropped: %d, "
+                        + "coalesced: %d",
+                mPending, mOldestPendingNanos / 1e6, mLastLagNanos / 1e6, mMaxLagNanos / 1e6,
+                mDelivered, mDropped, mCoalesced);
+    }
+}
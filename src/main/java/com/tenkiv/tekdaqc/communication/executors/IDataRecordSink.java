@@ -0,0 +1,43 @@
+package com.tenkiv.tekdaqc.communication.executors;
+
+/**
+ * Receiver for samples decoded directly from raw data records. Values are delivered as primitives so that
+ * no intermediate message or data point objects need to be created by the decoder. Each sample carries the
+ * sequence number assigned to its record when it was read, so that receivers can verify delivery order.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+public interface IDataRecordSink {
+
+    /**
+     * Called when an analog input sample has been decoded.
+     *
+     * @param channel   int The physical channel number.
+     * @param sequence  long The position of the record in the stream received from the board.
+     * @param timestamp long The timestamp of the sample.
+     * @param count     int The sample data, in ADC counts.
+     */
+    void onAnalogSample(int channel, long sequence, long timestamp, int count);
+
+    /**
+     * Called when a digital input sample has been decoded.
+     *
+     * @param channel   int The physical channel number.
+     * @param sequence  long The position of the record in the stream received from the board.
+     * @param timestamp long The timestamp of the sample.
+     * @param state     boolean True if the input was high.
+     */
+    void onDigitalSample(int channel, long sequence, long timestamp, boolean state);
+
+    /**
+     * Called when a PWM input sample has been decoded.
+     *
+     * @param channel          int The physical channel number.
+     * @param sequence         long The position of the record in the stream received from the board.
+     * @param timestamp        long The timestamp of the sample.
+     * @param percentageOn     double The percentage of time the input was on.
+     * @param totalTransitions int The total number of transitions between high and low.
+     */
+    void onPWMSample(int channel, long sequence, long timestamp, double percentageOn, int totalTransitions);
+}
@@ -0,0 +1,35 @@
+package com.tenkiv.tekdaqc.communication.executors;
+
+/**
+ * Divides the raw data stream of a Tekdaqc into discrete records, which are delivered to a
+ * {@link AParsingExecutor.IParsingListener} through
+ * {@link AParsingExecutor.IParsingListener#onRecordDetected(byte[], int, int)}. Each communication encoding has its
+ * own framing.
+ *
+ * Implementations are not required to be thread safe and are intended to be driven by a single reading thread.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+public interface IRecordFramer {
+
+    /**
+     * Process a chunk of raw data. Every record completed by this chunk is delivered before this method returns; any
+     * trailing bytes are retained until the next call.
+     *
+     * @param data   {@code byte}[] The buffer holding the data.
+     * @param offset int The offset of the first valid byte.
+     * @param length int The number of valid bytes.
+     */
+    void feed(byte[] data, int offset, int length);
+
+    /**
+     * Called when the underlying stream ends. Delivers any final record which can be recovered.
+     */
+    void flush();
+
+    /**
+     * Discard any partially received record.
+     */
+    void reset();
+}
@@ -1,12 +1,10 @@
 package com.tenkiv.tekdaqc.communication.executors;
 
 import com.tenkiv.tekdaqc.communication.ascii.executors.ThrowableExecutor;
-import com.tenkiv.tekdaqc.communication.ascii.message.parsing.ASCIIMessageUtils;
 import com.tenkiv.tekdaqc.hardware.ATekdaqc;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.Scanner;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
@@ -24,12 +22,18 @@ public class ReadExecutor implements ITekdaqcExecutor {
     private static final String POLLING_THREAD_NAME = "TEKDAQC_POLLING_THREAD";
     private static final int POLLING_THREAD_PRIORITY = 4; // Equivilant to Android's Process.THREAD_PRIORITY_BACKGROUND
 
+    /**
+     * Size of the buffer raw stream data is read into.
+     */
+    private static final int READ_BUFFER_SIZE = 8192;
+
     /**
      * The communication session this executor is linked to.
      */
     private final AParsingExecutor.IParsingListener mCallback;
     private final ATekdaqc mTekdaqc;
     private final ExecutorService mExecutor;
+    private final TekdaqcExecutionRuntime mRuntime;
     private final Future<Void> mTaskFuture;
 
     /**
@@ -40,10 +44,25 @@ public class ReadExecutor implements ITekdaqcExecutor {
      * @param callback The callback for detected messages.
      */
     public ReadExecutor(ATekdaqc tekdaqc, AParsingExecutor.IParsingListener callback) {
+        this(tekdaqc, callback, null);
+    }
+
+    /**
+     * Constructor for a read executor which runs on the blocking pool of a shared {@link TekdaqcExecutionRuntime}.
+     *
+     * @param tekdaqc The Tekdaqc this read executor represents.
+     *
+     * @param callback The callback for detected messages.
+     *
+     * @param runtime The runtime to read on, or null to use a dedicated thread.
+     */
+    public ReadExecutor(ATekdaqc tekdaqc, AParsingExecutor.IParsingListener callback,
+                        TekdaqcExecutionRuntime runtime) {
         if (callback == null) throw new IllegalArgumentException("Callback set cannot be null.");
         mTekdaqc = tekdaqc;
         mCallback = callback;
-        mExecutor = new ThrowableExecutor(5);
+        mRuntime = runtime;
+        mExecutor = (runtime != null) ? runtime.getBlockingPool() : new ThrowableExecutor(5);
         // Submit the task immediately
         mTaskFuture = mExecutor.submit(new Task());
     }
@@ -51,25 +70,26 @@ public class ReadExecutor implements ITekdaqcExecutor {
     @Override
     public void shutdown() {
         mTaskFuture.cancel(true);
-        mExecutor.shutdownNow();
+        if (mRuntime == null) mExecutor.shutdownNow();
     }
 
     /**
-     * Method to search for messages on {@link InputStream} of a {@link ATekdaqc}.
+     * Method to search for messages on {@link InputStream} of a {@link ATekdaqc}. Raw bytes are framed by the
+     * {@link IRecordFramer} for the board's encoding and delivered to the callback through
+     * {@link AParsingExecutor.IParsingListener#onRecordDetected(byte[], int, int)}.
      *
      * @throws IOException Exception thrown in the case of an unexpected break in communication with the board.
      */
     public void detectMessages() throws IOException {
-        final Scanner scan = new Scanner(mTekdaqc.getInputStream()).
-                useDelimiter(ASCIIMessageUtils.RECORD_SEPARATOR_PATTERN);
-        while (scan.hasNext()) {
-            final String message = scan.next();
-            if (message != null && !message.isEmpty()) {
-                mCallback.onMessageDetected(message);
-            } else {
-                System.err.println("Null or empty message was detected.");
-            }
+        final InputStream input = mTekdaqc.getInputStream();
+        final IRecordFramer splitter = mTekdaqc.createRecordFramer(mCallback);
+        final byte[] buffer = new byte[READ_BUFFER_SIZE];
+        int read;
+        while (!Thread.currentThread().isInterrupted() && (read = input.read(buffer)) != -1) {
+            if (mRuntime != null) mRuntime.recordBytesRead(mTekdaqc, read);
+            splitter.feed(buffer, 0, read);
         }
+        splitter.flush();
     }
 
     /**
@@ -83,9 +103,11 @@ public class ReadExecutor implements ITekdaqcExecutor {
 
         @Override
         public Void call() throws Exception {
-            // This is ok because it will only be called once per thread
-            Thread.currentThread().setName(POLLING_THREAD_NAME);
-            Thread.currentThread().setPriority(POLLING_THREAD_PRIORITY);
+            // This is ok because it will only be called once per thread. Shared threads are already named.
+            if (mRuntime == null) {
+                Thread.currentThread().setName(POLLING_THREAD_NAME);
+                Thread.currentThread().setPriority(POLLING_THREAD_PRIORITY);
+            }
             detectMessages();
             return null;
         }
@@ -0,0 +1,157 @@
+package com.tenkiv.tekdaqc.communication.executors;
+
+import java.util.Arrays;
+
+/**
+ * Byte level framing of the raw ASCII encoded Tekdaqc data stream. Incoming bytes are scanned for the record separator (0x1E) and
+ * each complete record is handed to a {@link AParsingExecutor.IParsingListener} as a slice of a reusable buffer.
+ * No regular expressions, character decoding or intermediate {@link String}s are involved in the framing itself.
+ *
+ * Records which are wholly contained in a single chunk of input are delivered directly from the caller's buffer.
+ * Records which span several chunks are accumulated into an internal buffer which is grown on demand and reused
+ * for the lifetime of the splitter. In both cases the slice is only valid for the duration of the callback.
+ *
+ * This class is not thread safe and is intended to be driven by a single reading thread.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+public final class RecordSplitter implements IRecordFramer {
+
+    /**
+     * The byte which separates discrete records in the data stream.
+     */
+    public static final byte RECORD_SEPARATOR = 0x1E;
+
+    /**
+     * Initial size of the buffer used to hold partial records.
+     */
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * Largest partial record which will be accumulated before it is discarded as corrupt.
+     */
+    private static final int MAXIMUM_RECORD_LENGTH = 1024 * 1024;
+
+    /**
+     * The listener which receives framed records.
+     */
+    private final AParsingExecutor.IParsingListener mListener;
+
+    /**
+     * Buffer holding the bytes of a record which has not yet been terminated.
+     */
+    private byte[] mPartial;
+
+    /**
+     * Number of valid bytes in {@link #mPartial}.
+     */
+    private int mPartialLength;
+
+    /**
+     * If the record currently being accumulated has exceeded {@link #MAXIMUM_RECORD_LENGTH} and is being skipped.
+     */
+    private boolean mDiscarding;
+
+    /**
+     * Constructor.
+     *
+     * @param listener {@link AParsingExecutor.IParsingListener} The listener to notify of complete records.
+     */
+    public RecordSplitter(final AParsingExecutor.IParsingListener listener) {
+        this(listener, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param listener        {@link AParsingExecutor.IParsingListener} The listener to notify of complete records.
+     * @param initialCapacity int The initial size of the partial record buffer.
+     */
+    public RecordSplitter(final AParsingExecutor.IParsingListener listener, final int initialCapacity) {
+        if (listener == null) throw new IllegalArgumentException("Listener cannot be null.");
+        if (initialCapacity <= 0) throw new IllegalArgumentException("Initial capacity must be positive.");
+        mListener = listener;
+        mPartial = new byte[initialCapacity];
+    }
+
+    /**
+     * Feed a chunk of raw stream data to the splitter. Every record terminated within the chunk is delivered
+     * before this method returns; any trailing bytes are retained until the next call.
+     *
+     * @param data   {@code byte}[] The buffer holding the data.
+     * @param offset int The offset of the first valid byte.
+     * @param length int The number of valid bytes.
+     */
+    @Override
+    public void feed(final byte[] data, final int offset, final int length) {
+        final int end = offset + length;
+        int start = offset;
+        for (int i = offset; i < end; ++i) {
+            if (data[i] != RECORD_SEPARATOR) continue;
+            if (mPartialLength == 0 && !mDiscarding) {
+                deliver(data, start, i - start);
+            } else {
+                append(data, start, i - start);
+                if (!mDiscarding) deliver(mPartial, 0, mPartialLength);
+                mPartialLength = 0;
+                mDiscarding = false;
+            }
+            start = i + 1;
+        }
+        if (start < end) append(data, start, end - start);
+    }
+
+    /**
+     * Deliver any bytes which have been received since the last record separator. This should be called when the
+     * underlying stream ends, so that a final unterminated record is not lost.
+     */
+    @Override
+    public void flush() {
+        if (mPartialLength > 0 && !mDiscarding) deliver(mPartial, 0, mPartialLength);
+        mPartialLength = 0;
+        mDiscarding = false;
+    }
+
+    /**
+     * Discard any partially received record.
+     */
+    @Override
+    public void reset() {
+        mPartialLength = 0;
+        mDiscarding = false;
+    }
+
+    /**
+     * Get the number of bytes currently held for a record which has not been terminated.
+     *
+     * @return int The number of buffered bytes.
+     */
+    public int getPendingLength() {
+        return mPartialLength;
+    }
+
+    private void deliver(final byte[] buffer, final int offset, final int length) {
+        if (length > 0) {
+            mListener.onRecordDetected(buffer, offset, length);
+        } else {
+            System.err.println("Null or empty message was detected.");
+        }
+    }
+
+    private void append(final byte[] data, final int offset, final int length) {
+        if (mDiscarding || length == 0) return;
+        final int required = mPartialLength + length;
+        if (required > MAXIMUM_RECORD_LENGTH) {
+            System.err.println("Record exceeded " + MAXIMUM_RECORD_LENGTH + " bytes without a separator, discarding.");
+            mPartialLength = 0;
+            mDiscarding = true;
+            return;
+        }
+        if (required > mPartial.length) {
+            mPartial = Arrays.copyOf(mPartial, Math.min(MAXIMUM_RECORD_LENGTH, Math.max(required, mPartial.length * 2)));
+        }
+        System.arraycopy(data, offset, mPartial, mPartialLength, length);
+        mPartialLength = required;
+    }
+}
@@ -0,0 +1,106 @@
+package com.tenkiv.tekdaqc.communication.executors;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * {@link Executor} which runs submitted tasks one at a time, in submission order, on top of a shared backing
+ * {@link Executor}. Many serial executors can share the same pool, which allows ordered lanes of work to be
+ * processed in parallel with each other without dedicating a thread to each lane.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+public class SerialExecutor implements Executor {
+
+    /**
+     * Maximum number of tasks run before the lane yields its thread back to the pool.
+     */
+    private static final int MAXIMUM_BATCH = 64;
+
+    /**
+     * The pool tasks are run on.
+     */
+    private final Executor mBackingExecutor;
+
+    /**
+     * Tasks waiting to be run.
+     */
+    private final Queue<Runnable> mTasks = new ConcurrentLinkedQueue<>();
+
+    /**
+     * If a drain of this lane is currently scheduled or running.
+     */
+    private final AtomicBoolean mScheduled = new AtomicBoolean(false);
+
+    /**
+     * The drain task submitted to the backing executor.
+     */
+    private final Runnable mDrain = this::drain;
+
+    /**
+     * Constructor.
+     *
+     * @param backingExecutor {@link Executor} The executor which will run the tasks.
+     */
+    public SerialExecutor(final Executor backingExecutor) {
+        if (backingExecutor == null) throw new IllegalArgumentException("Backing executor cannot be null.");
+        mBackingExecutor = backingExecutor;
+    }
+
+    @Override
+    public void execute(final Runnable command) {
+        if (command == null) throw new NullPointerException();
+        mTasks.add(command);
+        schedule();
+    }
+
+    /**
+     * Get the number of tasks waiting to be run.
+     *
+     * @return int The number of pending tasks.
+     */
+    public int getPendingCount() {
+        return mTasks.size();
+    }
+
+    private void schedule() {
+        if (mScheduled.compareAndSet(false, true)) {
+            try {
+                mBackingExecutor.execute(mDrain);
+            } catch (final RejectedExecutionException e) {
+                mScheduled.set(false);
+                mTasks.clear();
+                throw e;
+            }
+        }
+    }
+
+    private void drain() {
+        try {
+            for (int i = 0; i < MAXIMUM_BATCH; ++i) {
+                final Runnable task = mTasks.poll();
+                if (task == null) break;
+                try {
+                    task.run();
+                } catch (final RuntimeException e) {
+                    System.err.println("SerialExecutor absorbing Exception: ");
+                    e.printStackTrace();
+                }
+            }
+        } finally {
+            mScheduled.set(false);
+            // Reschedule if work arrived after the last poll, or if the batch limit was reached
+            if (!mTasks.isEmpty()) {
+                try {
+                    schedule();
+                } catch (final RejectedExecutionException e) {
+                    // The backing executor has been shut down, remaining work is discarded
+                }
+            }
+        }
+    }
+}
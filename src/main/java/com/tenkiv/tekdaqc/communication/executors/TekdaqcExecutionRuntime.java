@@ -0,0 +1,377 @@
+package com.tenkiv.tekdaqc.communication.executors;
+
+import com.tenkiv.tekdaqc.hardware.ATekdaqc;
+import com.tenkiv.tekdaqc.telnet.client.TekdaqcSelector;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process wide set of thread pools which is shared by any number of {@link ATekdaqc}s. Parsing, command writing and
+ * timers for all boards are multiplexed onto a bounded number of threads sized to the available processors, instead
+ * of each board creating its own executors. Work done on behalf of each board is tracked and can be retrieved with
+ * {@link #getUtilization(ATekdaqc)}.
+ *
+ * Blocking transports still require one reading thread per connected board; these are drawn from a shared pool so
+ * that they are reused across connections. Non-blocking transports are instead served by the runtime's
+ * {@link TekdaqcSelector}.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+public class TekdaqcExecutionRuntime {
+
+    private static final String PARSING_THREAD_NAME = "TEKDAQC_PARSING_THREAD";
+
+    private static final String POLLING_THREAD_NAME = "TEKDAQC_POLLING_THREAD";
+
+    private static final String COMMAND_THREAD_NAME = "TEKDAQC_COMMAND_THREAD";
+
+    private static final String TIMER_THREAD_NAME = "TEKDAQC_TIMER_THREAD";
+
+    private static final String CALLBACK_THREAD_NAME = "TEKDAQC_CALLBACK_THREAD";
+
+    private static final int THREAD_PRIORITY = 4; // Equivilant to Android's Process.THREAD_PRIORITY_BACKGROUND
+
+    /**
+     * Default number of threads used to write commands. Commands are small and infrequent.
+     */
+    private static final int DEFAULT_COMMAND_THREADS = 2;
+
+    /**
+     * Time idle reading threads are kept alive for reuse.
+     */
+    private static final long READER_KEEP_ALIVE_SECONDS = 60;
+
+    /**
+     * Number of I/O threads serving non-blocking connections.
+     */
+    private static final int SELECTOR_THREADS = 1;
+
+    /**
+     * The shared default runtime.
+     */
+    private static volatile TekdaqcExecutionRuntime sDefault;
+
+    private final ThreadPoolExecutor mParsingPool;
+
+    private final ThreadPoolExecutor mBlockingPool;
+
+    private final ThreadPoolExecutor mCommandPool;
+
+    private final ScheduledThreadPoolExecutor mScheduler;
+
+    private final ThreadPoolExecutor mCallbackPool;
+
+    /**
+     * Selector for non-blocking connections, created on first use.
+     */
+    private TekdaqcSelector mSelector;
+
+    /**
+     * Work tracking for each board using this runtime. Boards are held weakly, so one which is discarded without being
+     * released does not stay reachable through the runtime.
+     */
+    private final Map<ATekdaqc, BoardStats> mBoards = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * Constructor. Uses one parsing thread per available processor.
+     */
+    public TekdaqcExecutionRuntime() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_COMMAND_THREADS);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param parsingThreads int The number of threads used to parse and dispatch data for all boards, and to deliver
+     *                       messages to their listeners.
+     * @param commandThreads int The number of threads used to write commands for all boards.
+     */
+    public TekdaqcExecutionRuntime(final int parsingThreads, final int commandThreads) {
+        if (parsingThreads < 1 || commandThreads < 1) {
+            throw new IllegalArgumentException("Thread counts must be positive.");
+        }
+        mParsingPool = new ThreadPoolExecutor(parsingThreads, parsingThreads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(), new Factory(PARSING_THREAD_NAME));
+        mCommandPool = new ThreadPoolExecutor(commandThreads, commandThreads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(), new Factory(COMMAND_THREAD_NAME));
+        mBlockingPool = new ThreadPoolExecutor(0, Integer.MAX_VALUE, READER_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new SynchronousQueue<Runnable>(), new Factory(POLLING_THREAD_NAME));
+        mScheduler = new ScheduledThreadPoolExecutor(1, new Factory(TIMER_THREAD_NAME));
+        mScheduler.setRemoveOnCancelPolicy(true);
+        mCallbackPool = new ThreadPoolExecutor(parsingThreads, parsingThreads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(), new Factory(CALLBACK_THREAD_NAME));
+    }
+
+    /**
+     * Get the runtime shared by all {@link ATekdaqc}s which have not been given a specific one. Its threads are
+     * daemon threads and it is never shut down.
+     *
+     * @return {@link TekdaqcExecutionRuntime} The default runtime.
+     */
+    public static TekdaqcExecutionRuntime getDefault() {
+        TekdaqcExecutionRuntime runtime = sDefault;
+        if (runtime == null) {
+            synchronized (TekdaqcExecutionRuntime.class) {
+                runtime = sDefault;
+                if (runtime == null) {
+                    runtime = new TekdaqcExecutionRuntime();
+                    sDefault = runtime;
+                }
+            }
+        }
+        return runtime;
+    }
+
+    /**
+     * Get the number of threads in the parsing pool.
+     *
+     * @return int The parsing thread count.
+     */
+    public int getParsingThreadCount() {
+        return mParsingPool.getMaximumPoolSize();
+    }
+
+    /**
+     * Get an {@link Executor} which runs parsing work for a board on the shared parsing pool.
+     *
+     * @param tekdaqc {@link ATekdaqc} The board the work is done for.
+     * @return {@link Executor} The parsing executor.
+     */
+    public Executor getParsingExecutor(final ATekdaqc tekdaqc) {
+        return statsFor(tekdaqc).mParsingExecutor;
+    }
+
+    /**
+     * Get an {@link Executor} which writes commands for a board, one at a time and in order, on the shared command
+     * pool.
+     *
+     * @param tekdaqc {@link ATekdaqc} The board the commands are written to.
+     * @return {@link Executor} The command executor.
+     */
+    public Executor getCommandExecutor(final ATekdaqc tekdaqc) {
+        return statsFor(tekdaqc).mCommandExecutor;
+    }
+
+    /**
+     * Get the pool for tasks which may block, such as reading from a blocking stream or queueing commands from a
+     * timer. Threads are created as needed and reused once idle.
+     *
+     * @return {@link ExecutorService} The blocking pool.
+     */
+    public ExecutorService getBlockingPool() {
+        return mBlockingPool;
+    }
+
+    /**
+     * Get the pool which delivers messages to listeners, through a {@link DeliveryLane} for each listener. It has as
+     * many threads as the parsing pool, however many listeners there are.
+     *
+     * @return {@link Executor} The callback pool.
+     */
+    public Executor getCallbackPool() {
+        return mCallbackPool;
+    }
+
+    /**
+     * Get the scheduler used for board timers such as heartbeats and throttled sampling. Tasks run on it should be
+     * short and must not block; anything which may block should be handed to {@link #getBlockingPool()}.
+     *
+     * @return {@link ScheduledExecutorService} The scheduler.
+     */
+    public ScheduledExecutorService getScheduler() {
+        return mScheduler;
+    }
+
+    /**
+     * Get the {@link TekdaqcSelector} which serves the non-blocking connections of boards using this runtime. It is
+     * created on first use.
+     *
+     * @return {@link TekdaqcSelector} The selector.
+     */
+    public synchronized TekdaqcSelector getSelector() {
+        if (isShutdown()) throw new IllegalStateException("Runtime has been shut down.");
+        if (mSelector == null) {
+            try {
+                mSelector = new TekdaqcSelector(SELECTOR_THREADS);
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return mSelector;
+    }
+
+    /**
+     * Record that data has been read from a board.
+     *
+     * @param tekdaqc {@link ATekdaqc} The board the data was read from.
+     * @param count   int The number of bytes read.
+     */
+    public void recordBytesRead(final ATekdaqc tekdaqc, final int count) {
+        statsFor(tekdaqc).mBytesRead.add(count);
+    }
+
+    /**
+     * Get the work performed for a board since it started using this runtime.
+     *
+     * @param tekdaqc {@link ATekdaqc} The board.
+     * @return {@link BoardUtilization} The utilization, or null if the board has not used this runtime.
+     */
+    public BoardUtilization getUtilization(final ATekdaqc tekdaqc) {
+        final BoardStats stats = mBoards.get(tekdaqc);
+        return (stats != null) ? stats.snapshot() : null;
+    }
+
+    /**
+     * Get the work performed for every board using this runtime.
+     *
+     * @return {@link Map} of each {@link ATekdaqc} to its {@link BoardUtilization}.
+     */
+    public Map<ATekdaqc, BoardUtilization> getUtilizationReport() {
+        final Map<ATekdaqc, BoardUtilization> report = new HashMap<>();
+        synchronized (mBoards) {
+            for (final Map.Entry<ATekdaqc, BoardStats> entry : mBoards.entrySet()) {
+                report.put(entry.getKey(), entry.getValue().snapshot());
+            }
+        }
+        return report;
+    }
+
+    /**
+     * Stop tracking a board. Its executors remain usable, but its utilization is reset.
+     *
+     * @param tekdaqc {@link ATekdaqc} The board to release.
+     */
+    public void release(final ATekdaqc tekdaqc) {
+        mBoards.remove(tekdaqc);
+    }
+
+    /**
+     * Shut down all pools of this runtime. The default runtime cannot be shut down.
+     */
+    public void shutdown() {
+        if (this == sDefault) throw new IllegalStateException("The default runtime cannot be shut down.");
+        mParsingPool.shutdownNow();
+        mCommandPool.shutdownNow();
+        mBlockingPool.shutdownNow();
+        mScheduler.shutdownNow();
+        mCallbackPool.shutdownNow();
+        synchronized (this) {
+            if (mSelector != null) mSelector.close();
+        }
+    }
+
+    /**
+     * Check if this runtime has been shut down.
+     *
+     * @return boolean True if the runtime has been shut down.
+     */
+    public boolean isShutdown() {
+        return mParsingPool.isShutdown();
+    }
+
+    private BoardStats statsFor(final ATekdaqc tekdaqc) {
+        return mBoards.computeIfAbsent(tekdaqc, board -> new BoardStats());
+    }
+
+    /**
+     * Work tracking for a single board.
+     */
+    private final class BoardStats {
+
+        private final long mCreated = System.nanoTime();
+
+        private final LongAdder mParsingBusy = new LongAdder();
+
+        private final LongAdder mParsingRuns = new LongAdder();
+
+        private final LongAdder mCommandBusy = new LongAdder();
+
+        private final LongAdder mCommandWrites = new LongAdder();
+
+        private final LongAdder mBytesRead = new LongAdder();
+
+        private final Executor mParsingExecutor = new TrackedExecutor(mParsingPool, mParsingBusy, mParsingRuns);
+
+        private final Executor mCommandExecutor =
+                new TrackedExecutor(new SerialExecutor(mCommandPool), mCommandBusy, mCommandWrites);
+
+        private BoardUtilization snapshot() {
+            return new BoardUtilization(System.nanoTime() - mCreated,
+                    mParsingBusy.sum(), mParsingRuns.sum(),
+                    mCommandBusy.sum(), mCommandWrites.sum(),
+                    mBytesRead.sum());
+        }
+    }
+
+    /**
+     * {@link Executor} which measures the time spent running each task.
+     */
+    private static final class TrackedExecutor implements Executor {
+
+        private final Executor mDelegate;
+
+        private final LongAdder mBusy;
+
+        private final LongAdder mRuns;
+
+        private TrackedExecutor(final Executor delegate, final LongAdder busy, final LongAdder runs) {
+            mDelegate = delegate;
+            mBusy = busy;
+            mRuns = runs;
+        }
+
+        @Override
+        public void execute(final Runnable command) {
+            mDelegate.execute(() -> {
+                final long start = System.nanoTime();
+                try {
+                    command.run();
+                } finally {
+                    mBusy.add(System.nanoTime() - start);
+                    mRuns.increment();
+                }
+            });
+        }
+    }
+
+    /**
+     * Thread factory for the runtime's pools. Ensures that all threads will have the appropriate priority level and
+     * name, and that they will not prevent the application from exiting.
+     */
+    private static final class Factory implements ThreadFactory {
+
+        private final String mName;
+
+        private final AtomicInteger mCount = new AtomicInteger();
+
+        private Factory(final String name) {
+            mName = name;
+        }
+
+        @Override
+        public Thread newThread(final Runnable r) {
+            final Thread thread = new Thread(r);
+            thread.setPriority(THREAD_PRIORITY);
+            thread.setName(mName + "_" + mCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
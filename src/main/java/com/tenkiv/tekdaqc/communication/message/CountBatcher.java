@@ -0,0 +1,198 @@
+package com.tenkiv.tekdaqc.communication.message;
+
+import com.tenkiv.tekdaqc.hardware.AAnalogInput;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Accumulates the samples of one analog input for a single {@link ICountBatchListener}. A batch is delivered from
+ * the thread which adds the sample completing it, or from {@link #flushIfDue()} once its oldest sample has waited for
+ * the maximum latency. Batches are delivered in order and never concurrently.
+ *
+ * Samples are accumulated into one pair of arrays while the other is delivered, so the listener is called without
+ * holding the lock samples are added under. Adding only waits for the listener when a batch fills before the
+ * previous one has been delivered.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+final class CountBatcher {
+
+    private final AAnalogInput mInput;
+
+    private final ICountBatchListener mListener;
+
+    private final long mMaxLatencyNanos;
+
+    /**
+     * Arrays the current batch is accumulated into. Guarded by this batcher's monitor.
+     */
+    private long[] mTimestamps;
+
+    private int[] mCounts;
+
+    /**
+     * Arrays of the batch being delivered, or of the last one delivered. Guarded by {@link #mDeliveryLock}.
+     */
+    private long[] mSpareTimestamps;
+
+    private int[] mSpareCounts;
+
+    /**
+     * Held from the time a batch is taken until it has been delivered, so batches are delivered in the order they
+     * were taken and the spare arrays are not reused while being delivered.
+     */
+    private final ReentrantLock mDeliveryLock = new ReentrantLock();
+
+    /**
+     * Number of samples in the current batch.
+     */
+    private int mLength;
+
+    /**
+     * Time the first sample of the current batch was added.
+     */
+    private long mBatchStart;
+
+    /**
+     * If a check requested by {@link #requestFlush(Executor)} has not started yet.
+     */
+    private final AtomicBoolean mFlushPending = new AtomicBoolean();
+
+    /**
+     * Timer checking for batches which are due, if any.
+     */
+    private volatile ScheduledFuture<?> mTimer;
+
+    /**
+     * Constructor.
+     *
+     * @param input          {@link AAnalogInput} The input the samples belong to.
+     * @param listener       {@link ICountBatchListener} The listener to deliver batches to.
+     * @param batchSize      int The maximum number of samples in a batch.
+     * @param maxLatencyNanos long The maximum time a sample waits before its batch is delivered.
+     */
+    CountBatcher(final AAnalogInput input, final ICountBatchListener listener, final int batchSize,
+                 final long maxLatencyNanos) {
+        if (batchSize < 1) throw new IllegalArgumentException("Batch size must be positive.");
+        if (maxLatencyNanos <= 0) throw new IllegalArgumentException("Maximum latency must be positive.");
+        mInput = input;
+        mListener = listener;
+        mTimestamps = new long[batchSize];
+        mCounts = new int[batchSize];
+        mSpareTimestamps = new long[batchSize];
+        mSpareCounts = new int[batchSize];
+        mMaxLatencyNanos = maxLatencyNanos;
+    }
+
+    ICountBatchListener getListener() {
+        return mListener;
+    }
+
+    /**
+     * Get the period at which {@link #flushIfDue()} should be called to keep within the maximum latency.
+     *
+     * @return long The period in nanoseconds.
+     */
+    long getCheckPeriodNanos() {
+        return Math.max(mMaxLatencyNanos / 2, TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    void setTimer(final ScheduledFuture<?> timer) {
+        mTimer = timer;
+    }
+
+    /**
+     * Add a sample, delivering the batch if it is now full.
+     *
+     * @param timestamp long The timestamp of the sample.
+     * @param count     int The count of the sample.
+     */
+    void add(final long timestamp, final int count) {
+        final int length;
+        synchronized (this) {
+            if (mLength == 0) mBatchStart = System.nanoTime();
+            mTimestamps[mLength] = timestamp;
+            mCounts[mLength] = count;
+            if (++mLength < mCounts.length) return;
+            length = take();
+        }
+        deliver(length);
+    }
+
+    /**
+     * Deliver the current batch if its oldest sample has waited for the maximum latency.
+     */
+    void flushIfDue() {
+        final int length;
+        synchronized (this) {
+            if (mLength == 0 || System.nanoTime() - mBatchStart < mMaxLatencyNanos) return;
+            length = take();
+        }
+        deliver(length);
+    }
+
+    /**
+     * Run {@link #flushIfDue()} on an executor, unless a run requested earlier has not started yet.
+     *
+     * @param executor {@link Executor} The executor to run the check on.
+     */
+    void requestFlush(final Executor executor) {
+        if (!mFlushPending.compareAndSet(false, true)) return;
+        try {
+            executor.execute(() -> {
+                mFlushPending.set(false);
+                flushIfDue();
+            });
+        } catch (final RejectedExecutionException e) {
+            mFlushPending.set(false);
+            throw e;
+        }
+    }
+
+    /**
+     * Deliver any pending samples and stop the timer. No samples should be added afterwards.
+     */
+    void close() {
+        final ScheduledFuture<?> timer = mTimer;
+        if (timer != null) timer.cancel(false);
+        final int length;
+        synchronized (this) {
+            if (mLength == 0) return;
+            length = take();
+        }
+        deliver(length);
+    }
+
+    /**
+     * Take the current batch for delivery, swapping it with the spare arrays. Must be called holding this batcher's
+     * monitor, and followed by {@link #deliver(int)}, which releases the delivery lock taken here.
+     *
+     * @return int The number of samples in the batch.
+     */
+    private int take() {
+        mDeliveryLock.lock();
+        final long[] timestamps = mSpareTimestamps;
+        mSpareTimestamps = mTimestamps;
+        mTimestamps = timestamps;
+        final int[] counts = mSpareCounts;
+        mSpareCounts = mCounts;
+        mCounts = counts;
+        final int length = mLength;
+        mLength = 0;
+        return length;
+    }
+
+    private void deliver(final int length) {
+        try {
+            mListener.onAnalogCountBatch(mInput, mSpareTimestamps, mSpareCounts, length);
+        } finally {
+            mDeliveryLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.tenkiv.tekdaqc.communication.message;
+
+/**
+ * Describes how far an analog input must move from the last sample delivered to a listener before another sample is
+ * delivered. Deadbands are evaluated on the raw counts, so samples inside the deadband are never converted or
+ * delivered. The first sample is always delivered.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+public final class Deadband {
+
+    private final Mode mMode;
+
+    private final double mThreshold;
+
+    private Deadband(final Mode mode, final double threshold) {
+        mMode = mode;
+        mThreshold = threshold;
+    }
+
+    /**
+     * Deliver a sample only when its count differs from the last delivered count by at least {@code counts}.
+     *
+     * @param counts int The minimum change in counts.
+     * @return {@link Deadband} The deadband.
+     */
+    public static Deadband counts(final int counts) {
+        if (counts < 1) throw new IllegalArgumentException("Deadband must be at least one count.");
+        return new Deadband(Mode.COUNTS, counts);
+    }
+
+    /**
+     * Deliver a sample only when its voltage differs from the last delivered voltage by at least {@code volts}.
+     *
+     * @param volts double The minimum change in volts.
+     * @return {@link Deadband} The deadband.
+     */
+    public static Deadband volts(final double volts) {
+        if (!(volts > 0)) throw new IllegalArgumentException("Deadband must be positive.");
+        return new Deadband(Mode.VOLTS, volts);
+    }
+
+    /**
+     * Deliver a sample only when it differs from the last delivered sample by at least {@code percent} percent of the
+     * last delivered sample. As voltage is proportional to count, this is the same for counts and voltages.
+     *
+     * @param percent double The minimum change, as a percentage of the last delivered sample.
+     * @return {@link Deadband} The deadband.
+     */
+    public static Deadband percent(final double percent) {
+        if (!(percent > 0)) throw new IllegalArgumentException("Deadband must be positive.");
+        return new Deadband(Mode.PERCENT, percent / 100);
+    }
+
+    /**
+     * Deliver a sample only when its count differs from the last delivered count.
+     *
+     * @return {@link Deadband} The deadband.
+     */
+    public static Deadband anyChange() {
+        return counts(1);
+    }
+
+    public Mode getMode() {
+        return mMode;
+    }
+
+    /**
+     * Get the threshold of the deadband, in counts, volts, or as a fraction of the last delivered sample.
+     *
+     * @return double The threshold.
+     */
+    public double getThreshold() {
+        return mThreshold;
+    }
+
+    @Override
+    public String toString() {
+        return "Deadband{" + mMode + ", " + mThreshold + "}";
+    }
+
+    /**
+     * The kinds of {@link Deadband}.
+     */
+    public enum Mode {
+
+        /**
+         * An absolute change in counts.
+         */
+        COUNTS,
+
+        /**
+         * An absolute change in volts.
+         */
+        VOLTS,
+
+        /**
+         * A change relative to the last delivered sample.
+         */
+        PERCENT
+    }
+}
@@ -0,0 +1,56 @@
+package com.tenkiv.tekdaqc.communication.message;
+
+import com.tenkiv.tekdaqc.hardware.AAnalogInput;
+
+/**
+ * {@link SampleFilter} applying a {@link Deadband}.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+final class DeadbandFilter extends SampleFilter {
+
+    private final AAnalogInput mInput;
+
+    private final Deadband mDeadband;
+
+    private boolean mHasDelivered;
+
+    private int mLastCount;
+
+    /**
+     * Constructor.
+     *
+     * @param input    {@link AAnalogInput} The input the samples belong to, used to convert voltage deadbands.
+     * @param listener Object The listener the samples are for, identifying this filter.
+     * @param deadband {@link Deadband} The deadband to apply.
+     * @param sink     {@link Sink} Converts the surviving samples and delivers them to the listener.
+     */
+    DeadbandFilter(final AAnalogInput input, final Object listener, final Deadband deadband, final Sink sink) {
+        super(listener, sink);
+        mInput = input;
+        mDeadband = deadband;
+    }
+
+    @Override
+    synchronized void add(final long timestamp, final int count) {
+        if (mHasDelivered && !isOutside(count)) return;
+        mHasDelivered = true;
+        mLastCount = count;
+        mSink.accept(timestamp, count);
+    }
+
+    private boolean isOutside(final int count) {
+        // Widened to long, as the difference of two counts can overflow an int
+        final long change = Math.abs((long) count - mLastCount);
+        if (change == 0) return false;
+        switch (mDeadband.getMode()) {
+            case VOLTS:
+                return change * mInput.getVoltsPerCount() >= mDeadband.getThreshold();
+            case PERCENT:
+                return change >= mDeadband.getThreshold() * Math.abs((long) mLastCount);
+            default:
+                return change >= mDeadband.getThreshold();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.tenkiv.tekdaqc.communication.message;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Describes how the samples of an analog input are reduced before they reach a listener. Samples are reduced as raw
+ * counts, so the samples which are discarded are never converted or delivered. Rates and windows are measured with
+ * the timestamps of the samples, which have a resolution of one millisecond.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+public final class Decimation {
+
+    private final Mode mMode;
+
+    /**
+     * Sample count for {@link Mode#EVERY_NTH}, otherwise a period in milliseconds.
+     */
+    private final long mParameter;
+
+    private Decimation(final Mode mode, final long parameter) {
+        mMode = mode;
+        mParameter = parameter;
+    }
+
+    /**
+     * Deliver the first sample and every {@code n}th sample after it.
+     *
+     * @param n int The number of samples to advance by for each delivered sample.
+     * @return {@link Decimation} The decimation.
+     */
+    public static Decimation everyNth(final int n) {
+        if (n < 1) throw new IllegalArgumentException("N must be positive.");
+        return new Decimation(Mode.EVERY_NTH, n);
+    }
+
+    /**
+     * Deliver a sample only once at least {@code minInterval} has passed since the last delivered sample.
+     *
+     * @param minInterval long The minimum time between delivered samples.
+     * @param unit        {@link TimeUnit} The unit of {@code minInterval}.
+     * @return {@link Decimation} The decimation.
+     */
+    public static Decimation maxRate(final long minInterval, final TimeUnit unit) {
+        return new Decimation(Mode.MAX_RATE, toPeriodMillis(minInterval, unit));
+    }
+
+    /**
+     * Deliver at most {@code hertz} samples a second.
+     *
+     * @param hertz double The maximum rate of delivered samples.
+     * @return {@link Decimation} The decimation.
+     */
+    public static Decimation maxRate(final double hertz) {
+        if (!(hertz > 0)) throw new IllegalArgumentException("Rate must be positive.");
+        return maxRate(Math.round(TimeUnit.SECONDS.toMicros(1) / hertz), TimeUnit.MICROSECONDS);
+    }
+
+    /**
+     * Divide time into consecutive windows of length {@code window}, and deliver the lowest and the highest sample of
+     * each, in the order they were taken. A window is delivered when the first sample after it arrives.
+     *
+     * @param window long The length of each window.
+     * @param unit   {@link TimeUnit} The unit of {@code window}.
+     * @return {@link Decimation} The decimation.
+     */
+    public static Decimation minMaxPerWindow(final long window, final TimeUnit unit) {
+        return new Decimation(Mode.MIN_MAX, toPeriodMillis(window, unit));
+    }
+
+    private static long toPeriodMillis(final long period, final TimeUnit unit) {
+        final long millis = unit.toMillis(period);
+        if (millis < 1) {
+            throw new IllegalArgumentException(
+                    "Period must be at least one millisecond, the resolution of timestamps.");
+        }
+        return millis;
+    }
+
+    public Mode getMode() {
+        return mMode;
+    }
+
+    /**
+     * Get the number of samples advanced by for each delivered sample under {@link Mode#EVERY_NTH}, or the period in
+     * milliseconds otherwise.
+     *
+     * @return long The parameter of the decimation.
+     */
+    public long getParameter() {
+        return mParameter;
+    }
+
+    @Override
+    public String toString() {
+        return "Decimation{" + mMode + ", " + mParameter + "}";
+    }
+
+    /**
+     * The kinds of {@link Decimation}.
+     */
+    public enum Mode {
+
+        /**
+         * One sample out of every N.
+         */
+        EVERY_NTH,
+
+        /**
+         * At most one sample per minimum interval.
+         */
+        MAX_RATE,
+
+        /**
+         * The lowest and highest sample of each window.
+         */
+        MIN_MAX
+    }
+}
@@ -0,0 +1,46 @@
+package com.tenkiv.tekdaqc.communication.message;
+
+import com.tenkiv.tekdaqc.communication.data_points.DigitalInputData;
+import com.tenkiv.tekdaqc.hardware.DigitalInput;
+
+/**
+ * Passes the samples of one digital input to a single {@link IDigitalChannelListener} only when the level of the
+ * input changes. The first sample is always delivered.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+final class DigitalChangeFilter {
+
+    private final IDigitalChannelListener mListener;
+
+    private boolean mHasDelivered;
+
+    private boolean mLastState;
+
+    /**
+     * Constructor.
+     *
+     * @param listener {@link IDigitalChannelListener} The listener to deliver changes to.
+     */
+    DigitalChangeFilter(final IDigitalChannelListener listener) {
+        mListener = listener;
+    }
+
+    IDigitalChannelListener getListener() {
+        return mListener;
+    }
+
+    /**
+     * Add a sample, delivering it if the level has changed.
+     *
+     * @param input {@link DigitalInput} The input the sample belongs to.
+     * @param data  {@link DigitalInputData} The sample.
+     */
+    synchronized void add(final DigitalInput input, final DigitalInputData data) {
+        if (mHasDelivered && data.getState() == mLastState) return;
+        mHasDelivered = true;
+        mLastState = data.getState();
+        mListener.onDigitalDataReceived(input, data);
+    }
+}
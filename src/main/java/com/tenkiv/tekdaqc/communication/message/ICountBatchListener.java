@@ -0,0 +1,25 @@
+package com.tenkiv.tekdaqc.communication.message;
+
+import com.tenkiv.tekdaqc.hardware.AAnalogInput;
+
+/**
+ * Interface defining methods for receiving the counts of a single analog input channel in batches. Samples are
+ * accumulated into primitive arrays and delivered once a batch is full or its oldest sample has waited for the
+ * maximum latency the listener was registered with, so only one call is made per batch instead of one per sample.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+public interface ICountBatchListener {
+
+    /**
+     * Called when a batch of counts is available for the given input channel. The arrays are reused for the next
+     * batch once this method returns, so they must be copied if the samples are needed afterwards.
+     *
+     * @param input      The {@link AAnalogInput} which has received the data.
+     * @param timestamps The timestamps of the samples, in order of arrival.
+     * @param counts     The counts received by the ADC, in the same order as the timestamps.
+     * @param length     The number of valid samples in the arrays.
+     */
+    void onAnalogCountBatch(AAnalogInput input, long[] timestamps, int[] counts, int length);
+}
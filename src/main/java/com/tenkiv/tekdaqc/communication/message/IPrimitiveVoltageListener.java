@@ -0,0 +1,22 @@
+package com.tenkiv.tekdaqc.communication.message;
+
+import com.tenkiv.tekdaqc.hardware.AAnalogInput;
+
+/**
+ * Interface defining methods for receiving the voltages of a single analog input channel as primitive values. Unlike
+ * {@link IVoltageListener}, no objects are allocated to deliver each sample, which suits high rate consumers.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+public interface IPrimitiveVoltageListener {
+
+    /**
+     * Called when a voltage is received for the given input channel.
+     *
+     * @param input     The {@link AAnalogInput} which has received the data.
+     * @param timestamp The timestamp of the sample, in milliseconds since the epoch.
+     * @param volts     The voltage measured by the ADC.
+     */
+    void onVoltageReceived(AAnalogInput input, long timestamp, double volts);
+}
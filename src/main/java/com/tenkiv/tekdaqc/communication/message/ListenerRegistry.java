@@ -0,0 +1,75 @@
+package com.tenkiv.tekdaqc.communication.message;
+
+import java.util.Arrays;
+
+/**
+ * Copy on write set of listeners. Writers replace the array of listeners under the registry's monitor, so readers can
+ * iterate {@link #getListeners()} without locking, and a slow listener never blocks registration. The array returned
+ * is a snapshot and must not be modified.
+ *
+ * @param <L> The type of listener held.
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+final class ListenerRegistry<L> {
+
+    private static final Object[] EMPTY = new Object[0];
+
+    private volatile Object[] mListeners = EMPTY;
+
+    /**
+     * Get the current listeners. Elements are of type {@code L}.
+     *
+     * @return Object[] Snapshot of the listeners, in registration order.
+     */
+    Object[] getListeners() {
+        return mListeners;
+    }
+
+    boolean isEmpty() {
+        return mListeners.length == 0;
+    }
+
+    /**
+     * Add a listener if it is not already registered.
+     *
+     * @param listener L The listener to add.
+     * @return boolean True if the listener was added.
+     */
+    synchronized boolean add(final L listener) {
+        final Object[] listeners = mListeners;
+        if (indexOf(listeners, listener) >= 0) return false;
+        final Object[] updated = Arrays.copyOf(listeners, listeners.length + 1);
+        updated[listeners.length] = listener;
+        mListeners = updated;
+        return true;
+    }
+
+    /**
+     * Remove a listener.
+     *
+     * @param listener L The listener to remove.
+     * @return boolean True if the listener was registered.
+     */
+    synchronized boolean remove(final L listener) {
+        final Object[] listeners = mListeners;
+        final int index = indexOf(listeners, listener);
+        if (index < 0) return false;
+        if (listeners.length == 1) {
+            mListeners = EMPTY;
+        } else {
+            final Object[] updated = new Object[listeners.length - 1];
+            System.arraycopy(listeners, 0, updated, 0, index);
+            System.arraycopy(listeners, index + 1, updated, index, updated.length - index);
+            mListeners = updated;
+        }
+        return true;
+    }
+
+    private static int indexOf(final Object[] listeners, final Object listener) {
+        for (int i = 0; i < listeners.length; ++i) {
+            if (listeners[i].equals(listener)) return i;
+        }
+        return -1;
+    }
+}
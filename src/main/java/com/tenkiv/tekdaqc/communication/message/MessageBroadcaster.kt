@@ -3,25 +3,31 @@ package com.tenkiv.tekdaqc.communication.message
 import com.tenkiv.tekdaqc.communication.ascii.message.parsing.ASCIIDigitalOutputDataMessage
 import com.tenkiv.tekdaqc.communication.ascii.message.parsing.ASCIIMessageUtils
 import com.tenkiv.tekdaqc.communication.data_points.AnalogInputCountData
+import com.tenkiv.tekdaqc.communication.data_points.BoardLatestValues
 import com.tenkiv.tekdaqc.communication.data_points.DigitalInputData
 import com.tenkiv.tekdaqc.communication.data_points.PWMInputData
+import com.tenkiv.tekdaqc.communication.data_points.SampleHistory
+import com.tenkiv.tekdaqc.communication.executors.DeliveryLane
+import com.tenkiv.tekdaqc.communication.executors.DeliveryLane.OverflowPolicy
+import com.tenkiv.tekdaqc.communication.executors.DeliveryLaneMetrics
+import com.tenkiv.tekdaqc.communication.executors.IDataRecordSink
+import com.tenkiv.tekdaqc.communication.executors.TekdaqcExecutionRuntime
 import com.tenkiv.tekdaqc.hardware.AAnalogInput
 import com.tenkiv.tekdaqc.hardware.ATekdaqc
 import com.tenkiv.tekdaqc.hardware.DigitalInput
-import com.tenkiv.tekdaqc.hardware.IInputOutputHardware
+import com.tenkiv.tekdaqc.hardware.Tekdaqc_RevD
 import org.tenkiv.coral.ValueInstant
 import tec.units.indriya.ComparableQuantity
 import tec.units.indriya.quantity.Quantities
 import tec.units.indriya.unit.Units
 import java.time.Instant
-import java.util.*
-import java.util.concurrent.ConcurrentHashMap
 import java.util.concurrent.Executor
-import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
 import javax.measure.quantity.ElectricPotential
 
 /**
- * Class responsible for broadcasting messages received from Tekdaqcs.
+ * Class responsible for broadcasting messages received from a Tekdaqc. Each [ATekdaqc] owns its broadcaster, so the
+ * Tekdaqc passed to its methods must be that owner. Channel listeners are held in arrays indexed by physical channel.
  * <br></br>**This class is thread safe.**
 
  * @author Tenkiv (software@tenkiv.com)
@@ -31,54 +37,68 @@ import javax.measure.quantity.ElectricPotential
 class MessageBroadcaster {
 
     /**
-     * Map of all registered all-channel listeners.
+     * All-channel listeners, each with its delivery lane.
      */
-    private val mFullListeners =
-            ConcurrentHashMap<ATekdaqc, MutableList<IMessageListener>>()
+    private val mFullListeners = ListenerRegistry<Subscription<IMessageListener>>()
 
     /**
-     * Map of all registered network listeners.
+     * Network listeners, each with its delivery lane.
      */
-    private val mNetworkListeners =
-            ConcurrentHashMap<ATekdaqc, MutableList<INetworkListener>>()
+    private val mNetworkListeners = ListenerRegistry<Subscription<INetworkListener>>()
 
     /**
-     * Map of all registered count listeners.
+     * Listeners of each analog input, indexed by physical channel number.
      */
-    private val mAnalogCountListeners =
-            ConcurrentHashMap<ATekdaqc, MutableMap<Int, MutableList<ICountListener>>>()
+    private val mAnalogChannels = Array(ANALOG_CHANNEL_SLOTS, { AnalogChannelListeners() })
 
     /**
-     * Map of all registered voltage listeners.
+     * Listeners of each digital input, indexed by physical channel number.
      */
-    private val mAnalogVoltageListeners =
-            ConcurrentHashMap<ATekdaqc, MutableMap<Int, MutableList<IVoltageListener>>>()
+    private val mDigitalChannels = Array(DIGITAL_CHANNEL_SLOTS, { DigitalChannelListeners() })
 
     /**
-     * Map of all registered digital listeners.
+     * Store of recent samples, if one is kept.
      */
-    private val mDigitalChannelListeners =
-            ConcurrentHashMap<ATekdaqc, MutableMap<Int, MutableList<IDigitalChannelListener>>>()
+    @Volatile
+    private var mHistory: SampleHistory? = null
 
     /**
-     * Map of all registered PWM Input listeners.
+     * Latest value table row of this Tekdaqc, if it publishes one.
      */
-    private val mPWMChannelListeners =
-            ConcurrentHashMap<ATekdaqc, MutableMap<Int, MutableList<IPWMChannelListener>>>()
+    @Volatile
+    private var mLatestValues: BoardLatestValues? = null
 
     /**
-     * Map of prioritized listeners.
+     * Sink every sample is recorded to, if any.
      */
-    private val mQueueListeners = ConcurrentHashMap<ATekdaqc, IMessageListener>()
+    @Volatile
+    private var mRecordSink: IDataRecordSink? = null
+
+    /**
+     * Prioritized listener.
+     */
+    @Volatile
+    private var mQueueListener: IMessageListener? = null
 
     /**
      * Executor for handling callbacks to listeners.
      */
-    private var mCallbackThreadpool: Executor = Executors.newCachedThreadPool()
+    @Volatile
+    private var mCallbackThreadpool: Executor = TekdaqcExecutionRuntime.getDefault().callbackPool
+
+    /**
+     * Executor the delivery lanes drain on, following any change of [mCallbackThreadpool].
+     */
+    private val mLaneExecutor = Executor { command -> mCallbackThreadpool.execute(command) }
+
+    /**
+     * Lane delivering messages to the prioritized listener.
+     */
+    private val mQueueLane = DeliveryLane(mLaneExecutor, DeliveryLane.DEFAULT_CAPACITY, OverflowPolicy.BLOCK)
 
     /**
-     * Sets the [Executor] that manages callbacks to [IMessageListener]s, [ICountListener]s,
-     * and [IDigitalChannelListener]s.
+     * Sets the [Executor] that drains the [DeliveryLane]s of [IMessageListener]s and [INetworkListener]s. Data points
+     * are not delivered through it; they are broadcast on the thread which parsed them.
 
      * @param callbackExecutor The new [Executor].
      */
@@ -86,50 +106,124 @@ class MessageBroadcaster {
         mCallbackThreadpool = callbackExecutor
     }
 
+    /**
+     * Sets the [SampleHistory] each analog and digital sample is recorded in before it is broadcast. Samples of a
+     * channel must be broadcast by one thread at a time while a history is set.
+
+     * @param history The new [SampleHistory], or null to stop recording samples.
+     */
+    fun setSampleHistory(history: SampleHistory?) {
+        mHistory = history
+    }
+
+    /**
+     * Sets the [BoardLatestValues] the latest value of each channel is written to as it is broadcast.
+
+     * @param latestValues The new [BoardLatestValues], or null to stop publishing latest values.
+     */
+    fun setLatestValues(latestValues: BoardLatestValues?) {
+        mLatestValues = latestValues
+    }
+
+    /**
+     * Sets the [IDataRecordSink] every analog, digital and PWM sample is passed to before it is broadcast, such as a
+     * [com.tenkiv.tekdaqc.recording.SampleRecorder].
+
+     * @param sink The new [IDataRecordSink], or null to stop passing samples on.
+     */
+    fun setRecordSink(sink: IDataRecordSink?) {
+        mRecordSink = sink
+    }
+
     internal fun commandQueueAddListener(tekdaqc: ATekdaqc, listener: IMessageListener) {
-        mQueueListeners.put(tekdaqc, listener)
+        mQueueListener = listener
     }
 
     internal fun commandQueueRemoveListener(tekdaqc: ATekdaqc) {
-        mQueueListeners.remove(tekdaqc)
+        mQueueListener = null
     }
 
     /**
-     * Register an object for message broadcasts for a particular Tekdaqc.
+     * Register an object for message broadcasts for a particular Tekdaqc. Once [DeliveryLane.DEFAULT_CAPACITY]
+     * messages are waiting for the listener the oldest debug, command data or digital output message is dropped, so a
+     * slow listener never holds up the shared parsing threads. Status and error messages are never dropped.
 
      * @param tekdaqc  [ATekdaqc] The Tekdaqc to register for.
      * *
      * @param listener [IMessageListener] Listener instance to receive the broadcasts.
      */
     fun addMessageListener(tekdaqc: ATekdaqc, listener: IMessageListener) {
-        val listeners: MutableList<IMessageListener>
-                = mFullListeners.computeIfAbsent(tekdaqc, { ArrayList() })
+        addMessageListener(tekdaqc, listener, DeliveryLane.DEFAULT_CAPACITY, OverflowPolicy.DROP_OLDEST)
+    }
 
-        synchronized(listeners) {
-            if (!listeners.contains(listener)) {
-                listeners.add(listener)
-            }
-        }
+    /**
+     * Register an object for message broadcasts for a particular Tekdaqc. Messages are delivered to the listener in
+     * order through its own [DeliveryLane], which holds at most [capacity] pending messages. Messages of the same
+     * [ASCIIMessageUtils.MESSAGE_TYPE] are interchangeable under [OverflowPolicy.COALESCE]. Status and error messages
+     * are lossless under every policy: they are neither dropped nor coalesced, and may take the lane past [capacity].
+     * Data points are delivered on the thread which parsed them, and are not affected by the lane.
+
+     * @param tekdaqc  [ATekdaqc] The Tekdaqc to register for.
+     * *
+     * @param listener [IMessageListener] Listener instance to receive the broadcasts.
+     * *
+     * @param capacity The maximum number of messages waiting for the listener.
+     * *
+     * @param policy   [OverflowPolicy] What to do with a message when [capacity] messages are already waiting.
+     */
+    fun addMessageListener(tekdaqc: ATekdaqc, listener: IMessageListener, capacity: Int, policy: OverflowPolicy) {
+        subscribe(mFullListeners, listener, capacity, policy)
     }
 
     /**
-     * Register an object for network message broadcasts for a particular Tekdaqc.
+     * Register an object for network message broadcasts for a particular Tekdaqc. Once
+     * [DeliveryLane.DEFAULT_CAPACITY] messages are waiting for the listener the oldest is dropped, unless it is a
+     * status or error message, which are never dropped.
 
      * @param tekdaqc  [ATekdaqc] The Tekdaqc to register for.
      * *
      * @param listener [IMessageListener] Listener instance to receive the broadcasts.
      */
     fun addNetworkListener(tekdaqc: ATekdaqc, listener: INetworkListener) {
-        val listeners: MutableList<INetworkListener>
-                = mNetworkListeners.computeIfAbsent(tekdaqc, { ArrayList() })
+        addNetworkListener(tekdaqc, listener, DeliveryLane.DEFAULT_CAPACITY, OverflowPolicy.DROP_OLDEST)
+    }
 
-        synchronized(listeners) {
-            if (!listeners.contains(listener)) {
-                listeners.add(listener)
-            }
-        }
+    /**
+     * Register an object for network message broadcasts for a particular Tekdaqc, delivered in order through its own
+     * [DeliveryLane]. As for [addMessageListener], status and error messages are lossless under every policy.
+
+     * @param tekdaqc  [ATekdaqc] The Tekdaqc to register for.
+     * *
+     * @param listener [INetworkListener] Listener instance to receive the broadcasts.
+     * *
+     * @param capacity The maximum number of messages waiting for the listener.
+     * *
+     * @param policy   [OverflowPolicy] What to do with a message when [capacity] messages are already waiting.
+     */
+    fun addNetworkListener(tekdaqc: ATekdaqc, listener: INetworkListener, capacity: Int, policy: OverflowPolicy) {
+        subscribe(mNetworkListeners, listener, capacity, policy)
     }
 
+    /**
+     * Get how far a message listener has fallen behind.
+
+     * @param listener [IMessageListener] The registered listener.
+     * *
+     * @return [DeliveryLaneMetrics] Snapshot of the listener's lane, or null if it is not registered.
+     */
+    fun getMessageListenerMetrics(listener: IMessageListener): DeliveryLaneMetrics? =
+            findSubscription(mFullListeners, listener)?.lane?.metrics
+
+    /**
+     * Get how far a network listener has fallen behind.
+
+     * @param listener [INetworkListener] The registered listener.
+     * *
+     * @return [DeliveryLaneMetrics] Snapshot of the listener's lane, or null if it is not registered.
+     */
+    fun getNetworkListenerMetrics(listener: INetworkListener): DeliveryLaneMetrics? =
+            findSubscription(mNetworkListeners, listener)?.lane?.metrics
+
     /**
      * Un-register an object for network message broadcasts for a particular Tekdaqc.
 
@@ -138,15 +232,7 @@ class MessageBroadcaster {
      * @param listener [IMessageListener] Listener instance to remove from broadcasts.
      */
     fun removeNetworkListener(tekdaqc: ATekdaqc, listener: INetworkListener) {
-        val listeners = mNetworkListeners[tekdaqc]
-        if (listeners != null) {
-            synchronized(listeners) {
-                listeners.remove(listener)
-                if (listeners.size == 0) {
-                    mNetworkListeners.remove(tekdaqc)
-                }
-            }
-        }
+        unsubscribe(mNetworkListeners, listener)
     }
 
     /**
@@ -159,18 +245,7 @@ class MessageBroadcaster {
      * @param listener [IPWMChannelListener] Listener instance to receive the broadcasts.
      */
     fun addPWMChannelListener(tekdaqc: ATekdaqc, input: DigitalInput, listener: IPWMChannelListener) {
-        val listeners: MutableMap<Int, MutableList<IPWMChannelListener>>
-                = mPWMChannelListeners.computeIfAbsent(tekdaqc,
-                { ConcurrentHashMap() })
-
-        synchronized(listeners) {
-            val listenerList: MutableList<IPWMChannelListener>
-                    = listeners.getOrPut(input.channelNumber, { ArrayList<IPWMChannelListener>() })
-
-            if (!listenerList.contains(listener)) {
-                listenerList.add(listener)
-            }
-        }
+        digitalChannel(input).pwm.add(listener)
     }
 
     /**
@@ -183,7 +258,7 @@ class MessageBroadcaster {
      * @param listener [IPWMChannelListener] Listener instance to remove from broadcasts.
      */
     fun removePWMChannelListener(tekdaqc: ATekdaqc, input: DigitalInput, listener: IPWMChannelListener) {
-        unregisterInputListener(tekdaqc, input, listener, mPWMChannelListeners)
+        digitalChannel(input).pwm.remove(listener)
     }
 
     /**
@@ -196,16 +271,82 @@ class MessageBroadcaster {
      * @param listener [ICountListener] Listener instance to receive the broadcasts.
      */
     fun addAnalogChannelListener(tekdaqc: ATekdaqc, input: AAnalogInput, listener: ICountListener) {
-        val listeners: MutableMap<Int, MutableList<ICountListener>>
-                = mAnalogCountListeners.computeIfAbsent(tekdaqc,
-                { ConcurrentHashMap() })
+        analogChannel(input).counts.add(listener)
+    }
+
+    /**
+     * Register an object for decimated count broadcasts for a specific channel on a particular Tekdaqc. Samples which
+     * the [decimation] discards are never delivered.
+
+     * @param tekdaqc    [ATekdaqc] The Tekdaqc to register for.
+     * *
+     * @param input      [AAnalogInput] Physical number of the channel to listen for.
+     * *
+     * @param listener   [ICountListener] Listener instance to receive the broadcasts.
+     * *
+     * @param decimation [Decimation] How the samples are reduced.
+     */
+    fun addAnalogChannelListener(tekdaqc: ATekdaqc,
+                                 input: AAnalogInput,
+                                 listener: ICountListener,
+                                 decimation: Decimation) {
+        addFilter(input, SampleDecimator(listener, decimation, countSink(input, listener)))
+    }
+
+    /**
+     * Register an object for count broadcasts for a specific channel on a particular Tekdaqc, delivering only samples
+     * outside the [deadband] of the last sample delivered to it.
+
+     * @param tekdaqc  [ATekdaqc] The Tekdaqc to register for.
+     * *
+     * @param input    [AAnalogInput] Physical number of the channel to listen for.
+     * *
+     * @param listener [ICountListener] Listener instance to receive the broadcasts.
+     * *
+     * @param deadband [Deadband] How far the channel must move before a sample is delivered.
+     */
+    fun addAnalogChannelListener(tekdaqc: ATekdaqc,
+                                 input: AAnalogInput,
+                                 listener: ICountListener,
+                                 deadband: Deadband) {
+        addFilter(input, DeadbandFilter(input, listener, deadband, countSink(input, listener)))
+    }
 
-        synchronized(listeners) {
-            val listenerList: MutableList<ICountListener>
-                    = listeners.getOrPut(input.channelNumber, { ArrayList() })
+    /**
+     * Register an object for batched count broadcasts for a specific channel on a particular Tekdaqc. A batch is
+     * delivered once it holds [batchSize] samples or its oldest sample has waited for [maxLatency]. The timer checking
+     * the latency runs on the [com.tenkiv.tekdaqc.communication.executors.TekdaqcExecutionRuntime] of the Tekdaqc.
 
-            if (!listenerList.contains(listener)) {
-                listenerList.add(listener)
+     * @param tekdaqc    [ATekdaqc] The Tekdaqc to register for.
+     * *
+     * @param input      [AAnalogInput] Physical number of the channel to listen for.
+     * *
+     * @param listener   [ICountBatchListener] Listener instance to receive the broadcasts.
+     * *
+     * @param batchSize  The maximum number of samples in a batch.
+     * *
+     * @param maxLatency The maximum time a sample waits before its batch is delivered.
+     * *
+     * @param unit       [TimeUnit] The unit of [maxLatency].
+     */
+    fun addAnalogBatchListener(tekdaqc: ATekdaqc,
+                               input: AAnalogInput,
+                               listener: ICountBatchListener,
+                               batchSize: Int,
+                               maxLatency: Long,
+                               unit: TimeUnit) {
+        val batchers = analogChannel(input).batchers
+
+        synchronized(batchers) {
+            if (batchers.listeners.none { (it as CountBatcher).listener == listener }) {
+                val batcher = CountBatcher(input, listener, batchSize, unit.toNanos(maxLatency))
+                val runtime = tekdaqc.executionRuntime
+                batcher.setTimer(runtime.scheduler.scheduleAtFixedRate(
+                        { batcher.requestFlush(runtime.blockingPool) },
+                        batcher.checkPeriodNanos,
+                        batcher.checkPeriodNanos,
+                        TimeUnit.NANOSECONDS))
+                batchers.add(batcher)
             }
         }
     }
@@ -220,18 +361,99 @@ class MessageBroadcaster {
      * @param listener [IVoltageListener] Listener instance to receive the broadcasts.
      */
     fun addAnalogVoltageListener(tekdaqc: ATekdaqc, input: AAnalogInput, listener: IVoltageListener) {
-        val listeners: MutableMap<Int, MutableList<IVoltageListener>>
-                = mAnalogVoltageListeners.computeIfAbsent(tekdaqc,
-                { ConcurrentHashMap() })
+        analogChannel(input).voltages.add(listener)
+    }
 
-        synchronized(listeners) {
-            val listenerList: MutableList<IVoltageListener>
-                    = listeners.getOrPut(input.channelNumber, { ArrayList() })
+    /**
+     * Register an object for decimated voltage broadcasts for a specific channel on a particular Tekdaqc. Samples are
+     * decimated as counts, so samples which the [decimation] discards are never converted to voltages.
 
-            if (!listenerList.contains(listener)) {
-                listenerList.add(listener)
-            }
-        }
+     * @param tekdaqc    [ATekdaqc] The Tekdaqc to register for.
+     * *
+     * @param input      [AAnalogInput] Physical number of the channel to listen for.
+     * *
+     * @param listener   [IVoltageListener] Listener instance to receive the broadcasts.
+     * *
+     * @param decimation [Decimation] How the samples are reduced.
+     */
+    fun addAnalogVoltageListener(tekdaqc: ATekdaqc,
+                                 input: AAnalogInput,
+                                 listener: IVoltageListener,
+                                 decimation: Decimation) {
+        addFilter(input, SampleDecimator(listener, decimation, voltageSink(input, listener)))
+    }
+
+    /**
+     * Register an object for voltage broadcasts for a specific channel on a particular Tekdaqc, delivering only
+     * samples outside the [deadband] of the last sample delivered to it. Samples inside the deadband are never
+     * converted to voltages.
+
+     * @param tekdaqc  [ATekdaqc] The Tekdaqc to register for.
+     * *
+     * @param input    [AAnalogInput] Physical number of the channel to listen for.
+     * *
+     * @param listener [IVoltageListener] Listener instance to receive the broadcasts.
+     * *
+     * @param deadband [Deadband] How far the channel must move before a sample is delivered.
+     */
+    fun addAnalogVoltageListener(tekdaqc: ATekdaqc,
+                                 input: AAnalogInput,
+                                 listener: IVoltageListener,
+                                 deadband: Deadband) {
+        addFilter(input, DeadbandFilter(input, listener, deadband, voltageSink(input, listener)))
+    }
+
+    /**
+     * Register an object for primitive voltage broadcasts for a specific channel on a particular Tekdaqc.
+
+     * @param tekdaqc  [ATekdaqc] The Tekdaqc to register for.
+     * *
+     * @param input    [AAnalogInput] Physical number of the channel to listen for.
+     * *
+     * @param listener [IPrimitiveVoltageListener] Listener instance to receive the broadcasts.
+     */
+    fun addAnalogPrimitiveVoltageListener(tekdaqc: ATekdaqc,
+                                          input: AAnalogInput,
+                                          listener: IPrimitiveVoltageListener) {
+        analogChannel(input).primitiveVoltages.add(listener)
+    }
+
+    /**
+     * Register an object for decimated primitive voltage broadcasts for a specific channel on a particular Tekdaqc.
+     * Samples are decimated as counts, so samples which the [decimation] discards are never converted to voltages.
+
+     * @param tekdaqc    [ATekdaqc] The Tekdaqc to register for.
+     * *
+     * @param input      [AAnalogInput] Physical number of the channel to listen for.
+     * *
+     * @param listener   [IPrimitiveVoltageListener] Listener instance to receive the broadcasts.
+     * *
+     * @param decimation [Decimation] How the samples are reduced.
+     */
+    fun addAnalogPrimitiveVoltageListener(tekdaqc: ATekdaqc,
+                                          input: AAnalogInput,
+                                          listener: IPrimitiveVoltageListener,
+                                          decimation: Decimation) {
+        addFilter(input, SampleDecimator(listener, decimation, primitiveVoltageSink(input, listener)))
+    }
+
+    /**
+     * Register an object for primitive voltage broadcasts for a specific channel on a particular Tekdaqc, delivering
+     * only samples outside the [deadband] of the last sample delivered to it.
+
+     * @param tekdaqc  [ATekdaqc] The Tekdaqc to register for.
+     * *
+     * @param input    [AAnalogInput] Physical number of the channel to listen for.
+     * *
+     * @param listener [IPrimitiveVoltageListener] Listener instance to receive the broadcasts.
+     * *
+     * @param deadband [Deadband] How far the channel must move before a sample is delivered.
+     */
+    fun addAnalogPrimitiveVoltageListener(tekdaqc: ATekdaqc,
+                                          input: AAnalogInput,
+                                          listener: IPrimitiveVoltageListener,
+                                          deadband: Deadband) {
+        addFilter(input, DeadbandFilter(input, listener, deadband, primitiveVoltageSink(input, listener)))
     }
 
     /**
@@ -244,16 +466,26 @@ class MessageBroadcaster {
      * @param listener [IDigitalChannelListener] Listener instance to receive the broadcasts.
      */
     fun addDigitalChannelListener(tekdaqc: ATekdaqc, input: DigitalInput, listener: IDigitalChannelListener) {
-        val listeners: MutableMap<Int, MutableList<IDigitalChannelListener>>
-                = mDigitalChannelListeners.computeIfAbsent(tekdaqc,
-                { ConcurrentHashMap() })
+        digitalChannel(input).states.add(listener)
+    }
+
+    /**
+     * Register an object for broadcasts of level changes for a specific channel on a particular Tekdaqc. Samples with
+     * the same level as the last sample delivered to the listener are discarded, so repeated polling of a quiet input
+     * causes no callbacks.
 
-        synchronized(listeners) {
-            val listenerList: MutableList<IDigitalChannelListener>
-                    = listeners.getOrPut(input.channelNumber, { ArrayList() })
+     * @param tekdaqc  [ATekdaqc] The Tekdaqc to register for.
+     * *
+     * @param input    [DigitalInput] Physical number of the channel to listen for.
+     * *
+     * @param listener [IDigitalChannelListener] Listener instance to receive the broadcasts.
+     */
+    fun addDigitalChangeListener(tekdaqc: ATekdaqc, input: DigitalInput, listener: IDigitalChannelListener) {
+        val changes = digitalChannel(input).changes
 
-            if (!listenerList.contains(listener)) {
-                listenerList.add(listener)
+        synchronized(changes) {
+            if (changes.listeners.none { (it as DigitalChangeFilter).listener == listener }) {
+                changes.add(DigitalChangeFilter(listener))
             }
         }
     }
@@ -266,15 +498,7 @@ class MessageBroadcaster {
      * @param listener [IMessageListener] Listener instance to remove from broadcasts.
      */
     fun removeListener(tekdaqc: ATekdaqc, listener: IMessageListener) {
-        val listeners = mFullListeners[tekdaqc]
-        if (listeners != null) {
-            synchronized(listeners) {
-                listeners.remove(listener)
-                if (listeners.size == 0) {
-                    mFullListeners.remove(tekdaqc)
-                }
-            }
-        }
+        unsubscribe(mFullListeners, listener)
     }
 
     /**
@@ -287,7 +511,30 @@ class MessageBroadcaster {
      * @param listener [ICountListener] Listener instance to remove from broadcasts.
      */
     fun removeAnalogCountListener(tekdaqc: ATekdaqc, input: AAnalogInput, listener: ICountListener) {
-        unregisterInputListener(tekdaqc, input, listener, mAnalogCountListeners)
+        val channel = analogChannel(input)
+        channel.counts.remove(listener)
+        removeFilter(channel, listener)
+    }
+
+    /**
+     * Un-register an object from batched count broadcasts for a particular Tekdaqc. Any samples of its current batch
+     * are delivered before this returns.
+
+     * @param tekdaqc  [ATekdaqc] The Tekdaqc to un-register for.
+     * *
+     * @param input    [AAnalogInput] The input to unregister from
+     * *
+     * @param listener [ICountBatchListener] Listener instance to remove from broadcasts.
+     */
+    fun removeAnalogBatchListener(tekdaqc: ATekdaqc, input: AAnalogInput, listener: ICountBatchListener) {
+        val batchers = analogChannel(input).batchers
+
+        val removed = synchronized(batchers) {
+            val batcher = batchers.listeners.firstOrNull { (it as CountBatcher).listener == listener } as CountBatcher?
+            batcher?.let { batchers.remove(it) }
+            batcher
+        }
+        removed?.close()
     }
 
     /**
@@ -300,7 +547,26 @@ class MessageBroadcaster {
      * @param listener [IVoltageListener] Listener instance to remove from broadcasts.
      */
     fun removeAnalogVoltageListener(tekdaqc: ATekdaqc, input: AAnalogInput, listener: IVoltageListener) {
-        unregisterInputListener(tekdaqc, input, listener, mAnalogVoltageListeners)
+        val channel = analogChannel(input)
+        channel.voltages.remove(listener)
+        removeFilter(channel, listener)
+    }
+
+    /**
+     * Un-register an object from primitive voltage broadcasts for a particular Tekdaqc.
+
+     * @param tekdaqc  [ATekdaqc] The Tekdaqc to un-register for.
+     * *
+     * @param input    [AAnalogInput] The input to unregister from
+     * *
+     * @param listener [IPrimitiveVoltageListener] Listener instance to remove from broadcasts.
+     */
+    fun removeAnalogPrimitiveVoltageListener(tekdaqc: ATekdaqc,
+                                             input: AAnalogInput,
+                                             listener: IPrimitiveVoltageListener) {
+        val channel = analogChannel(input)
+        channel.primitiveVoltages.remove(listener)
+        removeFilter(channel, listener)
     }
 
     /**
@@ -313,22 +579,107 @@ class MessageBroadcaster {
      * @param listener [IDigitalChannelListener] Listener instance to remove from broadcasts.
      */
     fun removeDigitalChannelListener(tekdaqc: ATekdaqc, input: DigitalInput, listener: IDigitalChannelListener) {
-        unregisterInputListener(tekdaqc, input, listener, mDigitalChannelListeners)
-    }
-
-    private fun <IT : IInputOutputHardware, LT> unregisterInputListener(tekdaqc: ATekdaqc,
-                                                                        input: IT,
-                                                                        listener: LT,
-                                                                        listenerMap: MutableMap<ATekdaqc,
-                                                                                MutableMap<Int, MutableList<LT>>>) {
-        val listeners = listenerMap[tekdaqc]?.get(input.channelNumber)
-
-        if (listeners != null) {
-            synchronized(listeners) {
-                listeners.remove(listener)
-                if (listeners.size == 0) {
-                    listenerMap[tekdaqc]?.remove(input.channelNumber)
-                }
+        val channel = digitalChannel(input)
+        channel.states.remove(listener)
+
+        synchronized(channel.changes) {
+            channel.changes.listeners.firstOrNull { (it as DigitalChangeFilter).listener == listener }
+                    ?.let { channel.changes.remove(it as DigitalChangeFilter) }
+        }
+    }
+
+    private fun <LT> subscribe(registry: ListenerRegistry<Subscription<LT>>,
+                               listener: LT,
+                               capacity: Int,
+                               policy: OverflowPolicy) {
+        synchronized(registry) {
+            if (findSubscription(registry, listener) == null) {
+                registry.add(Subscription(listener, DeliveryLane(mLaneExecutor, capacity, policy)))
+            }
+        }
+    }
+
+    private fun <LT> unsubscribe(registry: ListenerRegistry<Subscription<LT>>, listener: LT) {
+        val removed = synchronized(registry) {
+            val subscription = findSubscription(registry, listener)
+            subscription?.let { registry.remove(it) }
+            subscription
+        }
+        removed?.lane?.close()
+    }
+
+    private fun <LT> findSubscription(registry: ListenerRegistry<Subscription<LT>>, listener: LT): Subscription<LT>? {
+        for (subscription in registry.listeners) {
+            @Suppress("UNCHECKED_CAST")
+            if ((subscription as Subscription<LT>).listener == listener) return subscription
+        }
+        return null
+    }
+
+    private fun addFilter(input: AAnalogInput, filter: SampleFilter) {
+        val filters = analogChannel(input).filters
+
+        synchronized(filters) {
+            if (filters.listeners.none { (it as SampleFilter).listener == filter.listener }) {
+                filters.add(filter)
+            }
+        }
+    }
+
+    private fun removeFilter(channel: AnalogChannelListeners, listener: Any) {
+        val filters = channel.filters
+
+        synchronized(filters) {
+            filters.listeners.firstOrNull { (it as SampleFilter).listener == listener }
+                    ?.let { filters.remove(it as SampleFilter) }
+        }
+    }
+
+    private fun countSink(input: AAnalogInput, listener: ICountListener) = SampleFilter.Sink { _, count ->
+        listener.onAnalogDataReceived(input, count)
+    }
+
+    private fun voltageSink(input: AAnalogInput, listener: IVoltageListener) = SampleFilter.Sink { timestamp, count ->
+        listener.onVoltageDataReceived(input, ValueInstant<ComparableQuantity<ElectricPotential>>(
+                Quantities.getQuantity(count * input.voltsPerCount, Units.VOLT),
+                Instant.ofEpochMilli(timestamp)))
+    }
+
+    private fun primitiveVoltageSink(input: AAnalogInput, listener: IPrimitiveVoltageListener) =
+            SampleFilter.Sink { timestamp, count ->
+                listener.onVoltageReceived(input, timestamp, count * input.voltsPerCount)
+            }
+
+    /**
+     * Get the listeners of an analog input, remembering the input so broadcasts need not look it up.
+     */
+    private fun analogChannel(input: AAnalogInput): AnalogChannelListeners {
+        val channel = mAnalogChannels[input.channelNumber]
+        channel.input = input
+        return channel
+    }
+
+    /**
+     * Get the listeners of a digital input, remembering the input so broadcasts need not look it up.
+     */
+    private fun digitalChannel(input: DigitalInput): DigitalChannelListeners {
+        val channel = mDigitalChannels[input.channelNumber]
+        channel.input = input
+        return channel
+    }
+
+    /**
+     * Call [action] for each listener of a registry snapshot, without locking. An exception thrown by one listener is
+     * reported and does not prevent delivery to the others.
+     */
+    private inline fun <LT> ListenerRegistry<LT>.dispatch(action: (LT) -> Unit) {
+        for (listener in listeners) {
+            try {
+                @Suppress("UNCHECKED_CAST")
+                action(listener as LT)
+            } catch (e: Exception) {
+                System.err.println("MessageBroadcaster absorbing Exception from listener: ")
+                e.printStackTrace()
             }
         }
     }
@@ -342,7 +693,15 @@ class MessageBroadcaster {
      * @param message [ABoardMessage] The message to broadcast.
      */
     fun broadcastMessage(tekdaqc: ATekdaqc, message: ABoardMessage) {
-        mCallbackThreadpool.execute(BroadcastRunnable(tekdaqc, message))
+        if (isLossless(message)) {
+            mQueueListener?.let { listener ->
+                mQueueLane.offer(null, Runnable { listener.onStatusMessageReceived(tekdaqc, message) })
+            }
+        }
+
+        mFullListeners.dispatch { subscription ->
+            offer(subscription.lane, message, Runnable { deliverMessage(subscription.listener, tekdaqc, message) })
+        }
     }
 
     /**
@@ -353,7 +712,11 @@ class MessageBroadcaster {
      * @param message [ABoardMessage] The message to broadcast.
      */
     fun broadcastNetworkError(tekdaqc: ATekdaqc, message: ABoardMessage) {
-        mCallbackThreadpool.execute(NetworkBroadcastRunnable(tekdaqc, message))
+        mNetworkListeners.dispatch { subscription ->
+            offer(subscription.lane, message, Runnable {
+                subscription.listener.onNetworkConditionDetected(tekdaqc, message)
+            })
+        }
     }
 
     /**
@@ -364,48 +727,46 @@ class MessageBroadcaster {
      * @param data    [AnalogInputCountData] The data point to broadcast.
      */
     fun broadcastAnalogInputDataPoint(tekdaqc: ATekdaqc, data: AnalogInputCountData) {
-        val listeners = mFullListeners[tekdaqc]
-        if (listeners != null) {
-            synchronized(listeners) {
-                listeners.forEach { listener ->
-                    listener.onAnalogInputDataReceived(tekdaqc, data)
-                }
-            }
+        mRecordSink?.onAnalogSample(data.physicalInput, data.sequence, data.timestamp, data.data)
+        mHistory?.recordAnalog(data.physicalInput, data.timestamp, data.data)
+
+        mFullListeners.dispatch { subscription ->
+            subscription.listener.onAnalogInputDataReceived(tekdaqc, data)
         }
 
-        if (mAnalogCountListeners.containsKey(tekdaqc)) {
-            if (mAnalogCountListeners[tekdaqc]?.containsKey(data.physicalInput) == true) {
-                val channelListeners = mAnalogCountListeners[tekdaqc]?.get(data.physicalInput)
-                channelListeners?.let {
-                    synchronized(it) {
-                        channelListeners.forEach { listener ->
-                            listener.onAnalogDataReceived(tekdaqc.getAnalogInput(data.physicalInput), data.data)
-                        }
-                    }
-                }
-            }
+        val channel = mAnalogChannels.getOrNull(data.physicalInput) ?: return
+
+        mLatestValues?.let { latestValues ->
+            val input = channel.input ?: tekdaqc.getAnalogInput(data.physicalInput)
+            latestValues.putAnalog(data.physicalInput, data.timestamp, data.data, data.data * input.voltsPerCount)
+        }
+
+        channel.batchers.dispatch { batcher -> batcher.add(data.timestamp, data.data) }
+
+        // Filters work on the raw counts, so discarded samples cost no conversion
+        channel.filters.dispatch { filter -> filter.add(data.timestamp, data.data) }
+
+        val hasVoltageListeners = !channel.voltages.isEmpty || !channel.primitiveVoltages.isEmpty
+        if (channel.counts.isEmpty && !hasVoltageListeners) return
+        val input = channel.input ?: tekdaqc.getAnalogInput(data.physicalInput)
+
+        channel.counts.dispatch { listener ->
+            listener.onAnalogDataReceived(input, data.data)
+        }
+
+        if (!hasVoltageListeners) return
+        val volts = data.data * input.voltsPerCount
+
+        channel.primitiveVoltages.dispatch { listener ->
+            listener.onVoltageReceived(input, data.timestamp, volts)
         }
 
-        if (mAnalogVoltageListeners.containsKey(tekdaqc)) {
-            if (mAnalogVoltageListeners[tekdaqc]?.containsKey(data.physicalInput) == true) {
-                val channelListeners = mAnalogVoltageListeners[tekdaqc]?.get(data.physicalInput)
-                channelListeners?.let {
-                    synchronized(it) {
-
-                        val quant = Quantities.getQuantity(
-                                tekdaqc.convertAnalogInputDataToVoltage(
-                                        data,
-                                        tekdaqc.analogScale), Units.VOLT)
-                        channelListeners.forEach { listener ->
-                            listener.onVoltageDataReceived(
-                                    tekdaqc.getAnalogInput(data.physicalInput),
-                                    ValueInstant<ComparableQuantity<ElectricPotential>>(
-                                            quant,
-                                            Instant.ofEpochMilli(data.timestamp)))
-                        }
-
-                    }
-                }
+        if (!channel.voltages.isEmpty) {
+            val value = ValueInstant<ComparableQuantity<ElectricPotential>>(
+                    Quantities.getQuantity(volts, Units.VOLT),
+                    Instant.ofEpochMilli(data.timestamp))
+            channel.voltages.dispatch { listener ->
+                listener.onVoltageDataReceived(input, value)
             }
         }
     }
@@ -418,27 +779,22 @@ class MessageBroadcaster {
      * @param data    [DigitalInputData] The data point to broadcast.
      */
     fun broadcastDigitalInputDataPoint(tekdaqc: ATekdaqc, data: DigitalInputData) {
-        val listeners = mFullListeners[tekdaqc]
-        listeners?.let {
-            synchronized(it) {
-                for (listener in listeners) {
-                    listener.onDigitalInputDataReceived(tekdaqc, data)
-                }
-            }
+        mRecordSink?.onDigitalSample(data.physicalInput, data.sequence, data.timestamp, data.state)
+        mHistory?.recordDigital(data.physicalInput, data.timestamp, data.state)
+        mLatestValues?.putDigital(data.physicalInput, data.timestamp, data.state)
+
+        mFullListeners.dispatch { subscription ->
+            subscription.listener.onDigitalInputDataReceived(tekdaqc, data)
         }
 
-        if (mDigitalChannelListeners.containsKey(tekdaqc)) {
-            if (mDigitalChannelListeners[tekdaqc]?.containsKey(data.physicalInput) == true) {
-                val channelListeners = mDigitalChannelListeners[tekdaqc]?.get(data.physicalInput)
-                channelListeners?.let {
-                    synchronized(it) {
-                        channelListeners.forEach { listener ->
-                            listener.onDigitalDataReceived(tekdaqc.getDigitalInput(data.physicalInput), data)
-                        }
-                    }
-                }
-            }
+        val channel = mDigitalChannels.getOrNull(data.physicalInput) ?: return
+        if (channel.states.isEmpty && channel.changes.isEmpty) return
+        val input = channel.input ?: tekdaqc.getDigitalInput(data.physicalInput)
+
+        channel.states.dispatch { listener ->
+            listener.onDigitalDataReceived(input, data)
         }
+        channel.changes.dispatch { filter -> filter.add(input, data) }
     }
 
     /**
@@ -449,68 +805,98 @@ class MessageBroadcaster {
      * @param data    [DigitalInputData] The data point to broadcast.
      */
     fun broadcastPWMInputDataPoint(tekdaqc: ATekdaqc, data: PWMInputData) {
-        if (mPWMChannelListeners.containsKey(tekdaqc)) {
-            if (mPWMChannelListeners[tekdaqc]?.containsKey(data.physicalInput) == true) {
-                val channelListeners = mPWMChannelListeners[tekdaqc]?.get(data.physicalInput)
-                channelListeners?.let {
-                    synchronized(it) {
-                        channelListeners.forEach { listener ->
-                            listener.onPWMDataReceived(tekdaqc.getDigitalInput(data.physicalInput), data)
-                        }
-                    }
-                }
+        mRecordSink?.onPWMSample(
+                data.physicalInput, data.sequence, data.timestamp, data.percentageOn, data.totalTransitions)
+        mLatestValues?.putPWM(data.physicalInput, data.timestamp, data.percentageOn, data.totalTransitions)
+
+        val channel = mDigitalChannels.getOrNull(data.physicalInput) ?: return
+        if (!channel.pwm.isEmpty) {
+            val input = channel.input ?: tekdaqc.getDigitalInput(data.physicalInput)
+            channel.pwm.dispatch { listener ->
+                listener.onPWMDataReceived(input, data)
             }
         }
     }
 
     /**
-     * Class that wraps callbacks from the [com.tenkiv.tekdaqc.communication.ascii.executors.ASCIIParsingExecutor]
-     * so that they are called back in a different thread.
+     * Status and error messages report the outcome of commands, so they are never dropped or coalesced by a lane.
      */
-    private inner class BroadcastRunnable(internal val mTekdaqc: ATekdaqc,
-                                          internal val mMessage: ABoardMessage) : Runnable {
-
-        override fun run() {
+    private fun isLossless(message: ABoardMessage) = message.type == ASCIIMessageUtils.MESSAGE_TYPE.STATUS
+            || message.type == ASCIIMessageUtils.MESSAGE_TYPE.ERROR
 
-            if (mMessage.type == ASCIIMessageUtils.MESSAGE_TYPE.STATUS) {
-                mQueueListeners[mTekdaqc]?.onStatusMessageReceived(mTekdaqc, mMessage)
-            } else if (mMessage.type == ASCIIMessageUtils.MESSAGE_TYPE.ERROR) {
-                mQueueListeners[mTekdaqc]?.onStatusMessageReceived(mTekdaqc, mMessage)
-            }
+    private fun offer(lane: DeliveryLane, message: ABoardMessage, delivery: Runnable) {
+        if (isLossless(message)) lane.offerLossless(delivery) else lane.offer(message.type, delivery)
+    }
 
-            val listeners = mFullListeners[mTekdaqc]
-            if (listeners != null) {
-                synchronized(listeners) {
-                    for (listener in listeners) {
-                        when (mMessage.type) {
-                            ASCIIMessageUtils.MESSAGE_TYPE.DEBUG ->
-                                listener.onDebugMessageReceived(mTekdaqc, mMessage)
-                            ASCIIMessageUtils.MESSAGE_TYPE.STATUS ->
-                                listener.onStatusMessageReceived(mTekdaqc, mMessage)
-                            ASCIIMessageUtils.MESSAGE_TYPE.ERROR ->
-                                listener.onErrorMessageReceived(mTekdaqc, mMessage)
-                            ASCIIMessageUtils.MESSAGE_TYPE.COMMAND_DATA ->
-                                listener.onCommandDataMessageReceived(mTekdaqc, mMessage)
-                            ASCIIMessageUtils.MESSAGE_TYPE.DIGITAL_OUTPUT_DATA -> {
-                                listener.onDigitalOutputDataReceived(
-                                        mTekdaqc,
-                                        (mMessage as ASCIIDigitalOutputDataMessage).digitalOutputArray)
-                                System.err.println("Unknown message type with serial: " + mTekdaqc.serialNumber)
-                            }
-                            else -> System.err.println("Unknown message type with serial: " + mTekdaqc.serialNumber)
-                        }
-                    }
-                }
+    private fun deliverMessage(listener: IMessageListener, tekdaqc: ATekdaqc, message: ABoardMessage) {
+        when (message.type) {
+            ASCIIMessageUtils.MESSAGE_TYPE.DEBUG ->
+                listener.onDebugMessageReceived(tekdaqc, message)
+            ASCIIMessageUtils.MESSAGE_TYPE.STATUS ->
+                listener.onStatusMessageReceived(tekdaqc, message)
+            ASCIIMessageUtils.MESSAGE_TYPE.ERROR ->
+                listener.onErrorMessageReceived(tekdaqc, message)
+            ASCIIMessageUtils.MESSAGE_TYPE.COMMAND_DATA ->
+                listener.onCommandDataMessageReceived(tekdaqc, message)
+            ASCIIMessageUtils.MESSAGE_TYPE.DIGITAL_OUTPUT_DATA -> {
+                listener.onDigitalOutputDataReceived(
+                        tekdaqc,
+                        (message as ASCIIDigitalOutputDataMessage).digitalOutputArray)
+                System.err.println("Unknown message type with serial: " + tekdaqc.serialNumber)
             }
+            else -> System.err.println("Unknown message type with serial: " + tekdaqc.serialNumber)
         }
     }
 
-    private inner class NetworkBroadcastRunnable(
-            internal val mTekdaqc: ATekdaqc, internal val mMessage: ABoardMessage) : Runnable {
+    /**
+     * A listener together with the lane delivering its messages.
+     */
+    private class Subscription<out LT>(val listener: LT, val lane: DeliveryLane)
 
-        override fun run() {
-            val listeners = mNetworkListeners[mTekdaqc]
-            listeners?.forEach { listener -> listener.onNetworkConditionDetected(mTekdaqc, mMessage) }
-        }
+    /**
+     * Listeners of a single analog input.
+     */
+    private class AnalogChannelListeners {
+
+        @Volatile
+        var input: AAnalogInput? = null
+
+        val counts = ListenerRegistry<ICountListener>()
+
+        val batchers = ListenerRegistry<CountBatcher>()
+
+        val voltages = ListenerRegistry<IVoltageListener>()
+
+        val primitiveVoltages = ListenerRegistry<IPrimitiveVoltageListener>()
+
+        val filters = ListenerRegistry<SampleFilter>()
+    }
+
+    /**
+     * Listeners of a single digital input.
+     */
+    private class DigitalChannelListeners {
+
+        @Volatile
+        var input: DigitalInput? = null
+
+        val states = ListenerRegistry<IDigitalChannelListener>()
+
+        val changes = ListenerRegistry<DigitalChangeFilter>()
+
+        val pwm = ListenerRegistry<IPWMChannelListener>()
+    }
+
+    companion object {
+
+        /**
+         * Number of analog channel slots, covering the analog inputs and the temperature reference.
+         */
+        const val ANALOG_CHANNEL_SLOTS = Tekdaqc_RevD.ANALOG_INPUT_TEMP_SENSOR + 1
+
+        /**
+         * Number of digital channel slots.
+         */
+        const val DIGITAL_CHANNEL_SLOTS = Tekdaqc_RevD.DIGITAL_INPUT_COUNT
     }
 }
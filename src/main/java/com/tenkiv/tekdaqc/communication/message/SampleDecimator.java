@@ -0,0 +1,96 @@
+package com.tenkiv.tekdaqc.communication.message;
+
+/**
+ * {@link SampleFilter} applying a {@link Decimation}.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+final class SampleDecimator extends SampleFilter {
+
+    private final Decimation mDecimation;
+
+    /**
+     * Samples to skip before the next delivery under {@link Decimation.Mode#EVERY_NTH}.
+     */
+    private long mSkip;
+
+    /**
+     * Timestamp ending the current interval or window.
+     */
+    private long mPeriodEnd = Long.MIN_VALUE;
+
+    private boolean mWindowEmpty = true;
+
+    private long mMinTimestamp;
+
+    private int mMinCount;
+
+    private long mMaxTimestamp;
+
+    private int mMaxCount;
+
+    /**
+     * Constructor.
+     *
+     * @param listener   Object The listener the samples are for, identifying this decimator.
+     * @param decimation {@link Decimation} The decimation to apply.
+     * @param sink       {@link Sink} Converts the surviving samples and delivers them to the listener.
+     */
+    SampleDecimator(final Object listener, final Decimation decimation, final Sink sink) {
+        super(listener, sink);
+        mDecimation = decimation;
+    }
+
+    @Override
+    synchronized void add(final long timestamp, final int count) {
+        switch (mDecimation.getMode()) {
+            case EVERY_NTH:
+                if (mSkip == 0) {
+                    mSkip = mDecimation.getParameter() - 1;
+                    mSink.accept(timestamp, count);
+                } else {
+                    --mSkip;
+                }
+                break;
+            case MAX_RATE:
+                if (mPeriodEnd == Long.MIN_VALUE || timestamp >= mPeriodEnd) {
+                    mPeriodEnd = timestamp + mDecimation.getParameter();
+                    mSink.accept(timestamp, count);
+                }
+                break;
+            case MIN_MAX:
+                addToWindow(timestamp, count);
+                break;
+        }
+    }
+
+    private void addToWindow(final long timestamp, final int count) {
+        if (!mWindowEmpty && timestamp >= mPeriodEnd) {
+            mWindowEmpty = true;
+            if (mMinTimestamp == mMaxTimestamp && mMinCount == mMaxCount) {
+                mSink.accept(mMinTimestamp, mMinCount);
+            } else if (mMinTimestamp <= mMaxTimestamp) {
+                mSink.accept(mMinTimestamp, mMinCount);
+                mSink.accept(mMaxTimestamp, mMaxCount);
+            } else {
+                mSink.accept(mMaxTimestamp, mMaxCount);
+                mSink.accept(mMinTimestamp, mMinCount);
+            }
+        }
+        if (mWindowEmpty) {
+            final long window = mDecimation.getParameter();
+            // Windows are aligned to multiples of their length, so all listeners of a window see the same boundaries
+            mPeriodEnd = Math.floorDiv(timestamp, window) * window + window;
+            mWindowEmpty = false;
+            mMinTimestamp = mMaxTimestamp = timestamp;
+            mMinCount = mMaxCount = count;
+        } else if (count < mMinCount) {
+            mMinTimestamp = timestamp;
+            mMinCount = count;
+        } else if (count > mMaxCount) {
+            mMaxTimestamp = timestamp;
+            mMaxCount = count;
+        }
+    }
+}
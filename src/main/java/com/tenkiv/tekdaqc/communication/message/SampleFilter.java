@@ -0,0 +1,56 @@
+package com.tenkiv.tekdaqc.communication.message;
+
+/**
+ * Reduces the counts of one analog input for a single listener, passing the samples which survive to a {@link Sink}.
+ * Filters run on the broadcasting thread before any conversion, so a discarded sample costs no further work. Samples
+ * are delivered in order and never concurrently.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+abstract class SampleFilter {
+
+    private final Object mListener;
+
+    /**
+     * Converts the surviving samples and delivers them to the listener.
+     */
+    protected final Sink mSink;
+
+    /**
+     * Constructor.
+     *
+     * @param listener Object The listener the samples are for, identifying this filter.
+     * @param sink     {@link Sink} Converts the surviving samples and delivers them to the listener.
+     */
+    SampleFilter(final Object listener, final Sink sink) {
+        mListener = listener;
+        mSink = sink;
+    }
+
+    Object getListener() {
+        return mListener;
+    }
+
+    /**
+     * Add a sample, delivering any samples it causes to survive.
+     *
+     * @param timestamp long The timestamp of the sample, in milliseconds.
+     * @param count     int The count of the sample.
+     */
+    abstract void add(long timestamp, int count);
+
+    /**
+     * Receives the samples which survive filtering.
+     */
+    interface Sink {
+
+        /**
+         * Called for each surviving sample.
+         *
+         * @param timestamp long The timestamp of the sample, in milliseconds.
+         * @param count     int The count of the sample.
+         */
+        void accept(long timestamp, int count);
+    }
+}
@@ -0,0 +1,27 @@
+package com.tenkiv.tekdaqc.communication.streams;
+
+/**
+ * What an {@link IChannelPublisher} does with a new sample when its subscriber has not requested it and the buffer
+ * holding samples for that subscriber is full.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+public enum BackpressureStrategy {
+
+    /**
+     * Fail the stream with an {@link IllegalStateException}, so no sample is ever silently lost.
+     */
+    BUFFER,
+
+    /**
+     * Discard the new sample, keeping those already buffered.
+     */
+    DROP,
+
+    /**
+     * Discard the oldest buffered sample, so the subscriber always receives the most recent ones. With a buffer size
+     * of 1, only the latest sample is kept.
+     */
+    LATEST
+}
@@ -0,0 +1,61 @@
+package com.tenkiv.tekdaqc.communication.streams;
+
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * {@link IChannelPublisher} which registers a channel listener for each subscriber. Samples from the listener are
+ * held in a bounded buffer for that subscriber and delivered on the delivery {@link Executor} as they are requested,
+ * so a slow subscriber never holds up the thread broadcasting the samples.
+ *
+ * @param <T> The type of sample published.
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+public final class ChannelPublisher<T> implements IChannelPublisher<T> {
+
+    /**
+     * Default number of samples buffered for each subscriber.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 256;
+
+    private final Executor mExecutor;
+
+    private final int mBufferSize;
+
+    private final BackpressureStrategy mStrategy;
+
+    private final Function<Consumer<T>, Runnable> mSource;
+
+    /**
+     * Constructor.
+     *
+     * @param executor   {@link Executor} The executor samples are delivered on.
+     * @param bufferSize int The maximum number of samples buffered for each subscriber.
+     * @param strategy   {@link BackpressureStrategy} What to do with a sample when a subscriber's buffer is full.
+     * @param source     {@link Function} Registers a listener passing each sample to the given {@link Consumer}, and
+     *                   returns a {@link Runnable} which un-registers it. Any sample passed to the consumer must not be
+     *                   modified afterwards.
+     */
+    public ChannelPublisher(final Executor executor, final int bufferSize, final BackpressureStrategy strategy,
+                            final Function<Consumer<T>, Runnable> source) {
+        if (executor == null || strategy == null || source == null) {
+            throw new IllegalArgumentException("Executor, strategy and source cannot be null.");
+        }
+        if (bufferSize < 1) throw new IllegalArgumentException("Buffer size must be positive.");
+        mExecutor = executor;
+        mBufferSize = bufferSize;
+        mStrategy = strategy;
+        mSource = source;
+    }
+
+    @Override
+    public void subscribe(final IChannelSubscriber<? super T> subscriber) {
+        if (subscriber == null) throw new NullPointerException("Subscriber cannot be null.");
+        final ChannelSubscription<T> subscription =
+                new ChannelSubscription<>(subscriber, mExecutor, mBufferSize, mStrategy);
+        subscriber.onSubscribe(subscription);
+        subscription.attach(mSource.apply(subscription));
+    }
+}
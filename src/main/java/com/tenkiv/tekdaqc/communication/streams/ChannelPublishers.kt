@@ -0,0 +1,55 @@
+package com.tenkiv.tekdaqc.communication.streams
+
+/**
+ * Subscribe to an [IChannelPublisher] with lambdas. Samples are requested [prefetch] at a time, and more are requested
+ * once half of them have been handled, so a slow [onNext] is never sent more than [prefetch] samples ahead.
+
+ * @param prefetch   The maximum number of samples requested but not yet handled.
+ * *
+ * @param onError    Called if the stream fails.
+ * *
+ * @param onNext     Called with each sample.
+ * *
+ * @return [IChannelSubscription] The subscription, which can be used to cancel the stream.
+ */
+fun <T> IChannelPublisher<T>.subscribe(prefetch: Long = 64,
+                                       onError: (Throwable) -> Unit = { it.printStackTrace() },
+                                       onNext: (T) -> Unit): IChannelSubscription {
+    require(prefetch > 0) { "Prefetch must be positive." }
+    val subscriber = LambdaSubscriber(prefetch, onError, onNext)
+    subscribe(subscriber)
+    return subscriber.subscription
+}
+
+/**
+ * [IChannelSubscriber] which replenishes its demand in batches.
+ */
+private class LambdaSubscriber<T>(private val prefetch: Long,
+                                  private val onError: (Throwable) -> Unit,
+                                  private val onNext: (T) -> Unit) : IChannelSubscriber<T> {
+
+    private val replenishAt = maxOf(prefetch / 2, 1L)
+
+    private var outstanding = prefetch
+
+    lateinit var subscription: IChannelSubscription
+
+    override fun onSubscribe(subscription: IChannelSubscription) {
+        this.subscription = subscription
+        subscription.request(prefetch)
+    }
+
+    override fun onNext(item: T) {
+        onNext.invoke(item)
+        if (--outstanding <= prefetch - replenishAt) {
+            subscription.request(prefetch - outstanding)
+            outstanding = prefetch
+        }
+    }
+
+    override fun onError(throwable: Throwable) {
+        onError.invoke(throwable)
+    }
+
+    override fun onComplete() {}
+}
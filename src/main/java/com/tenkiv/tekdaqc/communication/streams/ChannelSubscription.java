@@ -0,0 +1,180 @@
+package com.tenkiv.tekdaqc.communication.streams;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Subscription of a single {@link IChannelSubscriber} to a {@link ChannelPublisher}. Samples are accepted from the
+ * broadcasting thread into a bounded buffer, and a drain task on the delivery executor passes them to the subscriber
+ * as demand allows. At most one drain runs at a time, so calls to the subscriber are never concurrent.
+ *
+ * @param <T> The type of sample delivered.
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+final class ChannelSubscription<T> implements IChannelSubscription, Consumer<T> {
+
+    private final IChannelSubscriber<? super T> mSubscriber;
+
+    private final Executor mExecutor;
+
+    private final int mBufferSize;
+
+    private final BackpressureStrategy mStrategy;
+
+    /**
+     * Samples waiting for demand. Guarded by this.
+     */
+    private final ArrayDeque<T> mBuffer = new ArrayDeque<>();
+
+    /**
+     * Failure to deliver once the buffer is empty. Guarded by this.
+     */
+    private Throwable mError;
+
+    private final AtomicLong mRequested = new AtomicLong();
+
+    /**
+     * Number of times a drain has been asked for since the running drain started.
+     */
+    private final AtomicInteger mWip = new AtomicInteger();
+
+    /**
+     * Un-registers the channel listener feeding this subscription.
+     */
+    private final AtomicReference<Runnable> mDetach = new AtomicReference<>();
+
+    private volatile boolean mCancelled;
+
+    private final Runnable mDrain = this::drain;
+
+    ChannelSubscription(final IChannelSubscriber<? super T> subscriber, final Executor executor, final int bufferSize,
+                        final BackpressureStrategy strategy) {
+        mSubscriber = subscriber;
+        mExecutor = executor;
+        mBufferSize = bufferSize;
+        mStrategy = strategy;
+    }
+
+    /**
+     * Set the listener feeding this subscription, un-registering it immediately if it has already been cancelled.
+     *
+     * @param detach {@link Runnable} Un-registers the listener.
+     */
+    void attach(final Runnable detach) {
+        mDetach.set(detach);
+        if (mCancelled) detach();
+    }
+
+    @Override
+    public void accept(final T item) {
+        boolean failed = false;
+        synchronized (this) {
+            if (mCancelled || mError != null) return;
+            if (mBuffer.size() >= mBufferSize) {
+                switch (mStrategy) {
+                    case DROP:
+                        return;
+                    case LATEST:
+                        mBuffer.poll();
+                        break;
+                    default:
+                        mBuffer.clear();
+                        mError = new IllegalStateException(
+                                "Subscriber fell more than " + mBufferSize + " samples behind.");
+                        failed = true;
+                }
+            }
+            if (!failed) mBuffer.add(item);
+        }
+        if (failed) detach();
+        schedule();
+    }
+
+    @Override
+    public void request(final long n) {
+        if (n <= 0) {
+            synchronized (this) {
+                mBuffer.clear();
+                if (mError == null) mError = new IllegalArgumentException("Requested a non-positive number: " + n);
+            }
+            detach();
+        } else {
+            long current;
+            long updated;
+            do {
+                current = mRequested.get();
+                if (current == Long.MAX_VALUE) return;
+                updated = current + n;
+                if (updated < 0) updated = Long.MAX_VALUE;
+            } while (!mRequested.compareAndSet(current, updated));
+        }
+        schedule();
+    }
+
+    @Override
+    public void cancel() {
+        mCancelled = true;
+        detach();
+        synchronized (this) {
+            mBuffer.clear();
+        }
+    }
+
+    private void detach() {
+        final Runnable detach = mDetach.getAndSet(null);
+        if (detach != null) detach.run();
+    }
+
+    private void schedule() {
+        if (mWip.getAndIncrement() == 0) {
+            try {
+                mExecutor.execute(mDrain);
+            } catch (final RejectedExecutionException e) {
+                // The delivery executor has been shut down, so nothing more can be delivered
+                cancel();
+            }
+        }
+    }
+
+    private void drain() {
+        int missed = 1;
+        while (true) {
+            final long requested = mRequested.get();
+            long emitted = 0;
+            while (!mCancelled) {
+                final T item;
+                final Throwable error;
+                synchronized (this) {
+                    item = (emitted != requested) ? mBuffer.poll() : null;
+                    error = mBuffer.isEmpty() ? mError : null;
+                }
+                if (item != null) {
+                    try {
+                        mSubscriber.onNext(item);
+                    } catch (final RuntimeException e) {
+                        // Subscribers must not throw, so this one is considered cancelled
+                        System.err.println("ChannelSubscription cancelling after exception from subscriber: ");
+                        e.printStackTrace();
+                        cancel();
+                    }
+                    ++emitted;
+                } else {
+                    if (error != null) {
+                        mCancelled = true;
+                        mSubscriber.onError(error);
+                    }
+                    break;
+                }
+            }
+            if (emitted != 0 && requested != Long.MAX_VALUE) mRequested.addAndGet(-emitted);
+            missed = mWip.addAndGet(-missed);
+            if (missed == 0) return;
+        }
+    }
+}
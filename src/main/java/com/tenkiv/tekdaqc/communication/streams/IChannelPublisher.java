@@ -0,0 +1,21 @@
+package com.tenkiv.tekdaqc.communication.streams;
+
+/**
+ * Source of a stream of samples from a Tekdaqc channel, delivered according to the demand of each subscriber. The
+ * methods mirror {@code java.util.concurrent.Flow.Publisher} and {@code org.reactivestreams.Publisher}, so either can
+ * be adapted to with a single lambda.
+ *
+ * @param <T> The type of sample published.
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+public interface IChannelPublisher<T> {
+
+    /**
+     * Subscribe to the stream. {@link IChannelSubscriber#onSubscribe(IChannelSubscription)} is called before this
+     * returns, and no samples are delivered until they are requested.
+     *
+     * @param subscriber {@link IChannelSubscriber} The subscriber to deliver samples to.
+     */
+    void subscribe(IChannelSubscriber<? super T> subscriber);
+}
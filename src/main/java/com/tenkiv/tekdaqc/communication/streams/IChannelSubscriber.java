@@ -0,0 +1,39 @@
+package com.tenkiv.tekdaqc.communication.streams;
+
+/**
+ * Receiver of a stream from an {@link IChannelPublisher}. Calls to a subscriber are never made concurrently. The
+ * methods mirror {@code java.util.concurrent.Flow.Subscriber}.
+ *
+ * @param <T> The type of sample received.
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+public interface IChannelSubscriber<T> {
+
+    /**
+     * Called once, before any other method, with the subscription used to request samples.
+     *
+     * @param subscription {@link IChannelSubscription} The subscription.
+     */
+    void onSubscribe(IChannelSubscription subscription);
+
+    /**
+     * Called with each requested sample.
+     *
+     * @param item T The sample.
+     */
+    void onNext(T item);
+
+    /**
+     * Called when the stream has failed, such as when a {@link BackpressureStrategy#BUFFER} subscriber has fallen
+     * too far behind. No further calls are made.
+     *
+     * @param throwable {@link Throwable} The cause of the failure.
+     */
+    void onError(Throwable throwable);
+
+    /**
+     * Called when the stream has ended. No further calls are made.
+     */
+    void onComplete();
+}
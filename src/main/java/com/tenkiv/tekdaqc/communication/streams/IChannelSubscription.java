@@ -0,0 +1,25 @@
+package com.tenkiv.tekdaqc.communication.streams;
+
+/**
+ * Link between an {@link IChannelPublisher} and one of its {@link IChannelSubscriber}s. The methods mirror
+ * {@code java.util.concurrent.Flow.Subscription}.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+public interface IChannelSubscription {
+
+    /**
+     * Request more samples. Demand accumulates, and a total of {@link Long#MAX_VALUE} is treated as unbounded.
+     * Requesting a non-positive number fails the stream with an {@link IllegalArgumentException}.
+     *
+     * @param n long The number of additional samples to deliver.
+     */
+    void request(long n);
+
+    /**
+     * Stop delivering samples and release the channel listener behind the stream. Samples waiting in the buffer are
+     * discarded.
+     */
+    void cancel();
+}
@@ -1,12 +1,22 @@
 package com.tenkiv.tekdaqc.hardware;
 
+import com.tenkiv.tekdaqc.communication.message.Deadband;
+import com.tenkiv.tekdaqc.communication.message.Decimation;
 import com.tenkiv.tekdaqc.communication.message.ICountListener;
+import com.tenkiv.tekdaqc.communication.message.IPrimitiveVoltageListener;
 import com.tenkiv.tekdaqc.communication.message.IVoltageListener;
+import com.tenkiv.tekdaqc.communication.streams.BackpressureStrategy;
+import com.tenkiv.tekdaqc.communication.streams.ChannelPublisher;
+import com.tenkiv.tekdaqc.communication.streams.IChannelPublisher;
+import org.tenkiv.coral.ValueInstant;
+import tec.units.indriya.ComparableQuantity;
 
 import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
 
+import javax.measure.quantity.ElectricPotential;
+
 /**
  * Abstract container class for all data/settings of an analog input on the Tekdaqc.
  *
@@ -30,6 +40,11 @@ public abstract class AAnalogInput extends IInputOutputHardware {
     protected volatile Rate mRate = Rate.SPS_10;
     protected volatile SensorCurrent mCurrent;
 
+    /**
+     * Conversion factor for the gain and analog scale it was last computed for.
+     */
+    private transient volatile VoltageFactor mVoltageFactor;
+
     /**
      * Constructor
      */
@@ -80,6 +95,23 @@ public abstract class AAnalogInput extends IInputOutputHardware {
         return mGain;
     }
 
+    /**
+     * Retrieves the number of volts represented by one count of this input at its current gain and the current
+     * {@link ATekdaqc.AnalogScale} of its board. The factor is computed once and reused until either changes.
+     *
+     * @return double The volts per count.
+     */
+    public double getVoltsPerCount() {
+        final Gain gain = getGain();
+        final ATekdaqc.AnalogScale scale = getTekdaqc().getAnalogScale();
+        VoltageFactor factor = mVoltageFactor;
+        if (factor == null || factor.mGain != gain || factor.mScale != scale) {
+            factor = new VoltageFactor(gain, scale, getTekdaqc().getVoltsPerCount(gain, scale));
+            mVoltageFactor = factor;
+        }
+        return factor.mVoltsPerCount;
+    }
+
     /**
      * Sets the current gain setting for this input.
      *
@@ -212,6 +244,27 @@ public abstract class AAnalogInput extends IInputOutputHardware {
         getTekdaqc().addAnalogCountListener(listener, this);
     }
 
+    /**
+     * Method to add a {@link ICountListener} to receive a decimated subset of the data on only this channel.
+     *
+     * @param listener   The {@link ICountListener} to add for callbacks.
+     * @param decimation The {@link Decimation} reducing the samples.
+     */
+    public void addCountListener(ICountListener listener, Decimation decimation) {
+        getTekdaqc().addAnalogCountListener(listener, this, decimation);
+    }
+
+    /**
+     * Method to add a {@link ICountListener} to receive the data on only this channel when it moves outside a
+     * deadband.
+     *
+     * @param listener The {@link ICountListener} to add for callbacks.
+     * @param deadband The {@link Deadband} the channel must move outside of.
+     */
+    public void addCountListener(ICountListener listener, Deadband deadband) {
+        getTekdaqc().addAnalogCountListener(listener, this, deadband);
+    }
+
     /**
      * Method to add a {@link IVoltageListener} to listen for data on only this channel.
      *
@@ -221,6 +274,58 @@ public abstract class AAnalogInput extends IInputOutputHardware {
         getTekdaqc().addAnalogVoltageListener(listener, this);
     }
 
+    /**
+     * Method to add a {@link IVoltageListener} to receive a decimated subset of the data on only this channel.
+     *
+     * @param listener   The {@link IVoltageListener} to add for callbacks.
+     * @param decimation The {@link Decimation} reducing the samples.
+     */
+    public void addVoltageListener(IVoltageListener listener, Decimation decimation) {
+        getTekdaqc().addAnalogVoltageListener(listener, this, decimation);
+    }
+
+    /**
+     * Method to add a {@link IVoltageListener} to receive the data on only this channel when it moves outside a
+     * deadband.
+     *
+     * @param listener The {@link IVoltageListener} to add for callbacks.
+     * @param deadband The {@link Deadband} the channel must move outside of.
+     */
+    public void addVoltageListener(IVoltageListener listener, Deadband deadband) {
+        getTekdaqc().addAnalogVoltageListener(listener, this, deadband);
+    }
+
+    /**
+     * Method to add a {@link IPrimitiveVoltageListener} to listen for data on only this channel.
+     *
+     * @param listener The {@link IPrimitiveVoltageListener} to add for callbacks.
+     */
+    public void addPrimitiveVoltageListener(IPrimitiveVoltageListener listener) {
+        getTekdaqc().addAnalogPrimitiveVoltageListener(listener, this);
+    }
+
+    /**
+     * Method to add a {@link IPrimitiveVoltageListener} to receive a decimated subset of the data on only this
+     * channel.
+     *
+     * @param listener   The {@link IPrimitiveVoltageListener} to add for callbacks.
+     * @param decimation The {@link Decimation} reducing the samples.
+     */
+    public void addPrimitiveVoltageListener(IPrimitiveVoltageListener listener, Decimation decimation) {
+        getTekdaqc().addAnalogPrimitiveVoltageListener(listener, this, decimation);
+    }
+
+    /**
+     * Method to add a {@link IPrimitiveVoltageListener} to receive the data on only this channel when it moves
+     * outside a deadband.
+     *
+     * @param listener The {@link IPrimitiveVoltageListener} to add for callbacks.
+     * @param deadband The {@link Deadband} the channel must move outside of.
+     */
+    public void addPrimitiveVoltageListener(IPrimitiveVoltageListener listener, Deadband deadband) {
+        getTekdaqc().addAnalogPrimitiveVoltageListener(listener, this, deadband);
+    }
+
     /**
      * Method to remove a {@link ICountListener}.
      *
@@ -239,6 +344,50 @@ public abstract class AAnalogInput extends IInputOutputHardware {
         getTekdaqc().removeAnalogVoltageListener(this, listener);
     }
 
+    /**
+     * Method to remove a {@link IPrimitiveVoltageListener}.
+     *
+     * @param listener The {@link IPrimitiveVoltageListener} to be removed from callbacks.
+     */
+    public void removePrimitiveVoltageListener(IPrimitiveVoltageListener listener) {
+        getTekdaqc().removeAnalogPrimitiveVoltageListener(this, listener);
+    }
+
+    /**
+     * Get a stream of the counts of this channel, delivered as they are requested. Each subscriber registers its own
+     * {@link ICountListener}, which is removed when the subscription is cancelled.
+     *
+     * @param bufferSize int The maximum number of counts held for a subscriber which has not requested them.
+     * @param strategy   {@link BackpressureStrategy} What to do with a count when a subscriber's buffer is full.
+     * @return {@link IChannelPublisher} The stream of counts.
+     */
+    public IChannelPublisher<Integer> countPublisher(final int bufferSize, final BackpressureStrategy strategy) {
+        return new ChannelPublisher<>(getTekdaqc().getExecutionRuntime().getCallbackPool(), bufferSize, strategy,
+                sink -> {
+                    final ICountListener listener = (input, count) -> sink.accept(count);
+                    addCountListener(listener);
+                    return () -> removeCountListener(listener);
+                });
+    }
+
+    /**
+     * Get a stream of the voltages of this channel, delivered as they are requested. Each subscriber registers its
+     * own {@link IVoltageListener}, which is removed when the subscription is cancelled.
+     *
+     * @param bufferSize int The maximum number of voltages held for a subscriber which has not requested them.
+     * @param strategy   {@link BackpressureStrategy} What to do with a voltage when a subscriber's buffer is full.
+     * @return {@link IChannelPublisher} The stream of voltages.
+     */
+    public IChannelPublisher<ValueInstant<ComparableQuantity<ElectricPotential>>> voltagePublisher(
+            final int bufferSize, final BackpressureStrategy strategy) {
+        return new ChannelPublisher<>(getTekdaqc().getExecutionRuntime().getCallbackPool(), bufferSize, strategy,
+                sink -> {
+                    final IVoltageListener listener = (input, value) -> sink.accept(value);
+                    addVoltageListener(listener);
+                    return () -> removeVoltageListener(listener);
+                });
+    }
+
     /**
      * Checks if the provided {@link Gain} is valid for this input.
      *
@@ -263,6 +412,24 @@ public abstract class AAnalogInput extends IInputOutputHardware {
      */
     protected abstract boolean isValidSensorCurrent(final SensorCurrent current);
 
+    /**
+     * Immutable volts per count factor, along with the settings it is valid for.
+     */
+    private static final class VoltageFactor {
+
+        private final Gain mGain;
+
+        private final ATekdaqc.AnalogScale mScale;
+
+        private final double mVoltsPerCount;
+
+        private VoltageFactor(final Gain gain, final ATekdaqc.AnalogScale scale, final double voltsPerCount) {
+            mGain = gain;
+            mScale = scale;
+            mVoltsPerCount = voltsPerCount;
+        }
+    }
+
     /**
      * Set of possible input gain settings.
      *
@@ -1,6 +1,8 @@
 package com.tenkiv.tekdaqc.hardware
 
 import com.tenkiv.tekdaqc.communication.ascii.executors.ASCIIParsingExecutor
+import com.tenkiv.tekdaqc.communication.binary.executors.BinaryFrameSplitter
+import com.tenkiv.tekdaqc.communication.binary.executors.BinaryParsingExecutor
 import com.tenkiv.tekdaqc.communication.command.queue.CommandQueueManager
 import com.tenkiv.tekdaqc.communication.command.queue.ICommandManager
 import com.tenkiv.tekdaqc.communication.command.queue.QueueCallback
@@ -8,23 +10,46 @@ import com.tenkiv.tekdaqc.communication.command.queue.Task
 import com.tenkiv.tekdaqc.communication.command.queue.values.ABaseQueueVal
 import com.tenkiv.tekdaqc.communication.command.queue.values.IQueueObject
 import com.tenkiv.tekdaqc.communication.data_points.AnalogInputCountData
+import com.tenkiv.tekdaqc.communication.data_points.DigitalInputData
+import com.tenkiv.tekdaqc.communication.data_points.LatestValueTable
+import com.tenkiv.tekdaqc.communication.data_points.SampleHistory
+import com.tenkiv.tekdaqc.communication.executors.AParsingExecutor
 import com.tenkiv.tekdaqc.communication.executors.AParsingExecutor.IParsingListener
+import com.tenkiv.tekdaqc.communication.executors.AParsingExecutor.ParsingOrder
+import com.tenkiv.tekdaqc.communication.executors.IRecordFramer
 import com.tenkiv.tekdaqc.communication.executors.ReadExecutor
+import com.tenkiv.tekdaqc.communication.executors.RecordSplitter
+import com.tenkiv.tekdaqc.communication.executors.DeliveryLane
+import com.tenkiv.tekdaqc.communication.executors.DeliveryLaneMetrics
+import com.tenkiv.tekdaqc.communication.executors.TekdaqcExecutionRuntime
 import com.tenkiv.tekdaqc.communication.message.*
+import com.tenkiv.tekdaqc.communication.streams.BackpressureStrategy
+import com.tenkiv.tekdaqc.communication.streams.ChannelPublisher
+import com.tenkiv.tekdaqc.communication.streams.IChannelPublisher
 import com.tenkiv.tekdaqc.communication.tasks.ITaskComplete
 import com.tenkiv.tekdaqc.hardware.AAnalogInput.Gain
 import com.tenkiv.tekdaqc.hardware.AAnalogInput.Rate
 import com.tenkiv.tekdaqc.hardware.AnalogInput_RevD.BufferState
 import com.tenkiv.tekdaqc.locator.Locator
 import com.tenkiv.tekdaqc.locator.LocatorResponse
+import com.tenkiv.tekdaqc.recording.SampleRecorder
+import com.tenkiv.tekdaqc.recording.WireCapture
 import com.tenkiv.tekdaqc.telnet.client.EthernetTelnetConnection
+import com.tenkiv.tekdaqc.telnet.client.IStreamingTelnetConnection
+import com.tenkiv.tekdaqc.telnet.client.ITekdaqcConnectionFactory
 import com.tenkiv.tekdaqc.telnet.client.ITekdaqcTelnetConnection
+import com.tenkiv.tekdaqc.telnet.client.RawSocketTelnetConnection
+import com.tenkiv.tekdaqc.telnet.client.SelectorTelnetConnection
 import com.tenkiv.tekdaqc.utility.CriticalErrorListener
 import com.tenkiv.tekdaqc.utility.TekdaqcCriticalError
-import com.tenkiv.tekdaqc.utility.reprepare
 import java.io.*
 import java.util.*
 import java.util.concurrent.Executor
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.ScheduledFuture
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.function.IntConsumer
 import java.util.concurrent.locks.ReentrantLock
 import javax.measure.Quantity
 import javax.measure.quantity.Dimensionless
@@ -87,14 +112,132 @@ abstract class ATekdaqc protected constructor() : Externalizable, IParsingListen
     protected var readExecutor: ReadExecutor? = null
 
     /**
-     * Number of threads for parsing executor.
+     * The [TekdaqcExecutionRuntime] which provides the threads used for reading, parsing, command writing and timers
+     * of this [ATekdaqc]. Defaults to [TekdaqcExecutionRuntime.getDefault], which is shared by all boards.
+     * This cannot be changed while connected.
      */
-    private val parsingThreadCount = 5
+    @Transient
+    var executionRuntime: TekdaqcExecutionRuntime = TekdaqcExecutionRuntime.getDefault()
+        set(value) {
+            if (isConnected) throw IllegalStateException("Cannot change the execution runtime of a connected Tekdaqc.")
+            if (value != field) {
+                field = value
+                parsingExecutor.shutdown()
+                parsingExecutor = createParsingExecutor()
+                messageBroadcaster.setCallbackExecutor(value.callbackPool)
+            }
+        }
+
+    /**
+     * Factory used to open the connection when connecting with [CONNECTION_METHOD.ETHERNET]. When null, a blocking
+     * [EthernetTelnetConnection] is used. This cannot be changed while connected.
+     */
+    @Transient
+    var connectionFactory: ITekdaqcConnectionFactory? = null
+        set(value) {
+            if (isConnected) throw IllegalStateException("Cannot change the connection factory of a connected Tekdaqc.")
+            field = value
+        }
+
+    /**
+     * The [WireCapture] every byte received from this [ATekdaqc] is captured to, before it is framed and parsed, or
+     * null if nothing is captured. Defaults to null. This cannot be changed while connected, and the capture is not
+     * closed on disconnecting.
+     */
+    @Transient
+    var wireCapture: WireCapture? = null
+        set(value) {
+            if (isConnected) throw IllegalStateException("Cannot change the wire capture of a connected Tekdaqc.")
+            field = value
+        }
+
+    /**
+     * If data points delivered by this [ATekdaqc] are drawn from the shared
+     * [com.tenkiv.tekdaqc.communication.data_points.DataPointPool] and recycled once every listener has been called.
+     * Defaults to false. When enabled, listeners must not keep a reference to a data point after their callback
+     * returns.
+     */
+    @Volatile
+    var isDataPointPooling = false
+
+    /**
+     * The delivery order guarantee for data parsed from this [ATekdaqc]. Defaults to [ParsingOrder.PER_CHANNEL].
+     * Changing this replaces the parsing executor, so it cannot be changed while connected.
+     */
+    var parsingOrder: ParsingOrder = ParsingOrder.PER_CHANNEL
+        set(value) {
+            if (isConnected) throw IllegalStateException("Cannot change the parsing order of a connected Tekdaqc.")
+            if (value == ParsingOrder.UNORDERED && sampleHistory != null) {
+                throw IllegalStateException("Cannot parse out of order while keeping sample history.")
+            }
+            if (value != field) {
+                field = value
+                parsingExecutor.shutdown()
+                parsingExecutor = createParsingExecutor()
+            }
+        }
+
+    /**
+     * Recent samples of every input of this [ATekdaqc], recorded before each sample is broadcast, or null if no
+     * history is kept. Defaults to null. Each channel history has a single writer, so history cannot be kept with
+     * [ParsingOrder.UNORDERED].
+     */
+    @Transient
+    var sampleHistory: SampleHistory? = null
+        set(value) {
+            if (value != null && parsingOrder == ParsingOrder.UNORDERED) {
+                throw IllegalStateException("Cannot keep sample history while parsing out of order.")
+            }
+            field = value
+            messageBroadcaster.setSampleHistory(value)
+        }
+
+    /**
+     * The [LatestValueTable] the latest value of every channel of this [ATekdaqc] is published to, or null if none is.
+     * Defaults to null. [LatestValueTable.getDefault] is shared by the whole process. Changing the table removes this
+     * [ATekdaqc] from the previous one.
+     */
+    @Transient
+    var latestValueTable: LatestValueTable? = null
+        set(value) {
+            if (value != field) {
+                field?.remove(serialNumber)
+                field = value
+                messageBroadcaster.setLatestValues(value?.register(serialNumber))
+            }
+        }
+
+    /**
+     * The [SampleRecorder] every sample of this [ATekdaqc] is recorded to before it is broadcast, or null if samples
+     * are not recorded. Defaults to null. Replacing the recorder does not close the previous one.
+     */
+    @Transient
+    var sampleRecorder: SampleRecorder? = null
+        set(value) {
+            field = value
+            messageBroadcaster.setRecordSink(value)
+        }
+
+    /**
+     * The current [COMMUNICATION_ENCODING] used by the [ATekdaqc]. Default is [COMMUNICATION_ENCODING.ASCII].
+     * This must match the encoding the board's firmware communicates with, and cannot be changed while connected.
+     * [COMMUNICATION_ENCODING.BINARY] uses a framing defined by this library, which requires matching firmware; a
+     * board running ASCII firmware does not answer binary commands, so nothing is received.
+     */
+    var currentEncoding = COMMUNICATION_ENCODING.ASCII
+        set(value) {
+            if (isConnected) throw IllegalStateException("Cannot change the encoding of a connected Tekdaqc.")
+            if (value != field) {
+                field = value
+                parsingExecutor.shutdown()
+                parsingExecutor = createParsingExecutor()
+            }
+        }
 
     /**
      * The executor responsible for parsing split messages
      */
-    protected var parsingExecutor: ASCIIParsingExecutor = ASCIIParsingExecutor(parsingThreadCount)
+    protected var parsingExecutor: AParsingExecutor = createParsingExecutor()
 
     /**
      * Method returning the current throttled digital input rate in samples/millisecond..
@@ -116,17 +259,6 @@ abstract class ATekdaqc protected constructor() : Externalizable, IParsingListen
             commandQueue.queueCommand(CommandBuilder.setAnalogInputScale(value))
         }
 
-    /**
-     * The current [COMMUNICATION_ENCODING] used by the [ATekdaqc].
-     * Default is [COMMUNICATION_ENCODING.ASCII].
-     */
-    /**
-     * Retrieves the current encoding mode of this Tekdaqc.
-
-     * @return [COMMUNICATION_ENCODING] The current encoding.
-     */
-    var currentEncoding = COMMUNICATION_ENCODING.ASCII
-        protected set
 
     /**
      * The [ICommandManager] which controls who commands to be executed are handled.
@@ -160,9 +292,9 @@ abstract class ATekdaqc protected constructor() : Externalizable, IParsingListen
         protected set
 
     /**
-     * The [Timer] used when using throttled sampling.
+     * The scheduled execution of throttled sampling, if active.
      */
-    protected var digitalInputSampleTimer: Timer = Timer("Digital Input Sample Timer", true)
+    protected var digitalInputSampleFuture: ScheduledFuture<*>? = null
 
     /**
      * The list of [CriticalErrorListener]s.
@@ -221,9 +353,9 @@ abstract class ATekdaqc protected constructor() : Externalizable, IParsingListen
     abstract fun getAnalogTemperatureReferenceChannel(): Int
 
     /**
-     * A [TimerTask] to be executed when attempting to use throttled sampling.
+     * A [Runnable] to be executed when attempting to use throttled sampling.
      */
-    protected var mDigitalInputActivationTask: TimerTask = object : TimerTask() {
+    protected var mDigitalInputActivationTask: Runnable = object : Runnable {
 
         override fun run() {
             if (connection?.isConnected ?: throw IOException("Tekdaqc Not Connected")) {
@@ -233,21 +365,21 @@ abstract class ATekdaqc protected constructor() : Externalizable, IParsingListen
                     throttledSamples--
 
                 } else if (throttledSamples == 0) {
-                    digitalInputSampleTimer = digitalInputSampleTimer.reprepare()
+                    haltThrottedDigitalInputReading()
                 }
             }
         }
     }
 
     /**
-     * Heartbeat timer to check for disconnection from the tekdaqc.
+     * The scheduled execution of the heartbeat which checks for disconnection from the tekdaqc, if active.
      */
-    protected var heartbeatTimer = Timer("Tekdaqc Heartbeat Timer", true)
+    protected var heartbeatFuture: ScheduledFuture<*>? = null
 
     /**
-     * A [TimerTask] to be executed for checking to see if the Tekdaqc connection is active.
+     * A [Runnable] to be executed for checking to see if the Tekdaqc connection is active.
      */
-    protected var heartbeatTimerTask: TimerTask = object : TimerTask() {
+    protected var heartbeatTimerTask: Runnable = object : Runnable {
         override fun run() {
             if (keepAlivePacketSent && !tentativeIsConnected) {
                 isConnected = false
@@ -315,6 +447,13 @@ abstract class ATekdaqc protected constructor() : Externalizable, IParsingListen
     }
 
     override fun onMessageDetected(message: String) {
+        onCommunicationReceived()
+    }
+
+    /**
+     * Records that data has been received from the board, which satisfies any outstanding heartbeat check.
+     */
+    protected fun onCommunicationReceived() {
         if (keepAlivePacketSent) {
             keepAlivePacketSent = false
         }
@@ -367,8 +506,9 @@ abstract class ATekdaqc protected constructor() : Externalizable, IParsingListen
     fun readThrottledDigitalInput(rateMillis: Int) {
         if (rateMillis > 0) {
             throttledDigitalInputSampleRate = rateMillis
-            digitalInputSampleTimer = digitalInputSampleTimer.reprepare()
-            digitalInputSampleTimer.schedule(mDigitalInputActivationTask, throttledDigitalInputSampleRate.toLong())
+            haltThrottedDigitalInputReading()
+            digitalInputSampleFuture = scheduleBlockingTask(mDigitalInputActivationTask,
+                    throttledDigitalInputSampleRate.toLong())
 
         } else {
             throw IllegalArgumentException("Specified rate must be greater then 0.")
@@ -450,7 +590,8 @@ abstract class ATekdaqc protected constructor() : Externalizable, IParsingListen
      * Method to halt the throttled sampling of the digital inputs.
      */
     fun haltThrottedDigitalInputReading() {
-        digitalInputSampleTimer = digitalInputSampleTimer.reprepare()
+        digitalInputSampleFuture?.cancel(false)
+        digitalInputSampleFuture = null
     }
 
     /**
@@ -606,6 +747,29 @@ abstract class ATekdaqc protected constructor() : Externalizable, IParsingListen
         messageBroadcaster.addMessageListener(this, listener)
     }
 
+    /**
+     * Convenience method for adding a listener to a tekdaqc, whose messages wait in a lane of bounded size.
+
+     * @param listener Listener to be registered.
+     * *
+     * @param capacity The maximum number of messages waiting for the listener.
+     * *
+     * @param policy   [DeliveryLane.OverflowPolicy] What to do with a message when the lane is full.
+     */
+    fun addListener(listener: IMessageListener, capacity: Int, policy: DeliveryLane.OverflowPolicy) {
+        messageBroadcaster.addMessageListener(this, listener, capacity, policy)
+    }
+
+    /**
+     * Get how far a listener has fallen behind in receiving the messages of this tekdaqc.
+
+     * @param listener The registered listener.
+     * *
+     * @return [DeliveryLaneMetrics] Snapshot of the listener's lane, or null if it is not registered.
+     */
+    fun getListenerMetrics(listener: IMessageListener): DeliveryLaneMetrics? =
+            messageBroadcaster.getMessageListenerMetrics(listener)
+
     /**
      * Convenience method for adding a network listener to a tekdaqc.
 
@@ -615,6 +779,19 @@ abstract class ATekdaqc protected constructor() : Externalizable, IParsingListen
         messageBroadcaster.addNetworkListener(this, listener)
     }
 
+    /**
+     * Convenience method for adding a network listener to a tekdaqc, whose messages wait in a lane of bounded size.
+
+     * @param listener Network listener to be registered.
+     * *
+     * @param capacity The maximum number of messages waiting for the listener.
+     * *
+     * @param policy   [DeliveryLane.OverflowPolicy] What to do with a message when the lane is full.
+     */
+    fun addNetworkListener(listener: INetworkListener, capacity: Int, policy: DeliveryLane.OverflowPolicy) {
+        messageBroadcaster.addNetworkListener(this, listener, capacity, policy)
+    }
+
     /**
      * Convenience method for adding a listener to a particular channel.
 
@@ -626,6 +803,54 @@ abstract class ATekdaqc protected constructor() : Externalizable, IParsingListen
         messageBroadcaster.addAnalogChannelListener(this, input, listener)
     }
 
+    /**
+     * Convenience method for adding a listener which receives a decimated subset of the counts of a particular channel.
+
+     * @param listener   [ICountListener] Listener to be registered.
+     * *
+     * @param input      [AAnalogInput] Input to register to.
+     * *
+     * @param decimation [Decimation] How the samples are reduced.
+     */
+    fun addAnalogCountListener(listener: ICountListener, input: AAnalogInput, decimation: Decimation) {
+        messageBroadcaster.addAnalogChannelListener(this, input, listener, decimation)
+    }
+
+    /**
+     * Convenience method for adding a listener which receives the counts of a particular channel only when they move
+     * outside a deadband.
+
+     * @param listener [ICountListener] Listener to be registered.
+     * *
+     * @param input    [AAnalogInput] Input to register to.
+     * *
+     * @param deadband [Deadband] How far the channel must move before a sample is delivered.
+     */
+    fun addAnalogCountListener(listener: ICountListener, input: AAnalogInput, deadband: Deadband) {
+        messageBroadcaster.addAnalogChannelListener(this, input, listener, deadband)
+    }
+
+    /**
+     * Convenience method for adding a listener which receives the counts of a particular channel in batches.
+
+     * @param listener   [ICountBatchListener] Listener to be registered.
+     * *
+     * @param input      [AAnalogInput] Input to register to.
+     * *
+     * @param batchSize  The maximum number of samples in a batch.
+     * *
+     * @param maxLatency The maximum time a sample waits before its batch is delivered.
+     * *
+     * @param unit       [TimeUnit] The unit of [maxLatency].
+     */
+    fun addAnalogCountBatchListener(listener: ICountBatchListener,
+                                    input: AAnalogInput,
+                                    batchSize: Int,
+                                    maxLatency: Long,
+                                    unit: TimeUnit) {
+        messageBroadcaster.addAnalogBatchListener(this, input, listener, batchSize, maxLatency, unit)
+    }
+
     /**
      * Convenience method for adding a listener to a particular channel.
 
@@ -637,6 +862,77 @@ abstract class ATekdaqc protected constructor() : Externalizable, IParsingListen
         messageBroadcaster.addAnalogVoltageListener(this, input, listener)
     }
 
+    /**
+     * Convenience method for adding a listener which receives a decimated subset of the voltages of a particular
+     * channel.
+
+     * @param listener   [IVoltageListener] Listener to be registered.
+     * *
+     * @param input      [AAnalogInput] Input to register to.
+     * *
+     * @param decimation [Decimation] How the samples are reduced.
+     */
+    fun addAnalogVoltageListener(listener: IVoltageListener, input: AAnalogInput, decimation: Decimation) {
+        messageBroadcaster.addAnalogVoltageListener(this, input, listener, decimation)
+    }
+
+    /**
+     * Convenience method for adding a listener which receives the voltages of a particular channel only when they
+     * move outside a deadband.
+
+     * @param listener [IVoltageListener] Listener to be registered.
+     * *
+     * @param input    [AAnalogInput] Input to register to.
+     * *
+     * @param deadband [Deadband] How far the channel must move before a sample is delivered.
+     */
+    fun addAnalogVoltageListener(listener: IVoltageListener, input: AAnalogInput, deadband: Deadband) {
+        messageBroadcaster.addAnalogVoltageListener(this, input, listener, deadband)
+    }
+
+    /**
+     * Convenience method for adding a listener which receives the voltages of a particular channel as primitives.
+
+     * @param listener [IPrimitiveVoltageListener] Listener to be registered.
+     * *
+     * @param input    [AAnalogInput] Input to register to.
+     */
+    fun addAnalogPrimitiveVoltageListener(listener: IPrimitiveVoltageListener, input: AAnalogInput) {
+        messageBroadcaster.addAnalogPrimitiveVoltageListener(this, input, listener)
+    }
+
+    /**
+     * Convenience method for adding a listener which receives a decimated subset of the voltages of a particular
+     * channel as primitives.
+
+     * @param listener   [IPrimitiveVoltageListener] Listener to be registered.
+     * *
+     * @param input      [AAnalogInput] Input to register to.
+     * *
+     * @param decimation [Decimation] How the samples are reduced.
+     */
+    fun addAnalogPrimitiveVoltageListener(listener: IPrimitiveVoltageListener,
+                                          input: AAnalogInput,
+                                          decimation: Decimation) {
+        messageBroadcaster.addAnalogPrimitiveVoltageListener(this, input, listener, decimation)
+    }
+
+    /**
+     * Convenience method for adding a listener which receives the voltages of a particular channel as primitives,
+     * only when they move outside a deadband.
+
+     * @param listener [IPrimitiveVoltageListener] Listener to be registered.
+     * *
+     * @param input    [AAnalogInput] Input to register to.
+     * *
+     * @param deadband [Deadband] How far the channel must move before a sample is delivered.
+     */
+    fun addAnalogPrimitiveVoltageListener(listener: IPrimitiveVoltageListener,
+                                          input: AAnalogInput,
+                                          deadband: Deadband) {
+        messageBroadcaster.addAnalogPrimitiveVoltageListener(this, input, listener, deadband)
+    }
+
     /**
      * Convenience method for adding a listener to a particular channel.
 
@@ -648,6 +944,56 @@ abstract class ATekdaqc protected constructor() : Externalizable, IParsingListen
         messageBroadcaster.addDigitalChannelListener(this, input, listener)
     }
 
+    /**
+     * Convenience method for adding a listener which is only called when the level of a particular channel changes.
+
+     * @param listener [IDigitalChannelListener] Listener to be registered.
+     * *
+     * @param input    [DigitalInput] Input to register to.
+     */
+    fun addDigitalChangeListener(listener: IDigitalChannelListener, input: DigitalInput) {
+        messageBroadcaster.addDigitalChangeListener(this, input, listener)
+    }
+
+    /**
+     * Convenience method for keeping the most recent samples of every input in a new [sampleHistory].
+
+     * @param depth The number of samples retained for each channel.
+     * *
+     * @return [SampleHistory] The new history.
+     */
+    fun enableSampleHistory(depth: Int): SampleHistory {
+        val history = SampleHistory(depth)
+        sampleHistory = history
+        return history
+    }
+
+    /**
+     * Convenience method for recording every sample of this [ATekdaqc] to a new [sampleRecorder], in a directory
+     * named for its serial number. An existing recording in that directory is continued.
+
+     * @param directory The directory holding the recordings of all boards.
+     * *
+     * @return [SampleRecorder] The new recorder.
+     */
+    @Throws(IOException::class)
+    fun startRecording(directory: File): SampleRecorder {
+        val recorder = SampleRecorder(File(directory, serialNumber))
+        val previous = sampleRecorder
+        sampleRecorder = recorder
+        previous?.close()
+        return recorder
+    }
+
+    /**
+     * Convenience method for closing the [sampleRecorder] of this [ATekdaqc], if any.
+     */
+    fun stopRecording() {
+        val recorder = sampleRecorder
+        sampleRecorder = null
+        recorder?.close()
+    }
+
     /**
      * Convenience method for adding a listener to a particular channel.
 
@@ -677,6 +1023,56 @@ abstract class ATekdaqc protected constructor() : Externalizable, IParsingListen
         messageBroadcaster.removeListener(this, listener)
     }
 
+    /**
+     * Get a stream of the analog data of all channels of this tekdaqc, delivered as it is requested. Each subscriber
+     * registers its own [IMessageListener], which is removed when the subscription is cancelled. Each data point is
+     * copied, so it remains valid when the board pools its data points.
+
+     * @param bufferSize The maximum number of data points held for a subscriber which has not requested them.
+     * *
+     * @param strategy   [BackpressureStrategy] What to do with a data point when a subscriber's buffer is full.
+     * *
+     * @return [IChannelPublisher] The stream of analog data.
+     */
+    fun analogDataPublisher(bufferSize: Int, strategy: BackpressureStrategy): IChannelPublisher<AnalogInputCountData> =
+            ChannelPublisher<AnalogInputCountData>(executionRuntime.callbackPool, bufferSize, strategy) { sink ->
+                val listener = object : DataPointListener() {
+                    override fun onAnalogInputDataReceived(tekdaqc: ATekdaqc?, data: AnalogInputCountData?) {
+                        data?.let {
+                            sink.accept(AnalogInputCountData(it.physicalInput, it.name, it.timestamp, it.data)
+                                    .apply { sequence = it.sequence })
+                        }
+                    }
+                }
+                addListener(listener)
+                Runnable { removeListener(listener) }
+            }
+
+    /**
+     * Get a stream of the digital data of all channels of this tekdaqc, delivered as it is requested. Each subscriber
+     * registers its own [IMessageListener], which is removed when the subscription is cancelled. Each data point is
+     * copied, so it remains valid when the board pools its data points.
+
+     * @param bufferSize The maximum number of data points held for a subscriber which has not requested them.
+     * *
+     * @param strategy   [BackpressureStrategy] What to do with a data point when a subscriber's buffer is full.
+     * *
+     * @return [IChannelPublisher] The stream of digital data.
+     */
+    fun digitalDataPublisher(bufferSize: Int, strategy: BackpressureStrategy): IChannelPublisher<DigitalInputData> =
+            ChannelPublisher<DigitalInputData>(executionRuntime.callbackPool, bufferSize, strategy) { sink ->
+                val listener = object : DataPointListener() {
+                    override fun onDigitalInputDataReceived(tekdaqc: ATekdaqc?, data: DigitalInputData?) {
+                        data?.let {
+                            sink.accept(DigitalInputData(it.physicalInput, it.name, it.timestamp, it.state)
+                                    .apply { sequence = it.sequence })
+                        }
+                    }
+                }
+                addListener(listener)
+                Runnable { removeListener(listener) }
+            }
+
     /**
      * Convenience method for removing a listener from a channel on a tekdaqc.
 
@@ -688,6 +1084,18 @@ abstract class ATekdaqc protected constructor() : Externalizable, IParsingListen
         messageBroadcaster.removeAnalogCountListener(this, input, listener)
     }
 
+    /**
+     * Convenience method for removing a batch listener from a channel on a tekdaqc. Any pending samples are delivered
+     * to it before this returns.
+
+     * @param listener [ICountBatchListener] The listener to be unregistered.
+     * *
+     * @param input    [AAnalogInput] The input to unregister from.
+     */
+    fun removeAnalogCountBatchListener(input: AAnalogInput, listener: ICountBatchListener) {
+        messageBroadcaster.removeAnalogBatchListener(this, input, listener)
+    }
+
     /**
      * Convenience method for removing a listener from a channel on a tekdaqc.
 
@@ -699,6 +1107,17 @@ abstract class ATekdaqc protected constructor() : Externalizable, IParsingListen
         messageBroadcaster.removeAnalogVoltageListener(this, input, listener)
     }
 
+    /**
+     * Convenience method for removing a listener from a channel on a tekdaqc.
+
+     * @param listener [IPrimitiveVoltageListener] The listener to be unregistered.
+     * *
+     * @param input    [AAnalogInput] The input to unregister from.
+     */
+    fun removeAnalogPrimitiveVoltageListener(input: AAnalogInput, listener: IPrimitiveVoltageListener) {
+        messageBroadcaster.removeAnalogPrimitiveVoltageListener(this, input, listener)
+    }
+
     /**
      * Convenience method for removing a listener from a channel on a tekdaqc.
 
@@ -727,23 +1146,41 @@ abstract class ATekdaqc protected constructor() : Externalizable, IParsingListen
             throw IOException("Tekdaqc Already Connected")
         }
         when (method) {
-            ATekdaqc.CONNECTION_METHOD.ETHERNET -> connection = EthernetTelnetConnection(
+            ATekdaqc.CONNECTION_METHOD.ETHERNET -> connection = connectionFactory?.createConnection(
+                    hostIP,
+                    EthernetTelnetConnection.TEKDAQC_TELNET_PORT) ?: EthernetTelnetConnection(
+                    hostIP,
+                    EthernetTelnetConnection.TEKDAQC_TELNET_PORT)
+            ATekdaqc.CONNECTION_METHOD.ETHERNET_RAW -> connection = RawSocketTelnetConnection(
                     hostIP,
                     EthernetTelnetConnection.TEKDAQC_TELNET_PORT)
+            ATekdaqc.CONNECTION_METHOD.ETHERNET_NIO -> connection = SelectorTelnetConnection(
+                    hostIP,
+                    EthernetTelnetConnection.TEKDAQC_TELNET_PORT,
+                    executionRuntime.selector)
             ATekdaqc.CONNECTION_METHOD.SERIAL -> throw IllegalArgumentException("Unimplemented connection type")
             ATekdaqc.CONNECTION_METHOD.USB -> throw IllegalArgumentException("Unimplemented connection type")
         }
         inputStream = connection?.inputStream
         outputStream = connection?.outputStream
 
-        readExecutor = ReadExecutor(this, this)
+        if (parsingExecutor.isShutdown) {
+            parsingExecutor = createParsingExecutor()
+        }
+
+        val streamingConnection = connection
+        if (streamingConnection is IStreamingTelnetConnection) {
+            streamingConnection.startReading(createRecordFramer(this), IntConsumer { executionRuntime.recordBytesRead(this, it) })
+        } else {
+            readExecutor = ReadExecutor(this, this, executionRuntime)
+        }
 
         commandQueue.tryCommand()
 
         analogScale = currentAnalogScale
 
         isConnected = true
-        heartbeatTimer.schedule(heartbeatTimerTask, heartbeatTimerInterval.toLong(), heartbeatTimerInterval.toLong())
+        heartbeatFuture = scheduleBlockingTask(heartbeatTimerTask, heartbeatTimerInterval.toLong())
     }
 
     /**
@@ -765,7 +1202,7 @@ abstract class ATekdaqc protected constructor() : Externalizable, IParsingListen
 
         isConnected = false
 
-        heartbeatTimer = heartbeatTimer.reprepare()
+        cancelHeartbeat()
     }
 
     /**
@@ -787,7 +1224,78 @@ abstract class ATekdaqc protected constructor() : Externalizable, IParsingListen
             }
         }))
 
-        heartbeatTimer = heartbeatTimer.reprepare()
+        cancelHeartbeat()
+    }
+
+    /**
+     * Creates the parsing executor for the [currentEncoding] of this [ATekdaqc] on its [executionRuntime].
+     */
+    private fun createParsingExecutor(): AParsingExecutor = when (currentEncoding) {
+        COMMUNICATION_ENCODING.ASCII -> ASCIIParsingExecutor(
+                executionRuntime.getParsingExecutor(this),
+                executionRuntime.parsingThreadCount,
+                parsingOrder)
+        COMMUNICATION_ENCODING.BINARY -> BinaryParsingExecutor(
+                executionRuntime.getParsingExecutor(this),
+                executionRuntime.parsingThreadCount,
+                parsingOrder)
+    }
+
+    /**
+     * Creates the [IRecordFramer] which divides the raw data stream of this [ATekdaqc] into records for its
+     * [currentEncoding]. If there is a [wireCapture], the raw data is captured before it is framed.
+     *
+     * @param listener [IParsingListener] The listener to deliver records to.
+     */
+    fun createRecordFramer(listener: IParsingListener): IRecordFramer {
+        val framer = when (currentEncoding) {
+            COMMUNICATION_ENCODING.ASCII -> RecordSplitter(listener)
+            COMMUNICATION_ENCODING.BINARY -> BinaryFrameSplitter(listener)
+        }
+        return wireCapture?.tee(framer) ?: framer
+    }
+
+    /**
+     * Runs a task periodically. The runtime's scheduler only triggers the task, which is run on the blocking pool
+     * because queueing commands may wait for the board to respond. A tick is skipped while the previous run is still
+     * in progress, so runs of the task never overlap.
+     *
+     * @param task The task to run.
+     * @param periodMillis The period, and initial delay, in milliseconds.
+     * @return The [ScheduledFuture] which can be used to cancel the task.
+     */
+    private fun scheduleBlockingTask(task: Runnable, periodMillis: Long): ScheduledFuture<*> {
+        val runtime = executionRuntime
+        val running = AtomicBoolean()
+        val guarded = Runnable {
+            try {
+                task.run()
+            } finally {
+                running.set(false)
+            }
+        }
+        return runtime.scheduler.scheduleAtFixedRate(
+                {
+                    if (running.compareAndSet(false, true)) {
+                        try {
+                            runtime.blockingPool.execute(guarded)
+                        } catch (e: RejectedExecutionException) {
+                            running.set(false)
+                            throw e
+                        }
+                    }
+                },
+                periodMillis,
+                periodMillis,
+                TimeUnit.MILLISECONDS)
+    }
+
+    /**
+     * Stops the heartbeat check.
+     */
+    private fun cancelHeartbeat() {
+        heartbeatFuture?.cancel(false)
+        heartbeatFuture = null
     }
 
     /**
@@ -1247,6 +1755,25 @@ abstract class ATekdaqc protected constructor() : Externalizable, IParsingListen
      */
     abstract fun convertAnalogInputDataToVoltage(data: AnalogInputCountData, currentScale: AnalogScale): Double
 
+    /**
+     * Retrieves the number of volts represented by one count of an analog input. Prefer
+     * [AAnalogInput.getVoltsPerCount], which caches the result for the input's current settings.
+     *
+     * By default this converts a single count of an input with the given gain through
+     * [convertAnalogInputDataToVoltage]. Boards should override it with a direct computation.
+
+     * @param gain  [Gain] The gain of the input.
+     * *
+     * @param scale [AnalogScale] The analog scale of the board.
+     * *
+     * @return double The volts per count.
+     */
+    open fun getVoltsPerCount(gain: Gain, scale: AnalogScale): Double {
+        val input = analogInputs.values.firstOrNull { it.gain == gain }
+                ?: throw IllegalArgumentException("No analog input has gain $gain.")
+        return convertAnalogInputDataToVoltage(AnalogInputCountData(input.channelNumber, null, 0, 1), scale)
+    }
+
     /**
      * Converts the provided [AnalogInputCountData] point into a temperature
      * using the parameters of the data point and the specific Tekdaqc board.
@@ -1345,6 +1872,17 @@ abstract class ATekdaqc protected constructor() : Externalizable, IParsingListen
          */
         ETHERNET,
 
+        /**
+         * Communicating via Ethernet over a plain socket, without a Telnet client.
+         */
+        ETHERNET_RAW,
+
+        /**
+         * Communicating via Ethernet, with reading performed by the shared selector of the [TekdaqcExecutionRuntime]
+         * instead of a dedicated thread.
+         */
+        ETHERNET_NIO,
+
         /**
          * Communicating via alternative Serial bus or port
          */
@@ -1370,7 +1908,11 @@ abstract class ATekdaqc protected constructor() : Externalizable, IParsingListen
         ASCII,
 
         /**
-         * Communicating via binary
+         * Communicating via the frames of [com.tenkiv.tekdaqc.communication.binary.BinaryProtocol]. The framing is
+         * defined by this library rather than by the Tekdaqc's firmware, so it requires firmware which implements it,
+         * such as the [com.tenkiv.tekdaqc.simulator.TekdaqcSimulator]. Frames are not valid Telnet text, so they
+         * should be sent over [CONNECTION_METHOD.ETHERNET_RAW] or [CONNECTION_METHOD.ETHERNET_NIO], which pass bytes
+         * through unaltered, rather than the Telnet client of [CONNECTION_METHOD.ETHERNET].
          */
         BINARY
     }
@@ -1414,3 +1956,23 @@ abstract class ATekdaqc protected constructor() : Externalizable, IParsingListen
         }
     }
 }
+
+/**
+ * [IMessageListener] ignoring everything, for listeners which only need some of its callbacks.
+ */
+private open class DataPointListener : IMessageListener {
+
+    override fun onErrorMessageReceived(tekdaqc: ATekdaqc?, message: ABoardMessage?) {}
+
+    override fun onStatusMessageReceived(tekdaqc: ATekdaqc?, message: ABoardMessage?) {}
+
+    override fun onDebugMessageReceived(tekdaqc: ATekdaqc?, message: ABoardMessage?) {}
+
+    override fun onCommandDataMessageReceived(tekdaqc: ATekdaqc?, message: ABoardMessage?) {}
+
+    override fun onAnalogInputDataReceived(tekdaqc: ATekdaqc?, data: AnalogInputCountData?) {}
+
+    override fun onDigitalInputDataReceived(tekdaqc: ATekdaqc?, data: DigitalInputData?) {}
+
+    override fun onDigitalOutputDataReceived(tekdaqc: ATekdaqc?, data: BooleanArray?) {}
+}
@@ -1,7 +1,12 @@
 package com.tenkiv.tekdaqc.hardware;
 
+import com.tenkiv.tekdaqc.communication.data_points.DigitalInputData;
+import com.tenkiv.tekdaqc.communication.data_points.PWMInputData;
 import com.tenkiv.tekdaqc.communication.message.IDigitalChannelListener;
 import com.tenkiv.tekdaqc.communication.message.IPWMChannelListener;
+import com.tenkiv.tekdaqc.communication.streams.BackpressureStrategy;
+import com.tenkiv.tekdaqc.communication.streams.ChannelPublisher;
+import com.tenkiv.tekdaqc.communication.streams.IChannelPublisher;
 import com.tenkiv.tekdaqc.utility.ChannelType;
 
 /**
@@ -102,6 +107,16 @@ public class DigitalInput extends IInputOutputHardware {
         getTekdaqc().addDigitalChannelListener(listener, this);
     }
 
+    /**
+     * Method to add a {@link IDigitalChannelListener} which is only called when the level of this channel changes.
+     * It is removed by {@link #removeDigitalListener(IDigitalChannelListener)}.
+     *
+     * @param listener The {@link IDigitalChannelListener} to add for callbacks.
+     */
+    public void addDigitalChangeListener(IDigitalChannelListener listener) {
+        getTekdaqc().addDigitalChangeListener(listener, this);
+    }
+
     /**
      * Method to remove a {@link IDigitalChannelListener} this channel.
      *
@@ -129,6 +144,53 @@ public class DigitalInput extends IInputOutputHardware {
         getTekdaqc().removePWMChannelListener(listener, this);
     }
 
+    /**
+     * Get a stream of the states of this channel, delivered as they are requested. Each subscriber registers its own
+     * {@link IDigitalChannelListener}, which is removed when the subscription is cancelled. Each data point is copied,
+     * so it remains valid when the board pools its data points.
+     *
+     * @param bufferSize int The maximum number of states held for a subscriber which has not requested them.
+     * @param strategy   {@link BackpressureStrategy} What to do with a state when a subscriber's buffer is full.
+     * @return {@link IChannelPublisher} The stream of states.
+     */
+    public IChannelPublisher<DigitalInputData> digitalPublisher(final int bufferSize,
+                                                                final BackpressureStrategy strategy) {
+        return new ChannelPublisher<>(getTekdaqc().getExecutionRuntime().getCallbackPool(), bufferSize, strategy,
+                sink -> {
+                    final IDigitalChannelListener listener = (input, data) -> {
+                        final DigitalInputData copy = new DigitalInputData(
+                                data.getPhysicalInput(), data.getName(), data.getTimestamp(), data.getState());
+                        copy.setSequence(data.getSequence());
+                        sink.accept(copy);
+                    };
+                    addDigitalListener(listener);
+                    return () -> removeDigitalListener(listener);
+                });
+    }
+
+    /**
+     * Get a stream of the PWM readings of this channel, delivered as they are requested. Each subscriber registers
+     * its own {@link IPWMChannelListener}, which is removed when the subscription is cancelled. Each data point is
+     * copied, so it remains valid when the board pools its data points.
+     *
+     * @param bufferSize int The maximum number of readings held for a subscriber which has not requested them.
+     * @param strategy   {@link BackpressureStrategy} What to do with a reading when a subscriber's buffer is full.
+     * @return {@link IChannelPublisher} The stream of PWM readings.
+     */
+    public IChannelPublisher<PWMInputData> pwmPublisher(final int bufferSize, final BackpressureStrategy strategy) {
+        return new ChannelPublisher<>(getTekdaqc().getExecutionRuntime().getCallbackPool(), bufferSize, strategy,
+                sink -> {
+                    final IPWMChannelListener listener = (input, data) -> {
+                        final PWMInputData copy = new PWMInputData(data.getPhysicalInput(), data.getName(),
+                                data.getTimestamp(), data.getPercentageOn(), data.getTotalTransitions());
+                        copy.setSequence(data.getSequence());
+                        sink.accept(copy);
+                    };
+                    addPWMListener(listener);
+                    return () -> removePWMListener(listener);
+                });
+    }
+
     /**
      * Method to activate Pulse Width Modulation on this input. Input cannot be added already.
      */
@@ -1,15 +1,19 @@
 package com.tenkiv.tekdaqc.hardware;
 
+import com.tenkiv.tekdaqc.communication.ascii.message.parsing.AASCIIMessage;
 import com.tenkiv.tekdaqc.communication.ascii.message.parsing.ASCIIAnalogInputDataMessage;
 import com.tenkiv.tekdaqc.communication.ascii.message.parsing.ASCIIDigitalInputDataMessage;
 import com.tenkiv.tekdaqc.communication.ascii.message.parsing.ASCIIErrorMessage;
+import com.tenkiv.tekdaqc.communication.ascii.message.parsing.ASCIIMessageUtils;
 import com.tenkiv.tekdaqc.communication.ascii.message.parsing.ASCIIPWMInputDataMessage;
 import com.tenkiv.tekdaqc.communication.command.queue.Commands;
 import com.tenkiv.tekdaqc.communication.command.queue.values.QueueValue;
 import com.tenkiv.tekdaqc.communication.data_points.AnalogInputCountData;
 import com.tenkiv.tekdaqc.communication.data_points.DataPoint;
+import com.tenkiv.tekdaqc.communication.data_points.DataPointPool;
 import com.tenkiv.tekdaqc.communication.data_points.DigitalInputData;
 import com.tenkiv.tekdaqc.communication.data_points.PWMInputData;
+import com.tenkiv.tekdaqc.communication.executors.IDataRecordSink;
 import com.tenkiv.tekdaqc.communication.message.ABoardMessage;
 import com.tenkiv.tekdaqc.hardware.AAnalogInput.Gain;
 import com.tenkiv.tekdaqc.hardware.AAnalogInput.Rate;
@@ -31,7 +35,7 @@ import java.util.Set;
  * @author Tenkiv (software@tenkiv.com)
  * @since v1.0.0.0
  */
-public class Tekdaqc_RevD extends ATekdaqc {
+public class Tekdaqc_RevD extends ATekdaqc implements IDataRecordSink {
 
     /**
      * The number of analog inputs present on the board.
@@ -129,6 +133,11 @@ public class Tekdaqc_RevD extends ATekdaqc {
      */
     private TemperatureReference_RevD temperatureReference = new TemperatureReference_RevD(this);
 
+    /**
+     * Volts per count indexed by analog scale and gain, computed on first use.
+     */
+    private volatile double[][] mVoltsPerCount;
+
     /**
      * Provided only to support serialization. User code should not use this
      * method.
@@ -427,10 +436,27 @@ public class Tekdaqc_RevD extends ATekdaqc {
     @Override
     public double convertAnalogInputDataToVoltage(final AnalogInputCountData data, final AnalogScale scale) {
         final AAnalogInput analogInput = getAnalogInput(data.getPhysicalInput());
-        final double ratio = (data.getData() / 8388607.0);
-        final double gainDivisor = 1.0 / analogInput.getGain().gain;
-        final double multiplier = 2.0 * REFERENCE_VOLTAGE;
-        return (multiplier * ratio * gainDivisor * getAnalogScaleMultiplier(scale));
+        final double voltsPerCount = (scale == getAnalogScale())
+                ? analogInput.getVoltsPerCount()
+                : getVoltsPerCount(analogInput.getGain(), scale);
+        return data.getData() * voltsPerCount;
+    }
+
+    @Override
+    public double getVoltsPerCount(final Gain gain, final AnalogScale scale) {
+        double[][] table = mVoltsPerCount;
+        if (table == null) {
+            final double multiplier = 2.0 * REFERENCE_VOLTAGE;
+            table = new double[AnalogScale.values().length][Gain.values().length];
+            for (final AnalogScale tableScale : AnalogScale.values()) {
+                for (final Gain tableGain : Gain.values()) {
+                    table[tableScale.ordinal()][tableGain.ordinal()] =
+                            multiplier / 8388607.0 / tableGain.gain * getAnalogScaleMultiplier(tableScale);
+                }
+            }
+            mVoltsPerCount = table;
+        }
+        return table[scale.ordinal()][gain.ordinal()];
     }
 
     @Override
@@ -546,6 +572,9 @@ public class Tekdaqc_RevD extends ATekdaqc {
             }
         }catch (NumberFormatException e){
             e.printStackTrace();
+        } finally {
+            // Data messages are fully consumed above and can be recycled
+            if (message instanceof AASCIIMessage) ASCIIMessageUtils.returnMessage((AASCIIMessage) message);
         }
     }
 
@@ -555,6 +584,46 @@ public class Tekdaqc_RevD extends ATekdaqc {
         getParsingExecutor().parseMessage(message, this);
     }
 
+    @Override
+    public void onRecordDetected(final byte[] buffer, final int offset, final int length) {
+        onCommunicationReceived();
+        getParsingExecutor().parseMessage(Arrays.copyOfRange(buffer, offset, offset + length), this);
+    }
+
+    @Override
+    public void onAnalogSample(final int channel, final long sequence, final long timestamp, final int count) {
+        final boolean pooling = isDataPointPooling();
+        final AnalogInputCountData data = pooling
+                ? DataPointPool.acquireAnalog(channel, null, timestamp, count)
+                : new AnalogInputCountData(channel, null, timestamp, count);
+        data.setSequence(sequence);
+        getMessageBroadcaster().broadcastAnalogInputDataPoint(this, data);
+        if (pooling) DataPointPool.release(data);
+    }
+
+    @Override
+    public void onDigitalSample(final int channel, final long sequence, final long timestamp, final boolean state) {
+        final boolean pooling = isDataPointPooling();
+        final DigitalInputData data = pooling
+                ? DataPointPool.acquireDigital(channel, null, timestamp, state)
+                : new DigitalInputData(channel, null, timestamp, state);
+        data.setSequence(sequence);
+        getMessageBroadcaster().broadcastDigitalInputDataPoint(this, data);
+        if (pooling) DataPointPool.release(data);
+    }
+
+    @Override
+    public void onPWMSample(final int channel, final long sequence, final long timestamp, final double percentageOn,
+                            final int totalTransitions) {
+        final boolean pooling = isDataPointPooling();
+        final PWMInputData data = pooling
+                ? DataPointPool.acquirePWM(channel, null, timestamp, percentageOn, totalTransitions)
+                : new PWMInputData(channel, null, timestamp, percentageOn, totalTransitions);
+        data.setSequence(sequence);
+        getMessageBroadcaster().broadcastPWMInputDataPoint(this, data);
+        if (pooling) DataPointPool.release(data);
+    }
+
     @Override
     public int getAnalogInputCount() {
         return ANALOG_INPUT_COUNT;
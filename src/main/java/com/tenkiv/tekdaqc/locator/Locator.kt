@@ -1,8 +1,10 @@
 //Need to suppress these warnings because Kotlin hasn't implemented Map.computeIfAbsent() or Map.putIfAbsent().
 package com.tenkiv.tekdaqc.locator
 
+import com.tenkiv.tekdaqc.communication.executors.TekdaqcExecutionRuntime
 import com.tenkiv.tekdaqc.hardware.ATekdaqc
 import com.tenkiv.tekdaqc.hardware.Tekdaqc_RevD
+import com.tenkiv.tekdaqc.telnet.client.ITekdaqcConnectionFactory
 import com.tenkiv.tekdaqc.utility.reprepare
 import java.io.IOException
 import java.net.*
@@ -94,6 +96,19 @@ class Locator private constructor(params: LocatorParams) {
      */
     private var updateTimer = Timer("Update Timer", false)
 
+    /**
+     * The [TekdaqcExecutionRuntime] given to every [ATekdaqc] this [Locator] creates.
+     */
+    @Volatile
+    var executionRuntime: TekdaqcExecutionRuntime = TekdaqcExecutionRuntime.getDefault()
+
+    /**
+     * The [ITekdaqcConnectionFactory] given to every [ATekdaqc] this [Locator] creates. When null, boards use the
+     * blocking Telnet connection.
+     */
+    @Volatile
+    var connectionFactory: ITekdaqcConnectionFactory? = null
+
     /**
      * Flag setting if Locator broadcasts will send to loopback address. Used internally for automated testing.
      */
@@ -150,9 +165,9 @@ class Locator private constructor(params: LocatorParams) {
     }
 
     /**
-     * Creates an unsafe instance of the [Locator] class. If not properly configured, this locator will not
-     * function while another is active. Use [LocatorParams] to set a different port to search on, however this
-     * will only work if the Tekdaqc is programmed to respond to the new port.
+     * Creates an unsafe instance of the [Locator] class, which searches independently of [instance]. Use
+     * [LocatorParams] to set a different port to search on, however this will only work if the Tekdaqc is programmed
+     * to respond to the new port.
 
      * @param params The [LocatorParams] to be set for the [Locator].
      * *
@@ -199,6 +214,8 @@ class Locator private constructor(params: LocatorParams) {
         when (response.type) {
             'D', 'E' -> {
                 tekdaqc = Tekdaqc_RevD(response)
+                tekdaqc.executionRuntime = executionRuntime
+                tekdaqc.connectionFactory = connectionFactory
 
                 if (isSafeCreation) {
                     addTekdaqcToMap(tekdaqc)
@@ -335,7 +352,9 @@ class Locator private constructor(params: LocatorParams) {
     @Throws(SocketException::class, UnknownHostException::class)
     private fun locate(address: InetAddress): Boolean {
 
-        val mSocket = DatagramSocket(params.port)
+        // Boards answer the address and port a request came from, so the request is sent from an ephemeral port.
+        // This leaves the search port free for other locators, or a simulator, on the same machine.
+        val mSocket = DatagramSocket()
         mSocket.broadcast = true
         mSocket.soTimeout = params.timeout
 
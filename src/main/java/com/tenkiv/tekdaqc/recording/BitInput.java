@@ -0,0 +1,69 @@
+package com.tenkiv.tekdaqc.recording;
+
+/**
+ * Reads a stream of bits written by a {@link BitOutput}.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+final class BitInput {
+
+    private final byte[] mBytes;
+
+    private int mPosition;
+
+    private long mBuffer;
+
+    /**
+     * Number of unread bits at the bottom of {@link #mBuffer}.
+     */
+    private int mAvailable;
+
+    /**
+     * Constructor.
+     *
+     * @param bytes byte[] The bytes to read.
+     */
+    BitInput(final byte[] bytes) {
+        mBytes = bytes;
+    }
+
+    /**
+     * Read bits as an unsigned value.
+     *
+     * @param bits int The number of bits to read, from 1 to 64.
+     * @return long The value read.
+     * @throws IllegalArgumentException If the stream ends first.
+     */
+    long read(final int bits) {
+        if (bits > 32) return (read(bits - 32) << 32) | read(32);
+        while (mAvailable < bits) {
+            if (mPosition == mBytes.length) throw new IllegalArgumentException("Block is truncated.");
+            mBuffer = (mBuffer << 8) | (mBytes[mPosition++] & 0xFF);
+            mAvailable += 8;
+        }
+        mAvailable -= bits;
+        return (mBuffer >>> mAvailable) & ((1L << bits) - 1);
+    }
+
+    /**
+     * Read a single bit.
+     *
+     * @return boolean True for a one bit.
+     */
+    boolean readBit() {
+        return read(1) != 0;
+    }
+
+    /**
+     * Count the one bits before the next zero bit, reading up to {@code max} bits.
+     *
+     * @param max int The most one bits to read.
+     * @return int The number of one bits read.
+     */
+    int readOnes(final int max) {
+        int ones = 0;
+        while (ones < max && readBit()) ++ones;
+        return ones;
+    }
+}
@@ -0,0 +1,87 @@
+package com.tenkiv.tekdaqc.recording;
+
+import java.util.Arrays;
+
+/**
+ * Growable stream of bits, written most significant bit first. Bits are gathered into a 64 bit word before being
+ * copied out, so writing a field costs a few shifts.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+final class BitOutput {
+
+    private byte[] mBytes;
+
+    private int mLength;
+
+    private long mWord;
+
+    /**
+     * Number of bits held in {@link #mWord}, always less than 64.
+     */
+    private int mWordBits;
+
+    /**
+     * Constructor.
+     *
+     * @param expectedBytes int The number of bytes expected to be written.
+     */
+    BitOutput(final int expectedBytes) {
+        mBytes = new byte[Math.max(expectedBytes, 16)];
+    }
+
+    /**
+     * Write the low bits of a value.
+     *
+     * @param value long The value, whose bits above {@code bits} are ignored.
+     * @param bits  int The number of bits to write, from 1 to 64.
+     */
+    void write(long value, final int bits) {
+        if (bits == 64) {
+            write(value >>> 32, 32);
+            write(value, 32);
+            return;
+        }
+        value &= (1L << bits) - 1;
+        final int free = 64 - mWordBits;
+        if (bits < free) {
+            mWord = (mWord << bits) | value;
+            mWordBits += bits;
+        } else {
+            final int rest = bits - free;
+            putWord((mWord << free) | (value >>> rest));
+            mWord = value & ((1L << rest) - 1);
+            mWordBits = rest;
+        }
+    }
+
+    /**
+     * Write a single bit.
+     *
+     * @param bit boolean True for a one bit.
+     */
+    void writeBit(final boolean bit) {
+        write(bit ? 1 : 0, 1);
+    }
+
+    /**
+     * Get the bits written, padded with zeros to a whole number of bytes.
+     *
+     * @return byte[] A copy of the bytes written.
+     */
+    byte[] toByteArray() {
+        final int tailBytes = (mWordBits + 7) >>> 3;
+        final byte[] bytes = Arrays.copyOf(mBytes, mLength + tailBytes);
+        final long tail = mWord << (tailBytes * 8 - mWordBits);
+        for (int i = 0; i < tailBytes; ++i) {
+            bytes[mLength + i] = (byte) (tail >>> ((tailBytes - 1 - i) * 8));
+        }
+        return bytes;
+    }
+
+    private void putWord(final long word) {
+        if (mLength + 8 > mBytes.length) mBytes = Arrays.copyOf(mBytes, mBytes.length * 2);
+        for (int shift = 56; shift >= 0; shift -= 8) mBytes[mLength++] = (byte) (word >>> shift);
+    }
+}
@@ -0,0 +1,21 @@
+package com.tenkiv.tekdaqc.recording;
+
+/**
+ * Receives the records read from a recording, in the order they were written.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+public interface IRecordVisitor {
+
+    /**
+     * Called for each record. The meaning of the value and the auxiliary value depends on the {@link RecordKind}.
+     *
+     * @param channel          int The physical channel number.
+     * @param boardTimestamp   long The timestamp given by the board.
+     * @param receiveTimestamp long The time the sample was received, in milliseconds since the epoch.
+     * @param value            long The value.
+     * @param aux              int The auxiliary value.
+     */
+    void onRecord(int channel, long boardTimestamp, long receiveTimestamp, long value, int aux);
+}
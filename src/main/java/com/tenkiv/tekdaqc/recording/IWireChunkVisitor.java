@@ -0,0 +1,30 @@
+package com.tenkiv.tekdaqc.recording;
+
+/**
+ * Receives the chunks read from a {@link WireCapture} file, in the order they were received.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+public interface IWireChunkVisitor {
+
+    /**
+     * Called for each chunk of received bytes. The buffer is reused for the next chunk once this method returns.
+     *
+     * @param receiveTime long The time the chunk was received, in milliseconds since the epoch.
+     * @param data        {@code byte}[] The buffer holding the bytes.
+     * @param offset      int The offset of the first byte.
+     * @param length      int The number of bytes.
+     */
+    void onChunk(long receiveTime, byte[] data, int offset, int length);
+
+    /**
+     * Called where bytes were received but not captured because the capture buffer was full. By default gaps are
+     * ignored.
+     *
+     * @param receiveTime  long The time the chunk following the gap was received, in milliseconds since the epoch.
+     * @param droppedBytes int The number of bytes lost.
+     */
+    default void onGap(final long receiveTime, final int droppedBytes) {
+    }
+}
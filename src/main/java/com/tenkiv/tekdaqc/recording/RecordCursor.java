@@ -0,0 +1,108 @@
+package com.tenkiv.tekdaqc.recording;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Steps through every record of one {@link RecordKind} in a recording, oldest first, without allocating. Unlike
+ * {@link RecordingReader#read(RecordKind, IRecordVisitor)} the caller pulls each record, so several series can be
+ * merged. The fields of the current record are valid after {@link #next()} returns true.
+ * <p>
+ * A cursor is not thread safe.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+public final class RecordCursor {
+
+    private final RecordingReader mReader;
+
+    private final RecordKind mKind;
+
+    private final long[] mSegments;
+
+    /**
+     * Position of the current segment in {@link #mSegments}.
+     */
+    private int mSegment = -1;
+
+    private ByteBuffer mBuffer;
+
+    /**
+     * Offset of the current record in {@link #mBuffer}.
+     */
+    private int mPosition;
+
+    /**
+     * Constructor.
+     *
+     * @param reader {@link RecordingReader} The reader of the recording.
+     * @param kind   {@link RecordKind} The kind of records.
+     */
+    RecordCursor(final RecordingReader reader, final RecordKind kind) {
+        mReader = reader;
+        mKind = kind;
+        mSegments = reader.getSegments(kind);
+    }
+
+    public RecordKind getKind() {
+        return mKind;
+    }
+
+    /**
+     * Move to the next record.
+     *
+     * @return boolean True if there is a record, false once the recording is exhausted.
+     * @throws IOException If a segment cannot be read.
+     */
+    public boolean next() throws IOException {
+        while (true) {
+            if (mBuffer != null) {
+                mPosition += RecordFormat.RECORD_SIZE;
+                if (RecordFormat.isValidRecord(mBuffer, mPosition)) return true;
+                mBuffer = null;
+            }
+            if (++mSegment >= mSegments.length) return false;
+            final ByteBuffer buffer = mReader.mapSegment(mKind, mSegments[mSegment]);
+            if (RecordFormat.isValidHeader(buffer, mKind)) {
+                mBuffer = buffer;
+                mPosition = RecordFormat.HEADER_SIZE - RecordFormat.RECORD_SIZE;
+            }
+        }
+    }
+
+    public int getChannel() {
+        return RecordFormat.getChannel(mBuffer, mPosition);
+    }
+
+    public long getBoardTimestamp() {
+        return RecordFormat.getBoardTimestamp(mBuffer, mPosition);
+    }
+
+    /**
+     * Get the time the current record was received.
+     *
+     * @return long The time in milliseconds since the epoch.
+     */
+    public long getReceiveTimestamp() {
+        return RecordFormat.getReceiveTimestamp(mBuffer, mPosition);
+    }
+
+    /**
+     * Get the value of the current record, whose meaning depends on the {@link RecordKind}.
+     *
+     * @return long The value.
+     */
+    public long getValue() {
+        return RecordFormat.getValue(mBuffer, mPosition);
+    }
+
+    /**
+     * Get the auxiliary value of the current record, whose meaning depends on the {@link RecordKind}.
+     *
+     * @return int The auxiliary value.
+     */
+    public int getAux() {
+        return RecordFormat.getAux(mBuffer, mPosition);
+    }
+}
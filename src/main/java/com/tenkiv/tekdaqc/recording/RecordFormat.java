@@ -0,0 +1,207 @@
+package com.tenkiv.tekdaqc.recording;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Layout of the segment files written by a {@link SampleRecorder}. Every segment starts with a header the size of one
+ * record, followed by fixed width records. Segments are created at their full size, so the unused end of a segment is
+ * zero. Records are a power of two in size and never straddle a page.
+ * <p>
+ * Each record starts with a word holding a marker, the channel and a checksum of the rest of the record. The word is
+ * written after the rest of the record, so a record torn by a crash does not validate, and the end of a segment is
+ * the first record which does not validate.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+final class RecordFormat {
+
+    /**
+     * "TKREC01" identifying a segment file.
+     */
+    static final long MAGIC = 0x544B5245433031L;
+
+    static final int FORMAT_VERSION = 1;
+
+    static final int RECORD_SIZE = 32;
+
+    static final int HEADER_SIZE = RECORD_SIZE;
+
+    static final String FILE_SUFFIX = ".seg";
+
+    static final String INDEX_SUFFIX = ".idx";
+
+    private static final int MARKER = 0xA5;
+
+    private static final int AUX_OFFSET = 4;
+
+    private static final int BOARD_TIMESTAMP_OFFSET = 8;
+
+    private static final int RECEIVE_TIMESTAMP_OFFSET = 16;
+
+    private static final int VALUE_OFFSET = 24;
+
+    private static final long MIX = 0x9E3779B97F4A7C15L;
+
+    private RecordFormat() {
+        // Static utility class
+    }
+
+    /**
+     * Write a segment header.
+     *
+     * @param buffer        {@link ByteBuffer} The mapped segment.
+     * @param kind          {@link RecordKind} The kind of records in the segment.
+     * @param segmentNumber long The position of the segment in its series.
+     */
+    static void writeHeader(final ByteBuffer buffer, final RecordKind kind, final long segmentNumber) {
+        buffer.putInt(8, FORMAT_VERSION);
+        buffer.putInt(12, RECORD_SIZE);
+        buffer.putInt(16, kind.ordinal());
+        buffer.putLong(24, segmentNumber);
+        buffer.putLong(0, MAGIC);
+    }
+
+    /**
+     * Check that a segment header is complete and matches the expected kind.
+     *
+     * @param buffer {@link ByteBuffer} The mapped segment.
+     * @param kind   {@link RecordKind} The kind of records expected.
+     * @return boolean True if the header is valid.
+     */
+    static boolean isValidHeader(final ByteBuffer buffer, final RecordKind kind) {
+        return buffer.limit() >= HEADER_SIZE
+                && buffer.getLong(0) == MAGIC
+                && buffer.getInt(8) == FORMAT_VERSION
+                && buffer.getInt(12) == RECORD_SIZE
+                && buffer.getInt(16) == kind.ordinal();
+    }
+
+    /**
+     * Write a record, leaving its header word until last.
+     *
+     * @param buffer           {@link ByteBuffer} The mapped segment.
+     * @param position         int The offset of the record.
+     * @param channel          int The physical channel number.
+     * @param aux              int The auxiliary value.
+     * @param boardTimestamp   long The timestamp given by the board.
+     * @param receiveTimestamp long The time the sample was received.
+     * @param value            long The value.
+     */
+    static void writeRecord(final ByteBuffer buffer, final int position, final int channel, final int aux,
+                            final long boardTimestamp, final long receiveTimestamp, final long value) {
+        buffer.putInt(position + AUX_OFFSET, aux);
+        buffer.putLong(position + BOARD_TIMESTAMP_OFFSET, boardTimestamp);
+        buffer.putLong(position + RECEIVE_TIMESTAMP_OFFSET, receiveTimestamp);
+        buffer.putLong(position + VALUE_OFFSET, value);
+        buffer.putInt(position, headerWord(channel, aux, boardTimestamp, receiveTimestamp, value));
+    }
+
+    /**
+     * Check if a complete record is present at a position.
+     *
+     * @param buffer   {@link ByteBuffer} The mapped segment.
+     * @param position int The offset of the record.
+     * @return boolean True if the record is complete.
+     */
+    static boolean isValidRecord(final ByteBuffer buffer, final int position) {
+        if (position + RECORD_SIZE > buffer.limit()) return false;
+        final int header = buffer.getInt(position);
+        return (header >>> 24) == MARKER
+                && header == headerWord(getChannel(buffer, position), getAux(buffer, position),
+                getBoardTimestamp(buffer, position), getReceiveTimestamp(buffer, position),
+                getValue(buffer, position));
+    }
+
+    static int getChannel(final ByteBuffer buffer, final int position) {
+        return (buffer.getInt(position) >>> 16) & 0xFF;
+    }
+
+    static int getAux(final ByteBuffer buffer, final int position) {
+        return buffer.getInt(position + AUX_OFFSET);
+    }
+
+    static long getBoardTimestamp(final ByteBuffer buffer, final int position) {
+        return buffer.getLong(position + BOARD_TIMESTAMP_OFFSET);
+    }
+
+    static long getReceiveTimestamp(final ByteBuffer buffer, final int position) {
+        return buffer.getLong(position + RECEIVE_TIMESTAMP_OFFSET);
+    }
+
+    static long getValue(final ByteBuffer buffer, final int position) {
+        return buffer.getLong(position + VALUE_OFFSET);
+    }
+
+    /**
+     * Find the end of the valid records of a segment.
+     *
+     * @param buffer {@link ByteBuffer} The mapped segment.
+     * @return int The offset following the last valid record.
+     */
+    static int findTail(final ByteBuffer buffer) {
+        int position = HEADER_SIZE;
+        while (isValidRecord(buffer, position)) position += RECORD_SIZE;
+        return position;
+    }
+
+    /**
+     * Get the name of a segment file.
+     *
+     * @param kind          {@link RecordKind} The kind of records in the segment.
+     * @param segmentNumber long The position of the segment in its series.
+     * @return String The file name.
+     */
+    static String segmentName(final RecordKind kind, final long segmentNumber) {
+        return String.format("%s-%012d%s", kind.getFilePrefix(), segmentNumber, FILE_SUFFIX);
+    }
+
+    /**
+     * Get the name of the file holding the saved {@link SegmentIndex} of a segment.
+     *
+     * @param kind          {@link RecordKind} The kind of records in the segment.
+     * @param segmentNumber long The position of the segment in its series.
+     * @return String The file name.
+     */
+    static String indexName(final RecordKind kind, final long segmentNumber) {
+        return String.format("%s-%012d%s", kind.getFilePrefix(), segmentNumber, INDEX_SUFFIX);
+    }
+
+    /**
+     * List the segment numbers of a series in a directory, in order.
+     *
+     * @param directory {@link File} The directory holding the segments.
+     * @param kind      {@link RecordKind} The kind of records.
+     * @return long[] The segment numbers present.
+     */
+    static long[] listSegments(final File directory, final RecordKind kind) {
+        final String prefix = kind.getFilePrefix() + "-";
+        final String[] names = directory.list((dir, name) -> name.startsWith(prefix) && name.endsWith(FILE_SUFFIX));
+        if (names == null) return new long[0];
+        final long[] numbers = new long[names.length];
+        int count = 0;
+        for (final String name : names) {
+            try {
+                numbers[count] = Long.parseLong(
+                        name.substring(prefix.length(), name.length() - FILE_SUFFIX.length()));
+                ++count;
+            } catch (final NumberFormatException e) {
+                // Not a segment of this series
+            }
+        }
+        final long[] segments = Arrays.copyOf(numbers, count);
+        Arrays.sort(segments);
+        return segments;
+    }
+
+    private static int headerWord(final int channel, final int aux, final long boardTimestamp,
+                                  final long receiveTimestamp, final long value) {
+        long hash = (channel & 0xFF) * MIX ^ aux;
+        hash = (hash ^ boardTimestamp) * MIX;
+        hash = (hash ^ receiveTimestamp) * MIX;
+        hash = (hash ^ value) * MIX;
+        return (MARKER << 24) | ((channel & 0xFF) << 16) | (int) (hash >>> 48);
+    }
+}
@@ -0,0 +1,43 @@
+package com.tenkiv.tekdaqc.recording;
+
+/**
+ * The kinds of sample recorded by a {@link SampleRecorder}, each of which is kept in its own series of segment files.
+ * Every record holds a channel, the board's timestamp, the time it was received, a value and an auxiliary value,
+ * whose meanings depend on the kind.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+public enum RecordKind {
+
+    /**
+     * Analog input samples. The value is the count measured by the ADC, and the auxiliary value is unused.
+     */
+    ANALOG("analog"),
+
+    /**
+     * Digital input samples. The value is 1 for high and 0 for low, and the auxiliary value is unused.
+     */
+    DIGITAL("digital"),
+
+    /**
+     * PWM input samples. The value is the raw bits of the percentage of time the input was on, as given by
+     * {@link Double#doubleToRawLongBits(double)}, and the auxiliary value is the total number of transitions.
+     */
+    PWM("pwm");
+
+    private final String mFilePrefix;
+
+    RecordKind(final String filePrefix) {
+        mFilePrefix = filePrefix;
+    }
+
+    /**
+     * Get the prefix of the names of segment files holding this kind of record.
+     *
+     * @return String The file name prefix.
+     */
+    public String getFilePrefix() {
+        return mFilePrefix;
+    }
+}
@@ -0,0 +1,78 @@
+package com.tenkiv.tekdaqc.recording;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A directory holding the recordings of any number of boards, each in a directory named for its serial number as
+ * created by {@link com.tenkiv.tekdaqc.hardware.ATekdaqc#startRecording(File)}. Recorded samples are looked up by
+ * serial number, physical channel and board timestamp.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+public final class RecordingArchive {
+
+    private final File mDirectory;
+
+    /**
+     * Readers of each board, kept so that their segment indexes are reused.
+     */
+    private final Map<String, RecordingReader> mReaders = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor.
+     *
+     * @param directory {@link File} The directory holding the recordings of all boards.
+     */
+    public RecordingArchive(final File directory) {
+        mDirectory = directory;
+    }
+
+    public File getDirectory() {
+        return mDirectory;
+    }
+
+    /**
+     * Get the serial numbers of the boards with recordings in the archive.
+     *
+     * @return {@link List} The serial numbers, in order.
+     */
+    public List<String> getSerialNumbers() {
+        final File[] files = mDirectory.listFiles(File::isDirectory);
+        if (files == null) return Collections.emptyList();
+        final List<String> serialNumbers = new ArrayList<>(files.length);
+        for (final File file : files) serialNumbers.add(file.getName());
+        Collections.sort(serialNumbers);
+        return serialNumbers;
+    }
+
+    /**
+     * Get the reader of a board's recording.
+     *
+     * @param serialNumber String The serial number of the board.
+     * @return {@link RecordingReader} The reader.
+     */
+    public RecordingReader getReader(final String serialNumber) {
+        return mReaders.computeIfAbsent(serialNumber, serial -> new RecordingReader(new File(mDirectory, serial)));
+    }
+
+    /**
+     * Query the samples of one channel of a board within a range of board timestamps.
+     *
+     * @param serialNumber String The serial number of the board.
+     * @param kind         {@link RecordKind} The kind of samples.
+     * @param channel      int The physical channel number.
+     * @param from         long The earliest board timestamp wanted, inclusive.
+     * @param to           long The latest board timestamp wanted, inclusive.
+     * @return {@link SampleCursor} A cursor over the matching samples.
+     */
+    public SampleCursor query(final String serialNumber, final RecordKind kind, final int channel, final long from,
+                              final long to) {
+        return getReader(serialNumber).query(kind, channel, from, to);
+    }
+}
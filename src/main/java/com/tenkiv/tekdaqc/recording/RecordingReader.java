@@ -0,0 +1,176 @@
+package com.tenkiv.tekdaqc.recording;
+
+import com.tenkiv.tekdaqc.communication.message.ICountBatchListener;
+import com.tenkiv.tekdaqc.hardware.AAnalogInput;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reads the records written by a {@link SampleRecorder} for one board. A recording may be read while it is still being
+ * written; records appended after a segment has been read are not seen.
+ * <p>
+ * Range queries for one channel use a sparse {@link SegmentIndex} of each segment, built the first time the segment
+ * is queried. Indexes of segments which are no longer being written are saved beside them for later readers.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+public final class RecordingReader {
+
+    private final File mDirectory;
+
+    /**
+     * Indexes of segments which are no longer being written, by file name.
+     */
+    private final Map<String, SegmentIndex> mIndexes = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor.
+     *
+     * @param directory {@link File} The directory the board was recorded into.
+     */
+    public RecordingReader(final File directory) {
+        mDirectory = directory;
+    }
+
+    /**
+     * Read every complete record of a kind, oldest first.
+     *
+     * @param kind    {@link RecordKind} The kind of records to read.
+     * @param visitor {@link IRecordVisitor} Receives each record.
+     * @return long The number of records read.
+     * @throws IOException If a segment cannot be read.
+     */
+    public long read(final RecordKind kind, final IRecordVisitor visitor) throws IOException {
+        long count = 0;
+        for (final long segment : RecordFormat.listSegments(mDirectory, kind)) {
+            final MappedByteBuffer buffer = mapSegment(kind, segment);
+            if (!RecordFormat.isValidHeader(buffer, kind)) continue;
+            int position = RecordFormat.HEADER_SIZE;
+            while (RecordFormat.isValidRecord(buffer, position)) {
+                visitor.onRecord(RecordFormat.getChannel(buffer, position),
+                        RecordFormat.getBoardTimestamp(buffer, position),
+                        RecordFormat.getReceiveTimestamp(buffer, position),
+                        RecordFormat.getValue(buffer, position),
+                        RecordFormat.getAux(buffer, position));
+                position += RecordFormat.RECORD_SIZE;
+                ++count;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Open a cursor over every record of a kind, oldest first.
+     *
+     * @param kind {@link RecordKind} The kind of records.
+     * @return {@link RecordCursor} The cursor.
+     */
+    public RecordCursor records(final RecordKind kind) {
+        return new RecordCursor(this, kind);
+    }
+
+    /**
+     * Query the samples of one channel within a range of board timestamps.
+     *
+     * @param kind    {@link RecordKind} The kind of samples.
+     * @param channel int The physical channel number.
+     * @param from    long The earliest board timestamp wanted, inclusive.
+     * @param to      long The latest board timestamp wanted, inclusive.
+     * @return {@link SampleCursor} A cursor over the matching samples.
+     */
+    public SampleCursor query(final RecordKind kind, final int channel, final long from, final long to) {
+        return new SampleCursor(this, kind, channel, from, to);
+    }
+
+    /**
+     * Read the analog samples of one channel within a range of board timestamps, delivering them in batches to a
+     * listener in the same way as live samples.
+     *
+     * @param input     {@link AAnalogInput} The input passed to the listener, whose channel is queried.
+     * @param from      long The earliest board timestamp wanted, inclusive.
+     * @param to        long The latest board timestamp wanted, inclusive.
+     * @param batchSize int The maximum number of samples in a batch.
+     * @param listener  {@link ICountBatchListener} Receives each batch.
+     * @return long The number of samples read.
+     * @throws IOException If a segment cannot be read.
+     */
+    public long readAnalogBatches(final AAnalogInput input, final long from, final long to, final int batchSize,
+                                  final ICountBatchListener listener) throws IOException {
+        if (batchSize < 1) throw new IllegalArgumentException("Batch size must be positive.");
+        final SampleCursor cursor = query(RecordKind.ANALOG, input.getChannelNumber(), from, to);
+        final long[] timestamps = new long[batchSize];
+        final int[] counts = new int[batchSize];
+        long total = 0;
+        int length;
+        while ((length = cursor.nextAnalog(timestamps, counts)) > 0) {
+            listener.onAnalogCountBatch(input, timestamps, counts, length);
+            total += length;
+        }
+        return total;
+    }
+
+    /**
+     * Get the segment numbers of a kind present in the recording, in order.
+     *
+     * @param kind {@link RecordKind} The kind of records.
+     * @return long[] The segment numbers.
+     */
+    public long[] getSegments(final RecordKind kind) {
+        return RecordFormat.listSegments(mDirectory, kind);
+    }
+
+    /**
+     * Map a segment for reading.
+     *
+     * @param kind    {@link RecordKind} The kind of records in the segment.
+     * @param segment long The segment number.
+     * @return {@link MappedByteBuffer} The segment.
+     * @throws IOException If the segment cannot be mapped.
+     */
+    MappedByteBuffer mapSegment(final RecordKind kind, final long segment) throws IOException {
+        final File file = new File(mDirectory, RecordFormat.segmentName(kind, segment));
+        try (RandomAccessFile access = new RandomAccessFile(file, "r")) {
+            final long length = Math.min(access.length(), Integer.MAX_VALUE);
+            return access.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, length);
+        }
+    }
+
+    /**
+     * Get the index of a segment, loading or building it as needed.
+     *
+     * @param kind    {@link RecordKind} The kind of records in the segment.
+     * @param segment long The segment number.
+     * @param buffer  {@link ByteBuffer} The mapped segment, whose header has been validated.
+     * @param sealed  boolean True if the segment is no longer being written, so its index can be kept.
+     * @return {@link SegmentIndex} The index.
+     */
+    SegmentIndex getIndex(final RecordKind kind, final long segment, final ByteBuffer buffer,
+                          final boolean sealed) {
+        if (!sealed) return SegmentIndex.build(buffer);
+
+        final String name = RecordFormat.indexName(kind, segment);
+        SegmentIndex index = mIndexes.get(name);
+        if (index != null) return index;
+
+        final File file = new File(mDirectory, name);
+        index = SegmentIndex.load(file, buffer.capacity());
+        if (index == null) {
+            index = SegmentIndex.build(buffer);
+            try {
+                index.save(file, buffer.capacity());
+            } catch (final IOException e) {
+                // The recording may be read only, in which case the index is rebuilt by each reader
+            }
+        }
+        mIndexes.put(name, index);
+        return index;
+    }
+}
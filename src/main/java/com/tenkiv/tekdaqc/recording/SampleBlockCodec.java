@@ -0,0 +1,332 @@
+package com.tenkiv.tekdaqc.recording;
+
+/**
+ * Compresses blocks of samples from a single channel into a columnar bit stream, in the manner of Facebook's Gorilla
+ * time series format. All timestamps of a block are written before all values:
+ * <ul>
+ * <li>Timestamps are written as the difference between successive deltas, so a steady sample rate costs one bit per
+ * sample and jitter a few more.</li>
+ * <li>Analog counts, and PWM transition totals, are written as the zig-zag encoded difference from the previous value
+ * in one of a few widths, so slowly changing counts cost far fewer than 32 bits.</li>
+ * <li>PWM percentages are written as the XOR of their bits with the previous percentage's, storing only the
+ * meaningful bits.</li>
+ * <li>Digital levels are packed one bit each.</li>
+ * </ul>
+ * A block starts with a header giving the format version, the {@link RecordKind} and the number of samples, so its
+ * arrays can be sized before decoding.
+ * <p>
+ * The codec is a standalone utility for archiving or transferring the samples of a channel, and is not used by
+ * {@link SampleRecorder}. Segments keep fixed width records, since each record is written in place with a checksum so
+ * that a crash tears at most one, and records also carry the receive timestamp which
+ * {@link com.tenkiv.tekdaqc.telnet.client.ReplayTelnetConnection} paces replays by, which a block does not hold. The
+ * arrays filled by a {@link SampleCursor} can be passed straight to the encode methods.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+public final class SampleBlockCodec {
+
+    /**
+     * Version of the block format written.
+     */
+    public static final int FORMAT_VERSION = 1;
+
+    /**
+     * Size of the block header in bytes.
+     */
+    public static final int HEADER_SIZE = 6;
+
+    /**
+     * Widths of zig-zag encoded timestamp delta-of-deltas, following a prefix of as many one bits as the position of
+     * the width, ended by a zero bit unless it is the widest.
+     */
+    private static final int[] TIMESTAMP_WIDTHS = {7, 9, 12, 64};
+
+    /**
+     * Widths of zig-zag encoded value differences. The difference of two ints needs at most 34 bits once encoded.
+     */
+    private static final int[] VALUE_WIDTHS = {6, 12, 20, 34};
+
+    private SampleBlockCodec() {
+        // Static utility class
+    }
+
+    /**
+     * Encode a block of analog samples.
+     *
+     * @param timestamps long[] The timestamps of the samples.
+     * @param counts     int[] The counts of the samples.
+     * @param length     int The number of samples to encode from the start of the arrays.
+     * @return byte[] The encoded block.
+     */
+    public static byte[] encodeAnalog(final long[] timestamps, final int[] counts, final int length) {
+        checkLength(length, timestamps.length, counts.length);
+        final BitOutput output = start(RecordKind.ANALOG, length);
+        writeTimestamps(output, timestamps, length);
+        long previous = 0;
+        for (int i = 0; i < length; ++i) {
+            writeBucketed(output, zigZag(counts[i] - previous), VALUE_WIDTHS);
+            previous = counts[i];
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * Encode a block of digital samples.
+     *
+     * @param timestamps long[] The timestamps of the samples.
+     * @param levels     boolean[] The levels of the samples, true for high.
+     * @param length     int The number of samples to encode from the start of the arrays.
+     * @return byte[] The encoded block.
+     */
+    public static byte[] encodeDigital(final long[] timestamps, final boolean[] levels, final int length) {
+        checkLength(length, timestamps.length, levels.length);
+        final BitOutput output = start(RecordKind.DIGITAL, length);
+        writeTimestamps(output, timestamps, length);
+        for (int i = 0; i < length; ++i) output.writeBit(levels[i]);
+        return output.toByteArray();
+    }
+
+    /**
+     * Encode a block of PWM samples.
+     *
+     * @param timestamps   long[] The timestamps of the samples.
+     * @param percentages  double[] The percentages of time the input was on.
+     * @param transitions  int[] The total numbers of transitions.
+     * @param length       int The number of samples to encode from the start of the arrays.
+     * @return byte[] The encoded block.
+     */
+    public static byte[] encodePWM(final long[] timestamps, final double[] percentages, final int[] transitions,
+                                   final int length) {
+        checkLength(length, timestamps.length, Math.min(percentages.length, transitions.length));
+        final BitOutput output = start(RecordKind.PWM, length);
+        writeTimestamps(output, timestamps, length);
+
+        long previousBits = 0;
+        int previousLeading = -1;
+        int previousTrailing = 0;
+        for (int i = 0; i < length; ++i) {
+            final long bits = Double.doubleToRawLongBits(percentages[i]);
+            final long xor = bits ^ previousBits;
+            previousBits = bits;
+            if (xor == 0) {
+                output.write(0, 1);
+                continue;
+            }
+            final int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+            final int trailing = Long.numberOfTrailingZeros(xor);
+            if (previousLeading >= 0 && leading >= previousLeading && trailing >= previousTrailing) {
+                // The meaningful bits fit within those of the previous value, so its window is reused
+                output.write(0b10, 2);
+                output.write(xor >>> previousTrailing, 64 - previousLeading - previousTrailing);
+            } else {
+                final int significant = 64 - leading - trailing;
+                output.write(0b11, 2);
+                output.write(leading, 5);
+                output.write(significant - 1, 6);
+                output.write(xor >>> trailing, significant);
+                previousLeading = leading;
+                previousTrailing = trailing;
+            }
+        }
+
+        long previous = 0;
+        for (int i = 0; i < length; ++i) {
+            writeBucketed(output, zigZag(transitions[i] - previous), VALUE_WIDTHS);
+            previous = transitions[i];
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * Get the kind of samples in a block.
+     *
+     * @param block byte[] The encoded block.
+     * @return {@link RecordKind} The kind of samples.
+     * @throws IllegalArgumentException If the block is not a valid block.
+     */
+    public static RecordKind getKind(final byte[] block) {
+        checkHeader(block);
+        return RecordKind.values()[block[1]];
+    }
+
+    /**
+     * Get the number of samples in a block.
+     *
+     * @param block byte[] The encoded block.
+     * @return int The number of samples.
+     * @throws IllegalArgumentException If the block is not a valid block.
+     */
+    public static int getSampleCount(final byte[] block) {
+        checkHeader(block);
+        return ((block[2] & 0xFF) << 24) | ((block[3] & 0xFF) << 16) | ((block[4] & 0xFF) << 8) | (block[5] & 0xFF);
+    }
+
+    /**
+     * Decode a block of analog samples.
+     *
+     * @param block      byte[] The encoded block.
+     * @param timestamps long[] The array to decode timestamps into.
+     * @param counts     int[] The array to decode counts into.
+     * @return int The number of samples decoded.
+     * @throws IllegalArgumentException If the block does not hold analog samples or the arrays are too short.
+     */
+    public static int decodeAnalog(final byte[] block, final long[] timestamps, final int[] counts) {
+        final int length = checkDecode(block, RecordKind.ANALOG, Math.min(timestamps.length, counts.length));
+        final BitInput input = open(block);
+        readTimestamps(input, timestamps, length);
+        long previous = 0;
+        for (int i = 0; i < length; ++i) {
+            previous += zigZagDecode(readBucketed(input, VALUE_WIDTHS));
+            counts[i] = (int) previous;
+        }
+        return length;
+    }
+
+    /**
+     * Decode a block of digital samples.
+     *
+     * @param block      byte[] The encoded block.
+     * @param timestamps long[] The array to decode timestamps into.
+     * @param levels     boolean[] The array to decode levels into.
+     * @return int The number of samples decoded.
+     * @throws IllegalArgumentException If the block does not hold digital samples or the arrays are too short.
+     */
+    public static int decodeDigital(final byte[] block, final long[] timestamps, final boolean[] levels) {
+        final int length = checkDecode(block, RecordKind.DIGITAL, Math.min(timestamps.length, levels.length));
+        final BitInput input = open(block);
+        readTimestamps(input, timestamps, length);
+        for (int i = 0; i < length; ++i) levels[i] = input.readBit();
+        return length;
+    }
+
+    /**
+     * Decode a block of PWM samples.
+     *
+     * @param block       byte[] The encoded block.
+     * @param timestamps  long[] The array to decode timestamps into.
+     * @param percentages double[] The array to decode percentages into.
+     * @param transitions int[] The array to decode transition totals into.
+     * @return int The number of samples decoded.
+     * @throws IllegalArgumentException If the block does not hold PWM samples or the arrays are too short.
+     */
+    public static int decodePWM(final byte[] block, final long[] timestamps, final double[] percentages,
+                                final int[] transitions) {
+        final int capacity = Math.min(timestamps.length, Math.min(percentages.length, transitions.length));
+        final int length = checkDecode(block, RecordKind.PWM, capacity);
+        final BitInput input = open(block);
+        readTimestamps(input, timestamps, length);
+
+        long bits = 0;
+        int leading = 0;
+        int trailing = 0;
+        for (int i = 0; i < length; ++i) {
+            if (input.readBit()) {
+                if (input.readBit()) {
+                    leading = (int) input.read(5);
+                    final int significant = (int) input.read(6) + 1;
+                    trailing = 64 - leading - significant;
+                }
+                bits ^= input.read(64 - leading - trailing) << trailing;
+            }
+            percentages[i] = Double.longBitsToDouble(bits);
+        }
+
+        long previous = 0;
+        for (int i = 0; i < length; ++i) {
+            previous += zigZagDecode(readBucketed(input, VALUE_WIDTHS));
+            transitions[i] = (int) previous;
+        }
+        return length;
+    }
+
+    private static BitOutput start(final RecordKind kind, final int length) {
+        final BitOutput output = new BitOutput(HEADER_SIZE + 8 + length * 2);
+        output.write(FORMAT_VERSION, 8);
+        output.write(kind.ordinal(), 8);
+        output.write(length, 32);
+        return output;
+    }
+
+    private static BitInput open(final byte[] block) {
+        final BitInput input = new BitInput(block);
+        input.read(HEADER_SIZE * 8);
+        return input;
+    }
+
+    private static void writeTimestamps(final BitOutput output, final long[] timestamps, final int length) {
+        if (length == 0) return;
+        output.write(timestamps[0], 64);
+        long previousDelta = 0;
+        for (int i = 1; i < length; ++i) {
+            final long delta = timestamps[i] - timestamps[i - 1];
+            writeBucketed(output, zigZag(delta - previousDelta), TIMESTAMP_WIDTHS);
+            previousDelta = delta;
+        }
+    }
+
+    private static void readTimestamps(final BitInput input, final long[] timestamps, final int length) {
+        if (length == 0) return;
+        timestamps[0] = input.read(64);
+        long delta = 0;
+        for (int i = 1; i < length; ++i) {
+            delta += zigZagDecode(readBucketed(input, TIMESTAMP_WIDTHS));
+            timestamps[i] = timestamps[i - 1] + delta;
+        }
+    }
+
+    private static void writeBucketed(final BitOutput output, final long value, final int[] widths) {
+        if (value == 0) {
+            output.write(0, 1);
+            return;
+        }
+        final int last = widths.length - 1;
+        for (int i = 0; i < last; ++i) {
+            if ((value >>> widths[i]) == 0) {
+                // i + 1 one bits followed by a zero bit
+                output.write((1L << (i + 2)) - 2, i + 2);
+                output.write(value, widths[i]);
+                return;
+            }
+        }
+        output.write((1L << widths.length) - 1, widths.length);
+        output.write(value, widths[last]);
+    }
+
+    private static long readBucketed(final BitInput input, final int[] widths) {
+        final int ones = input.readOnes(widths.length);
+        return (ones == 0) ? 0 : input.read(widths[ones - 1]);
+    }
+
+    private static long zigZag(final long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long zigZagDecode(final long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void checkLength(final int length, final int firstCapacity, final int secondCapacity) {
+        if (length < 0 || length > firstCapacity || length > secondCapacity) {
+            throw new IllegalArgumentException("Length " + length + " does not fit the arrays given.");
+        }
+    }
+
+    private static void checkHeader(final byte[] block) {
+        if (block.length < HEADER_SIZE || block[0] != FORMAT_VERSION
+                || block[1] < 0 || block[1] >= RecordKind.values().length) {
+            throw new IllegalArgumentException("Not a sample block of a supported version.");
+        }
+    }
+
+    private static int checkDecode(final byte[] block, final RecordKind kind, final int capacity) {
+        if (getKind(block) != kind) {
+            throw new IllegalArgumentException("Block holds " + getKind(block) + " samples, not " + kind + ".");
+        }
+        final int length = getSampleCount(block);
+        if (length > capacity) {
+            throw new IllegalArgumentException("Block holds " + length + " samples, more than the arrays given.");
+        }
+        return length;
+    }
+}
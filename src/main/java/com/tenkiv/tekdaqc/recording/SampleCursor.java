@@ -0,0 +1,186 @@
+package com.tenkiv.tekdaqc.recording;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Streams the recorded samples of one channel within a range of board timestamps, decoding them into primitive arrays
+ * a batch at a time. Segments and strides of records which the sparse index shows cannot hold matching samples are
+ * skipped without being read. Samples are produced in the order they were recorded.
+ * <p>
+ * A cursor is not thread safe, and must be read with the method matching its {@link RecordKind}.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+public final class SampleCursor {
+
+    private final RecordingReader mReader;
+
+    private final RecordKind mKind;
+
+    private final int mChannel;
+
+    private final long mFrom;
+
+    private final long mTo;
+
+    private final long[] mSegments;
+
+    /**
+     * Position of the current segment in {@link #mSegments}.
+     */
+    private int mSegment = -1;
+
+    private ByteBuffer mBuffer;
+
+    private SegmentIndex mIndex;
+
+    private int mStride;
+
+    private int mRecord;
+
+    private int mStrideEnd;
+
+    /**
+     * Constructor.
+     *
+     * @param reader  {@link RecordingReader} The reader of the recording.
+     * @param kind    {@link RecordKind} The kind of samples.
+     * @param channel int The physical channel number.
+     * @param from    long The earliest board timestamp wanted, inclusive.
+     * @param to      long The latest board timestamp wanted, inclusive.
+     */
+    SampleCursor(final RecordingReader reader, final RecordKind kind, final int channel, final long from,
+                 final long to) {
+        mReader = reader;
+        mKind = kind;
+        mChannel = channel;
+        mFrom = from;
+        mTo = to;
+        mSegments = reader.getSegments(kind);
+    }
+
+    public RecordKind getKind() {
+        return mKind;
+    }
+
+    /**
+     * Decode the next analog samples.
+     *
+     * @param timestamps long[] The array to decode board timestamps into.
+     * @param counts     int[] The array to decode counts into.
+     * @return int The number of samples decoded, which is zero once the cursor is exhausted.
+     * @throws IOException If a segment cannot be read.
+     */
+    public int nextAnalog(final long[] timestamps, final int[] counts) throws IOException {
+        checkKind(RecordKind.ANALOG);
+        final int max = Math.min(timestamps.length, counts.length);
+        int length = 0;
+        int position;
+        while (length < max && (position = nextPosition()) >= 0) {
+            timestamps[length] = RecordFormat.getBoardTimestamp(mBuffer, position);
+            counts[length] = (int) RecordFormat.getValue(mBuffer, position);
+            ++length;
+        }
+        return length;
+    }
+
+    /**
+     * Decode the next digital samples.
+     *
+     * @param timestamps long[] The array to decode board timestamps into.
+     * @param levels     boolean[] The array to decode levels into, true for high.
+     * @return int The number of samples decoded, which is zero once the cursor is exhausted.
+     * @throws IOException If a segment cannot be read.
+     */
+    public int nextDigital(final long[] timestamps, final boolean[] levels) throws IOException {
+        checkKind(RecordKind.DIGITAL);
+        final int max = Math.min(timestamps.length, levels.length);
+        int length = 0;
+        int position;
+        while (length < max && (position = nextPosition()) >= 0) {
+            timestamps[length] = RecordFormat.getBoardTimestamp(mBuffer, position);
+            levels[length] = RecordFormat.getValue(mBuffer, position) != 0;
+            ++length;
+        }
+        return length;
+    }
+
+    /**
+     * Decode the next PWM samples.
+     *
+     * @param timestamps  long[] The array to decode board timestamps into.
+     * @param percentages double[] The array to decode the percentages of time the input was on into.
+     * @param transitions int[] The array to decode the total numbers of transitions into.
+     * @return int The number of samples decoded, which is zero once the cursor is exhausted.
+     * @throws IOException If a segment cannot be read.
+     */
+    public int nextPWM(final long[] timestamps, final double[] percentages, final int[] transitions)
+            throws IOException {
+        checkKind(RecordKind.PWM);
+        final int max = Math.min(timestamps.length, Math.min(percentages.length, transitions.length));
+        int length = 0;
+        int position;
+        while (length < max && (position = nextPosition()) >= 0) {
+            timestamps[length] = RecordFormat.getBoardTimestamp(mBuffer, position);
+            percentages[length] = Double.longBitsToDouble(RecordFormat.getValue(mBuffer, position));
+            transitions[length] = RecordFormat.getAux(mBuffer, position);
+            ++length;
+        }
+        return length;
+    }
+
+    /**
+     * Find the next matching record.
+     *
+     * @return int The offset of the record in {@link #mBuffer}, or -1 if there are no more.
+     */
+    private int nextPosition() throws IOException {
+        while (true) {
+            if (mBuffer != null) {
+                while (mRecord < mStrideEnd) {
+                    final int position = RecordFormat.HEADER_SIZE + mRecord++ * RecordFormat.RECORD_SIZE;
+                    if (RecordFormat.getChannel(mBuffer, position) == mChannel) {
+                        final long timestamp = RecordFormat.getBoardTimestamp(mBuffer, position);
+                        if (timestamp >= mFrom && timestamp <= mTo) return position;
+                    }
+                }
+                if (advanceStride()) continue;
+                mBuffer = null;
+                mIndex = null;
+            }
+            if (++mSegment >= mSegments.length) return -1;
+            openSegment();
+        }
+    }
+
+    private boolean advanceStride() {
+        while (++mStride < mIndex.getStrideCount()) {
+            if (mIndex.mayContain(mStride, mChannel, mFrom, mTo)) {
+                mRecord = mStride * SegmentIndex.STRIDE;
+                mStrideEnd = Math.min(mRecord + SegmentIndex.STRIDE, mIndex.getRecordCount());
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void openSegment() throws IOException {
+        final long segment = mSegments[mSegment];
+        final ByteBuffer buffer = mReader.mapSegment(mKind, segment);
+        if (!RecordFormat.isValidHeader(buffer, mKind)) return;
+        // The last segment may still be written, so its index is not kept
+        final SegmentIndex index = mReader.getIndex(mKind, segment, buffer, mSegment < mSegments.length - 1);
+        if (!index.mayContain(mChannel, mFrom, mTo)) return;
+        mBuffer = buffer;
+        mIndex = index;
+        mStride = -1;
+        mRecord = 0;
+        mStrideEnd = 0;
+    }
+
+    private void checkKind(final RecordKind kind) {
+        if (mKind != kind) throw new IllegalStateException("Cursor reads " + mKind + " samples, not " + kind + ".");
+    }
+}
@@ -0,0 +1,132 @@
+package com.tenkiv.tekdaqc.recording;
+
+import com.tenkiv.tekdaqc.communication.executors.IDataRecordSink;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Records every sample of one board to disk as fixed width primitive records, appended to memory mapped segment files
+ * with a series for each {@link RecordKind}. Appending a record costs a few memory writes; the operating system writes
+ * the pages back in the background, and {@link #flush()} forces them out.
+ * <p>
+ * Recording into a directory which already holds a recording continues it. If the previous recorder was interrupted,
+ * the records it completed are kept and any torn record at the end is discarded.
+ * <p>
+ * Samples may be recorded from any number of threads. An {@link IOException} while recording stops the recorder,
+ * which is reported by {@link #hasFailed()}.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+public final class SampleRecorder implements IDataRecordSink, Closeable {
+
+    /**
+     * Default size of each segment file.
+     */
+    public static final int DEFAULT_SEGMENT_BYTES = 64 * 1024 * 1024;
+
+    private final File mDirectory;
+
+    private final SegmentWriter mAnalog;
+
+    private final SegmentWriter mDigital;
+
+    private final SegmentWriter mPWM;
+
+    private volatile boolean mFailed;
+
+    private volatile boolean mClosed;
+
+    /**
+     * Constructor using segments of {@link #DEFAULT_SEGMENT_BYTES}.
+     *
+     * @param directory {@link File} The directory to record the board into, which is created if needed.
+     * @throws IOException If the recording cannot be created or continued.
+     */
+    public SampleRecorder(final File directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_BYTES);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param directory    {@link File} The directory to record the board into, which is created if needed.
+     * @param segmentBytes int The size of each segment file.
+     * @throws IOException If the recording cannot be created or continued.
+     */
+    public SampleRecorder(final File directory, final int segmentBytes) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Unable to create recording directory " + directory);
+        }
+        mDirectory = directory;
+        mAnalog = new SegmentWriter(directory, RecordKind.ANALOG, segmentBytes);
+        mDigital = new SegmentWriter(directory, RecordKind.DIGITAL, segmentBytes);
+        mPWM = new SegmentWriter(directory, RecordKind.PWM, segmentBytes);
+    }
+
+    public File getDirectory() {
+        return mDirectory;
+    }
+
+    /**
+     * Check if recording has stopped because of an {@link IOException}.
+     *
+     * @return boolean True if the recorder has failed.
+     */
+    public boolean hasFailed() {
+        return mFailed;
+    }
+
+    @Override
+    public void onAnalogSample(final int channel, final long sequence, final long timestamp, final int count) {
+        append(mAnalog, channel, 0, timestamp, count);
+    }
+
+    @Override
+    public void onDigitalSample(final int channel, final long sequence, final long timestamp, final boolean state) {
+        append(mDigital, channel, 0, timestamp, state ? 1 : 0);
+    }
+
+    @Override
+    public void onPWMSample(final int channel, final long sequence, final long timestamp, final double percentageOn,
+                            final int totalTransitions) {
+        append(mPWM, channel, totalTransitions, timestamp, Double.doubleToRawLongBits(percentageOn));
+    }
+
+    /**
+     * Write the records appended so far through to the storage device.
+     */
+    public void flush() {
+        mAnalog.flush();
+        mDigital.flush();
+        mPWM.flush();
+    }
+
+    /**
+     * Flush and stop recording. Samples recorded afterwards are discarded.
+     */
+    @Override
+    public void close() {
+        mClosed = true;
+        mAnalog.close();
+        mDigital.close();
+        mPWM.close();
+    }
+
+    private void append(final SegmentWriter writer, final int channel, final int aux, final long timestamp,
+                        final long value) {
+        if (mFailed || mClosed) return;
+        try {
+            writer.append(channel, aux, timestamp, System.currentTimeMillis(), value);
+        } catch (final IOException e) {
+            // A sample racing with close finds its segment closed, which is not a failure
+            if (!mFailed && !mClosed) {
+                mFailed = true;
+                System.err.println("SampleRecorder stopping after failure to record to " + mDirectory + ": ");
+                e.printStackTrace();
+            }
+        }
+    }
+}
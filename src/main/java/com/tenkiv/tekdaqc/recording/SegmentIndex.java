@@ -0,0 +1,198 @@
+package com.tenkiv.tekdaqc.recording;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Sparse index of one segment. The records of the segment are divided into strides of {@link #STRIDE} records, and the
+ * index holds the earliest and latest board timestamp of each stride and a mask of the channels it contains. Board
+ * timestamps need not be in order within a segment, since each stride is bounded on its own.
+ * <p>
+ * Indexes of segments which are no longer being written are saved beside them, so each is only built once.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+final class SegmentIndex {
+
+    /**
+     * Number of records covered by each entry of the index.
+     */
+    static final int STRIDE = 512;
+
+    /**
+     * "TKIDX01" identifying an index file.
+     */
+    private static final long MAGIC = 0x544B4944583031L;
+
+    private static final int FORMAT_VERSION = 1;
+
+    private final int mRecordCount;
+
+    private final long[] mEarliest;
+
+    private final long[] mLatest;
+
+    /**
+     * Channels present in each stride, as a bit for each channel modulo 64.
+     */
+    private final long[] mChannels;
+
+    private final long mSegmentEarliest;
+
+    private final long mSegmentLatest;
+
+    private final long mSegmentChannels;
+
+    private SegmentIndex(final int recordCount, final long[] earliest, final long[] latest, final long[] channels) {
+        mRecordCount = recordCount;
+        mEarliest = earliest;
+        mLatest = latest;
+        mChannels = channels;
+        long segmentEarliest = Long.MAX_VALUE;
+        long segmentLatest = Long.MIN_VALUE;
+        long segmentChannels = 0;
+        for (int i = 0; i < earliest.length; ++i) {
+            segmentEarliest = Math.min(segmentEarliest, earliest[i]);
+            segmentLatest = Math.max(segmentLatest, latest[i]);
+            segmentChannels |= channels[i];
+        }
+        mSegmentEarliest = segmentEarliest;
+        mSegmentLatest = segmentLatest;
+        mSegmentChannels = segmentChannels;
+    }
+
+    /**
+     * Build the index of a segment by scanning its records.
+     *
+     * @param buffer {@link ByteBuffer} The mapped segment, whose header has been validated.
+     * @return {@link SegmentIndex} The index.
+     */
+    static SegmentIndex build(final ByteBuffer buffer) {
+        final int recordCount = (RecordFormat.findTail(buffer) - RecordFormat.HEADER_SIZE) / RecordFormat.RECORD_SIZE;
+        final int strides = (recordCount + STRIDE - 1) / STRIDE;
+        final long[] earliest = new long[strides];
+        final long[] latest = new long[strides];
+        final long[] channels = new long[strides];
+        for (int stride = 0; stride < strides; ++stride) {
+            long strideEarliest = Long.MAX_VALUE;
+            long strideLatest = Long.MIN_VALUE;
+            long strideChannels = 0;
+            final int end = Math.min(recordCount, (stride + 1) * STRIDE);
+            for (int record = stride * STRIDE; record < end; ++record) {
+                final int position = RecordFormat.HEADER_SIZE + record * RecordFormat.RECORD_SIZE;
+                final long timestamp = RecordFormat.getBoardTimestamp(buffer, position);
+                strideEarliest = Math.min(strideEarliest, timestamp);
+                strideLatest = Math.max(strideLatest, timestamp);
+                strideChannels |= 1L << RecordFormat.getChannel(buffer, position);
+            }
+            earliest[stride] = strideEarliest;
+            latest[stride] = strideLatest;
+            channels[stride] = strideChannels;
+        }
+        return new SegmentIndex(recordCount, earliest, latest, channels);
+    }
+
+    /**
+     * Load a saved index.
+     *
+     * @param file          {@link File} The index file.
+     * @param segmentLength long The length of the segment file the index must belong to.
+     * @return {@link SegmentIndex} The index, or null if it is missing, damaged or belongs to a different segment.
+     */
+    static SegmentIndex load(final File file, final long segmentLength) {
+        if (!file.isFile()) return null;
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (input.readLong() != MAGIC || input.readInt() != FORMAT_VERSION || input.readInt() != STRIDE
+                    || input.readLong() != segmentLength) {
+                return null;
+            }
+            final int recordCount = input.readInt();
+            if (recordCount < 0
+                    || RecordFormat.HEADER_SIZE + (long) recordCount * RecordFormat.RECORD_SIZE > segmentLength) {
+                return null;
+            }
+            final int strides = (recordCount + STRIDE - 1) / STRIDE;
+            final long[] earliest = new long[strides];
+            final long[] latest = new long[strides];
+            final long[] channels = new long[strides];
+            for (int i = 0; i < strides; ++i) {
+                earliest[i] = input.readLong();
+                latest[i] = input.readLong();
+                channels[i] = input.readLong();
+            }
+            return new SegmentIndex(recordCount, earliest, latest, channels);
+        } catch (final IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Save the index beside its segment. The index is written to a temporary file which then replaces any existing
+     * one, so a reader never loads a partly written index.
+     *
+     * @param file          {@link File} The index file.
+     * @param segmentLength long The length of the segment file the index belongs to.
+     * @throws IOException If the index cannot be written.
+     */
+    void save(final File file, final long segmentLength) throws IOException {
+        final File temporary = new File(file.getPath() + ".tmp");
+        try (DataOutputStream output = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(temporary)))) {
+            output.writeLong(MAGIC);
+            output.writeInt(FORMAT_VERSION);
+            output.writeInt(STRIDE);
+            output.writeLong(segmentLength);
+            output.writeInt(mRecordCount);
+            for (int i = 0; i < mEarliest.length; ++i) {
+                output.writeLong(mEarliest[i]);
+                output.writeLong(mLatest[i]);
+                output.writeLong(mChannels[i]);
+            }
+        }
+        if (!temporary.renameTo(file)) {
+            file.delete();
+            if (!temporary.renameTo(file)) throw new IOException("Unable to replace index " + file);
+        }
+    }
+
+    int getRecordCount() {
+        return mRecordCount;
+    }
+
+    int getStrideCount() {
+        return mEarliest.length;
+    }
+
+    /**
+     * Check if a stride may hold samples of a channel within a time range.
+     *
+     * @param stride  int The stride.
+     * @param channel int The physical channel number.
+     * @param from    long The earliest board timestamp wanted, inclusive.
+     * @param to      long The latest board timestamp wanted, inclusive.
+     * @return boolean False if the stride certainly holds no such samples.
+     */
+    boolean mayContain(final int stride, final int channel, final long from, final long to) {
+        return (mChannels[stride] & (1L << channel)) != 0 && mEarliest[stride] <= to && mLatest[stride] >= from;
+    }
+
+    /**
+     * Check if the segment may hold samples of a channel within a time range.
+     *
+     * @param channel int The physical channel number.
+     * @param from    long The earliest board timestamp wanted, inclusive.
+     * @param to      long The latest board timestamp wanted, inclusive.
+     * @return boolean False if the segment certainly holds no such samples.
+     */
+    boolean mayContain(final int channel, final long from, final long to) {
+        return (mSegmentChannels & (1L << channel)) != 0 && mSegmentEarliest <= to && mSegmentLatest >= from;
+    }
+}
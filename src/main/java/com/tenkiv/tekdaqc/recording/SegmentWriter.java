@@ -0,0 +1,143 @@
+package com.tenkiv.tekdaqc.recording;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Appends records of one {@link RecordKind} to a series of memory mapped segment files, starting a new segment when
+ * the current one is full. When opened on a directory which already holds segments, writing resumes after the last
+ * complete record of the last segment, and anything after it is cleared.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+final class SegmentWriter implements Closeable {
+
+    private final File mDirectory;
+
+    private final RecordKind mKind;
+
+    private final int mSegmentBytes;
+
+    private MappedByteBuffer mBuffer;
+
+    private long mSegmentNumber;
+
+    /**
+     * Offset in the current segment the next record is written at.
+     */
+    private int mPosition;
+
+    /**
+     * Constructor.
+     *
+     * @param directory    {@link File} The directory holding the segments.
+     * @param kind         {@link RecordKind} The kind of records written.
+     * @param segmentBytes int The size of each segment file, rounded down to a whole number of records.
+     * @throws IOException If the last segment cannot be recovered or a new one cannot be created.
+     */
+    SegmentWriter(final File directory, final RecordKind kind, final int segmentBytes) throws IOException {
+        if (segmentBytes < RecordFormat.HEADER_SIZE + RecordFormat.RECORD_SIZE) {
+            throw new IllegalArgumentException("Segments must hold at least one record.");
+        }
+        mDirectory = directory;
+        mKind = kind;
+        mSegmentBytes = segmentBytes - (segmentBytes % RecordFormat.RECORD_SIZE);
+
+        final long[] segments = RecordFormat.listSegments(directory, kind);
+        if (segments.length == 0) {
+            openSegment(0);
+        } else {
+            recoverSegment(segments[segments.length - 1]);
+        }
+    }
+
+    long getSegmentNumber() {
+        return mSegmentNumber;
+    }
+
+    /**
+     * Append a record, starting a new segment if the current one is full.
+     *
+     * @param channel          int The physical channel number.
+     * @param aux              int The auxiliary value.
+     * @param boardTimestamp   long The timestamp given by the board.
+     * @param receiveTimestamp long The time the sample was received.
+     * @param value            long The value.
+     * @throws IOException If a new segment is needed and cannot be created.
+     */
+    synchronized void append(final int channel, final int aux, final long boardTimestamp,
+                             final long receiveTimestamp, final long value) throws IOException {
+        if (mBuffer == null) throw new IOException("Segment writer is closed.");
+        if (mPosition + RecordFormat.RECORD_SIZE > mSegmentBytes) {
+            mBuffer.force();
+            openSegment(mSegmentNumber + 1);
+        }
+        RecordFormat.writeRecord(mBuffer, mPosition, channel, aux, boardTimestamp, receiveTimestamp, value);
+        mPosition += RecordFormat.RECORD_SIZE;
+    }
+
+    /**
+     * Write the records appended so far through to the storage device.
+     */
+    synchronized void flush() {
+        if (mBuffer != null) mBuffer.force();
+    }
+
+    @Override
+    public synchronized void close() {
+        flush();
+        // The mapping is released once the buffer is collected
+        mBuffer = null;
+    }
+
+    private void openSegment(final long segmentNumber) throws IOException {
+        mBuffer = map(new File(mDirectory, RecordFormat.segmentName(mKind, segmentNumber)), mSegmentBytes);
+        mSegmentNumber = segmentNumber;
+        RecordFormat.writeHeader(mBuffer, mKind, segmentNumber);
+        mPosition = RecordFormat.HEADER_SIZE;
+    }
+
+    private void recoverSegment(final long segmentNumber) throws IOException {
+        final File file = new File(mDirectory, RecordFormat.segmentName(mKind, segmentNumber));
+        // An existing segment is never shrunk, even if the configured size has since changed
+        final int size = (int) Math.min(Math.max(file.length(), mSegmentBytes), Integer.MAX_VALUE);
+        mBuffer = map(file, size - (size % RecordFormat.RECORD_SIZE));
+        mSegmentNumber = segmentNumber;
+        if (RecordFormat.isValidHeader(mBuffer, mKind)) {
+            mPosition = RecordFormat.findTail(mBuffer);
+        } else {
+            // The segment was interrupted before its header was complete, so it holds no records
+            RecordFormat.writeHeader(mBuffer, mKind, segmentNumber);
+            mPosition = RecordFormat.HEADER_SIZE;
+        }
+        // A torn record, or stale records after it, must not become valid again once later records are written
+        clear(mPosition);
+        mBuffer.force();
+    }
+
+    /**
+     * Zero the current segment from an offset to its end, skipping the pages which are already clear.
+     */
+    private void clear(final int from) {
+        final int limit = mBuffer.limit();
+        int position = from;
+        while (position + Long.BYTES <= limit) {
+            if (mBuffer.getLong(position) != 0) mBuffer.putLong(position, 0);
+            position += Long.BYTES;
+        }
+        for (; position < limit; ++position) mBuffer.put(position, (byte) 0);
+    }
+
+    private static MappedByteBuffer map(final File file, final int size) throws IOException {
+        try (RandomAccessFile access = new RandomAccessFile(file, "rw")) {
+            if (access.length() < size) access.setLength(size);
+            // The mapping remains valid after the file is closed
+            return access.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+}
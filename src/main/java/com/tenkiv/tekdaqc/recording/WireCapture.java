@@ -0,0 +1,282 @@
+package com.tenkiv.tekdaqc.recording;
+
+import com.tenkiv.tekdaqc.communication.executors.IRecordFramer;
+
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Captures the exact bytes received from a board to a file, each chunk marked with the time it was received, for
+ * later inspection or for feeding back through the framing and parsing with {@link WireCaptureReader}.
+ * <p>
+ * Chunks are copied into a bounded ring buffer by the reading thread and written to the file by a dedicated writer
+ * thread, so the reading thread never waits for the disk. If the writer falls so far behind that a chunk does not fit,
+ * the chunk is dropped and the capture records a gap of the number of bytes lost before the next chunk it keeps.
+ * <p>
+ * Chunks must be appended by one thread at a time, which is the case for the single reading thread of a board.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+public final class WireCapture implements Closeable {
+
+    /**
+     * Default size of the ring buffer.
+     */
+    public static final int DEFAULT_BUFFER_BYTES = 4 * 1024 * 1024;
+
+    /**
+     * "TKWIRE1" identifying a capture file.
+     */
+    static final long MAGIC = 0x544B5749524531L;
+
+    static final int FORMAT_VERSION = 1;
+
+    /**
+     * Size of the marker preceding each chunk, holding the receive time and the length.
+     */
+    static final int MARKER_SIZE = 12;
+
+    private static final String WRITER_THREAD_NAME = "TEKDAQC_WIRE_CAPTURE";
+
+    /**
+     * Longest the writer sleeps before checking for data without being woken.
+     */
+    private static final long WRITER_PARK_NANOS = 100000000L;
+
+    private final File mFile;
+
+    private final OutputStream mOut;
+
+    private final byte[] mBuffer;
+
+    /**
+     * Total bytes placed in the ring buffer, written only by the appending thread.
+     */
+    private final AtomicLong mWritten = new AtomicLong();
+
+    /**
+     * Total bytes taken from the ring buffer, written only by the writer thread.
+     */
+    private final AtomicLong mTaken = new AtomicLong();
+
+    private final Thread mWriter;
+
+    private volatile boolean mWriterWaiting;
+
+    private volatile boolean mClosed;
+
+    private volatile boolean mFailed;
+
+    /**
+     * Bytes dropped since the last gap was recorded. Only used by the appending thread.
+     */
+    private long mPendingGap;
+
+    private volatile long mCapturedBytes;
+
+    private volatile long mDroppedBytes;
+
+    /**
+     * Constructor using a buffer of {@link #DEFAULT_BUFFER_BYTES}.
+     *
+     * @param file {@link File} The file to capture to, which is replaced if it exists.
+     * @throws IOException If the file cannot be created.
+     */
+    public WireCapture(final File file) throws IOException {
+        this(file, DEFAULT_BUFFER_BYTES);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param file        {@link File} The file to capture to, which is replaced if it exists.
+     * @param bufferBytes int The size of the ring buffer between the reading thread and the writer thread.
+     * @throws IOException If the file cannot be created.
+     */
+    public WireCapture(final File file, final int bufferBytes) throws IOException {
+        if (bufferBytes <= MARKER_SIZE) throw new IllegalArgumentException("Buffer is too small.");
+        mFile = file;
+        mBuffer = new byte[bufferBytes];
+        mOut = new FileOutputStream(file);
+        try {
+            final DataOutputStream header = new DataOutputStream(mOut);
+            header.writeLong(MAGIC);
+            header.writeInt(FORMAT_VERSION);
+        } catch (final IOException e) {
+            mOut.close();
+            throw e;
+        }
+        mWriter = new Thread(this::drain, WRITER_THREAD_NAME);
+        mWriter.setDaemon(true);
+        mWriter.start();
+    }
+
+    public File getFile() {
+        return mFile;
+    }
+
+    /**
+     * Get the number of bytes received which have been placed in the buffer for capture.
+     *
+     * @return long The number of bytes.
+     */
+    public long getCapturedBytes() {
+        return mCapturedBytes;
+    }
+
+    /**
+     * Get the number of bytes received which were dropped because the buffer was full or the capture had failed.
+     *
+     * @return long The number of bytes.
+     */
+    public long getDroppedBytes() {
+        return mDroppedBytes;
+    }
+
+    /**
+     * Check if capturing has stopped because of an {@link IOException}.
+     *
+     * @return boolean True if the capture has failed.
+     */
+    public boolean hasFailed() {
+        return mFailed;
+    }
+
+    /**
+     * Capture a chunk of received bytes without waiting. Must not be called by more than one thread at a time.
+     *
+     * @param data   {@code byte}[] The buffer holding the bytes.
+     * @param offset int The offset of the first byte.
+     * @param length int The number of bytes.
+     */
+    public void append(final byte[] data, final int offset, final int length) {
+        if (length <= 0 || mClosed) return;
+        final long receiveTime = System.currentTimeMillis();
+        final long written = mWritten.get();
+        final long free = mBuffer.length - (written - mTaken.get());
+        final int needed = MARKER_SIZE + length + ((mPendingGap > 0) ? MARKER_SIZE : 0);
+        if (mFailed || needed > free) {
+            mPendingGap += length;
+            mDroppedBytes += length;
+            return;
+        }
+
+        long position = written;
+        if (mPendingGap > 0) {
+            // A gap is recorded as a negative length with no bytes following
+            position = putMarker(position, receiveTime, (int) -Math.min(mPendingGap, Integer.MAX_VALUE));
+            mPendingGap = 0;
+        }
+        position = putMarker(position, receiveTime, length);
+        position = put(position, data, offset, length);
+        mCapturedBytes += length;
+        mWritten.lazySet(position);
+        if (mWriterWaiting) LockSupport.unpark(mWriter);
+    }
+
+    /**
+     * Create an {@link IRecordFramer} which captures every chunk before passing it on.
+     *
+     * @param framer {@link IRecordFramer} The framer of the board's encoding.
+     * @return {@link IRecordFramer} The capturing framer.
+     */
+    public IRecordFramer tee(final IRecordFramer framer) {
+        return new IRecordFramer() {
+            @Override
+            public void feed(final byte[] data, final int offset, final int length) {
+                append(data, offset, length);
+                framer.feed(data, offset, length);
+            }
+
+            @Override
+            public void flush() {
+                framer.flush();
+            }
+
+            @Override
+            public void reset() {
+                framer.reset();
+            }
+        };
+    }
+
+    /**
+     * Stop capturing, write out everything buffered and close the file. Chunks appended afterwards are ignored.
+     */
+    @Override
+    public void close() {
+        if (mClosed) return;
+        mClosed = true;
+        LockSupport.unpark(mWriter);
+        try {
+            mWriter.join();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private long putMarker(final long position, final long receiveTime, final int length) {
+        long value = receiveTime;
+        for (int i = 7; i >= 0; --i) {
+            mBuffer[index(position + i)] = (byte) value;
+            value >>>= 8;
+        }
+        for (int i = 3; i >= 0; --i) {
+            mBuffer[index(position + 8 + i)] = (byte) (length >>> ((3 - i) * 8));
+        }
+        return position + MARKER_SIZE;
+    }
+
+    private long put(final long position, final byte[] data, final int offset, final int length) {
+        final int start = index(position);
+        final int first = Math.min(length, mBuffer.length - start);
+        System.arraycopy(data, offset, mBuffer, start, first);
+        System.arraycopy(data, offset + first, mBuffer, 0, length - first);
+        return position + length;
+    }
+
+    private int index(final long position) {
+        return (int) (position % mBuffer.length);
+    }
+
+    /**
+     * Body of the writer thread, which writes buffered bytes to the file until closed.
+     */
+    private void drain() {
+        try {
+            while (true) {
+                final long taken = mTaken.get();
+                final long available = mWritten.get() - taken;
+                if (available == 0) {
+                    if (mClosed) break;
+                    mWriterWaiting = true;
+                    // Checking again after announcing the wait ensures an append in between is not missed
+                    if (mWritten.get() == taken && !mClosed) LockSupport.parkNanos(this, WRITER_PARK_NANOS);
+                    mWriterWaiting = false;
+                    continue;
+                }
+                final int start = index(taken);
+                final int length = (int) Math.min(available, mBuffer.length - start);
+                mOut.write(mBuffer, start, length);
+                mTaken.lazySet(taken + length);
+            }
+        } catch (final IOException e) {
+            mFailed = true;
+            System.err.println("WireCapture stopping after failure to write " + mFile + ": ");
+            e.printStackTrace();
+        } finally {
+            try {
+                mOut.close();
+            } catch (final IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.tenkiv.tekdaqc.recording;
+
+import com.tenkiv.tekdaqc.communication.executors.IRecordFramer;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+/**
+ * Reads a file written by a {@link WireCapture}, chunk by chunk in the order the bytes were received. A chunk cut
+ * short at the end of the file, as left by a crash, is ignored.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+public final class WireCaptureReader {
+
+    private final File mFile;
+
+    /**
+     * Constructor.
+     *
+     * @param file {@link File} The capture file.
+     */
+    public WireCaptureReader(final File file) {
+        mFile = file;
+    }
+
+    public File getFile() {
+        return mFile;
+    }
+
+    /**
+     * Read every chunk of the capture.
+     *
+     * @param visitor {@link IWireChunkVisitor} Receives each chunk and gap.
+     * @return long The number of bytes read, not counting gaps.
+     * @throws IOException If the file cannot be read or is not a capture file.
+     */
+    public long read(final IWireChunkVisitor visitor) throws IOException {
+        long total = 0;
+        byte[] chunk = new byte[8192];
+        try (DataInputStream input = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(mFile), 64 * 1024))) {
+            if (input.readLong() != WireCapture.MAGIC || input.readInt() != WireCapture.FORMAT_VERSION) {
+                throw new IOException(mFile + " is not a supported capture file.");
+            }
+            while (true) {
+                final long receiveTime;
+                final int length;
+                try {
+                    receiveTime = input.readLong();
+                    length = input.readInt();
+                    if (length < 0) {
+                        visitor.onGap(receiveTime, -length);
+                        continue;
+                    }
+                    if (length > chunk.length) chunk = new byte[Math.max(length, chunk.length * 2)];
+                    input.readFully(chunk, 0, length);
+                } catch (final EOFException e) {
+                    break;
+                }
+                visitor.onChunk(receiveTime, chunk, 0, length);
+                total += length;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Feed every chunk of the capture to a framer, as the reading thread did when the bytes were received.
+     *
+     * @param framer {@link IRecordFramer} The framer for the encoding the board used.
+     * @return long The number of bytes fed.
+     * @throws IOException If the file cannot be read or is not a capture file.
+     */
+    public long feed(final IRecordFramer framer) throws IOException {
+        final long total = read(new IWireChunkVisitor() {
+            @Override
+            public void onChunk(final long receiveTime, final byte[] data, final int offset, final int length) {
+                framer.feed(data, offset, length);
+            }
+
+            @Override
+            public void onGap(final long receiveTime, final int droppedBytes) {
+                // Whatever was being framed lost its end
+                framer.reset();
+            }
+        });
+        framer.flush();
+        return total;
+    }
+}
@@ -0,0 +1,936 @@
+package com.tenkiv.tekdaqc.simulator;
+
+import com.tenkiv.tekdaqc.communication.ascii.message.parsing.TekdaqcStatuses;
+import com.tenkiv.tekdaqc.communication.binary.BinaryFrameEncoder;
+import com.tenkiv.tekdaqc.communication.binary.BinaryProtocol;
+import com.tenkiv.tekdaqc.communication.command.queue.Commands;
+import com.tenkiv.tekdaqc.communication.command.queue.Params;
+import com.tenkiv.tekdaqc.communication.command.queue.QueueUtil;
+import com.tenkiv.tekdaqc.communication.executors.RecordSplitter;
+import com.tenkiv.tekdaqc.hardware.ATekdaqc;
+import com.tenkiv.tekdaqc.hardware.Tekdaqc_RevD;
+import com.tenkiv.tekdaqc.telnet.client.TelnetCommandFilter;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * A single board of a {@link TekdaqcSimulator}, which accepts one connection at a time at its own address and
+ * answers the command set like a Tekdaqc. Each command is answered with a status message, or an error message if it
+ * is invalid, and sampled inputs produce {@code ?A}, {@code ?D} and {@code ?P} records at the rates configured in the
+ * {@link SimulatorParams}.
+ * <p>
+ * Both encodings of {@link ATekdaqc.COMMUNICATION_ENCODING} are spoken. There is no command which changes the encoding
+ * of a board, so a connection starts out in ASCII and answers in the encoding of the last command it received: a
+ * {@link BinaryProtocol} command frame switches it to binary frames, built by a {@link BinaryFrameEncoder} with one
+ * sample per frame, and an ASCII command line switches it back. As from a Telnet server, 0xFF bytes of binary frames
+ * are sent doubled. Sampled values follow a deterministic waveform of the time since the connection was
+ * opened, and are timestamped in milliseconds since the epoch like those of a board, so samples of inputs sampled
+ * faster than 1 kHz share timestamps.
+ * <p>
+ * The connection is served by one of the simulator's I/O threads. Should the client fall behind, samples which come
+ * due while too much output is waiting are dropped, as they would be by a board whose socket buffer is full.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+public final class SimulatedBoard {
+
+    /**
+     * Longest command line accepted before it is discarded.
+     */
+    private static final int MAXIMUM_COMMAND_LENGTH = 1024;
+
+    /**
+     * Output waiting to be written beyond which no further samples are generated.
+     */
+    private static final int MAXIMUM_PENDING_BYTES = 256 * 1024;
+
+    /**
+     * Longest a sample stream is allowed to lag behind before the missed samples are dropped rather than caught up.
+     */
+    private static final long MAXIMUM_LAG_NANOS = 1000000000L;
+
+    /**
+     * Peak of the simulated analog waveform, in ADC counts.
+     */
+    private static final int ANALOG_AMPLITUDE = 1 << 22;
+
+    private static final String DEFAULT_DIGITAL_OUTPUT = "0000";
+
+    /**
+     * Telnet's interpret as command byte, which is doubled when it occurs in data.
+     */
+    private static final byte IAC = (byte) 0xFF;
+
+    private final SimulatorParams mParams;
+
+    private final String mSerialNumber;
+
+    private final byte[] mMacAddress;
+
+    private final ServerSocketChannel mServer;
+
+    private final InetSocketAddress mLocalAddress;
+
+    private final TelnetCommandFilter mTelnetFilter = new TelnetCommandFilter();
+
+    private final byte[] mLine = new byte[MAXIMUM_COMMAND_LENGTH];
+
+    /**
+     * Binary command frame being received, from its sync byte to its CRC.
+     */
+    private final byte[] mFrame = new byte[1 + BinaryProtocol.HEADER_LENGTH + MAXIMUM_COMMAND_LENGTH + 1];
+
+    private final BinaryFrameEncoder mEncoder = new BinaryFrameEncoder();
+
+    private final long[] mTimestamps = new long[1];
+
+    private final int[] mCounts = new int[1];
+
+    private final boolean[] mStates = new boolean[1];
+
+    private final double[] mPercentages = new double[1];
+
+    private final SampleStream mAnalogStream;
+
+    private final SampleStream mDigitalStream;
+
+    private final SampleStream mPwmStream;
+
+    private SocketChannel mChannel;
+
+    private byte[] mOut = new byte[16 * 1024];
+
+    private ByteBuffer mOutBuffer = ByteBuffer.wrap(mOut);
+
+    private int mOutLength;
+
+    private int mLineLength;
+
+    private boolean mDiscardingLine;
+
+    private int mFrameLength;
+
+    /**
+     * Length of the binary command frame being received, known once its header has arrived.
+     */
+    private int mFrameExpected;
+
+    /**
+     * True if the last command arrived as a binary frame, so output is sent as binary frames.
+     */
+    private boolean mBinary;
+
+    private boolean mIsClosing;
+
+    private long mConnectedNanos;
+
+    /**
+     * Wall clock time the connection was opened, in milliseconds since the epoch.
+     */
+    private long mConnectedMillis;
+
+    private long mAnalogInputs;
+
+    private long mDigitalInputs;
+
+    private long mPwmInputs;
+
+    private String mDigitalOutput = DEFAULT_DIGITAL_OUTPUT;
+
+    private String mAnalogScale = ATekdaqc.AnalogScale.ANALOG_SCALE_5V.toString();
+
+    private volatile boolean mIsConnected;
+
+    private volatile long mConnectionCount;
+
+    private volatile long mCommandsReceived;
+
+    private volatile long mSamplesSent;
+
+    private volatile long mSamplesDropped;
+
+    private volatile long mBytesSent;
+
+    /**
+     * Constructor.
+     *
+     * @param params       {@link SimulatorParams} The simulator configuration.
+     * @param serialNumber {@link String} The serial number, at most 32 characters.
+     * @param macAddress   {@code byte}[] The six bytes of the MAC address reported in discovery responses.
+     * @param server       {@link ServerSocketChannel} The bound channel the board accepts connections on.
+     * @throws IOException If the address of the channel cannot be read.
+     */
+    SimulatedBoard(final SimulatorParams params, final String serialNumber, final byte[] macAddress,
+                   final ServerSocketChannel server) throws IOException {
+        mParams = params;
+        mSerialNumber = serialNumber;
+        mMacAddress = macAddress.clone();
+        mServer = server;
+        mLocalAddress = (InetSocketAddress) server.getLocalAddress();
+        mAnalogStream = new SampleStream(params.getAnalogRate());
+        mDigitalStream = new SampleStream(params.getDigitalRate());
+        mPwmStream = new SampleStream(params.getPwmRate());
+    }
+
+    public String getSerialNumber() {
+        return mSerialNumber;
+    }
+
+    /**
+     * Get the address the board accepts connections at, and which its discovery responses come from.
+     *
+     * @return {@link InetAddress} The address.
+     */
+    public InetAddress getAddress() {
+        return mLocalAddress.getAddress();
+    }
+
+    /**
+     * Get the TCP port the board accepts connections on.
+     *
+     * @return int The port.
+     */
+    public int getTelnetPort() {
+        return mLocalAddress.getPort();
+    }
+
+    /**
+     * Get the MAC address reported in discovery responses.
+     *
+     * @return {@link String} The address, formatted as a {@link com.tenkiv.tekdaqc.locator.LocatorResponse} does.
+     */
+    public String getMacAddress() {
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < mMacAddress.length; ++i) {
+            if (i > 0) builder.append(':');
+            builder.append(String.format("%02x", mMacAddress[i]));
+        }
+        return builder.toString();
+    }
+
+    public boolean isConnected() {
+        return mIsConnected;
+    }
+
+    /**
+     * Get the number of connections the board has accepted.
+     *
+     * @return long The number of connections.
+     */
+    public long getConnectionCount() {
+        return mConnectionCount;
+    }
+
+    /**
+     * Get the number of command lines the board has received.
+     *
+     * @return long The number of commands.
+     */
+    public long getCommandsReceived() {
+        return mCommandsReceived;
+    }
+
+    /**
+     * Get the number of samples the board has sent.
+     *
+     * @return long The number of samples.
+     */
+    public long getSamplesSent() {
+        return mSamplesSent;
+    }
+
+    /**
+     * Get the number of samples which came due while the client was too far behind to accept them.
+     *
+     * @return long The number of samples.
+     */
+    public long getSamplesDropped() {
+        return mSamplesDropped;
+    }
+
+    /**
+     * Get the number of bytes the board has written to its connections.
+     *
+     * @return long The number of bytes.
+     */
+    public long getBytesSent() {
+        return mBytesSent;
+    }
+
+    ServerSocketChannel getServer() {
+        return mServer;
+    }
+
+    SocketChannel getChannel() {
+        return mChannel;
+    }
+
+    /**
+     * Check if the board has been asked to disconnect and is waiting for its output to be written.
+     *
+     * @return boolean True if the connection should be closed once flushed.
+     */
+    boolean isClosing() {
+        return mIsClosing;
+    }
+
+    /**
+     * Build the response to a discovery request, laid out as described by
+     * {@link com.tenkiv.tekdaqc.locator.LocatorResponse}.
+     *
+     * @param client {@link InetAddress} The address of the client which sent the request.
+     * @return {@code byte}[] The response packet.
+     */
+    byte[] createDiscoveryResponse(final InetAddress client) {
+        final byte[] data = new byte[DiscoveryPacket.LENGTH];
+        data[DiscoveryPacket.IDX_TAG] = DiscoveryPacket.TAG_STATUS;
+        data[DiscoveryPacket.IDX_LENGTH] = (byte) DiscoveryPacket.LENGTH;
+        data[DiscoveryPacket.IDX_COMMAND] = DiscoveryPacket.CMD_DISCOVER_TARGET;
+        data[DiscoveryPacket.IDX_BOARD_TYPE] = (byte) mParams.getBoardType();
+        final byte[] serial = mSerialNumber.getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(serial, 0, data, DiscoveryPacket.IDX_BOARD_ID,
+                Math.min(serial.length, DiscoveryPacket.BOARD_ID_LENGTH));
+        final byte[] clientAddress = client.getAddress();
+        if (clientAddress.length == 4) System.arraycopy(clientAddress, 0, data, DiscoveryPacket.IDX_CLIENT_IP, 4);
+        System.arraycopy(mMacAddress, 0, data, DiscoveryPacket.IDX_MAC, DiscoveryPacket.MAC_LENGTH);
+        final String[] firmware = mParams.getFirmwareVersion().split("\\.");
+        for (int i = 0; i < DiscoveryPacket.FIRMWARE_LENGTH; ++i) {
+            data[DiscoveryPacket.IDX_FIRMWARE + i] = (byte) Integer.parseInt(firmware[i]);
+        }
+        final byte[] title = mParams.getTitle().getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(title, 0, data, DiscoveryPacket.IDX_TITLE,
+                Math.min(title.length, DiscoveryPacket.TITLE_LENGTH));
+        int sum = 0;
+        for (int i = 0; i < DiscoveryPacket.IDX_CHECKSUM; ++i) {
+            sum += data[i];
+        }
+        data[DiscoveryPacket.IDX_CHECKSUM] = (byte) -sum;
+        return data;
+    }
+
+    /**
+     * Start serving a newly accepted connection, with the inputs configured to be added on connection.
+     *
+     * @param channel {@link SocketChannel} The non-blocking channel of the connection.
+     * @param now     long The current {@link System#nanoTime()}.
+     */
+    void open(final SocketChannel channel, final long now) {
+        mChannel = channel;
+        mConnectedNanos = now;
+        mConnectedMillis = System.currentTimeMillis();
+        mOutLength = 0;
+        mLineLength = 0;
+        mDiscardingLine = false;
+        mFrameLength = 0;
+        mBinary = false;
+        mIsClosing = false;
+        mAnalogInputs = firstInputs(mParams.getAnalogChannels());
+        mDigitalInputs = firstInputs(mParams.getDigitalChannels());
+        mPwmInputs = firstInputs(mParams.getPwmChannels());
+        mDigitalOutput = DEFAULT_DIGITAL_OUTPUT;
+        mAnalogStream.stop();
+        mDigitalStream.stop();
+        mPwmStream.stop();
+        if (mParams.isSampleOnConnect()) sampleAll(0, now);
+        mConnectionCount++;
+        mIsConnected = true;
+    }
+
+    /**
+     * Stop serving the current connection and close it.
+     */
+    void close() {
+        if (mChannel == null) return;
+        try {
+            mChannel.close();
+        } catch (final IOException e) {
+            // Nothing else can be done
+        }
+        mChannel = null;
+        mIsConnected = false;
+    }
+
+    /**
+     * Handle bytes received from the client, executing every command which is completed. A sync byte at the start of a
+     * line begins a binary command frame rather than an ASCII command line.
+     *
+     * @param data   {@code byte}[] The buffer holding the bytes. Telnet command sequences are removed in place.
+     * @param offset int The offset of the first byte.
+     * @param length int The number of bytes.
+     * @param now    long The current {@link System#nanoTime()}.
+     */
+    void onRead(final byte[] data, final int offset, final int length, final long now) {
+        final int end = offset + mTelnetFilter.filter(data, offset, length);
+        for (int i = offset; i < end; ++i) {
+            final byte b = data[i];
+            if (mFrameLength > 0) {
+                onFrameByte(b, now);
+            } else if (b == BinaryProtocol.SYNC && mLineLength == 0 && !mDiscardingLine) {
+                mFrame[mFrameLength++] = b;
+            } else if (b == QueueUtil.COMMAND_EOF || b == '\n') {
+                final String line = new String(mLine, 0, mLineLength, StandardCharsets.US_ASCII).trim();
+                if (!line.isEmpty() && !mDiscardingLine) execute(line, now);
+                mLineLength = 0;
+                mDiscardingLine = false;
+            } else if (b != 0) {
+                if (mLineLength == mLine.length) {
+                    if (!mDiscardingLine) error("Command exceeds " + MAXIMUM_COMMAND_LENGTH + " characters.");
+                    mDiscardingLine = true;
+                } else {
+                    mLine[mLineLength++] = b;
+                }
+            }
+        }
+    }
+
+    /**
+     * Generate every sample which has come due.
+     *
+     * @param now long The current {@link System#nanoTime()}.
+     */
+    void emit(final long now) {
+        emit(mAnalogStream, 'A', now);
+        emit(mDigitalStream, 'D', now);
+        emit(mPwmStream, 'P', now);
+    }
+
+    /**
+     * Write as much waiting output as the connection accepts.
+     *
+     * @return boolean True if output is still waiting to be written.
+     * @throws IOException If writing fails.
+     */
+    boolean flush() throws IOException {
+        if (mOutLength == 0) return false;
+        mOutBuffer.clear();
+        mOutBuffer.limit(mOutLength);
+        final int written = mChannel.write(mOutBuffer);
+        if (written > 0) {
+            mOutLength -= written;
+            System.arraycopy(mOut, written, mOut, 0, mOutLength);
+            mBytesSent += written;
+        }
+        return mOutLength > 0;
+    }
+
+    private void onFrameByte(final byte b, final long now) {
+        mFrame[mFrameLength++] = b;
+        if (mFrameLength == 1 + BinaryProtocol.HEADER_LENGTH) {
+            final int payloadLength = ((mFrame[2] & 0xFF) << 8) | (mFrame[3] & 0xFF);
+            if (payloadLength > MAXIMUM_COMMAND_LENGTH) {
+                mBinary = true;
+                error("Command exceeds " + MAXIMUM_COMMAND_LENGTH + " bytes.");
+                mFrameLength = 0;
+                return;
+            }
+            mFrameExpected = mFrameLength + payloadLength + 1;
+        } else if (mFrameLength > 1 + BinaryProtocol.HEADER_LENGTH && mFrameLength == mFrameExpected) {
+            mFrameLength = 0;
+            executeFrame(mFrameExpected, now);
+        }
+    }
+
+    private void executeFrame(final int length, final long now) {
+        mBinary = true;
+        mCommandsReceived++;
+        if (BinaryProtocol.crc8(0, mFrame, 1, length - 2) != (mFrame[length - 1] & 0xFF)) {
+            error("Corrupt command frame.");
+            return;
+        }
+        if (mFrame[1] != BinaryProtocol.TYPE_COMMAND) {
+            error("Unexpected frame type: " + mFrame[1]);
+            return;
+        }
+
+        final int end = length - 1;
+        int position = 1 + BinaryProtocol.HEADER_LENGTH;
+        final Commands[] commands = Commands.values();
+        final Params[] allParams = Params.values();
+        final Map<Params, String> params = new EnumMap<>(Params.class);
+        try {
+            final Commands command = commands[mFrame[position++] & 0xFF];
+            final int count = mFrame[position++] & 0xFF;
+            for (int i = 0; i < count; ++i) {
+                final Params param = allParams[mFrame[position++] & 0xFF];
+                int valueLength = 0;
+                for (int shift = 0; ; shift += 7) {
+                    final int b = mFrame[position++];
+                    valueLength |= (b & 0x7F) << shift;
+                    if ((b & 0x80) == 0) break;
+                }
+                if (valueLength < 0 || position + valueLength > end) throw new IndexOutOfBoundsException();
+                params.put(param, new String(mFrame, position, valueLength, StandardCharsets.US_ASCII));
+                position += valueLength;
+            }
+            if (position > end) throw new IndexOutOfBoundsException();
+            dispatch(command, params, now);
+        } catch (final IndexOutOfBoundsException e) {
+            error("Malformed command frame.");
+        }
+    }
+
+    private void execute(final String line, final long now) {
+        mBinary = false;
+        mCommandsReceived++;
+        final String[] tokens = line.split(QueueUtil.GENERAL_DELIMETER + "+");
+        final Commands command = Commands.toCommand(tokens[0]);
+        if (command == Commands.NONE && !tokens[0].equals(Commands.NONE.name())) {
+            error("Unknown command: " + tokens[0]);
+            return;
+        }
+
+        final Map<Params, String> params = new EnumMap<>(Params.class);
+        for (int i = 1; i < tokens.length; ++i) {
+            final String token = tokens[i];
+            final int separator = token.indexOf(QueueUtil.KEY_VALUE_SEPARATOR);
+            if (!token.startsWith(QueueUtil.PARAMETER_FLAG) || separator < 0) {
+                error("Malformed parameter: " + token);
+                return;
+            }
+            try {
+                params.put(Params.valueOf(token.substring(QueueUtil.PARAMETER_FLAG.length(), separator)),
+                        token.substring(separator + 1));
+            } catch (final IllegalArgumentException e) {
+                error("Unknown parameter: " + token);
+                return;
+            }
+        }
+
+        dispatch(command, params, now);
+    }
+
+    private void dispatch(final Commands command, final Map<Params, String> params, final long now) {
+        try {
+            execute(command, params, now);
+        } catch (final IllegalArgumentException e) {
+            error(command.name() + " failed: " + e.getMessage());
+        }
+    }
+
+    private void execute(final Commands command, final Map<Params, String> params, final long now) {
+        switch (command) {
+            case ADD_ANALOG_INPUT:
+                mAnalogInputs |= parseInputs(required(params, Params.INPUT), InputKind.ANALOG, mAnalogInputs);
+                break;
+            case REMOVE_ANALOG_INPUT:
+                mAnalogInputs &= ~parseInputs(required(params, Params.INPUT), InputKind.ANALOG, mAnalogInputs);
+                mAnalogStream.mInputs &= mAnalogInputs;
+                break;
+            case ADD_DIGITAL_INPUT:
+                mDigitalInputs |= parseInputs(required(params, Params.INPUT), InputKind.DIGITAL, mDigitalInputs);
+                break;
+            case REMOVE_DIGITAL_INPUT:
+                mDigitalInputs &= ~parseInputs(required(params, Params.INPUT), InputKind.DIGITAL, mDigitalInputs);
+                mDigitalStream.mInputs &= mDigitalInputs;
+                break;
+            case ADD_PWM_INPUT:
+                mPwmInputs |= parseInputs(required(params, Params.INPUT), InputKind.DIGITAL, mPwmInputs);
+                break;
+            case REMOVE_PWM_INPUT:
+                mPwmInputs &= ~parseInputs(required(params, Params.INPUT), InputKind.DIGITAL, mPwmInputs);
+                mPwmStream.mInputs &= mPwmInputs;
+                break;
+            case READ_ANALOG_INPUT:
+                mAnalogStream.start(addedInputs(params, InputKind.ANALOG, mAnalogInputs), sampleCount(params, 1), now);
+                break;
+            case READ_DIGITAL_INPUT:
+                mDigitalStream.start(addedInputs(params, InputKind.DIGITAL, mDigitalInputs), sampleCount(params, 1),
+                        now);
+                break;
+            case READ_PWM_INPUT:
+                mPwmStream.start(addedInputs(params, InputKind.DIGITAL, mPwmInputs), sampleCount(params, 1), now);
+                break;
+            case SAMPLE:
+                if ((mAnalogInputs | mDigitalInputs | mPwmInputs) == 0) {
+                    throw new IllegalArgumentException("No inputs have been added.");
+                }
+                sampleAll(sampleCount(params, 0), now);
+                break;
+            case HALT:
+                mAnalogStream.stop();
+                mDigitalStream.stop();
+                mPwmStream.stop();
+                break;
+            case LIST_ANALOG_INPUTS:
+                listInputs(mAnalogInputs);
+                break;
+            case LIST_DIGITAL_INPUTS:
+                listInputs(mDigitalInputs);
+                break;
+            case LIST_PWM_INPUTS:
+                listInputs(mPwmInputs);
+                break;
+            case SET_DIGITAL_OUTPUT:
+                final String output = required(params, Params.OUTPUT);
+                Integer.parseInt(output, 16);
+                mDigitalOutput = output;
+                break;
+            case READ_DIGITAL_OUTPUT:
+                appendRecord("Digital Output\r\nValue: " + mDigitalOutput + "\r\n");
+                break;
+            case SET_ANALOG_INPUT_SCALE:
+                mAnalogScale = ATekdaqc.AnalogScale.valueOf(required(params, Params.SCALE)).toString();
+                break;
+            case GET_ANALOG_INPUT_SCALE:
+                commandData(mAnalogScale);
+                break;
+            case IDENTIFY:
+                commandData("Serial: " + mSerialNumber + "\r\nFirmware: " + mParams.getFirmwareVersion());
+                break;
+            case DISCONNECT:
+                mIsClosing = true;
+                break;
+            default:
+                // Configuration and calibration commands are accepted without effect
+                break;
+        }
+        status(command);
+    }
+
+    private void sampleAll(final long count, final long now) {
+        mAnalogStream.start(mAnalogInputs, count, now);
+        mDigitalStream.start(mDigitalInputs, count, now);
+        mPwmStream.start(mPwmInputs, count, now);
+    }
+
+    private void emit(final SampleStream stream, final char kind, final long now) {
+        if (stream.mInputs == 0 || stream.mNext > now) return;
+        final int channels = Long.bitCount(stream.mInputs);
+        if (now - stream.mNext > MAXIMUM_LAG_NANOS) {
+            final long skipped = (now - stream.mNext) / stream.mPeriod;
+            stream.mNext += skipped * stream.mPeriod;
+            stream.consume(skipped);
+            mSamplesDropped += skipped * channels;
+        }
+        long sent = 0;
+        while (stream.mInputs != 0 && stream.mNext <= now) {
+            if (mOutLength >= MAXIMUM_PENDING_BYTES) {
+                final long due = (now - stream.mNext) / stream.mPeriod + 1;
+                stream.mNext += due * stream.mPeriod;
+                stream.consume(due);
+                mSamplesDropped += due * channels;
+                break;
+            }
+            final long elapsed = (stream.mNext - mConnectedNanos) / 1000000;
+            for (long inputs = stream.mInputs; inputs != 0; inputs &= inputs - 1) {
+                appendSample(kind, Long.numberOfTrailingZeros(inputs), elapsed);
+            }
+            sent += channels;
+            stream.mNext += stream.mPeriod;
+            stream.consume(1);
+        }
+        mSamplesSent += sent;
+    }
+
+    private void appendSample(final char kind, final int channel, final long elapsed) {
+        final long timestamp = mConnectedMillis + elapsed;
+        final double seconds = elapsed / 1e3;
+        switch (kind) {
+            case 'A':
+                appendAnalog(channel, timestamp,
+                        (int) (ANALOG_AMPLITUDE * Math.sin(2 * Math.PI * seconds * (1 + channel * 0.25))));
+                break;
+            case 'D':
+                appendDigital(channel, timestamp, ((elapsed / (250 + channel * 25)) & 1) != 0);
+                break;
+            default:
+                // A 1 kHz signal whose duty cycle drifts between 10% and 90%, in hundredths of a percent
+                appendPwm(channel, timestamp, Math.round(5000 + 4000 * Math.sin(2 * Math.PI * seconds * 0.5 + channel)),
+                        elapsed * 2);
+                break;
+        }
+    }
+
+    private void appendAnalog(final int channel, final long timestamp, final int count) {
+        if (mBinary) {
+            mTimestamps[0] = timestamp;
+            mCounts[0] = count;
+            appendFrame(mEncoder.analog(channel, mTimestamps, mCounts, 0, 1));
+            return;
+        }
+        appendSampleHeader('A', channel);
+        appendNumber(timestamp);
+        append(',');
+        appendNumber(count);
+        append(RecordSplitter.RECORD_SEPARATOR);
+    }
+
+    private void appendDigital(final int channel, final long timestamp, final boolean state) {
+        if (mBinary) {
+            mTimestamps[0] = timestamp;
+            mStates[0] = state;
+            appendFrame(mEncoder.digital(channel, mTimestamps, mStates, 0, 1));
+            return;
+        }
+        appendSampleHeader('D', channel);
+        appendNumber(timestamp);
+        append(',');
+        append(state ? 'H' : 'L');
+        append(RecordSplitter.RECORD_SEPARATOR);
+    }
+
+    private void appendPwm(final int channel, final long timestamp, final long duty, final long transitions) {
+        if (mBinary) {
+            mTimestamps[0] = timestamp;
+            mPercentages[0] = duty / 100.0;
+            mCounts[0] = (int) transitions;
+            appendFrame(mEncoder.pwm(channel, mTimestamps, mPercentages, mCounts, 0, 1));
+            return;
+        }
+        appendSampleHeader('P', channel);
+        appendNumber(transitions);
+        append(',');
+        appendNumber(duty / 100);
+        append('.');
+        append('0' + (int) (duty / 10 % 10));
+        append('0' + (int) (duty % 10));
+        append('\n');
+        appendNumber(timestamp);
+        append(RecordSplitter.RECORD_SEPARATOR);
+    }
+
+    private void appendSampleHeader(final char kind, final int channel) {
+        append('?');
+        append(kind);
+        appendNumber(channel);
+        append('\r');
+        append('\n');
+    }
+
+    private void listInputs(final long inputs) {
+        final StringBuilder builder = new StringBuilder("Inputs:");
+        for (long remaining = inputs; remaining != 0; remaining &= remaining - 1) {
+            builder.append("\r\nPhysical Input: ").append(Long.numberOfTrailingZeros(remaining));
+        }
+        commandData(builder.toString());
+    }
+
+    private void status(final Commands command) {
+        appendRecord("Status Message\r\nMessage: " + command.name() + " " + TekdaqcStatuses.COMMAND_SUCCESS + "\r\n");
+    }
+
+    private void error(final String message) {
+        appendRecord("Error Message\r\nMessage: " + message + "\r\n");
+    }
+
+    private void commandData(final String message) {
+        appendRecord("Command Data Message\r\nMessage: " + message + "\r\n");
+    }
+
+    private void appendRecord(final String record) {
+        if (mBinary) {
+            appendFrame(mEncoder.text(record));
+            return;
+        }
+        for (int i = 0; i < record.length(); ++i) {
+            append(record.charAt(i));
+        }
+        append(RecordSplitter.RECORD_SEPARATOR);
+    }
+
+    private void appendFrame(final byte[] frame) {
+        for (final byte b : frame) {
+            if (b == IAC) append(IAC);
+            append(b);
+        }
+    }
+
+    private void append(final int c) {
+        if (mOutLength == mOut.length) {
+            mOut = Arrays.copyOf(mOut, mOut.length * 2);
+            mOutBuffer = ByteBuffer.wrap(mOut);
+        }
+        mOut[mOutLength++] = (byte) c;
+    }
+
+    private void appendNumber(final long number) {
+        if (number < 0) append('-');
+        // Digits are produced from a negative value so that Long.MIN_VALUE needs no special case
+        long remaining = (number < 0) ? number : -number;
+        final int start = mOutLength;
+        do {
+            append('0' - (int) (remaining % 10));
+            remaining /= 10;
+        } while (remaining != 0);
+        for (int i = start, j = mOutLength - 1; i < j; ++i, --j) {
+            final byte swap = mOut[i];
+            mOut[i] = mOut[j];
+            mOut[j] = swap;
+        }
+    }
+
+    private static String required(final Map<Params, String> params, final Params param) {
+        final String value = params.get(param);
+        if (value == null) throw new IllegalArgumentException("Missing parameter " + param.name() + ".");
+        return value;
+    }
+
+    private static long sampleCount(final Map<Params, String> params, final long defaultCount) {
+        final String value = params.get(Params.NUMBER);
+        if (value == null) return defaultCount;
+        final long count = Long.parseLong(value);
+        if (count < 0) throw new IllegalArgumentException("Sample count cannot be negative.");
+        return count;
+    }
+
+    private static long addedInputs(final Map<Params, String> params, final InputKind kind, final long added) {
+        final long inputs = parseInputs(required(params, Params.INPUT), kind, added);
+        if ((inputs & ~added) != 0) {
+            throw new IllegalArgumentException(
+                    "Input " + Long.numberOfTrailingZeros(inputs & ~added) + " has not been added.");
+        }
+        if (inputs == 0) throw new IllegalArgumentException("No inputs have been added.");
+        return inputs;
+    }
+
+    /**
+     * Parse an input selection, which is either "ALL", a single input, a range such as "0-7" or a list such as
+     * "1,4,5", as sent by {@link com.tenkiv.tekdaqc.hardware.CommandBuilder}.
+     *
+     * @param value {@link String} The selection.
+     * @param kind  {@link InputKind} The kind of input, deciding which numbers are valid.
+     * @param all   long The inputs selected by "ALL".
+     * @return long The selected inputs, as a mask of input numbers.
+     */
+    static long parseInputs(final String value, final InputKind kind, final long all) {
+        if (value.equals(Params.ALL.name())) return all;
+        long inputs = 0;
+        for (final String part : value.split(",")) {
+            final int dash = part.indexOf('-', 1);
+            final int first = Integer.parseInt(part.substring(0, (dash < 0) ? part.length() : dash).trim());
+            final int last = (dash < 0) ? first : Integer.parseInt(part.substring(dash + 1).trim());
+            if (last < first) throw new IllegalArgumentException("Invalid input range " + part + ".");
+            for (int input = first; input <= last; ++input) {
+                if (!kind.isValid(input)) throw new IllegalArgumentException("Invalid input " + input + ".");
+                inputs |= 1L << input;
+            }
+        }
+        return inputs;
+    }
+
+    private static long firstInputs(final int count) {
+        return (count == 0) ? 0 : (-1L >>> (64 - count));
+    }
+
+    /**
+     * The numbering of a kind of input on a {@link Tekdaqc_RevD}.
+     */
+    enum InputKind {
+        ANALOG {
+            @Override
+            boolean isValid(final int input) {
+                return (input >= 0 && input < Tekdaqc_RevD.ANALOG_INPUT_COUNT)
+                        || input == Tekdaqc_RevD.ANALOG_INPUT_TEMP_SENSOR;
+            }
+        },
+        DIGITAL {
+            @Override
+            boolean isValid(final int input) {
+                return input >= 0 && input < Tekdaqc_RevD.DIGITAL_INPUT_COUNT;
+            }
+        };
+
+        abstract boolean isValid(int input);
+    }
+
+    /**
+     * Schedule of the samples of one kind of input.
+     */
+    private static final class SampleStream {
+
+        private final long mPeriod;
+
+        /**
+         * Inputs being sampled, as a mask of input numbers. Zero when not sampling.
+         */
+        private long mInputs;
+
+        /**
+         * Sampling passes remaining, or zero to sample until halted.
+         */
+        private long mRemaining;
+
+        /**
+         * The {@link System#nanoTime()} the next pass is due.
+         */
+        private long mNext;
+
+        private SampleStream(final double rate) {
+            mPeriod = Math.max(1, (long) (1e9 / rate));
+        }
+
+        private void start(final long inputs, final long count, final long now) {
+            mInputs = inputs;
+            mRemaining = count;
+            mNext = now;
+        }
+
+        private void stop() {
+            mInputs = 0;
+        }
+
+        /**
+         * Account for sampling passes which have been made or skipped, stopping once the requested number is reached.
+         *
+         * @param passes long The number of passes.
+         */
+        private void consume(final long passes) {
+            if (mRemaining == 0) return;
+            mRemaining -= passes;
+            if (mRemaining <= 0) {
+                mRemaining = 0;
+                mInputs = 0;
+            }
+        }
+    }
+
+    /**
+     * Layout of a discovery response.
+     */
+    private static final class DiscoveryPacket {
+
+        private static final int LENGTH = 115;
+
+        private static final byte TAG_STATUS = (byte) 0xFE;
+
+        private static final byte CMD_DISCOVER_TARGET = 0x02;
+
+        private static final int IDX_TAG = 0;
+
+        private static final int IDX_LENGTH = 1;
+
+        private static final int IDX_COMMAND = 2;
+
+        private static final int IDX_BOARD_TYPE = 3;
+
+        private static final int IDX_BOARD_ID = 4;
+
+        private static final int BOARD_ID_LENGTH = 32;
+
+        private static final int IDX_CLIENT_IP = 36;
+
+        private static final int IDX_MAC = 40;
+
+        private static final int MAC_LENGTH = 6;
+
+        private static final int IDX_FIRMWARE = 46;
+
+        private static final int FIRMWARE_LENGTH = 4;
+
+        private static final int IDX_TITLE = 50;
+
+        private static final int TITLE_LENGTH = 64;
+
+        private static final int IDX_CHECKSUM = 114;
+    }
+}
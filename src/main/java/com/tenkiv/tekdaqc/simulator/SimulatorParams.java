@@ -0,0 +1,429 @@
+package com.tenkiv.tekdaqc.simulator;
+
+import com.tenkiv.tekdaqc.hardware.Tekdaqc_RevD;
+import com.tenkiv.tekdaqc.locator.LocatorParams;
+import com.tenkiv.tekdaqc.telnet.client.EthernetTelnetConnection;
+
+/**
+ * Configuration of a {@link TekdaqcSimulator}, shared by all of its boards. This is an immutable class that may only
+ * be constructed through {@link SimulatorParams.Builder}.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+public final class SimulatorParams {
+
+    /**
+     * Board type reported in discovery responses, which the {@link com.tenkiv.tekdaqc.locator.Locator} creates a
+     * {@link Tekdaqc_RevD} for.
+     */
+    public static final char DEFAULT_BOARD_TYPE = 'E';
+
+    /**
+     * Default firmware version reported in discovery responses.
+     */
+    public static final String DEFAULT_FIRMWARE_VERSION = "1.3.1.0";
+
+    /**
+     * Default application title reported in discovery responses.
+     */
+    public static final String DEFAULT_TITLE = "Simulated Tekdaqc";
+
+    /**
+     * Default rate at which each sampled channel produces samples, in samples per second.
+     */
+    public static final double DEFAULT_SAMPLE_RATE = 10;
+
+    /**
+     * Default number of I/O threads serving the boards.
+     */
+    public static final int DEFAULT_THREAD_COUNT = Math.min(4, Runtime.getRuntime().availableProcessors());
+
+    private int discoveryPort;
+
+    private String discoveryMessage;
+
+    private int telnetPort;
+
+    private char boardType;
+
+    private String firmwareVersion;
+
+    private String title;
+
+    private double analogRate;
+
+    private double digitalRate;
+
+    private double pwmRate;
+
+    private int analogChannels;
+
+    private int digitalChannels;
+
+    private int pwmChannels;
+
+    private boolean sampleOnConnect;
+
+    private int threadCount;
+
+    private SimulatorParams() {
+    }
+
+    /**
+     * Retrieve a default instance of the simulator parameters.
+     *
+     * @return {@link SimulatorParams} A parameter set with default configuration.
+     */
+    public static SimulatorParams getDefaultInstance() {
+        return new Builder().build();
+    }
+
+    /**
+     * The UDP port discovery requests are answered on.
+     *
+     * @return int The port.
+     */
+    public int getDiscoveryPort() {
+        return discoveryPort;
+    }
+
+    /**
+     * The discovery message which is answered. Any other datagram is ignored.
+     *
+     * @return {@link String} The message.
+     */
+    public String getDiscoveryMessage() {
+        return discoveryMessage;
+    }
+
+    /**
+     * The TCP port each board accepts connections on, at its own address.
+     *
+     * @return int The port.
+     */
+    public int getTelnetPort() {
+        return telnetPort;
+    }
+
+    public char getBoardType() {
+        return boardType;
+    }
+
+    public String getFirmwareVersion() {
+        return firmwareVersion;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * The rate at which each sampled analog input produces samples.
+     *
+     * @return double The rate in samples per second.
+     */
+    public double getAnalogRate() {
+        return analogRate;
+    }
+
+    /**
+     * The rate at which each sampled digital input produces samples.
+     *
+     * @return double The rate in samples per second.
+     */
+    public double getDigitalRate() {
+        return digitalRate;
+    }
+
+    /**
+     * The rate at which each sampled PWM input produces samples.
+     *
+     * @return double The rate in samples per second.
+     */
+    public double getPwmRate() {
+        return pwmRate;
+    }
+
+    /**
+     * The number of analog inputs, starting from input 0, which are added when a connection is opened.
+     *
+     * @return int The number of inputs.
+     */
+    public int getAnalogChannels() {
+        return analogChannels;
+    }
+
+    /**
+     * The number of digital inputs, starting from input 0, which are added when a connection is opened.
+     *
+     * @return int The number of inputs.
+     */
+    public int getDigitalChannels() {
+        return digitalChannels;
+    }
+
+    /**
+     * The number of PWM inputs, starting from input 0, which are added when a connection is opened.
+     *
+     * @return int The number of inputs.
+     */
+    public int getPwmChannels() {
+        return pwmChannels;
+    }
+
+    /**
+     * Whether boards start sampling their added inputs as soon as a connection is opened, as if sent
+     * {@code SAMPLE --NUMBER=0}, so load can be generated without the client sending any commands.
+     *
+     * @return boolean True if sampling starts on connection.
+     */
+    public boolean isSampleOnConnect() {
+        return sampleOnConnect;
+    }
+
+    /**
+     * The number of I/O threads the boards are distributed across.
+     *
+     * @return int The thread count.
+     */
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    /**
+     * Builder class for {@link SimulatorParams}.
+     *
+     * @author Tenkiv (software@tenkiv.com)
+     * @since v2.1.0.0
+     */
+    public static final class Builder {
+
+        private int mDiscoveryPort;
+        private String mDiscoveryMessage;
+        private int mTelnetPort;
+        private char mBoardType;
+        private String mFirmwareVersion;
+        private String mTitle;
+        private double mAnalogRate;
+        private double mDigitalRate;
+        private double mPwmRate;
+        private int mAnalogChannels;
+        private int mDigitalChannels;
+        private int mPwmChannels;
+        private boolean mSampleOnConnect;
+        private int mThreadCount;
+
+        /**
+         * Constructs a builder initialized for all default parameters.
+         */
+        public Builder() {
+            mDiscoveryPort = LocatorParams.DEFAULT_PORT;
+            mDiscoveryMessage = LocatorParams.DEFAULT_MESSAGE;
+            mTelnetPort = EthernetTelnetConnection.TEKDAQC_TELNET_PORT;
+            mBoardType = DEFAULT_BOARD_TYPE;
+            mFirmwareVersion = DEFAULT_FIRMWARE_VERSION;
+            mTitle = DEFAULT_TITLE;
+            mAnalogRate = DEFAULT_SAMPLE_RATE;
+            mDigitalRate = DEFAULT_SAMPLE_RATE;
+            mPwmRate = DEFAULT_SAMPLE_RATE;
+            mThreadCount = DEFAULT_THREAD_COUNT;
+        }
+
+        /**
+         * Returns a new instance of {@link SimulatorParams}.
+         *
+         * @return {@link SimulatorParams} The built instance.
+         */
+        public SimulatorParams build() {
+            final SimulatorParams params = new SimulatorParams();
+            params.discoveryPort = mDiscoveryPort;
+            params.discoveryMessage = mDiscoveryMessage;
+            params.telnetPort = mTelnetPort;
+            params.boardType = mBoardType;
+            params.firmwareVersion = mFirmwareVersion;
+            params.title = mTitle;
+            params.analogRate = mAnalogRate;
+            params.digitalRate = mDigitalRate;
+            params.pwmRate = mPwmRate;
+            params.analogChannels = mAnalogChannels;
+            params.digitalChannels = mDigitalChannels;
+            params.pwmChannels = mPwmChannels;
+            params.sampleOnConnect = mSampleOnConnect;
+            params.threadCount = mThreadCount;
+
+            return params;
+        }
+
+        /**
+         * The UDP port to answer discovery requests on. Zero binds an ephemeral port. A
+         * {@link com.tenkiv.tekdaqc.locator.Locator} sends its requests from an ephemeral port, so it can search the
+         * default port of a simulator running on the same machine.
+         *
+         * @param port int The UDP port.
+         */
+        public void setDiscoveryPort(int port) {
+            if (port < 0 || port > 0xFFFF)
+                throw new IllegalArgumentException();
+
+            mDiscoveryPort = port;
+        }
+
+        /**
+         * The discovery message to answer.
+         *
+         * @param message {@link String} The message the locator sends.
+         */
+        public void setDiscoveryMessage(String message) {
+            if (message == null)
+                throw new IllegalArgumentException();
+
+            mDiscoveryMessage = message;
+        }
+
+        /**
+         * The TCP port each board accepts connections on. Zero binds an ephemeral port for each board.
+         *
+         * @param port int The TCP port.
+         */
+        public void setTelnetPort(int port) {
+            if (port < 0 || port > 0xFFFF)
+                throw new IllegalArgumentException();
+
+            mTelnetPort = port;
+        }
+
+        /**
+         * The board type reported in discovery responses.
+         *
+         * @param type char The board revision.
+         */
+        public void setBoardType(char type) {
+            mBoardType = type;
+        }
+
+        /**
+         * The firmware version reported in discovery responses, as four numbers separated by periods.
+         *
+         * @param firmware {@link String} The firmware version.
+         */
+        public void setFirmwareVersion(String firmware) {
+            if (firmware == null || firmware.split("\\.").length != 4)
+                throw new IllegalArgumentException();
+
+            mFirmwareVersion = firmware;
+        }
+
+        /**
+         * The application title reported in discovery responses, at most 64 characters.
+         *
+         * @param title {@link String} The application title.
+         */
+        public void setTitle(String title) {
+            if (title == null || title.length() > 64)
+                throw new IllegalArgumentException();
+
+            mTitle = title;
+        }
+
+        /**
+         * The rate at which each sampled input produces samples, for every kind of input.
+         *
+         * @param rate double The rate in samples per second.
+         */
+        public void setSampleRate(double rate) {
+            setAnalogRate(rate);
+            setDigitalRate(rate);
+            setPwmRate(rate);
+        }
+
+        /**
+         * The rate at which each sampled analog input produces samples.
+         *
+         * @param rate double The rate in samples per second.
+         */
+        public void setAnalogRate(double rate) {
+            mAnalogRate = checkRate(rate);
+        }
+
+        /**
+         * The rate at which each sampled digital input produces samples.
+         *
+         * @param rate double The rate in samples per second.
+         */
+        public void setDigitalRate(double rate) {
+            mDigitalRate = checkRate(rate);
+        }
+
+        /**
+         * The rate at which each sampled PWM input produces samples.
+         *
+         * @param rate double The rate in samples per second.
+         */
+        public void setPwmRate(double rate) {
+            mPwmRate = checkRate(rate);
+        }
+
+        /**
+         * The number of analog inputs, starting from input 0, to add when a connection is opened.
+         *
+         * @param channels int The number of inputs.
+         */
+        public void setAnalogChannels(int channels) {
+            mAnalogChannels = checkChannels(channels, Tekdaqc_RevD.ANALOG_INPUT_COUNT);
+        }
+
+        /**
+         * The number of digital inputs, starting from input 0, to add when a connection is opened.
+         *
+         * @param channels int The number of inputs.
+         */
+        public void setDigitalChannels(int channels) {
+            mDigitalChannels = checkChannels(channels, Tekdaqc_RevD.DIGITAL_INPUT_COUNT);
+        }
+
+        /**
+         * The number of PWM inputs, starting from input 0, to add when a connection is opened.
+         *
+         * @param channels int The number of inputs.
+         */
+        public void setPwmChannels(int channels) {
+            mPwmChannels = checkChannels(channels, Tekdaqc_RevD.DIGITAL_INPUT_COUNT);
+        }
+
+        /**
+         * Whether boards start sampling their added inputs as soon as a connection is opened.
+         *
+         * @param sampleOnConnect boolean True to start sampling on connection.
+         */
+        public void setSampleOnConnect(boolean sampleOnConnect) {
+            mSampleOnConnect = sampleOnConnect;
+        }
+
+        /**
+         * The number of I/O threads the boards are distributed across.
+         *
+         * @param threadCount int The thread count.
+         */
+        public void setThreadCount(int threadCount) {
+            if (threadCount < 1)
+                throw new IllegalArgumentException();
+
+            mThreadCount = threadCount;
+        }
+
+        private static double checkRate(double rate) {
+            if (!(rate > 0) || Double.isInfinite(rate))
+                throw new IllegalArgumentException("Rate must be positive.");
+
+            return rate;
+        }
+
+        private static int checkChannels(int channels, int maximum) {
+            if (channels < 0 || channels > maximum)
+                throw new IllegalArgumentException("Channel count must be between 0 and " + maximum + ".");
+
+            return channels;
+        }
+    }
+}
@@ -0,0 +1,547 @@
+package com.tenkiv.tekdaqc.simulator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Stands in for any number of Tekdaqcs on the local machine, for exercising the
+ * {@link com.tenkiv.tekdaqc.locator.Locator} and the connection and parsing code without hardware, and for load and
+ * soak testing. Every {@link SimulatedBoard} listens at its own address on the Telnet port, since that is how a client
+ * finds a board, and discovery requests are answered for all boards from a single UDP port, each response coming from
+ * its board's address.
+ * <p>
+ * On Linux the whole 127.0.0.0/8 block is bound to the loopback interface, so hundreds of boards can be run on one
+ * machine at the addresses given by {@link #loopbackAddress(int)}. Each board uses one socket for listening, one for
+ * its connection and, once discovered, one for its discovery responses, so the open file limit may need raising for
+ * very large simulations.
+ * <p>
+ * Boards are distributed across a small number of I/O threads, each of which owns a {@link Selector} and generates
+ * the samples of its boards, so the number of threads does not grow with the number of boards.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+public final class TekdaqcSimulator implements Closeable {
+
+    private static final String LOOP_THREAD_NAME = "TEKDAQC_SIMULATOR_THREAD";
+
+    private static final String DISCOVERY_THREAD_NAME = "TEKDAQC_SIMULATOR_DISCOVERY";
+
+    /**
+     * Interval at which samples which have come due are generated.
+     */
+    private static final long EMIT_PERIOD_NANOS = 5000000L;
+
+    /**
+     * Size of the buffer each loop reads commands into.
+     */
+    private static final int READ_BUFFER_SIZE = 16 * 1024;
+
+    /**
+     * Size of the buffer discovery requests are received into.
+     */
+    private static final int DISCOVERY_BUFFER_SIZE = 1024;
+
+    /**
+     * Number of boards which fit in each third octet of {@link #loopbackAddress(int)}, skipping 0 and 255.
+     */
+    private static final int ADDRESSES_PER_OCTET = 254;
+
+    private final SimulatorParams mParams;
+
+    private final Loop[] mLoops;
+
+    private final List<SimulatedBoard> mBoards = new CopyOnWriteArrayList<>();
+
+    private final DatagramChannel mDiscovery;
+
+    private final Thread mDiscoveryThread;
+
+    /**
+     * Channels discovery responses are sent from, by board address. Only used by the discovery thread.
+     */
+    private final Map<InetAddress, DatagramChannel> mResponseChannels = new HashMap<>();
+
+    private volatile boolean mIsClosed = false;
+
+    /**
+     * Constructor, which starts answering discovery requests. Boards are then added with
+     * {@link #addBoard(String, InetAddress)} or {@link #addBoards(int)}.
+     *
+     * @param params {@link SimulatorParams} The configuration shared by all boards.
+     * @throws IOException If the discovery port cannot be bound or a {@link Selector} cannot be opened.
+     */
+    public TekdaqcSimulator(final SimulatorParams params) throws IOException {
+        mParams = params;
+        mLoops = new Loop[params.getThreadCount()];
+        mDiscovery = DatagramChannel.open();
+        try {
+            mDiscovery.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+            mDiscovery.bind(new InetSocketAddress(params.getDiscoveryPort()));
+            for (int i = 0; i < mLoops.length; ++i) {
+                mLoops[i] = new Loop(LOOP_THREAD_NAME + "_" + (i + 1));
+            }
+        } catch (final IOException e) {
+            close();
+            throw e;
+        }
+        mDiscoveryThread = new Thread(this::answerDiscovery, DISCOVERY_THREAD_NAME);
+        mDiscoveryThread.setDaemon(true);
+        mDiscoveryThread.start();
+        for (final Loop loop : mLoops) {
+            loop.mThread.start();
+        }
+    }
+
+    /**
+     * Get the address of the board with the given index in a simulation of many boards, from the loopback block
+     * starting at 127.1.0.1. The host's own 127.0.0.1 is never used.
+     *
+     * @param index int The index of the board, from zero.
+     * @return {@link InetAddress} The address.
+     */
+    public static InetAddress loopbackAddress(final int index) {
+        if (index < 0 || index >= ADDRESSES_PER_OCTET * 256) throw new IllegalArgumentException("Index out of range.");
+        try {
+            return InetAddress.getByAddress(new byte[]{127, 1,
+                    (byte) (index / ADDRESSES_PER_OCTET), (byte) (index % ADDRESSES_PER_OCTET + 1)});
+        } catch (final UnknownHostException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public SimulatorParams getParams() {
+        return mParams;
+    }
+
+    /**
+     * Get the UDP port discovery requests are answered on, which is the bound port if an ephemeral one was requested.
+     *
+     * @return int The port.
+     */
+    public int getDiscoveryPort() {
+        try {
+            return ((InetSocketAddress) mDiscovery.getLocalAddress()).getPort();
+        } catch (final IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Add a board which accepts connections at the given address.
+     *
+     * @param serialNumber {@link String} The serial number, at most 32 ASCII characters.
+     * @param address      {@link InetAddress} The address to listen at, which no other board may share unless the
+     *                     Telnet port is ephemeral.
+     * @return {@link SimulatedBoard} The board, which is accepting connections once this returns.
+     * @throws IOException If the board's address cannot be bound.
+     */
+    public synchronized SimulatedBoard addBoard(final String serialNumber, final InetAddress address)
+            throws IOException {
+        if (mIsClosed) throw new ClosedChannelException();
+        if (serialNumber == null || serialNumber.isEmpty() || serialNumber.length() > 32
+                || !StandardCharsets.US_ASCII.newEncoder().canEncode(serialNumber)) {
+            throw new IllegalArgumentException("Serial number must be 1 to 32 ASCII characters.");
+        }
+        final ServerSocketChannel server = ServerSocketChannel.open();
+        final SimulatedBoard board;
+        try {
+            server.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+            server.bind(new InetSocketAddress(address, mParams.getTelnetPort()));
+            server.configureBlocking(false);
+            final int index = mBoards.size();
+            board = new SimulatedBoard(mParams, serialNumber,
+                    new byte[]{0x02, 0x54, 0x4B, (byte) (index >>> 16), (byte) (index >>> 8), (byte) index}, server);
+        } catch (final IOException e) {
+            server.close();
+            throw e;
+        }
+        mBoards.add(board);
+        final Loop loop = mLoops[(mBoards.size() - 1) % mLoops.length];
+        loop.post(() -> loop.attach(board));
+        return board;
+    }
+
+    /**
+     * Add boards at consecutive {@link #loopbackAddress(int)}es, numbering their serial numbers after the boards
+     * already added.
+     *
+     * @param count int The number of boards to add.
+     * @return {@link List} of the added {@link SimulatedBoard}s.
+     * @throws IOException If an address cannot be bound. Boards added before the failure remain.
+     */
+    public synchronized List<SimulatedBoard> addBoards(final int count) throws IOException {
+        final List<SimulatedBoard> boards = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            final int index = mBoards.size();
+            boards.add(addBoard(String.format("SIM%029d", index + 1), loopbackAddress(index)));
+        }
+        return boards;
+    }
+
+    /**
+     * Get every board, in the order they were added.
+     *
+     * @return {@link List} of {@link SimulatedBoard}s.
+     */
+    public List<SimulatedBoard> getBoards() {
+        return Collections.unmodifiableList(mBoards);
+    }
+
+    /**
+     * Get the number of boards with a client connected.
+     *
+     * @return int The number of boards.
+     */
+    public int getConnectedCount() {
+        int count = 0;
+        for (final SimulatedBoard board : mBoards) {
+            if (board.isConnected()) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Get the number of samples sent by all boards.
+     *
+     * @return long The number of samples.
+     */
+    public long getSamplesSent() {
+        long total = 0;
+        for (final SimulatedBoard board : mBoards) {
+            total += board.getSamplesSent();
+        }
+        return total;
+    }
+
+    /**
+     * Get the number of samples dropped by all boards because their clients were too far behind.
+     *
+     * @return long The number of samples.
+     */
+    public long getSamplesDropped() {
+        long total = 0;
+        for (final SimulatedBoard board : mBoards) {
+            total += board.getSamplesDropped();
+        }
+        return total;
+    }
+
+    /**
+     * Get the number of bytes sent by all boards.
+     *
+     * @return long The number of bytes.
+     */
+    public long getBytesSent() {
+        long total = 0;
+        for (final SimulatedBoard board : mBoards) {
+            total += board.getBytesSent();
+        }
+        return total;
+    }
+
+    public boolean isClosed() {
+        return mIsClosed;
+    }
+
+    /**
+     * Disconnect every client, stop listening and stop answering discovery requests. All ports are released once
+     * this returns.
+     */
+    @Override
+    public void close() {
+        if (mIsClosed) return;
+        mIsClosed = true;
+        try {
+            mDiscovery.close();
+        } catch (final IOException e) {
+            // Nothing else can be done
+        }
+        for (final Loop loop : mLoops) {
+            if (loop == null) continue;
+            if (loop.mThread.isAlive()) {
+                loop.post(loop::closeAll);
+            } else {
+                loop.closeAll();
+            }
+        }
+        try {
+            if (mDiscoveryThread != null) mDiscoveryThread.join();
+            for (final Loop loop : mLoops) {
+                if (loop != null) loop.mThread.join();
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Boards added while closing may not have reached their loop
+        for (final SimulatedBoard board : mBoards) {
+            try {
+                board.getServer().close();
+            } catch (final IOException e) {
+                // Nothing else can be done
+            }
+        }
+    }
+
+    /**
+     * Body of the discovery thread, which answers each discovery request with a response for every board.
+     */
+    private void answerDiscovery() {
+        final ByteBuffer buffer = ByteBuffer.allocate(DISCOVERY_BUFFER_SIZE);
+        final byte[] message = mParams.getDiscoveryMessage().getBytes(StandardCharsets.US_ASCII);
+        try {
+            while (!mIsClosed) {
+                buffer.clear();
+                final InetSocketAddress client = (InetSocketAddress) mDiscovery.receive(buffer);
+                buffer.flip();
+                if (!buffer.equals(ByteBuffer.wrap(message))) continue;
+                for (final SimulatedBoard board : mBoards) {
+                    respond(board, client);
+                }
+            }
+        } catch (final ClosedChannelException e) {
+            // Closed by close()
+        } catch (final IOException e) {
+            System.err.println("TekdaqcSimulator stopping discovery after failure: ");
+            e.printStackTrace();
+        } finally {
+            for (final DatagramChannel channel : mResponseChannels.values()) {
+                try {
+                    channel.close();
+                } catch (final IOException e) {
+                    // Nothing else can be done
+                }
+            }
+        }
+    }
+
+    private void respond(final SimulatedBoard board, final InetSocketAddress client) {
+        try {
+            final InetAddress address = board.getAddress();
+            DatagramChannel channel = mResponseChannels.get(address);
+            if (channel == null) {
+                if (address.isAnyLocalAddress()) {
+                    channel = mDiscovery;
+                } else {
+                    // Responding from the board's address is what lets the client tell the boards apart
+                    channel = DatagramChannel.open();
+                    channel.bind(new InetSocketAddress(address, 0));
+                }
+                mResponseChannels.put(address, channel);
+            }
+            channel.send(ByteBuffer.wrap(board.createDiscoveryResponse(client.getAddress())), client);
+        } catch (final IOException e) {
+            System.err.println("TekdaqcSimulator failed to answer discovery for " + board.getSerialNumber() + ": ");
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * A single I/O thread, its selector and the boards it serves.
+     */
+    private final class Loop implements Runnable {
+
+        private final Selector mSelector;
+
+        private final Thread mThread;
+
+        private final Queue<Runnable> mPending = new ConcurrentLinkedQueue<>();
+
+        private final List<SimulatedBoard> mLoopBoards = new ArrayList<>();
+
+        private final ByteBuffer mBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+
+        private final byte[] mScratch = new byte[READ_BUFFER_SIZE];
+
+        private Loop(final String name) throws IOException {
+            mSelector = Selector.open();
+            mThread = new Thread(this, name);
+            mThread.setDaemon(true);
+        }
+
+        private void post(final Runnable task) {
+            mPending.add(task);
+            mSelector.wakeup();
+        }
+
+        private void attach(final SimulatedBoard board) {
+            try {
+                board.getServer().register(mSelector, SelectionKey.OP_ACCEPT, board);
+                mLoopBoards.add(board);
+            } catch (final IOException e) {
+                System.err.println("TekdaqcSimulator failed to start " + board.getSerialNumber() + ": ");
+                e.printStackTrace();
+            }
+        }
+
+        @Override
+        public void run() {
+            long nextEmit = System.nanoTime();
+            try {
+                while (mSelector.isOpen()) {
+                    final long wait = nextEmit - System.nanoTime();
+                    if (wait > 0) {
+                        mSelector.select(Math.max(1, wait / 1000000L));
+                    } else {
+                        mSelector.selectNow();
+                    }
+                    runPending();
+                    if (!mSelector.isOpen()) break;
+                    final Iterator<SelectionKey> keys = mSelector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        final SelectionKey key = keys.next();
+                        keys.remove();
+                        process(key);
+                    }
+                    final long now = System.nanoTime();
+                    if (now - nextEmit >= 0) {
+                        emit(now);
+                        nextEmit += EMIT_PERIOD_NANOS;
+                        if (now - nextEmit >= 0) nextEmit = now + EMIT_PERIOD_NANOS;
+                    }
+                }
+            } catch (final IOException e) {
+                System.err.println("TekdaqcSimulator loop failed: ");
+                e.printStackTrace();
+                closeAll();
+            }
+        }
+
+        private void runPending() {
+            Runnable task;
+            while ((task = mPending.poll()) != null) {
+                task.run();
+            }
+        }
+
+        private void process(final SelectionKey key) {
+            final SimulatedBoard board = (SimulatedBoard) key.attachment();
+            try {
+                if (!key.isValid()) return;
+                if (key.isAcceptable()) {
+                    accept(board);
+                    return;
+                }
+                if (key.isReadable()) read(board);
+                if (key.isValid() && key.isWritable()) write(board);
+            } catch (final IOException e) {
+                board.close();
+            } catch (final RuntimeException e) {
+                System.err.println("TekdaqcSimulator absorbing Exception: ");
+                e.printStackTrace();
+            }
+        }
+
+        private void accept(final SimulatedBoard board) {
+            SocketChannel channel = null;
+            try {
+                channel = board.getServer().accept();
+                if (channel == null) return;
+                if (board.getChannel() != null) {
+                    // Like the board's Telnet server, only one client is served at a time
+                    channel.close();
+                    return;
+                }
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                channel.register(mSelector, SelectionKey.OP_READ, board);
+            } catch (final IOException e) {
+                if (channel != null) {
+                    try {
+                        channel.close();
+                    } catch (final IOException closeFailure) {
+                        // Nothing else can be done
+                    }
+                }
+                return;
+            }
+            board.open(channel, System.nanoTime());
+            try {
+                write(board);
+            } catch (final IOException e) {
+                board.close();
+            }
+        }
+
+        private void read(final SimulatedBoard board) throws IOException {
+            final SocketChannel channel = board.getChannel();
+            for (int i = 0; i < 4; ++i) {
+                mBuffer.clear();
+                final int read = channel.read(mBuffer);
+                if (read < 0) {
+                    board.close();
+                    return;
+                }
+                if (read == 0) break;
+                mBuffer.flip();
+                mBuffer.get(mScratch, 0, read);
+                board.onRead(mScratch, 0, read, System.nanoTime());
+                if (read < mBuffer.capacity()) break;
+            }
+            write(board);
+        }
+
+        private void emit(final long now) {
+            for (final SimulatedBoard board : mLoopBoards) {
+                if (board.getChannel() == null) continue;
+                board.emit(now);
+                try {
+                    write(board);
+                } catch (final IOException e) {
+                    board.close();
+                }
+            }
+        }
+
+        private void write(final SimulatedBoard board) throws IOException {
+            final SocketChannel channel = board.getChannel();
+            if (channel == null) return;
+            final boolean pending = board.flush();
+            if (!pending && board.isClosing()) {
+                board.close();
+                return;
+            }
+            final SelectionKey key = channel.keyFor(mSelector);
+            if (key == null || !key.isValid()) return;
+            final int interest = pending ? (SelectionKey.OP_READ | SelectionKey.OP_WRITE) : SelectionKey.OP_READ;
+            if (key.interestOps() != interest) key.interestOps(interest);
+        }
+
+        private void closeAll() {
+            for (final SimulatedBoard board : mLoopBoards) {
+                board.close();
+                try {
+                    board.getServer().close();
+                } catch (final IOException e) {
+                    // Nothing else can be done
+                }
+            }
+            try {
+                mSelector.close();
+            } catch (final IOException e) {
+                // Nothing else can be done
+            }
+        }
+    }
+}
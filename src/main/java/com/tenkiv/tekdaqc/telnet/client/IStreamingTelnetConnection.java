@@ -0,0 +1,25 @@
+package com.tenkiv.tekdaqc.telnet.client;
+
+import com.tenkiv.tekdaqc.communication.executors.AParsingExecutor;
+import com.tenkiv.tekdaqc.communication.executors.IRecordFramer;
+
+import java.util.function.IntConsumer;
+
+/**
+ * A connection which delivers received data itself, instead of being read through its {@link #getInputStream()}.
+ * No reading thread needs to be dedicated to such a connection. Received data is passed to an {@link IRecordFramer},
+ * which delivers records through {@link AParsingExecutor.IParsingListener#onRecordDetected(byte[], int, int)}.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+public interface IStreamingTelnetConnection extends ITekdaqcTelnetConnection {
+
+    /**
+     * Begin delivering received data. This must be called at most once.
+     *
+     * @param framer   {@link IRecordFramer} The framer to pass received data to. It is only called from one thread.
+     * @param observer {@link IntConsumer} Notified of the number of bytes received by each read. Can be null.
+     */
+    void startReading(IRecordFramer framer, IntConsumer observer);
+}
@@ -0,0 +1,23 @@
+package com.tenkiv.tekdaqc.telnet.client;
+
+import java.io.IOException;
+
+/**
+ * Factory for the connections used to communicate with a Tekdaqc. Allows the transport used by
+ * {@link com.tenkiv.tekdaqc.hardware.ATekdaqc#connect} to be replaced.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+public interface ITekdaqcConnectionFactory {
+
+    /**
+     * Open a connection to a Tekdaqc.
+     *
+     * @param host {@link String} The host name or IP address of the Tekdaqc.
+     * @param port int The port number.
+     * @return {@link ITekdaqcTelnetConnection} The open connection.
+     * @throws IOException Thrown if the connection could not be opened.
+     */
+    ITekdaqcTelnetConnection createConnection(String host, int port) throws IOException;
+}
@@ -0,0 +1,154 @@
+package com.tenkiv.tekdaqc.telnet.client;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+/**
+ * Ethernet implementation of the Tekdaqc Telnet connection which uses a plain {@link Socket}. Unlike
+ * {@link EthernetTelnetConnection} no Telnet client sits between the socket and its reader, so there is no additional
+ * reader thread or buffer copy. Telnet negotiation sent by the Tekdaqc is removed in place as data is read, and
+ * nothing is negotiated in return.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+public class RawSocketTelnetConnection implements ITekdaqcTelnetConnection {
+
+    /**
+     * Indicates that the operating system default buffer size should be used.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 0;
+
+    /**
+     * The socket
+     */
+    private final Socket mSocket;
+
+    /**
+     * The output stream
+     */
+    private final OutputStream mOut;
+
+    /**
+     * The input stream
+     */
+    private final InputStream mIn;
+
+    /**
+     * Creates and connects a socket with the default buffer sizes.
+     *
+     * @param host {@link String} Target host name
+     * @param port {@code int} Port number
+     * @throws IOException Thrown if the connection fails.
+     */
+    public RawSocketTelnetConnection(final String host, final int port) throws IOException {
+        this(host, port, DEFAULT_BUFFER_SIZE, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates and connects a socket.
+     *
+     * @param host              {@link String} Target host name
+     * @param port              {@code int} Port number
+     * @param receiveBufferSize {@code int} Size of the socket receive buffer, or {@link #DEFAULT_BUFFER_SIZE}.
+     * @param sendBufferSize    {@code int} Size of the socket send buffer, or {@link #DEFAULT_BUFFER_SIZE}.
+     * @throws IOException Thrown if the connection fails.
+     */
+    public RawSocketTelnetConnection(final String host, final int port, final int receiveBufferSize,
+                                     final int sendBufferSize) throws IOException {
+        mSocket = new Socket();
+        try {
+            // The receive buffer must be sized before connecting for a larger TCP window to be negotiated
+            if (receiveBufferSize > 0) mSocket.setReceiveBufferSize(receiveBufferSize);
+            if (sendBufferSize > 0) mSocket.setSendBufferSize(sendBufferSize);
+            mSocket.setTcpNoDelay(true);
+            mSocket.setKeepAlive(true);
+            mSocket.setSoTimeout(EthernetTelnetConnection.TEKDAQC_KEEP_ALIVE_TIMEOUT);
+            mSocket.connect(new InetSocketAddress(host, port),
+                    EthernetTelnetConnection.TEKDAQC_TELNET_CONNECTION_TIMEOUT);
+        } catch (final IOException e) {
+            mSocket.close();
+            throw e;
+        }
+
+        mOut = mSocket.getOutputStream();
+        mIn = new CommandFilteringInputStream(mSocket.getInputStream());
+    }
+
+    /**
+     * Create an {@link ITekdaqcConnectionFactory} which opens raw socket connections.
+     *
+     * @param receiveBufferSize {@code int} Size of the socket receive buffer, or {@link #DEFAULT_BUFFER_SIZE}.
+     * @param sendBufferSize    {@code int} Size of the socket send buffer, or {@link #DEFAULT_BUFFER_SIZE}.
+     * @return {@link ITekdaqcConnectionFactory} The factory.
+     */
+    public static ITekdaqcConnectionFactory factory(final int receiveBufferSize, final int sendBufferSize) {
+        return (host, port) -> new RawSocketTelnetConnection(host, port, receiveBufferSize, sendBufferSize);
+    }
+
+    @Override
+    public boolean isConnected() {
+        return mSocket.isConnected() && !mSocket.isClosed();
+    }
+
+    @Override
+    public void disconnect() throws IOException {
+        mSocket.close();
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return mIn;
+    }
+
+    @Override
+    public OutputStream getOutputStream() {
+        return mOut;
+    }
+
+    /**
+     * {@link InputStream} which removes Telnet negotiation from the data it reads, in the caller's buffer.
+     */
+    private static final class CommandFilteringInputStream extends FilterInputStream {
+
+        private final TelnetCommandFilter mFilter = new TelnetCommandFilter();
+
+        private final byte[] mSingle = new byte[1];
+
+        private CommandFilteringInputStream(final InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int read = read(mSingle, 0, 1);
+            return (read < 0) ? -1 : (mSingle[0] & 0xFF);
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            if (len == 0) return 0;
+            int filtered;
+            do {
+                final int read = in.read(b, off, len);
+                if (read < 0) return -1;
+                filtered = mFilter.filter(b, off, read);
+            } while (filtered == 0);
+            return filtered;
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            throw new IOException("Skipping is not supported.");
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,410 @@
+package com.tenkiv.tekdaqc.telnet.client;
+
+import com.tenkiv.tekdaqc.communication.binary.BinaryFrameEncoder;
+import com.tenkiv.tekdaqc.communication.executors.RecordSplitter;
+import com.tenkiv.tekdaqc.hardware.ATekdaqc;
+import com.tenkiv.tekdaqc.recording.RecordCursor;
+import com.tenkiv.tekdaqc.recording.RecordKind;
+import com.tenkiv.tekdaqc.recording.RecordingReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Connection which replays a recording made by a {@link com.tenkiv.tekdaqc.recording.SampleRecorder} as if it were
+ * the data stream of a Tekdaqc, so recorded sessions drive the same reading, parsing and broadcasting as a live
+ * board. Samples of all kinds are merged in the order they were received and encoded as data records of the board's
+ * {@link ATekdaqc.COMMUNICATION_ENCODING}.
+ * <p>
+ * Samples are paced by the times they were received, scaled by a speed factor, or sent as fast as the reader consumes
+ * them with {@link #AS_FAST_AS_POSSIBLE}. Encoding happens on the thread reading the {@link #getInputStream()}, so no
+ * additional thread is used. The stream ends once the recording is exhausted. Commands written to the
+ * {@link #getOutputStream()} are discarded.
+ * <p>
+ * A replay is used by a single {@link ATekdaqc}; install it with {@link ATekdaqc#setConnectionFactory} and
+ * {@link #factory()} before connecting.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+public class ReplayTelnetConnection implements ITekdaqcTelnetConnection {
+
+    /**
+     * Speed at which samples are sent without waiting.
+     */
+    public static final double AS_FAST_AS_POSSIBLE = Double.POSITIVE_INFINITY;
+
+    private final ReplayInputStream mIn;
+
+    private final OutputStream mOut = new OutputStream() {
+        @Override
+        public void write(final int b) {
+            // Commands are not answered
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) {
+            // Commands are not answered
+        }
+    };
+
+    private volatile boolean mConnected = true;
+
+    /**
+     * Constructor replaying as ASCII data records.
+     *
+     * @param recording {@link RecordingReader} The recording of one board.
+     * @param speed     double The multiple of recorded speed to replay at, or {@link #AS_FAST_AS_POSSIBLE}.
+     */
+    public ReplayTelnetConnection(final RecordingReader recording, final double speed) {
+        this(recording, speed, ATekdaqc.COMMUNICATION_ENCODING.ASCII);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param recording {@link RecordingReader} The recording of one board.
+     * @param speed     double The multiple of recorded speed to replay at, or {@link #AS_FAST_AS_POSSIBLE}.
+     * @param encoding  {@link ATekdaqc.COMMUNICATION_ENCODING} The encoding the replaying board is set to.
+     */
+    public ReplayTelnetConnection(final RecordingReader recording, final double speed,
+                                  final ATekdaqc.COMMUNICATION_ENCODING encoding) {
+        if (!(speed > 0)) throw new IllegalArgumentException("Speed must be positive.");
+        mIn = new ReplayInputStream(recording, speed, encoding);
+    }
+
+    /**
+     * Create an {@link ITekdaqcConnectionFactory} which hands out this connection, regardless of the address.
+     *
+     * @return {@link ITekdaqcConnectionFactory} The factory.
+     */
+    public ITekdaqcConnectionFactory factory() {
+        return (host, port) -> this;
+    }
+
+    @Override
+    public boolean isConnected() {
+        return mConnected;
+    }
+
+    @Override
+    public void disconnect() {
+        mConnected = false;
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return mIn;
+    }
+
+    @Override
+    public OutputStream getOutputStream() {
+        return mOut;
+    }
+
+    /**
+     * Check if every sample of the recording has been sent.
+     *
+     * @return boolean True if the replay has finished.
+     */
+    public boolean isFinished() {
+        return mIn.mFinishNanos != 0;
+    }
+
+    /**
+     * Get the number of samples sent so far.
+     *
+     * @return long The number of samples.
+     */
+    public long getSamplesReplayed() {
+        return mIn.mSamples;
+    }
+
+    /**
+     * Get the number of bytes sent so far.
+     *
+     * @return long The number of bytes.
+     */
+    public long getBytesReplayed() {
+        return mIn.mBytes;
+    }
+
+    /**
+     * Get the time since the first sample was sent, or the duration of the replay once it has finished.
+     *
+     * @param unit {@link TimeUnit} The unit of the result.
+     * @return long The elapsed time, or zero if nothing has been sent.
+     */
+    public long getElapsedTime(final TimeUnit unit) {
+        final long start = mIn.mStartNanos;
+        if (start == 0) return 0;
+        final long finish = mIn.mFinishNanos;
+        return unit.convert(((finish != 0) ? finish : System.nanoTime()) - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Get the rate samples have been sent at.
+     *
+     * @return double The achieved samples per second.
+     */
+    public double getSamplesPerSecond() {
+        final long elapsed = getElapsedTime(TimeUnit.NANOSECONDS);
+        return (elapsed == 0) ? 0 : mIn.mSamples * 1e9 / elapsed;
+    }
+
+    /**
+     * Get the speed achieved relative to the recording, which falls short of the requested speed when the reader
+     * cannot keep up.
+     *
+     * @return double The span of recorded time sent divided by the time taken to send it.
+     */
+    public double getAchievedSpeed() {
+        final long elapsed = getElapsedTime(TimeUnit.NANOSECONDS);
+        return (elapsed == 0) ? 0 : mIn.mRecordedSpanMillis * 1e6 / elapsed;
+    }
+
+    /**
+     * {@link InputStream} which encodes the next samples of the recording as they are read.
+     */
+    private final class ReplayInputStream extends InputStream {
+
+        private final RecordCursor[] mCursors;
+
+        /**
+         * Whether each cursor is positioned on a record which has not been sent.
+         */
+        private final boolean[] mPending;
+
+        private final double mSpeed;
+
+        private final boolean mBinary;
+
+        private final BinaryFrameEncoder mEncoder = new BinaryFrameEncoder();
+
+        private final long[] mTimestamp = new long[1];
+
+        private final int[] mCount = new int[1];
+
+        private final boolean[] mState = new boolean[1];
+
+        private final double[] mPercentage = new double[1];
+
+        private byte[] mRecord = new byte[64];
+
+        private int mRecordOffset;
+
+        private int mRecordLength;
+
+        private boolean mExhausted;
+
+        private long mFirstReceived;
+
+        private volatile long mStartNanos;
+
+        private volatile long mFinishNanos;
+
+        private volatile long mSamples;
+
+        private volatile long mBytes;
+
+        private volatile long mRecordedSpanMillis;
+
+        private ReplayInputStream(final RecordingReader recording, final double speed,
+                                  final ATekdaqc.COMMUNICATION_ENCODING encoding) {
+            final RecordKind[] kinds = RecordKind.values();
+            mCursors = new RecordCursor[kinds.length];
+            for (int i = 0; i < kinds.length; ++i) mCursors[i] = recording.records(kinds[i]);
+            mPending = new boolean[kinds.length];
+            mSpeed = speed;
+            mBinary = encoding == ATekdaqc.COMMUNICATION_ENCODING.BINARY;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final byte[] single = new byte[1];
+            return (read(single, 0, 1) < 0) ? -1 : (single[0] & 0xFF);
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            if (len == 0) return 0;
+            if (mStartNanos == 0) start();
+            int written = 0;
+            while (written < len && mConnected) {
+                if (mRecordOffset == mRecordLength) {
+                    final RecordCursor next = nextCursor();
+                    if (next == null) break;
+                    final long delay = dueNanos(next) - System.nanoTime();
+                    // Hand over what is ready rather than holding it back for a later sample
+                    if (delay > 0 && written > 0) break;
+                    if (delay > 0) await(delay);
+                    encode(next);
+                    mPending[next.getKind().ordinal()] = false;
+                }
+                final int copied = Math.min(len - written, mRecordLength - mRecordOffset);
+                System.arraycopy(mRecord, mRecordOffset, b, off + written, copied);
+                mRecordOffset += copied;
+                written += copied;
+            }
+            mBytes += written;
+            if (written > 0) return written;
+            if (mFinishNanos == 0) mFinishNanos = System.nanoTime();
+            return -1;
+        }
+
+        private void start() throws IOException {
+            final RecordCursor first = nextCursor();
+            mFirstReceived = (first != null) ? first.getReceiveTimestamp() : 0;
+            mStartNanos = System.nanoTime();
+        }
+
+        /**
+         * Find the cursor holding the earliest received record which has not been sent.
+         *
+         * @return {@link RecordCursor} The cursor, or null if the recording is exhausted.
+         */
+        private RecordCursor nextCursor() throws IOException {
+            if (mExhausted) return null;
+            RecordCursor earliest = null;
+            for (int i = 0; i < mCursors.length; ++i) {
+                if (!mPending[i]) mPending[i] = mCursors[i].next();
+                if (mPending[i] && (earliest == null
+                        || mCursors[i].getReceiveTimestamp() < earliest.getReceiveTimestamp())) {
+                    earliest = mCursors[i];
+                }
+            }
+            mExhausted = earliest == null;
+            return earliest;
+        }
+
+        private long dueNanos(final RecordCursor cursor) {
+            if (mSpeed == AS_FAST_AS_POSSIBLE) return 0;
+            final long recorded = cursor.getReceiveTimestamp() - mFirstReceived;
+            return mStartNanos + (long) (TimeUnit.MILLISECONDS.toNanos(recorded) / mSpeed);
+        }
+
+        private void await(final long nanos) throws InterruptedIOException {
+            final long deadline = System.nanoTime() + nanos;
+            long remaining = nanos;
+            while (remaining > 0 && mConnected) {
+                LockSupport.parkNanos(this, remaining);
+                if (Thread.interrupted()) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Replay interrupted.");
+                }
+                remaining = deadline - System.nanoTime();
+            }
+        }
+
+        private void encode(final RecordCursor cursor) {
+            final int channel = cursor.getChannel();
+            final long timestamp = cursor.getBoardTimestamp();
+            final long value = cursor.getValue();
+            mRecordOffset = 0;
+            try {
+                if (mBinary) {
+                    encodeBinary(cursor.getKind(), channel, timestamp, value, cursor.getAux());
+                } else {
+                    encodeASCII(cursor.getKind(), channel, timestamp, value, cursor.getAux());
+                }
+            } catch (final IllegalArgumentException e) {
+                // The sample cannot be represented in the binary protocol, so it is skipped
+                mRecordLength = 0;
+                return;
+            }
+            ++mSamples;
+            mRecordedSpanMillis = cursor.getReceiveTimestamp() - mFirstReceived;
+        }
+
+        private void encodeBinary(final RecordKind kind, final int channel, final long timestamp, final long value,
+                                  final int aux) {
+            mTimestamp[0] = timestamp;
+            final byte[] frame;
+            switch (kind) {
+                case ANALOG:
+                    mCount[0] = (int) value;
+                    frame = mEncoder.analog(channel, mTimestamp, mCount, 0, 1);
+                    break;
+                case DIGITAL:
+                    mState[0] = value != 0;
+                    frame = mEncoder.digital(channel, mTimestamp, mState, 0, 1);
+                    break;
+                default:
+                    mPercentage[0] = Double.longBitsToDouble(value);
+                    mCount[0] = aux;
+                    frame = mEncoder.pwm(channel, mTimestamp, mPercentage, mCount, 0, 1);
+                    break;
+            }
+            mRecord = frame;
+            mRecordLength = frame.length;
+        }
+
+        private void encodeASCII(final RecordKind kind, final int channel, final long timestamp, final long value,
+                                 final int aux) {
+            mRecordLength = 0;
+            append('?');
+            switch (kind) {
+                case ANALOG:
+                    append('A');
+                    appendNumber(channel);
+                    append('\r');
+                    append('\n');
+                    appendNumber(timestamp);
+                    append(',');
+                    appendNumber((int) value);
+                    break;
+                case DIGITAL:
+                    append('D');
+                    appendNumber(channel);
+                    append('\r');
+                    append('\n');
+                    appendNumber(timestamp);
+                    append(',');
+                    append((value != 0) ? 'H' : 'L');
+                    break;
+                default:
+                    append('P');
+                    appendNumber(channel);
+                    append('\r');
+                    append('\n');
+                    appendNumber(aux);
+                    append(',');
+                    for (final byte c : Double.toString(Double.longBitsToDouble(value))
+                            .getBytes(StandardCharsets.US_ASCII)) {
+                        append(c);
+                    }
+                    append('\n');
+                    appendNumber(timestamp);
+                    break;
+            }
+            append(RecordSplitter.RECORD_SEPARATOR);
+        }
+
+        private void append(final int c) {
+            if (mRecordLength == mRecord.length) mRecord = Arrays.copyOf(mRecord, mRecord.length * 2);
+            mRecord[mRecordLength++] = (byte) c;
+        }
+
+        private void appendNumber(final long number) {
+            if (number < 0) append('-');
+            // Digits are produced from a negative value so that Long.MIN_VALUE needs no special case
+            long remaining = (number < 0) ? number : -number;
+            final int start = mRecordLength;
+            do {
+                append('0' - (int) (remaining % 10));
+                remaining /= 10;
+            } while (remaining != 0);
+            for (int i = start, j = mRecordLength - 1; i < j; ++i, --j) {
+                final byte swap = mRecord[i];
+                mRecord[i] = mRecord[j];
+                mRecord[j] = swap;
+            }
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.tenkiv.tekdaqc.telnet.client;
+
+import com.tenkiv.tekdaqc.communication.executors.IRecordFramer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.function.IntConsumer;
+
+/**
+ * Ethernet implementation of the Tekdaqc Telnet connection built on a non-blocking {@link SocketChannel}. Reading is
+ * performed by a shared {@link TekdaqcSelector}, so any number of these connections can be served by a few threads.
+ * Received data is stripped of Telnet negotiation, framed and delivered through
+ * {@link #startReading(IRecordFramer, IntConsumer)}; {@link #getInputStream()} is not available.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+public class SelectorTelnetConnection implements IStreamingTelnetConnection {
+
+    /**
+     * Maximum number of bytes which may wait to be written before writes fail.
+     */
+    private static final int MAXIMUM_PENDING_WRITE = 1024 * 1024;
+
+    /**
+     * The channel to the Tekdaqc.
+     */
+    private final SocketChannel mChannel;
+
+    /**
+     * The selector which services this connection.
+     */
+    private final TekdaqcSelector mSelector;
+
+    /**
+     * The output stream
+     */
+    private final OutputStream mOut = new ChannelOutputStream();
+
+    /**
+     * Data which could not be written immediately. Guarded by itself.
+     */
+    private final ArrayDeque<ByteBuffer> mPendingWrites = new ArrayDeque<>();
+
+    private int mPendingWriteBytes = 0;
+
+    private final TelnetCommandFilter mFilter = new TelnetCommandFilter();
+
+    private IRecordFramer mSplitter;
+
+    private IntConsumer mObserver;
+
+    private volatile TekdaqcSelector.Registration mRegistration;
+
+    private volatile boolean mIsClosed = false;
+
+    /**
+     * Creates and connects a channel.
+     *
+     * @param host     {@link String} Target host name
+     * @param port     {@code int} Port number
+     * @param selector {@link TekdaqcSelector} The selector which will read from the connection.
+     * @throws IOException Thrown if the connection fails.
+     */
+    public SelectorTelnetConnection(final String host, final int port, final TekdaqcSelector selector)
+            throws IOException {
+        if (selector == null) throw new IllegalArgumentException("Selector cannot be null.");
+        mSelector = selector;
+        mChannel = SocketChannel.open();
+        try {
+            // Connect while blocking so that the usual timeout applies
+            mChannel.socket().connect(new InetSocketAddress(host, port),
+                    EthernetTelnetConnection.TEKDAQC_TELNET_CONNECTION_TIMEOUT);
+            mChannel.socket().setTcpNoDelay(true);
+            mChannel.socket().setKeepAlive(true);
+            mChannel.configureBlocking(false);
+        } catch (final IOException e) {
+            mChannel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Create an {@link ITekdaqcConnectionFactory} which opens connections served by the given selector.
+     *
+     * @param selector {@link TekdaqcSelector} The selector which will read from the connections.
+     * @return {@link ITekdaqcConnectionFactory} The factory.
+     */
+    public static ITekdaqcConnectionFactory factory(final TekdaqcSelector selector) {
+        return (host, port) -> new SelectorTelnetConnection(host, port, selector);
+    }
+
+    @Override
+    public void startReading(final IRecordFramer framer, final IntConsumer observer) {
+        if (framer == null) throw new IllegalArgumentException("Framer cannot be null.");
+        if (mSplitter != null) throw new IllegalStateException("Connection is already being read.");
+        mSplitter = framer;
+        mObserver = observer;
+        try {
+            mRegistration = mSelector.register(mChannel, new Handler());
+            synchronized (mPendingWrites) {
+                if (!mPendingWrites.isEmpty()) mRegistration.requestWrite();
+            }
+        } catch (final IOException e) {
+            System.err.println("Failed to register Tekdaqc connection: ");
+            e.printStackTrace();
+            close();
+        }
+    }
+
+    @Override
+    public boolean isConnected() {
+        return !mIsClosed && mChannel.isConnected();
+    }
+
+    @Override
+    public void disconnect() throws IOException {
+        mIsClosed = true;
+        mChannel.close();
+    }
+
+    /**
+     * Not supported, data is delivered through {@link #startReading(IRecordFramer, IntConsumer)}.
+     *
+     * @return null
+     */
+    @Override
+    public InputStream getInputStream() {
+        return null;
+    }
+
+    @Override
+    public OutputStream getOutputStream() {
+        return mOut;
+    }
+
+    private void close() {
+        try {
+            disconnect();
+        } catch (final IOException e) {
+            // Already closing
+        }
+    }
+
+    /**
+     * Write as much pending data as the channel will accept. Must be called holding the pending write lock.
+     *
+     * @return boolean True if data remains pending.
+     * @throws IOException Thrown if the write fails.
+     */
+    private boolean flushPending() throws IOException {
+        ByteBuffer buffer;
+        while ((buffer = mPendingWrites.peek()) != null) {
+            mPendingWriteBytes -= mChannel.write(buffer);
+            if (buffer.hasRemaining()) return true;
+            mPendingWrites.poll();
+        }
+        return false;
+    }
+
+    /**
+     * Receives events from the {@link TekdaqcSelector} on its I/O thread.
+     */
+    private final class Handler implements TekdaqcSelector.ChannelHandler {
+
+        @Override
+        public void onRead(final byte[] data, final int offset, final int length) {
+            final int filtered = mFilter.filter(data, offset, length);
+            if (mObserver != null) mObserver.accept(length);
+            mSplitter.feed(data, offset, filtered);
+        }
+
+        @Override
+        public boolean onWritable() throws IOException {
+            synchronized (mPendingWrites) {
+                return flushPending();
+            }
+        }
+
+        @Override
+        public void onClosed(final IOException cause) {
+            if (cause != null && !mIsClosed) {
+                System.err.println("Tekdaqc connection failed: ");
+                cause.printStackTrace();
+            }
+            mSplitter.flush();
+            close();
+        }
+    }
+
+    /**
+     * {@link OutputStream} which writes directly to the channel, queueing whatever the channel does not accept.
+     */
+    private final class ChannelOutputStream extends OutputStream {
+
+        @Override
+        public void write(final int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            if (mIsClosed) throw new IOException("Connection is closed.");
+            synchronized (mPendingWrites) {
+                final ByteBuffer buffer = ByteBuffer.wrap(b, off, len);
+                if (mPendingWrites.isEmpty()) {
+                    mChannel.write(buffer);
+                    if (!buffer.hasRemaining()) return;
+                }
+                if (mPendingWriteBytes + buffer.remaining() > MAXIMUM_PENDING_WRITE) {
+                    throw new IOException("Tekdaqc is not accepting data.");
+                }
+                // The caller may reuse its array, so keep a copy
+                final ByteBuffer copy = ByteBuffer.allocate(buffer.remaining());
+                copy.put(buffer).flip();
+                mPendingWrites.add(copy);
+                mPendingWriteBytes += copy.remaining();
+                final TekdaqcSelector.Registration registration = mRegistration;
+                if (registration != null) registration.requestWrite();
+            }
+        }
+    }
+}
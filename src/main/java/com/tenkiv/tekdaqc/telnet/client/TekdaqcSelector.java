@@ -0,0 +1,292 @@
+package com.tenkiv.tekdaqc.telnet.client;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Set of I/O threads which serve any number of non-blocking connections. Each thread owns a {@link Selector} and a
+ * direct {@link ByteBuffer} which all of its connections are read into, so connecting additional boards does not
+ * require additional threads. Connections are distributed across the threads in turn.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+public final class TekdaqcSelector implements Closeable {
+
+    private static final String SELECTOR_THREAD_NAME = "TEKDAQC_SELECTOR_THREAD";
+
+    private static final int THREAD_PRIORITY = 4; // Equivilant to Android's Process.THREAD_PRIORITY_BACKGROUND
+
+    /**
+     * Size of the buffer each loop reads into.
+     */
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The loops serving registered channels.
+     */
+    private final Loop[] mLoops;
+
+    /**
+     * Index of the loop which will receive the next registration.
+     */
+    private final AtomicInteger mNextLoop = new AtomicInteger();
+
+    private volatile boolean mIsClosed = false;
+
+    /**
+     * Constructor.
+     *
+     * @param threadCount int The number of I/O threads.
+     * @throws IOException Thrown if a {@link Selector} could not be opened.
+     */
+    public TekdaqcSelector(final int threadCount) throws IOException {
+        if (threadCount < 1) throw new IllegalArgumentException("Thread count must be positive.");
+        mLoops = new Loop[threadCount];
+        try {
+            for (int i = 0; i < threadCount; ++i) {
+                mLoops[i] = new Loop(SELECTOR_THREAD_NAME + "_" + (i + 1));
+            }
+        } catch (final IOException e) {
+            close();
+            throw e;
+        }
+        for (final Loop loop : mLoops) {
+            loop.mThread.start();
+        }
+    }
+
+    /**
+     * Get the number of I/O threads.
+     *
+     * @return int The thread count.
+     */
+    public int getThreadCount() {
+        return mLoops.length;
+    }
+
+    /**
+     * Check if this selector has been closed.
+     *
+     * @return boolean True if closed.
+     */
+    public boolean isClosed() {
+        return mIsClosed;
+    }
+
+    /**
+     * Register a connected channel for reading. The channel is switched to non-blocking mode.
+     *
+     * @param channel {@link SocketChannel} The connected channel.
+     * @param handler {@link ChannelHandler} The handler for the channel's events.
+     * @return {@link Registration} Handle used to request write readiness notifications.
+     * @throws IOException Thrown if the channel could not be configured or this selector is closed.
+     */
+    Registration register(final SocketChannel channel, final ChannelHandler handler) throws IOException {
+        if (mIsClosed) throw new ClosedChannelException();
+        channel.configureBlocking(false);
+        final Loop loop = mLoops[(mNextLoop.getAndIncrement() & 0x7FFFFFFF) % mLoops.length];
+        final Registration registration = new Registration(loop, channel, handler);
+        loop.post(registration::attach);
+        return registration;
+    }
+
+    @Override
+    public void close() {
+        mIsClosed = true;
+        for (final Loop loop : mLoops) {
+            if (loop == null) continue;
+            loop.post(loop::closeAll);
+        }
+    }
+
+    /**
+     * Receiver of the events of a registered channel. All methods are called on the channel's I/O thread.
+     */
+    interface ChannelHandler {
+
+        /**
+         * Called when data has been read.
+         *
+         * @param data   {@code byte}[] Buffer holding the data. Only valid for the duration of the call.
+         * @param offset int The offset of the data.
+         * @param length int The number of bytes read.
+         */
+        void onRead(byte[] data, int offset, int length);
+
+        /**
+         * Called when the channel can accept more data.
+         *
+         * @return boolean True if the handler has more data waiting to be written.
+         * @throws IOException Thrown if writing fails.
+         */
+        boolean onWritable() throws IOException;
+
+        /**
+         * Called once when the channel has reached end of stream, failed or the selector was closed.
+         *
+         * @param cause {@link IOException} The failure, or null for end of stream.
+         */
+        void onClosed(IOException cause);
+    }
+
+    /**
+     * Handle for a channel registered with a loop.
+     */
+    static final class Registration {
+
+        private final Loop mLoop;
+
+        private final SocketChannel mChannel;
+
+        private final ChannelHandler mHandler;
+
+        private SelectionKey mKey;
+
+        private boolean mIsClosed = false;
+
+        private Registration(final Loop loop, final SocketChannel channel, final ChannelHandler handler) {
+            mLoop = loop;
+            mChannel = channel;
+            mHandler = handler;
+        }
+
+        /**
+         * Request a call to {@link ChannelHandler#onWritable()} once the channel can accept data.
+         */
+        void requestWrite() {
+            mLoop.post(() -> {
+                if (mKey != null && mKey.isValid()) {
+                    mKey.interestOps(mKey.interestOps() | SelectionKey.OP_WRITE);
+                }
+            });
+        }
+
+        private void attach() {
+            try {
+                mKey = mChannel.register(mLoop.mSelector, SelectionKey.OP_READ, this);
+            } catch (final IOException e) {
+                closed(e);
+            }
+        }
+
+        private void closed(final IOException cause) {
+            if (mIsClosed) return;
+            mIsClosed = true;
+            if (mKey != null) mKey.cancel();
+            mHandler.onClosed(cause);
+        }
+    }
+
+    /**
+     * A single I/O thread and its selector.
+     */
+    private final class Loop implements Runnable {
+
+        private final Selector mSelector;
+
+        private final Thread mThread;
+
+        private final Queue<Runnable> mPending = new ConcurrentLinkedQueue<>();
+
+        private final ByteBuffer mBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+
+        private final byte[] mScratch = new byte[READ_BUFFER_SIZE];
+
+        private Loop(final String name) throws IOException {
+            mSelector = Selector.open();
+            mThread = new Thread(this, name);
+            mThread.setPriority(THREAD_PRIORITY);
+            mThread.setDaemon(true);
+        }
+
+        private void post(final Runnable task) {
+            mPending.add(task);
+            mSelector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (mSelector.isOpen()) {
+                    mSelector.select();
+                    runPending();
+                    if (!mSelector.isOpen()) break;
+                    final Iterator<SelectionKey> keys = mSelector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        final SelectionKey key = keys.next();
+                        keys.remove();
+                        process(key);
+                    }
+                }
+            } catch (final IOException e) {
+                System.err.println("Tekdaqc selector loop failed: ");
+                e.printStackTrace();
+                closeAll();
+            }
+        }
+
+        private void runPending() {
+            Runnable task;
+            while ((task = mPending.poll()) != null) {
+                task.run();
+            }
+        }
+
+        private void process(final SelectionKey key) {
+            final Registration registration = (Registration) key.attachment();
+            try {
+                if (key.isReadable()) read(registration);
+                if (key.isValid() && key.isWritable() && !registration.mHandler.onWritable()) {
+                    key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+                }
+            } catch (final CancelledKeyException e) {
+                registration.closed(null);
+            } catch (final IOException e) {
+                registration.closed(e);
+            } catch (final RuntimeException e) {
+                System.err.println("Tekdaqc selector absorbing Exception: ");
+                e.printStackTrace();
+            }
+        }
+
+        private void read(final Registration registration) throws IOException {
+            // Drain what is available without starving the other channels of this loop
+            for (int i = 0; i < 4; ++i) {
+                mBuffer.clear();
+                final int read = registration.mChannel.read(mBuffer);
+                if (read < 0) {
+                    registration.closed(null);
+                    return;
+                }
+                if (read == 0) return;
+                mBuffer.flip();
+                mBuffer.get(mScratch, 0, read);
+                registration.mHandler.onRead(mScratch, 0, read);
+                if (read < mBuffer.capacity()) return;
+            }
+        }
+
+        private void closeAll() {
+            for (final SelectionKey key : mSelector.keys()) {
+                final Object attachment = key.attachment();
+                if (attachment instanceof Registration) ((Registration) attachment).closed(null);
+            }
+            try {
+                mSelector.close();
+            } catch (final IOException e) {
+                // Nothing else can be done
+            }
+        }
+    }
+}
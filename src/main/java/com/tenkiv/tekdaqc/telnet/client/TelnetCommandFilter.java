@@ -0,0 +1,85 @@
+package com.tenkiv.tekdaqc.telnet.client;
+
+/**
+ * Removes Telnet command sequences (IAC option negotiation and sub-negotiation) from a raw byte stream, in place.
+ * Transports which do not use a Telnet client use this so that option negotiation sent by the Tekdaqc's Telnet
+ * server does not end up in the first record. The filter keeps its state between chunks, so sequences split across
+ * reads are handled.
+ *
+ * This class is not thread safe and is intended to be driven by a single reading thread.
+ *
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+public final class TelnetCommandFilter {
+
+    private static final int IAC = 0xFF;
+
+    private static final int SB = 0xFA;
+
+    private static final int SE = 0xF0;
+
+    private static final int WILL = 0xFB;
+
+    private static final int DONT = 0xFE;
+
+    private static final int STATE_DATA = 0;
+
+    private static final int STATE_COMMAND = 1;
+
+    private static final int STATE_OPTION = 2;
+
+    private static final int STATE_SUBNEGOTIATION = 3;
+
+    private static final int STATE_SUBNEGOTIATION_COMMAND = 4;
+
+    private int mState = STATE_DATA;
+
+    /**
+     * Remove command sequences from a chunk of data. The remaining data is compacted to the start of the range.
+     *
+     * @param data   {@code byte}[] The buffer holding the data.
+     * @param offset int The offset of the first valid byte.
+     * @param length int The number of valid bytes.
+     * @return int The number of bytes remaining after filtering.
+     */
+    public int filter(final byte[] data, final int offset, final int length) {
+        final int end = offset + length;
+        int write = offset;
+        for (int read = offset; read < end; ++read) {
+            final int b = data[read] & 0xFF;
+            switch (mState) {
+                case STATE_DATA:
+                    if (b == IAC) {
+                        mState = STATE_COMMAND;
+                    } else {
+                        data[write++] = (byte) b;
+                    }
+                    break;
+                case STATE_COMMAND:
+                    if (b == IAC) {
+                        // Escaped data byte
+                        data[write++] = (byte) b;
+                        mState = STATE_DATA;
+                    } else if (b == SB) {
+                        mState = STATE_SUBNEGOTIATION;
+                    } else if (b >= WILL && b <= DONT) {
+                        mState = STATE_OPTION;
+                    } else {
+                        mState = STATE_DATA;
+                    }
+                    break;
+                case STATE_OPTION:
+                    mState = STATE_DATA;
+                    break;
+                case STATE_SUBNEGOTIATION:
+                    if (b == IAC) mState = STATE_SUBNEGOTIATION_COMMAND;
+                    break;
+                default:
+                    mState = (b == SE) ? STATE_DATA : STATE_SUBNEGOTIATION;
+                    break;
+            }
+        }
+        return write - offset;
+    }
+}
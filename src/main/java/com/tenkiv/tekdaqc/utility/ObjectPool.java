@@ -0,0 +1,240 @@
+package com.tenkiv.tekdaqc.utility;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, thread safe pool of reusable instances. Instances are explicitly acquired and must be released once the
+ * caller is finished with them, after which they may be handed out again. The pool never blocks; when it is empty
+ * a new instance is created and when it is full a released instance is left to the garbage collector.
+ *
+ * With leak detection enabled, the pool records where each outstanding instance was acquired. Releasing an instance
+ * which is not outstanding throws, and instances which are garbage collected without having been released are
+ * reported along with their acquisition site. Leak detection is expensive and is intended for debugging; it is
+ * enabled for all pools by the {@code tekdaqc.pool.leakDetection} system property.
+ *
+ * @param <T> The type of pooled instance.
+ * @author Tenkiv (software@tenkiv.com)
+ * @since v2.1.0.0
+ */
+public final class ObjectPool<T> {
+
+    /**
+     * System property which enables leak detection for new pools.
+     */
+    public static final String LEAK_DETECTION_PROPERTY = "tekdaqc.pool.leakDetection";
+
+    /**
+     * Instances available for reuse.
+     */
+    private final ArrayBlockingQueue<T> mFree;
+
+    /**
+     * Creates new instances when the pool is empty.
+     */
+    private final Supplier<T> mFactory;
+
+    /**
+     * Clears the state of released instances. Can be null.
+     */
+    private final Consumer<? super T> mResetter;
+
+    private final LongAdder mCreated = new LongAdder();
+
+    private final LongAdder mLeaks = new LongAdder();
+
+    private volatile boolean mLeakDetection = Boolean.getBoolean(LEAK_DETECTION_PROPERTY);
+
+    /**
+     * Instances which are garbage collected while tracked are enqueued here.
+     */
+    private final ReferenceQueue<T> mCollected = new ReferenceQueue<>();
+
+    /**
+     * Outstanding instances while leak detection is enabled, keyed by identity hash code. Guarded by itself.
+     */
+    private final Map<Integer, List<Tracker<T>>> mOutstanding = new HashMap<>();
+
+    /**
+     * Constructor.
+     *
+     * @param capacity int The maximum number of idle instances retained.
+     * @param factory  {@link Supplier} Creates new instances.
+     * @param resetter {@link Consumer} Clears the state of each released instance. Can be null.
+     */
+    public ObjectPool(final int capacity, final Supplier<T> factory, final Consumer<? super T> resetter) {
+        if (capacity < 1) throw new IllegalArgumentException("Capacity must be positive.");
+        if (factory == null) throw new IllegalArgumentException("Factory cannot be null.");
+        mFree = new ArrayBlockingQueue<>(capacity);
+        mFactory = factory;
+        mResetter = resetter;
+    }
+
+    /**
+     * Take an instance from the pool, creating one if none are available.
+     *
+     * @return T The instance.
+     */
+    public T acquire() {
+        T instance = mFree.poll();
+        if (instance == null) {
+            instance = mFactory.get();
+            mCreated.increment();
+        }
+        if (mLeakDetection) track(instance);
+        return instance;
+    }
+
+    /**
+     * Return an instance to the pool. The caller must not use the instance afterwards.
+     *
+     * @param instance T The instance to return.
+     * @throws IllegalStateException Thrown with leak detection enabled if the instance is not outstanding, such as
+     *                               when it is released twice.
+     */
+    public void release(final T instance) {
+        if (instance == null) throw new IllegalArgumentException("Cannot release null.");
+        if (mLeakDetection && !untrack(instance)) {
+            throw new IllegalStateException("Instance was not acquired from this pool or was already released.");
+        }
+        if (mResetter != null) mResetter.accept(instance);
+        mFree.offer(instance);
+    }
+
+    /**
+     * Enable or disable leak detection. Only instances acquired while leak detection is enabled are tracked.
+     *
+     * @param enabled boolean True to enable leak detection.
+     */
+    public void setLeakDetection(final boolean enabled) {
+        mLeakDetection = enabled;
+        if (!enabled) {
+            synchronized (mOutstanding) {
+                mOutstanding.clear();
+            }
+        }
+    }
+
+    /**
+     * Check if leak detection is enabled.
+     *
+     * @return boolean True if enabled.
+     */
+    public boolean isLeakDetection() {
+        return mLeakDetection;
+    }
+
+    /**
+     * Get the number of instances this pool has created.
+     *
+     * @return long The number of instances created.
+     */
+    public long getCreatedCount() {
+        return mCreated.sum();
+    }
+
+    /**
+     * Get the number of idle instances held for reuse.
+     *
+     * @return int The number of idle instances.
+     */
+    public int getIdleCount() {
+        return mFree.size();
+    }
+
+    /**
+     * Get the number of tracked instances which have been acquired and not yet released. Only available with leak
+     * detection enabled.
+     *
+     * @return int The number of outstanding instances.
+     */
+    public int getOutstandingCount() {
+        synchronized (mOutstanding) {
+            drainCollected();
+            int count = 0;
+            for (final List<Tracker<T>> bucket : mOutstanding.values()) {
+                count += bucket.size();
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Get the number of instances detected to have been garbage collected without being released.
+     *
+     * @return long The number of leaks detected.
+     */
+    public long getLeakCount() {
+        synchronized (mOutstanding) {
+            drainCollected();
+        }
+        return mLeaks.sum();
+    }
+
+    private void track(final T instance) {
+        final Tracker<T> tracker = new Tracker<>(instance, mCollected);
+        synchronized (mOutstanding) {
+            drainCollected();
+            mOutstanding.computeIfAbsent(tracker.mIdentity, key -> new ArrayList<>(1)).add(tracker);
+        }
+    }
+
+    private boolean untrack(final T instance) {
+        final Integer identity = System.identityHashCode(instance);
+        synchronized (mOutstanding) {
+            final List<Tracker<T>> bucket = mOutstanding.get(identity);
+            if (bucket == null) return false;
+            for (final Iterator<Tracker<T>> iterator = bucket.iterator(); iterator.hasNext(); ) {
+                final Tracker<T> tracker = iterator.next();
+                if (tracker.get() == instance) {
+                    iterator.remove();
+                    tracker.clear();
+                    if (bucket.isEmpty()) mOutstanding.remove(identity);
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Report every tracked instance which has been collected while outstanding. Must hold the outstanding lock.
+     */
+    @SuppressWarnings("unchecked")
+    private void drainCollected() {
+        Tracker<T> tracker;
+        while ((tracker = (Tracker<T>) mCollected.poll()) != null) {
+            final List<Tracker<T>> bucket = mOutstanding.get(tracker.mIdentity);
+            if (bucket != null && bucket.remove(tracker)) {
+                if (bucket.isEmpty()) mOutstanding.remove(tracker.mIdentity);
+                mLeaks.increment();
+                System.err.println("ObjectPool leak detected: an instance was not released before it was collected.");
+                tracker.mAcquisition.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Weak reference to an outstanding instance, which remembers where it was acquired.
+     */
+    private static final class Tracker<T> extends WeakReference<T> {
+
+        private final Integer mIdentity;
+
+        private final Throwable mAcquisition = new Throwable("Acquired at");
+
+        private Tracker(final T referent, final ReferenceQueue<? super T> queue) {
+            super(referent, queue);
+            mIdentity = System.identityHashCode(referent);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.tenkiv.tekdaqc.communication.ascii.executors
+
+import com.tenkiv.tekdaqc.communication.executors.AParsingExecutor
+import com.tenkiv.tekdaqc.communication.executors.AParsingExecutor.ParsingOrder
+import com.tenkiv.tekdaqc.communication.executors.IDataRecordSink
+import com.tenkiv.tekdaqc.communication.message.ABoardMessage
+import io.kotlintest.matchers.shouldBe
+import io.kotlintest.specs.ShouldSpec
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+/**
+ * Class to test the ordering guarantees of the parsing executor.
+ */
+class ASCIIParsingExecutorSpec : ShouldSpec({
+
+    val recordCount = 2000
+    val channelCount = 8
+
+    fun parseAll(order: ParsingOrder): OrderRecordingSink {
+        val sink = OrderRecordingSink(recordCount)
+        val executor = ASCIIParsingExecutor(5, order)
+        for (i in 0 until recordCount) {
+            executor.parseMessage("?A${i % channelCount}\r\n${1000 + i},$i".toByteArray(), sink)
+        }
+        sink.latch.await(10, TimeUnit.SECONDS) shouldBe true
+        executor.shutdown()
+        return sink
+    }
+
+    "ASCII Parsing Executor Spec"{
+
+        should("Deliver each channel in order") {
+            val sink = parseAll(ParsingOrder.PER_CHANNEL)
+
+            sink.sequences.size shouldBe recordCount
+            for (channel in 0 until channelCount) {
+                val channelSequences = sink.sequences.filter { it % channelCount == channel.toLong() }
+                channelSequences shouldBe channelSequences.sorted()
+            }
+        }
+
+        should("Deliver the board in order") {
+            val sink = parseAll(ParsingOrder.PER_BOARD)
+
+            sink.sequences shouldBe (0 until recordCount).map { it.toLong() }
+        }
+
+        should("Deliver every record when unordered") {
+            val sink = parseAll(ParsingOrder.UNORDERED)
+
+            sink.sequences.sorted() shouldBe (0 until recordCount).map { it.toLong() }
+        }
+    }
+})
+
+private class OrderRecordingSink(count: Int) : AParsingExecutor.IParsingListener, IDataRecordSink {
+
+    val latch = CountDownLatch(count)
+
+    val sequences: MutableList<Long> = java.util.Collections.synchronizedList(ArrayList<Long>())
+
+    override fun onParsingComplete(message: ABoardMessage) {}
+
+    override fun onMessageDetected(message: String) {}
+
+    override fun onAnalogSample(channel: Int, sequence: Long, timestamp: Long, count: Int) {
+        // The count of each record is its submission index, which must match the assigned sequence
+        if (count.toLong() == sequence) sequences.add(sequence)
+        latch.countDown()
+    }
+
+    override fun onDigitalSample(channel: Int, sequence: Long, timestamp: Long, state: Boolean) {}
+
+    override fun onPWMSample(channel: Int, sequence: Long, timestamp: Long, percentageOn: Double,
+                             totalTransitions: Int) {}
+}
@@ -0,0 +1,99 @@
+package com.tenkiv.tekdaqc.communication.ascii.message.parsing
+
+import com.tenkiv.tekdaqc.TEST_ANALOG_INPUT_DATA
+import com.tenkiv.tekdaqc.TEST_DIGITAL_INPUT_DATA
+import com.tenkiv.tekdaqc.TEST_STATUS_MESSAGE_DATA
+import com.tenkiv.tekdaqc.communication.executors.IDataRecordSink
+import io.kotlintest.matchers.shouldBe
+import io.kotlintest.matchers.shouldThrow
+import io.kotlintest.specs.ShouldSpec
+
+/**
+ * Class to test decoding of data records from raw bytes.
+ */
+class ASCIIDataRecordDecoderSpec : ShouldSpec({
+
+    "ASCII Data Record Decoder Spec"{
+
+        should("Decode analog records") {
+            val sink = RecordingSink()
+            val data = TEST_ANALOG_INPUT_DATA.toByteArray()
+
+            ASCIIDataRecordDecoder.decode(data, 0, data.size, 0, sink) shouldBe true
+            sink.samples shouldBe listOf("A 0 967711311300 -512")
+        }
+
+        should("Decode digital records") {
+            val sink = RecordingSink()
+            val data = TEST_DIGITAL_INPUT_DATA.toByteArray()
+
+            ASCIIDataRecordDecoder.decode(data, 0, data.size, 0, sink) shouldBe true
+            sink.samples shouldBe listOf("D 0 967711311300 false")
+        }
+
+        should("Decode PWM records") {
+            val sink = RecordingSink()
+            val data = "?P3\r\n42,37.5\n967711311300".toByteArray()
+
+            ASCIIDataRecordDecoder.decode(data, 0, data.size, 0, sink) shouldBe true
+            sink.samples shouldBe listOf("P 3 967711311300 37.5 42")
+        }
+
+        should("Decode records within a larger buffer") {
+            val sink = RecordingSink()
+            val data = ("XX\r\n?A12\r\n9677 1131 1300,8388607  " + "YY").toByteArray()
+
+            ASCIIDataRecordDecoder.decode(data, 2, data.size - 4, 0, sink) shouldBe true
+            sink.samples shouldBe listOf("A 12 967711311300 8388607")
+        }
+
+        should("Decline other messages") {
+            val sink = RecordingSink()
+            val data = TEST_STATUS_MESSAGE_DATA.toByteArray()
+
+            ASCIIDataRecordDecoder.isDataRecord(data, 0, data.size) shouldBe false
+            ASCIIDataRecordDecoder.decode(data, 0, data.size, 0, sink) shouldBe false
+            sink.samples.size shouldBe 0
+        }
+
+        should("Fail on malformed records") {
+            val sink = RecordingSink()
+            val data = "?A0\r\n96771x311300,-512".toByteArray()
+
+            ASCIIDataRecordDecoder.isDataRecord(data, 0, data.size) shouldBe true
+            shouldThrow<NumberFormatException> { ASCIIDataRecordDecoder.decode(data, 0, data.size, 0, sink) }
+        }
+
+        should("Key records by type and channel") {
+            val analog = "?A12\r\n967711311300,-512".toByteArray()
+
+            ASCIIDataRecordDecoder.channelKey(analog, 0, analog.size) shouldBe
+                    ASCIIDataRecordDecoder.channelKey("?A12\r\n967711311301,100")
+            (ASCIIDataRecordDecoder.channelKey("?A12\r\n0,0") == ASCIIDataRecordDecoder.channelKey("?D12\r\n0,L")) shouldBe false
+            (ASCIIDataRecordDecoder.channelKey("?A12\r\n0,0") == ASCIIDataRecordDecoder.channelKey("?A13\r\n0,0")) shouldBe false
+            ASCIIDataRecordDecoder.channelKey(TEST_STATUS_MESSAGE_DATA) shouldBe ASCIIDataRecordDecoder.NON_DATA_KEY
+        }
+
+        should("Parse timestamps containing whitespace") {
+            ASCIIDataRecordDecoder.parseLong(" 9677113\t11300\r") shouldBe 967711311300L
+            shouldThrow<NumberFormatException> { ASCIIDataRecordDecoder.parseLong("") }
+        }
+    }
+})
+
+private class RecordingSink : IDataRecordSink {
+
+    val samples = ArrayList<String>()
+
+    override fun onAnalogSample(channel: Int, sequence: Long, timestamp: Long, count: Int) {
+        samples.add("A $channel $timestamp $count")
+    }
+
+    override fun onDigitalSample(channel: Int, sequence: Long, timestamp: Long, state: Boolean) {
+        samples.add("D $channel $timestamp $state")
+    }
+
+    override fun onPWMSample(channel: Int, sequence: Long, timestamp: Long, percentageOn: Double, totalTransitions: Int) {
+        samples.add("P $channel $timestamp $percentageOn $totalTransitions")
+    }
+}
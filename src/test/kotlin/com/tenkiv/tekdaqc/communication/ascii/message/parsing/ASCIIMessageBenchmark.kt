@@ -0,0 +1,64 @@
+package com.tenkiv.tekdaqc.communication.ascii.message.parsing
+
+import com.tenkiv.tekdaqc.TEST_ANALOG_INPUT_DATA
+import com.tenkiv.tekdaqc.TEST_DIGITAL_INPUT_DATA
+import com.tenkiv.tekdaqc.TEST_STATUS_MESSAGE_DATA
+
+/**
+ * Compares message classification by the prefix dispatch table of [ASCIIMessageUtils.parseMessage] against the
+ * previous chain of content searches. This is not run as part of the test suite; run [main] directly.
+ *
+ * Arguments: [records per run] [runs]
+ */
+fun main(args: Array<String>) {
+    val records = args.getOrNull(0)?.toInt() ?: 1000000
+    val runs = args.getOrNull(1)?.toInt() ?: 5
+
+    // A typical stream is almost entirely analog data
+    val mix = Array(records) {
+        when {
+            it % 100 == 0 -> TEST_STATUS_MESSAGE_DATA
+            it % 10 == 0 -> TEST_DIGITAL_INPUT_DATA
+            else -> TEST_ANALOG_INPUT_DATA
+        }
+    }
+
+    val implementations = linkedMapOf<String, (String) -> Any?>(
+            "Classify by content" to { record -> classifyByContent(record) },
+            "Classify by prefix" to { record -> ASCIIMessageUtils.findDecoder(record) },
+            "Parse by content" to { record -> ASCIIMessageUtils.parseMessageByContent(record) },
+            "Parse by prefix" to { record -> ASCIIMessageUtils.parseMessage(record) })
+
+    for (run in 0..runs) {
+        for ((name, parse) in implementations) {
+            var recognized = 0
+            val start = System.nanoTime()
+            for (record in mix) {
+                if (parse(record) != null) ++recognized
+            }
+            val elapsed = System.nanoTime() - start
+            // The first run is a warm up
+            if (run > 0) {
+                println(String.format("%-20s %8.1f ns/record (%d recognized)",
+                        name, elapsed.toDouble() / records, recognized))
+            }
+        }
+    }
+}
+
+/**
+ * The classification performed by [ASCIIMessageUtils.parseMessageByContent], without constructing the message.
+ */
+private fun classifyByContent(record: String): ASCIIMessageUtils.MESSAGE_TYPE? = when {
+    record.contains(ASCIIMessageUtils.DEBUG_MESSAGE_HEADER) -> ASCIIMessageUtils.MESSAGE_TYPE.DEBUG
+    record.contains(ASCIIMessageUtils.STATUS_MESSAGE_HEADER) -> ASCIIMessageUtils.MESSAGE_TYPE.STATUS
+    record.contains(ASCIIMessageUtils.ERROR_MESSAGE_HEADER) -> ASCIIMessageUtils.MESSAGE_TYPE.ERROR
+    record.contains(ASCIIMessageUtils.COMMAND_MESSAGE_HEADER) -> ASCIIMessageUtils.MESSAGE_TYPE.COMMAND_DATA
+    record.contains(ASCIIMessageUtils.V1_ANALOG_INPUT_HEADER)
+            || record.contains(ASCIIMessageUtils.V2_ANALOG_INPUT_HEADER) -> ASCIIMessageUtils.MESSAGE_TYPE.ANALOG_INPUT_DATA
+    record.contains(ASCIIMessageUtils.V1_DIGITAL_INPUT_HEADER)
+            || record.contains(ASCIIMessageUtils.V2_DIGITAL_INPUT_HEADER) -> ASCIIMessageUtils.MESSAGE_TYPE.DIGITAL_INPUT_DATA
+    record.contains(ASCIIMessageUtils.DIGITAL_OUTPUT_HEADER) -> ASCIIMessageUtils.MESSAGE_TYPE.DIGITAL_OUTPUT_DATA
+    record.contains(ASCIIMessageUtils.DIGITAL_PWM_INPUT_HEADER) -> ASCIIMessageUtils.MESSAGE_TYPE.PWM_INPUT_DATA
+    else -> null
+}
@@ -24,5 +24,52 @@ class ASCIIMessageUtilsSpec: ShouldSpec({
 
             (ASCIIMessageUtils.parseMessage(null)) shouldBe null
         }
+
+        should("Classify by prefix before content"){
+
+            (ASCIIMessageUtils.parseMessage("\r\n" + TEST_ANALOG_INPUT_DATA) is ASCIIAnalogInputDataMessage) shouldBe true
+
+            (ASCIIMessageUtils.parseMessage("Status Message\r\nMessage: Debug Message") is ASCIIStatusMessage) shouldBe true
+
+            val fallback = ASCIIMessageUtils.getFallbackCount()
+            (ASCIIMessageUtils.parseMessage("> " + TEST_ERROR_MESSAGE_DATA) is ASCIIErrorMessage) shouldBe true
+            ASCIIMessageUtils.getFallbackCount() shouldBe fallback + 1
+
+            val unrecognized = ASCIIMessageUtils.getUnrecognizedCount()
+            ASCIIMessageUtils.parseMessage("TH1SisSOMEGIBBERISH") shouldBe null
+            ASCIIMessageUtils.getUnrecognizedCount() shouldBe unrecognized + 1
+        }
+
+        should("Recycle data messages when pooling"){
+
+            ASCIIMessageUtils.setMessagePooling(true)
+            val first = ASCIIMessageUtils.parseMessage(TEST_ANALOG_INPUT_DATA) as ASCIIAnalogInputDataMessage
+            ASCIIMessageUtils.returnMessage(first)
+            val second = ASCIIMessageUtils.parseMessage("?A3\r\n100,7") as ASCIIAnalogInputDataMessage
+            ASCIIMessageUtils.setMessagePooling(false)
+
+            (second === first) shouldBe true
+            second.toDataPoints().physicalInput shouldBe 3
+        }
+
+        should("Only recycle messages drawn from the pool"){
+
+            val unpooled = ASCIIMessageUtils.parseMessage(TEST_ANALOG_INPUT_DATA) as ASCIIAnalogInputDataMessage
+            ASCIIMessageUtils.setMessagePooling(true)
+            ASCIIMessageUtils.returnMessage(unpooled)
+            val pooled = ASCIIMessageUtils.parseMessage(TEST_ANALOG_INPUT_DATA) as ASCIIAnalogInputDataMessage
+            ASCIIMessageUtils.returnMessage(pooled)
+            ASCIIMessageUtils.returnMessage(pooled)
+            ASCIIMessageUtils.setMessagePooling(false)
+
+            (pooled === unpooled) shouldBe false
+        }
+
+        should("Use registered decoders"){
+
+            ASCIIMessageUtils.registerMessageDecoder("?X", ASCIIMessageUtils.IMessageDecoder { ASCIIDebugMessage(it) })
+
+            (ASCIIMessageUtils.parseMessage("?X1\r\nMessage: Custom") is ASCIIDebugMessage) shouldBe true
+        }
     }
 })
\ No newline at end of file
@@ -0,0 +1,168 @@
+package com.tenkiv.tekdaqc.communication.binary
+
+import com.tenkiv.tekdaqc.TEST_ANALOG_INPUT_DATA
+import com.tenkiv.tekdaqc.TEST_STATUS_MESSAGE_DATA
+import com.tenkiv.tekdaqc.communication.binary.executors.BinaryFrameSplitter
+import com.tenkiv.tekdaqc.communication.binary.executors.BinaryParsingExecutor
+import com.tenkiv.tekdaqc.communication.command.queue.Commands
+import com.tenkiv.tekdaqc.communication.command.queue.Params
+import com.tenkiv.tekdaqc.communication.executors.AParsingExecutor
+import com.tenkiv.tekdaqc.communication.executors.AParsingExecutor.ParsingOrder
+import com.tenkiv.tekdaqc.communication.executors.IDataRecordSink
+import com.tenkiv.tekdaqc.communication.message.ABoardMessage
+import com.tenkiv.tekdaqc.hardware.ATekdaqc
+import com.tenkiv.tekdaqc.hardware.CommandBuilder
+import io.kotlintest.matchers.shouldBe
+import io.kotlintest.specs.ShouldSpec
+import java.io.ByteArrayOutputStream
+import java.util.Collections
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+/**
+ * Class to test the binary encoding.
+ */
+class BinaryProtocolSpec : ShouldSpec({
+
+    val encoder = BinaryFrameEncoder()
+
+    "Binary Protocol Spec"{
+
+        should("Decode frames split across arbitrary chunks") {
+            val stream = ByteArrayOutputStream()
+            stream.write(encoder.analog(3, longArrayOf(1000, 1010, 1005), intArrayOf(-512, 8388607, -8388608), 0, 3))
+            stream.write(encoder.digital(7, longArrayOf(50, 60), booleanArrayOf(true, false), 0, 2))
+            stream.write(encoder.pwm(1, longArrayOf(99), doubleArrayOf(0.25), intArrayOf(12), 0, 1))
+            stream.write(encoder.text(TEST_STATUS_MESSAGE_DATA))
+            val bytes = stream.toByteArray()
+
+            val sink = RecordingSink(7)
+            val executor = BinaryParsingExecutor(4, ParsingOrder.PER_BOARD)
+            val splitter = BinaryFrameSplitter(object : AParsingExecutor.IParsingListener by sink {
+                override fun onRecordDetected(buffer: ByteArray, offset: Int, length: Int) {
+                    executor.parseMessage(buffer.copyOfRange(offset, offset + length), sink)
+                }
+            })
+            var position = 0
+            var chunk = 1
+            while (position < bytes.size) {
+                val length = minOf(chunk, bytes.size - position)
+                splitter.feed(bytes, position, length)
+                position += length
+                chunk = chunk % 7 + 1
+            }
+
+            sink.latch.await(5, TimeUnit.SECONDS) shouldBe true
+            executor.shutdown()
+            sink.samples shouldBe listOf(
+                    "A 3 0 1000 -512", "A 3 1 1010 8388607", "A 3 2 1005 -8388608",
+                    "D 7 3 50 true", "D 7 4 60 false",
+                    "P 1 5 99 0.25 12",
+                    "M 6")
+        }
+
+        should("Drop corrupt frames and resynchronize") {
+            val good = encoder.analog(0, longArrayOf(5), intArrayOf(42), 0, 1)
+            val corrupt = good.copyOf()
+            corrupt[corrupt.size - 2] = (corrupt[corrupt.size - 2] + 1).toByte()
+            val records = Collections.synchronizedList(ArrayList<Int>())
+            val splitter = BinaryFrameSplitter(object : AParsingExecutor.IParsingListener {
+                override fun onParsingComplete(message: ABoardMessage) {}
+
+                override fun onMessageDetected(message: String) {}
+
+                override fun onRecordDetected(buffer: ByteArray, offset: Int, length: Int) {
+                    records.add(length)
+                }
+            })
+            val stream = byteArrayOf(0x00, 0x11) + corrupt + good
+
+            splitter.feed(stream, 0, stream.size)
+
+            records shouldBe listOf(good.size - 2)
+            splitter.droppedFrames shouldBe 1L
+        }
+
+        should("Recover frames swallowed by a false sync in any chunking") {
+            val good = encoder.analog(0, longArrayOf(5), intArrayOf(42), 0, 1)
+            val header = byteArrayOf(BinaryProtocol.SYNC, BinaryProtocol.TYPE_ANALOG, 0x00, good.size.toByte())
+            val crc = BinaryProtocol.crc8(BinaryProtocol.crc8(0, header, 1, 3), good, 0, good.size)
+            val stream = header + good + (crc + 1).toByte()
+
+            for (chunk in 1..stream.size) {
+                val records = ArrayList<Int>()
+                val splitter = BinaryFrameSplitter(object : AParsingExecutor.IParsingListener {
+                    override fun onParsingComplete(message: ABoardMessage) {}
+
+                    override fun onMessageDetected(message: String) {}
+
+                    override fun onRecordDetected(buffer: ByteArray, offset: Int, length: Int) {
+                        records.add(length)
+                    }
+                })
+                var position = 0
+                while (position < stream.size) {
+                    val length = minOf(chunk, stream.size - position)
+                    splitter.feed(stream, position, length)
+                    position += length
+                }
+
+                records shouldBe listOf(good.size - 2)
+                splitter.droppedFrames shouldBe 1L
+            }
+        }
+
+        should("Encode commands for the current encoding") {
+            val command = CommandBuilder.readAnalogInput(2, 10)
+            val frame = command.generateCommandBytes(ATekdaqc.COMMUNICATION_ENCODING.BINARY)
+
+            frame[0] shouldBe BinaryProtocol.SYNC
+            frame[1] shouldBe BinaryProtocol.TYPE_COMMAND
+            frame[4] shouldBe Commands.READ_ANALOG_INPUT.ordinal.toByte()
+            frame[5] shouldBe 2.toByte()
+            frame[6] shouldBe Params.INPUT.ordinal.toByte()
+            BinaryProtocol.crc8(0, frame, 1, frame.size - 2) shouldBe (frame.last().toInt() and 0xFF)
+            command.generateCommandBytes(ATekdaqc.COMMUNICATION_ENCODING.ASCII).toList() shouldBe
+                    command.generateCommandBytes().toList()
+        }
+
+        should("Be smaller than ASCII for batches") {
+            val count = 100
+            val timestamps = LongArray(count) { 967711311300L + it * 10 }
+            val counts = IntArray(count) { -512 + it }
+            val asciiSize = count * (TEST_ANALOG_INPUT_DATA.length + 1)
+
+            (encoder.analog(0, timestamps, counts, 0, count).size * 4 < asciiSize) shouldBe true
+        }
+    }
+})
+
+private class RecordingSink(count: Int) : AParsingExecutor.IParsingListener, IDataRecordSink {
+
+    val latch = CountDownLatch(count)
+
+    val samples: MutableList<String> = Collections.synchronizedList(ArrayList<String>())
+
+    override fun onParsingComplete(message: ABoardMessage) {
+        samples.add("M ${samples.size}")
+        latch.countDown()
+    }
+
+    override fun onMessageDetected(message: String) {}
+
+    override fun onAnalogSample(channel: Int, sequence: Long, timestamp: Long, count: Int) {
+        samples.add("A $channel $sequence $timestamp $count")
+        latch.countDown()
+    }
+
+    override fun onDigitalSample(channel: Int, sequence: Long, timestamp: Long, state: Boolean) {
+        samples.add("D $channel $sequence $timestamp $state")
+        latch.countDown()
+    }
+
+    override fun onPWMSample(channel: Int, sequence: Long, timestamp: Long, percentageOn: Double,
+                             totalTransitions: Int) {
+        samples.add("P $channel $sequence $timestamp $percentageOn $totalTransitions")
+        latch.countDown()
+    }
+}
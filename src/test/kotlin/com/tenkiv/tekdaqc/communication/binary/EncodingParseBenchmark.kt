@@ -0,0 +1,114 @@
+package com.tenkiv.tekdaqc.communication.binary
+
+import com.tenkiv.tekdaqc.communication.ascii.message.parsing.ASCIIDataRecordDecoder
+import com.tenkiv.tekdaqc.communication.binary.executors.BinaryFrameSplitter
+import com.tenkiv.tekdaqc.communication.binary.message.parsing.BinaryFrameDecoder
+import com.tenkiv.tekdaqc.communication.executors.AParsingExecutor
+import com.tenkiv.tekdaqc.communication.executors.IDataRecordSink
+import com.tenkiv.tekdaqc.communication.executors.IRecordFramer
+import com.tenkiv.tekdaqc.communication.executors.RecordSplitter
+import com.tenkiv.tekdaqc.communication.message.ABoardMessage
+import java.io.ByteArrayOutputStream
+
+/**
+ * Compares the framing and parsing throughput of the two encodings on the same analog samples, spread over 32
+ * channels. The ASCII stream carries one record per sample, and the binary stream batches the samples of each channel
+ * into frames. Both are fed in 1460 byte chunks, as a board's TCP segments would be, and decoded to primitives on the
+ * framing thread, so only framing and parsing are measured. This is not run as part of the test suite; run [main]
+ * directly.
+ *
+ * Arguments: [samples] [samples per binary frame] [runs]
+ */
+fun main(args: Array<String>) {
+    val channels = 32
+    val samples = (args.getOrNull(0)?.toInt() ?: 1000000) / channels * channels
+    val batch = args.getOrNull(1)?.toInt() ?: 10
+    val runs = args.getOrNull(2)?.toInt() ?: 5
+
+    val ascii = StringBuilder()
+    for (i in 0 until samples) ascii.append("?A${i % channels}\r\n${timestamp(i)},${count(i)}\u001E")
+    val asciiBytes = ascii.toString().toByteArray(Charsets.US_ASCII)
+
+    val perChannel = samples / channels
+    val timestamps = Array(channels) { channel -> LongArray(perChannel) { timestamp(it * channels + channel) } }
+    val counts = Array(channels) { channel -> IntArray(perChannel) { count(it * channels + channel) } }
+    val encoder = BinaryFrameEncoder()
+    val binary = ByteArrayOutputStream()
+    for (start in 0 until perChannel step batch) {
+        for (channel in 0 until channels) {
+            binary.write(encoder.analog(channel, timestamps[channel], counts[channel], start,
+                    minOf(batch, perChannel - start)))
+        }
+    }
+    val binaryBytes = binary.toByteArray()
+
+    println(String.format("%d samples: ASCII %.1f bytes/sample, binary %.1f bytes/sample (%d per frame)",
+            samples, asciiBytes.size.toDouble() / samples, binaryBytes.size.toDouble() / samples, batch))
+
+    for (run in 0..runs) {
+        val asciiRate = measure(asciiBytes, false)
+        val binaryRate = measure(binaryBytes, true)
+        // The first run is a warm up
+        if (run > 0) {
+            println(String.format("ASCII %12.0f samples/s   binary %12.0f samples/s   %6.1fx",
+                    asciiRate, binaryRate, binaryRate / asciiRate))
+        }
+    }
+}
+
+private fun timestamp(sample: Int) = 967711311300L + sample / 32
+
+private fun count(sample: Int) = sample % 8388607 - 4194304
+
+/**
+ * Frame and decode [bytes] in 1460 byte chunks, returning the samples decoded per second.
+ */
+private fun measure(bytes: ByteArray, binary: Boolean): Double {
+    val parser = CountingParser(binary)
+    val framer: IRecordFramer = if (binary) BinaryFrameSplitter(parser) else RecordSplitter(parser)
+    val start = System.nanoTime()
+    var offset = 0
+    while (offset < bytes.size) {
+        val length = minOf(1460, bytes.size - offset)
+        framer.feed(bytes, offset, length)
+        offset += length
+    }
+    framer.flush()
+    return parser.samples * 1e9 / (System.nanoTime() - start)
+}
+
+/**
+ * Decodes each framed data record to primitives on the framing thread and counts the samples.
+ */
+private class CountingParser(private val binary: Boolean) : AParsingExecutor.IParsingListener, IDataRecordSink {
+
+    var records = 0L
+
+    var samples = 0L
+
+    override fun onRecordDetected(buffer: ByteArray, offset: Int, length: Int) {
+        ++records
+        if (binary) {
+            BinaryFrameDecoder.decode(buffer, offset, length, records, this)
+        } else {
+            ASCIIDataRecordDecoder.decode(buffer, offset, length, records, this)
+        }
+    }
+
+    override fun onParsingComplete(message: ABoardMessage) {}
+
+    override fun onMessageDetected(message: String) {}
+
+    override fun onAnalogSample(channel: Int, sequence: Long, timestamp: Long, count: Int) {
+        ++samples
+    }
+
+    override fun onDigitalSample(channel: Int, sequence: Long, timestamp: Long, state: Boolean) {
+        ++samples
+    }
+
+    override fun onPWMSample(channel: Int, sequence: Long, timestamp: Long, percentageOn: Double,
+                             totalTransitions: Int) {
+        ++samples
+    }
+}
@@ -0,0 +1,105 @@
+package com.tenkiv.tekdaqc.communication.data_points
+
+import com.tenkiv.tekdaqc.communication.executors.AParsingExecutor.ParsingOrder
+import com.tenkiv.tekdaqc.hardware.Tekdaqc_RevD
+import com.tenkiv.tekdaqc.locator.getSimulatedLocatorResponse
+import io.kotlintest.matchers.shouldBe
+import io.kotlintest.matchers.shouldThrow
+import io.kotlintest.specs.ShouldSpec
+import java.util.concurrent.atomic.AtomicBoolean
+import kotlin.concurrent.thread
+
+/**
+ * Class to test channel history ring buffers.
+ */
+class ChannelHistorySpec : ShouldSpec({
+
+    "Channel History Spec"{
+
+        should("Read the latest samples oldest first") {
+            val history = ChannelHistory(4)
+            val timestamps = LongArray(8)
+            val values = IntArray(8)
+
+            history.readLatest(timestamps, values) shouldBe 0
+            for (i in 0 until 6) history.add(100L + i, i * 10)
+
+            history.readLatest(timestamps, values) shouldBe 4
+            timestamps.take(4) shouldBe listOf(102L, 103L, 104L, 105L)
+            values.take(4) shouldBe listOf(20, 30, 40, 50)
+
+            history.readLatest(LongArray(2), IntArray(2)) shouldBe 2
+            history.writtenCount shouldBe 6L
+        }
+
+        should("Follow a channel by sequence number") {
+            val history = ChannelHistory(4)
+            val timestamps = LongArray(3)
+            val values = IntArray(3)
+
+            for (i in 0 until 3) history.add(i.toLong(), i)
+            history.readFrom(0, timestamps, values) shouldBe 3
+            history.readFrom(3, timestamps, values) shouldBe 0
+
+            for (i in 3 until 5) history.add(i.toLong(), i)
+            history.readFrom(3, timestamps, values) shouldBe 2
+            values.take(2) shouldBe listOf(3, 4)
+
+            for (i in 5 until 10) history.add(i.toLong(), i)
+            history.readFrom(5, timestamps, values) shouldBe -1
+            history.readFrom(6, timestamps, values) shouldBe 3
+            values.toList() shouldBe listOf(6, 7, 8)
+        }
+
+        should("Give readers consistent samples while the writer runs") {
+            val history = ChannelHistory(64)
+            val running = AtomicBoolean(true)
+            val writer = thread {
+                var sequence = 0L
+                while (running.get()) {
+                    history.add(sequence, sequence.toInt())
+                    ++sequence
+                }
+            }
+
+            var consistent = true
+            val timestamps = LongArray(64)
+            val values = IntArray(64)
+            for (read in 0 until 100000) {
+                val length = history.readLatest(timestamps, values)
+                for (i in 0 until length) {
+                    if (values[i] != timestamps[i].toInt()) consistent = false
+                    if (i > 0 && timestamps[i] != timestamps[i - 1] + 1) consistent = false
+                }
+            }
+            running.set(false)
+            writer.join()
+
+            consistent shouldBe true
+        }
+
+        should("Record broadcast samples") {
+            val tekdaqc = Tekdaqc_RevD(getSimulatedLocatorResponse())
+            val history = tekdaqc.enableSampleHistory(16)
+
+            for (i in 0 until 3) {
+                tekdaqc.messageBroadcaster.broadcastAnalogInputDataPoint(
+                        tekdaqc, AnalogInputCountData(5, null, i.toLong(), 1000 + i))
+            }
+            tekdaqc.messageBroadcaster.broadcastDigitalInputDataPoint(tekdaqc, DigitalInputData(2, null, 7, true))
+
+            val values = IntArray(16)
+            history.getAnalog(5)!!.readLatest(LongArray(16), values) shouldBe 3
+            values.take(3) shouldBe listOf(1000, 1001, 1002)
+            history.getDigital(2)!!.readLatest(LongArray(1), values) shouldBe 1
+            values[0] shouldBe 1
+            history.getAnalog(99) shouldBe null
+        }
+
+        should("Refuse history with unordered parsing") {
+            val tekdaqc = Tekdaqc_RevD(getSimulatedLocatorResponse())
+            tekdaqc.enableSampleHistory(16)
+            shouldThrow<IllegalStateException> { tekdaqc.parsingOrder = ParsingOrder.UNORDERED }
+        }
+    }
+})
@@ -0,0 +1,87 @@
+package com.tenkiv.tekdaqc.communication.data_points
+
+import com.tenkiv.tekdaqc.hardware.Tekdaqc_RevD
+import com.tenkiv.tekdaqc.locator.getSimulatedLocatorResponse
+import io.kotlintest.matchers.shouldBe
+import io.kotlintest.specs.ShouldSpec
+import java.util.concurrent.atomic.AtomicBoolean
+import kotlin.concurrent.thread
+
+/**
+ * Class to test the latest value table.
+ */
+class LatestValueTableSpec : ShouldSpec({
+
+    "Latest Value Table Spec"{
+
+        should("Publish the latest value of each channel") {
+            val table = LatestValueTable()
+            val tekdaqc = Tekdaqc_RevD(getSimulatedLocatorResponse())
+            tekdaqc.latestValueTable = table
+            val broadcaster = tekdaqc.messageBroadcaster
+
+            broadcaster.broadcastAnalogInputDataPoint(tekdaqc, AnalogInputCountData(4, null, 10, 100))
+            broadcaster.broadcastAnalogInputDataPoint(tekdaqc, AnalogInputCountData(4, null, 11, 200))
+            broadcaster.broadcastDigitalInputDataPoint(tekdaqc, DigitalInputData(1, null, 12, true))
+            broadcaster.broadcastPWMInputDataPoint(tekdaqc, PWMInputData(2, null, 13, 42.5, 7))
+
+            val board = table.getBoard(tekdaqc.serialNumber)!!
+            val sample = LatestSample()
+
+            board.readAnalog(4, sample) shouldBe true
+            sample.count shouldBe 200
+            sample.timestamp shouldBe 11L
+            sample.volts shouldBe 200 * tekdaqc.getAnalogInput(4).voltsPerCount
+            sample.version shouldBe 2L
+
+            board.readDigital(1, sample) shouldBe true
+            sample.level shouldBe true
+
+            board.readPWM(2, sample) shouldBe true
+            sample.percentageOn shouldBe 42.5
+            sample.totalTransitions shouldBe 7
+
+            board.readAnalog(5, sample) shouldBe false
+            board.getAnalogVersion(5) shouldBe 0L
+        }
+
+        should("Remove a board when it stops publishing") {
+            val table = LatestValueTable()
+            val tekdaqc = Tekdaqc_RevD(getSimulatedLocatorResponse())
+            tekdaqc.latestValueTable = table
+            table.boards.size shouldBe 1
+
+            tekdaqc.latestValueTable = null
+            table.boards.size shouldBe 0
+            table.getBoard(tekdaqc.serialNumber) shouldBe null
+        }
+
+        should("Give readers consistent values while writers run") {
+            val board = LatestValueTable().register("test")
+            val running = AtomicBoolean(true)
+            val writers = (0 until 2).map {
+                thread {
+                    var i = 0
+                    while (running.get()) {
+                        board.putAnalog(3, i.toLong(), i, i * 2.0)
+                        ++i
+                    }
+                }
+            }
+
+            var consistent = true
+            val sample = LatestSample()
+            for (read in 0 until 100000) {
+                if (board.readAnalog(3, sample)) {
+                    if (sample.timestamp != sample.count.toLong() || sample.volts != sample.count * 2.0) {
+                        consistent = false
+                    }
+                }
+            }
+            running.set(false)
+            writers.forEach { it.join() }
+
+            consistent shouldBe true
+        }
+    }
+})
@@ -0,0 +1,131 @@
+package com.tenkiv.tekdaqc.communication.executors
+
+import com.tenkiv.tekdaqc.communication.executors.DeliveryLane.OverflowPolicy
+import io.kotlintest.matchers.shouldBe
+import io.kotlintest.specs.ShouldSpec
+import java.util.Collections
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executor
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import kotlin.concurrent.thread
+
+/**
+ * Class to test bounded delivery lanes.
+ */
+class DeliveryLaneSpec : ShouldSpec({
+
+    /**
+     * Executor which only runs its tasks when asked to.
+     */
+    class ManualExecutor : Executor {
+        val tasks = ArrayList<Runnable>()
+
+        override fun execute(command: Runnable) {
+            tasks.add(command)
+        }
+
+        fun runAll() {
+            while (tasks.isNotEmpty()) tasks.removeAt(0).run()
+        }
+    }
+
+    "Delivery Lane Spec"{
+
+        should("Deliver in order on a shared pool") {
+            val pool = Executors.newFixedThreadPool(4)
+            val lane = DeliveryLane(pool, 16, OverflowPolicy.BLOCK)
+            val delivered = Collections.synchronizedList(ArrayList<Int>())
+            val latch = CountDownLatch(1000)
+
+            for (i in 0 until 1000) lane.offer(null, Runnable { delivered.add(i); latch.countDown() })
+
+            latch.await(5, TimeUnit.SECONDS) shouldBe true
+            delivered shouldBe (0 until 1000).toList()
+            lane.metrics.delivered shouldBe 1000L
+            lane.metrics.dropped shouldBe 0L
+            pool.shutdown()
+        }
+
+        should("Drop the oldest deliveries when full") {
+            val executor = ManualExecutor()
+            val lane = DeliveryLane(executor, 3, OverflowPolicy.DROP_OLDEST)
+            val delivered = ArrayList<Int>()
+
+            for (i in 0 until 5) lane.offer(null, Runnable { delivered.add(i) })
+            lane.metrics.pending shouldBe 3
+            executor.runAll()
+
+            delivered shouldBe listOf(2, 3, 4)
+            lane.metrics.dropped shouldBe 2L
+        }
+
+        should("Coalesce deliveries with the same key") {
+            val executor = ManualExecutor()
+            val lane = DeliveryLane(executor, 8, OverflowPolicy.COALESCE)
+            val delivered = ArrayList<String>()
+
+            lane.offer("a", Runnable { delivered.add("a1") })
+            lane.offer("b", Runnable { delivered.add("b1") })
+            lane.offer("a", Runnable { delivered.add("a2") })
+            lane.offer(null, Runnable { delivered.add("unique") })
+            executor.runAll()
+
+            delivered shouldBe listOf("a2", "b1", "unique")
+            lane.metrics.coalesced shouldBe 1L
+        }
+
+        should("Never drop or coalesce lossless deliveries") {
+            val executor = ManualExecutor()
+            val lane = DeliveryLane(executor, 2, OverflowPolicy.COALESCE)
+            val delivered = ArrayList<String>()
+
+            lane.offerLossless(Runnable { delivered.add("status1") })
+            lane.offer("debug", Runnable { delivered.add("debug1") })
+            lane.offerLossless(Runnable { delivered.add("status2") })
+            lane.offerLossless(Runnable { delivered.add("status3") })
+            lane.offer("debug", Runnable { delivered.add("debug2") })
+            lane.metrics.pending shouldBe 3
+            executor.runAll()
+
+            delivered shouldBe listOf("status1", "status2", "status3")
+            lane.metrics.dropped shouldBe 2L
+            lane.metrics.coalesced shouldBe 0L
+        }
+
+        should("Block until the subscriber makes room") {
+            val executor = ManualExecutor()
+            val lane = DeliveryLane(executor, 1, OverflowPolicy.BLOCK)
+            val delivered = Collections.synchronizedList(ArrayList<Int>())
+            val offered = CountDownLatch(1)
+
+            lane.offer(null, Runnable { delivered.add(0) })
+            val producer = thread {
+                lane.offer(null, Runnable { delivered.add(1) })
+                offered.countDown()
+            }
+
+            offered.await(200, TimeUnit.MILLISECONDS) shouldBe false
+            executor.tasks.removeAt(0).run()
+            offered.await(5, TimeUnit.SECONDS) shouldBe true
+            producer.join()
+            executor.runAll()
+
+            delivered shouldBe listOf(0, 1)
+        }
+
+        should("Discard deliveries once closed") {
+            val executor = ManualExecutor()
+            val lane = DeliveryLane(executor, 4, OverflowPolicy.BLOCK)
+            var delivered = 0
+
+            lane.offer(null, Runnable { delivered++ })
+            lane.close()
+            lane.offer(null, Runnable { delivered++ })
+            executor.runAll()
+
+            delivered shouldBe 0
+            lane.metrics.pending shouldBe 0
+        }
+    }
+})
@@ -0,0 +1,84 @@
+package com.tenkiv.tekdaqc.communication.executors
+
+import com.tenkiv.tekdaqc.TEST_ANALOG_INPUT_DATA
+import com.tenkiv.tekdaqc.TEST_DIGITAL_INPUT_DATA
+import com.tenkiv.tekdaqc.TEST_STATUS_MESSAGE_DATA
+import com.tenkiv.tekdaqc.communication.message.ABoardMessage
+import io.kotlintest.matchers.shouldBe
+import io.kotlintest.specs.ShouldSpec
+
+/**
+ * Class to test framing of the raw data stream.
+ */
+class RecordSplitterSpec : ShouldSpec({
+
+    val separator = String(byteArrayOf(RecordSplitter.RECORD_SEPARATOR))
+
+    val stream = (TEST_ANALOG_INPUT_DATA + separator +
+            TEST_DIGITAL_INPUT_DATA + separator +
+            TEST_STATUS_MESSAGE_DATA + separator).toByteArray()
+
+    "Record Splitter Spec"{
+
+        should("Split records in a single chunk") {
+            val listener = RecordingListener()
+            val splitter = RecordSplitter(listener)
+            splitter.feed(stream, 0, stream.size)
+
+            listener.records shouldBe listOf(TEST_ANALOG_INPUT_DATA, TEST_DIGITAL_INPUT_DATA, TEST_STATUS_MESSAGE_DATA)
+            splitter.pendingLength shouldBe 0
+        }
+
+        should("Reassemble records split across chunks") {
+            val listener = RecordingListener()
+            val splitter = RecordSplitter(listener, 4)
+            stream.forEach { splitter.feed(byteArrayOf(it), 0, 1) }
+
+            listener.records shouldBe listOf(TEST_ANALOG_INPUT_DATA, TEST_DIGITAL_INPUT_DATA, TEST_STATUS_MESSAGE_DATA)
+        }
+
+        should("Respect offsets into the source buffer") {
+            val listener = RecordingListener()
+            val splitter = RecordSplitter(listener)
+            val padded = byteArrayOf(0x01, 0x02) + stream + byteArrayOf(0x03)
+            splitter.feed(padded, 2, stream.size)
+
+            listener.records.size shouldBe 3
+            listener.records[0] shouldBe TEST_ANALOG_INPUT_DATA
+        }
+
+        should("Skip empty records") {
+            val listener = RecordingListener()
+            val splitter = RecordSplitter(listener)
+            val data = (separator + separator + TEST_ANALOG_INPUT_DATA + separator).toByteArray()
+            splitter.feed(data, 0, data.size)
+
+            listener.records shouldBe listOf(TEST_ANALOG_INPUT_DATA)
+        }
+
+        should("Deliver trailing data on flush") {
+            val listener = RecordingListener()
+            val splitter = RecordSplitter(listener)
+            val data = TEST_ANALOG_INPUT_DATA.toByteArray()
+            splitter.feed(data, 0, data.size)
+
+            listener.records.size shouldBe 0
+            splitter.pendingLength shouldBe data.size
+
+            splitter.flush()
+            listener.records shouldBe listOf(TEST_ANALOG_INPUT_DATA)
+            splitter.pendingLength shouldBe 0
+        }
+    }
+})
+
+private class RecordingListener : AParsingExecutor.IParsingListener {
+
+    val records = ArrayList<String>()
+
+    override fun onParsingComplete(message: ABoardMessage) {}
+
+    override fun onMessageDetected(message: String) {
+        records.add(message)
+    }
+}
@@ -0,0 +1,64 @@
+package com.tenkiv.tekdaqc.communication.executors
+
+import com.tenkiv.tekdaqc.hardware.Tekdaqc_RevD
+import com.tenkiv.tekdaqc.locator.getSimulatedLocatorResponse
+import io.kotlintest.matchers.shouldBe
+import io.kotlintest.matchers.shouldThrow
+import io.kotlintest.specs.ShouldSpec
+import java.util.Collections
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+/**
+ * Class to test the shared execution runtime.
+ */
+class TekdaqcExecutionRuntimeSpec : ShouldSpec({
+
+    "Tekdaqc Execution Runtime Spec"{
+
+        should("Track work per board") {
+            val runtime = TekdaqcExecutionRuntime(2, 1)
+            val boardA = Tekdaqc_RevD(getSimulatedLocatorResponse())
+            val boardB = Tekdaqc_RevD(getSimulatedLocatorResponse())
+
+            val latch = CountDownLatch(3)
+            repeat(3) { runtime.getParsingExecutor(boardA).execute { Thread.sleep(5); latch.countDown() } }
+            latch.await(5, TimeUnit.SECONDS) shouldBe true
+            runtime.recordBytesRead(boardB, 128)
+
+            Thread.sleep(50)
+            val utilization = runtime.getUtilization(boardA)
+            utilization.parsingRuns shouldBe 3L
+            (utilization.parsingBusyNanos >= TimeUnit.MILLISECONDS.toNanos(15)) shouldBe true
+            runtime.getUtilization(boardB).bytesRead shouldBe 128L
+            runtime.utilizationReport.size shouldBe 2
+
+            runtime.release(boardA)
+            runtime.getUtilization(boardA) shouldBe null
+            runtime.shutdown()
+        }
+
+        should("Write commands for a board in order") {
+            val runtime = TekdaqcExecutionRuntime(1, 4)
+            val board = Tekdaqc_RevD(getSimulatedLocatorResponse())
+            val written = Collections.synchronizedList(ArrayList<Int>())
+            val latch = CountDownLatch(100)
+
+            for (i in 0 until 100) {
+                runtime.getCommandExecutor(board).execute { written.add(i); latch.countDown() }
+            }
+            latch.await(5, TimeUnit.SECONDS) shouldBe true
+
+            written shouldBe (0 until 100).toList()
+            runtime.getUtilization(board).commandWrites shouldBe 100L
+            runtime.shutdown()
+        }
+
+        should("Share the default runtime") {
+            val board = Tekdaqc_RevD(getSimulatedLocatorResponse())
+
+            board.executionRuntime shouldBe TekdaqcExecutionRuntime.getDefault()
+            shouldThrow<IllegalStateException> { TekdaqcExecutionRuntime.getDefault().shutdown() }
+        }
+    }
+})
@@ -0,0 +1,78 @@
+package com.tenkiv.tekdaqc.communication.message
+
+import com.tenkiv.tekdaqc.communication.data_points.AnalogInputCountData
+import com.tenkiv.tekdaqc.communication.data_points.DigitalInputData
+import com.tenkiv.tekdaqc.hardware.Tekdaqc_RevD
+import com.tenkiv.tekdaqc.locator.getSimulatedLocatorResponse
+import io.kotlintest.matchers.shouldBe
+import io.kotlintest.specs.ShouldSpec
+
+/**
+ * Class to test deadband and change-only delivery.
+ */
+class ChangeFilterSpec : ShouldSpec({
+
+    /**
+     * Broadcast a sample with each count on channel 3.
+     */
+    fun Tekdaqc_RevD.broadcastCounts(vararg counts: Int) {
+        counts.forEachIndexed { i, count ->
+            messageBroadcaster.broadcastAnalogInputDataPoint(this, AnalogInputCountData(3, null, i.toLong(), count))
+        }
+    }
+
+    "Change Filter Spec"{
+
+        should("Deliver counts outside an absolute deadband") {
+            val tekdaqc = Tekdaqc_RevD(getSimulatedLocatorResponse())
+            val counts = ArrayList<Int>()
+            tekdaqc.addAnalogCountListener(ICountListener { _, count -> counts.add(count) },
+                    tekdaqc.getAnalogInput(3), Deadband.counts(10))
+
+            tekdaqc.broadcastCounts(100, 105, 109, 110, 101, 100, 90, 90)
+
+            counts shouldBe listOf(100, 110, 100, 90)
+        }
+
+        should("Deliver counts outside a percent deadband") {
+            val tekdaqc = Tekdaqc_RevD(getSimulatedLocatorResponse())
+            val counts = ArrayList<Int>()
+            tekdaqc.addAnalogCountListener(ICountListener { _, count -> counts.add(count) },
+                    tekdaqc.getAnalogInput(3), Deadband.percent(5.0))
+
+            tekdaqc.broadcastCounts(-1000, -1040, -1060, -1100, -1120, -1000)
+
+            counts shouldBe listOf(-1000, -1060, -1120, -1000)
+        }
+
+        should("Deliver voltages outside a voltage deadband") {
+            val tekdaqc = Tekdaqc_RevD(getSimulatedLocatorResponse())
+            val input = tekdaqc.getAnalogInput(3)
+            val volts = ArrayList<Double>()
+            tekdaqc.addAnalogPrimitiveVoltageListener(IPrimitiveVoltageListener { _, _, value -> volts.add(value) },
+                    input, Deadband.volts(100 * input.voltsPerCount))
+
+            tekdaqc.broadcastCounts(0, 50, 99, 100, 150)
+
+            volts shouldBe listOf(0.0, 100 * input.voltsPerCount)
+        }
+
+        should("Deliver only changes of digital level") {
+            val tekdaqc = Tekdaqc_RevD(getSimulatedLocatorResponse())
+            val input = tekdaqc.getDigitalInput(5)
+            val states = ArrayList<Boolean>()
+            val listener = IDigitalChannelListener { _, data -> states.add(data.state) }
+            tekdaqc.addDigitalChangeListener(listener, input)
+
+            listOf(false, false, true, true, true, false, false).forEachIndexed { i, state ->
+                tekdaqc.messageBroadcaster.broadcastDigitalInputDataPoint(
+                        tekdaqc, DigitalInputData(5, null, i.toLong(), state))
+            }
+            states shouldBe listOf(false, true, false)
+
+            tekdaqc.removeDigitalChannelListener(input, listener)
+            tekdaqc.messageBroadcaster.broadcastDigitalInputDataPoint(tekdaqc, DigitalInputData(5, null, 9, true))
+            states shouldBe listOf(false, true, false)
+        }
+    }
+})
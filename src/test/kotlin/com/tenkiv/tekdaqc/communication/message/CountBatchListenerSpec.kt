@@ -0,0 +1,76 @@
+package com.tenkiv.tekdaqc.communication.message
+
+import com.tenkiv.tekdaqc.communication.data_points.AnalogInputCountData
+import com.tenkiv.tekdaqc.hardware.AAnalogInput
+import com.tenkiv.tekdaqc.hardware.Tekdaqc_RevD
+import com.tenkiv.tekdaqc.locator.getSimulatedLocatorResponse
+import io.kotlintest.matchers.shouldBe
+import io.kotlintest.specs.ShouldSpec
+import java.util.Collections
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+/**
+ * Class to test batched delivery of analog counts.
+ */
+class CountBatchListenerSpec : ShouldSpec({
+
+    "Count Batch Listener Spec"{
+
+        should("Deliver full batches in order") {
+            val tekdaqc = Tekdaqc_RevD(getSimulatedLocatorResponse())
+            val listener = RecordingBatchListener()
+            tekdaqc.addAnalogCountBatchListener(listener, tekdaqc.getAnalogInput(1), 4, 1, TimeUnit.HOURS)
+
+            for (i in 0 until 10) {
+                tekdaqc.messageBroadcaster.broadcastAnalogInputDataPoint(
+                        tekdaqc, AnalogInputCountData(1, null, 1000L + i, i))
+            }
+
+            listener.batchLengths shouldBe listOf(4, 4)
+            listener.counts shouldBe (0 until 8).toList()
+            listener.timestamps.first() shouldBe 1000L
+
+            tekdaqc.removeAnalogCountBatchListener(tekdaqc.getAnalogInput(1), listener)
+            listener.batchLengths shouldBe listOf(4, 4, 2)
+            listener.counts shouldBe (0 until 10).toList()
+        }
+
+        should("Deliver partial batches after the maximum latency") {
+            val tekdaqc = Tekdaqc_RevD(getSimulatedLocatorResponse())
+            val listener = RecordingBatchListener()
+            tekdaqc.addAnalogCountBatchListener(listener, tekdaqc.getAnalogInput(2), 1000, 20, TimeUnit.MILLISECONDS)
+
+            repeat(3) {
+                tekdaqc.messageBroadcaster.broadcastAnalogInputDataPoint(
+                        tekdaqc, AnalogInputCountData(2, null, 1000L, it))
+            }
+            tekdaqc.messageBroadcaster.broadcastAnalogInputDataPoint(
+                    tekdaqc, AnalogInputCountData(3, null, 1000L, 99))
+
+            listener.delivered.await(2, TimeUnit.SECONDS) shouldBe true
+            listener.batchLengths shouldBe listOf(3)
+            tekdaqc.removeAnalogCountBatchListener(tekdaqc.getAnalogInput(2), listener)
+        }
+    }
+})
+
+private class RecordingBatchListener : ICountBatchListener {
+
+    val delivered = CountDownLatch(1)
+
+    val batchLengths: MutableList<Int> = Collections.synchronizedList(ArrayList<Int>())
+
+    val counts: MutableList<Int> = Collections.synchronizedList(ArrayList<Int>())
+
+    val timestamps: MutableList<Long> = Collections.synchronizedList(ArrayList<Long>())
+
+    override fun onAnalogCountBatch(input: AAnalogInput, timestamps: LongArray, counts: IntArray, length: Int) {
+        batchLengths.add(length)
+        for (i in 0 until length) {
+            this.counts.add(counts[i])
+            this.timestamps.add(timestamps[i])
+        }
+        delivered.countDown()
+    }
+}
@@ -0,0 +1,95 @@
+package com.tenkiv.tekdaqc.communication.message
+
+import com.tenkiv.tekdaqc.communication.data_points.AnalogInputCountData
+import com.tenkiv.tekdaqc.hardware.Tekdaqc_RevD
+import com.tenkiv.tekdaqc.locator.getSimulatedLocatorResponse
+import io.kotlintest.matchers.shouldBe
+import io.kotlintest.matchers.shouldThrow
+import io.kotlintest.specs.ShouldSpec
+import java.util.concurrent.TimeUnit
+
+/**
+ * Class to test decimated delivery of analog samples.
+ */
+class DecimationSpec : ShouldSpec({
+
+    /**
+     * Broadcast a sample for each timestamp and count pair on channel 2.
+     */
+    fun Tekdaqc_RevD.broadcast(vararg samples: Pair<Long, Int>) {
+        for ((timestamp, count) in samples) {
+            messageBroadcaster.broadcastAnalogInputDataPoint(this, AnalogInputCountData(2, null, timestamp, count))
+        }
+    }
+
+    "Decimation Spec"{
+
+        should("Deliver every Nth sample") {
+            val tekdaqc = Tekdaqc_RevD(getSimulatedLocatorResponse())
+            val counts = ArrayList<Int>()
+            tekdaqc.addAnalogCountListener(ICountListener { _, count -> counts.add(count) },
+                    tekdaqc.getAnalogInput(2), Decimation.everyNth(3))
+
+            tekdaqc.broadcast(*Array(10) { it.toLong() to it })
+
+            counts shouldBe listOf(0, 3, 6, 9)
+        }
+
+        should("Limit the rate of delivered samples") {
+            val tekdaqc = Tekdaqc_RevD(getSimulatedLocatorResponse())
+            val timestamps = ArrayList<Long>()
+            tekdaqc.addAnalogPrimitiveVoltageListener(IPrimitiveVoltageListener { _, timestamp, _ ->
+                timestamps.add(timestamp)
+            }, tekdaqc.getAnalogInput(2), Decimation.maxRate(10.0))
+
+            tekdaqc.broadcast(*Array(50) { (1000L + it * 7) to it })
+
+            timestamps shouldBe listOf(1000L, 1105L, 1210L, 1315L)
+        }
+
+        should("Deliver the extremes of each window in time order") {
+            val tekdaqc = Tekdaqc_RevD(getSimulatedLocatorResponse())
+            val counts = ArrayList<Int>()
+            tekdaqc.addAnalogCountListener(ICountListener { _, count -> counts.add(count) },
+                    tekdaqc.getAnalogInput(2), Decimation.minMaxPerWindow(100, TimeUnit.MILLISECONDS))
+
+            tekdaqc.broadcast(100L to 5, 120L to 9, 150L to 1, 199L to 4,
+                    200L to 7, 250L to 7,
+                    300L to 3)
+
+            counts shouldBe listOf(9, 1, 7)
+        }
+
+        should("Convert only the surviving samples to voltages") {
+            val tekdaqc = Tekdaqc_RevD(getSimulatedLocatorResponse())
+            val input = tekdaqc.getAnalogInput(2)
+            val volts = ArrayList<Double>()
+            tekdaqc.addAnalogVoltageListener(IVoltageListener { _, value ->
+                volts.add(value.value.value.toDouble())
+            }, input, Decimation.everyNth(2))
+
+            tekdaqc.broadcast(0L to 100, 1L to 200, 2L to 300)
+
+            volts shouldBe listOf(100 * input.voltsPerCount, 300 * input.voltsPerCount)
+        }
+
+        should("Stop delivery once removed") {
+            val tekdaqc = Tekdaqc_RevD(getSimulatedLocatorResponse())
+            val input = tekdaqc.getAnalogInput(2)
+            val counts = ArrayList<Int>()
+            val listener = ICountListener { _, count -> counts.add(count) }
+            tekdaqc.addAnalogCountListener(listener, input, Decimation.everyNth(1))
+
+            tekdaqc.broadcast(0L to 1)
+            tekdaqc.removeAnalogCountListener(input, listener)
+            tekdaqc.broadcast(1L to 2)
+
+            counts shouldBe listOf(1)
+        }
+
+        should("Reject periods finer than the timestamps") {
+            shouldThrow<IllegalArgumentException> { Decimation.maxRate(5000.0) }
+            shouldThrow<IllegalArgumentException> { Decimation.everyNth(0) }
+        }
+    }
+})
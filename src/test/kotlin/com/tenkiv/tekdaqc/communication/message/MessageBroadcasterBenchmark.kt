@@ -0,0 +1,80 @@
+package com.tenkiv.tekdaqc.communication.message
+
+import com.tenkiv.tekdaqc.communication.data_points.AnalogInputCountData
+import com.tenkiv.tekdaqc.hardware.Tekdaqc_RevD
+import com.tenkiv.tekdaqc.locator.getSimulatedLocatorResponse
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicLong
+import kotlin.concurrent.thread
+
+/**
+ * Measures the broadcast throughput of [MessageBroadcaster] when many threads broadcast to the same channel while
+ * another thread keeps registering and removing a listener. This is not run as part of the test suite; run [main]
+ * directly.
+ *
+ * Arguments: [listeners per channel] [broadcasts per thread]
+ */
+fun main(args: Array<String>) {
+    val listenerCount = args.getOrNull(0)?.toInt() ?: 4
+    val broadcasts = args.getOrNull(1)?.toInt() ?: 2000000
+
+    val tekdaqc = Tekdaqc_RevD(getSimulatedLocatorResponse())
+    val broadcaster = tekdaqc.messageBroadcaster
+    val input = tekdaqc.getAnalogInput(0)
+    val sink = AtomicLong()
+    repeat(listenerCount) {
+        broadcaster.addAnalogChannelListener(tekdaqc, input, ICountListener { _, count -> sink.lazySet(count.toLong()) })
+    }
+
+    // Warm up before measuring
+    measure(broadcaster, tekdaqc, 2, broadcasts / 10)
+
+    for (threads in intArrayOf(1, 2, 4, 8, 16)) {
+        val (broadcastsPerSecond, registrations) = measure(broadcaster, tekdaqc, threads, broadcasts)
+        println(String.format("%2d threads %12.0f broadcasts/s   %8d registrations during run",
+                threads, broadcastsPerSecond, registrations))
+    }
+}
+
+/**
+ * Broadcast from [threads] threads at once while churning a listener registration.
+ *
+ * @return The aggregate broadcasts per second, and the number of registrations completed meanwhile.
+ */
+private fun measure(broadcaster: MessageBroadcaster,
+                    tekdaqc: Tekdaqc_RevD,
+                    threads: Int,
+                    broadcasts: Int): Pair<Double, Long> {
+    val input = tekdaqc.getAnalogInput(0)
+    val start = CountDownLatch(1)
+    val done = CountDownLatch(threads)
+    val running = AtomicBoolean(true)
+    var registrations = 0L
+
+    val churn = thread(name = "Registration churn") {
+        val listener = ICountListener { _, _ -> }
+        while (running.get()) {
+            broadcaster.addAnalogChannelListener(tekdaqc, input, listener)
+            broadcaster.removeAnalogCountListener(tekdaqc, input, listener)
+            registrations++
+        }
+    }
+
+    repeat(threads) {
+        thread(name = "Broadcaster $it") {
+            val data = AnalogInputCountData(0, null, 0L, 1000)
+            start.await()
+            for (i in 0 until broadcasts) broadcaster.broadcastAnalogInputDataPoint(tekdaqc, data)
+            done.countDown()
+        }
+    }
+
+    val begin = System.nanoTime()
+    start.countDown()
+    done.await()
+    val elapsed = System.nanoTime() - begin
+    running.set(false)
+    churn.join()
+    return Pair(threads.toLong() * broadcasts * 1e9 / elapsed, registrations)
+}
@@ -5,6 +5,7 @@ import com.tenkiv.tekdaqc.communication.ascii.message.parsing.ASCIIErrorMessage
 import com.tenkiv.tekdaqc.communication.data_points.AnalogInputCountData
 import com.tenkiv.tekdaqc.communication.data_points.DigitalInputData
 import com.tenkiv.tekdaqc.communication.data_points.PWMInputData
+import com.tenkiv.tekdaqc.hardware.AAnalogInput
 import com.tenkiv.tekdaqc.hardware.ATekdaqc
 import com.tenkiv.tekdaqc.hardware.DigitalInput
 import com.tenkiv.tekdaqc.hardware.Tekdaqc_RevD
@@ -162,5 +163,62 @@ class MessageBroadcasterSpec : ShouldSpec({
                     simulatedTekdaqc.getDigitalInput(0),
                     digitalPwmListener)
         }
+
+        should("Isolate listener exceptions") {
+            var received = 0
+            val failingListener = ICountListener { _, _ -> throw IllegalStateException("Listener failure") }
+            val countingListener = ICountListener { _, _ -> received++ }
+            val input = simulatedTekdaqc.getAnalogInput(1)
+
+            messageBroadcaster.addAnalogChannelListener(simulatedTekdaqc, input, failingListener)
+            messageBroadcaster.addAnalogChannelListener(simulatedTekdaqc, input, countingListener)
+            messageBroadcaster.broadcastAnalogInputDataPoint(
+                    simulatedTekdaqc,
+                    AnalogInputCountData(1, "", 1000L, 1000))
+
+            received shouldBe 1
+
+            messageBroadcaster.removeAnalogCountListener(simulatedTekdaqc, input, failingListener)
+            messageBroadcaster.removeAnalogCountListener(simulatedTekdaqc, input, countingListener)
+        }
+
+        should("Allow listeners to unregister during a broadcast") {
+            var received = 0
+            val input = simulatedTekdaqc.getAnalogInput(2)
+            val oneShotListener = object : ICountListener {
+                override fun onAnalogDataReceived(input: AAnalogInput, count: Int) {
+                    received++
+                    messageBroadcaster.removeAnalogCountListener(simulatedTekdaqc, input, this)
+                }
+            }
+
+            messageBroadcaster.addAnalogChannelListener(simulatedTekdaqc, input, oneShotListener)
+            messageBroadcaster.broadcastAnalogInputDataPoint(
+                    simulatedTekdaqc,
+                    AnalogInputCountData(2, "", 1000L, 1000))
+            messageBroadcaster.broadcastAnalogInputDataPoint(
+                    simulatedTekdaqc,
+                    AnalogInputCountData(2, "", 2000L, 1000))
+
+            received shouldBe 1
+        }
+
+        should("Deliver temperature reference data and ignore unknown channels") {
+            var received = 0
+            val listener = ICountListener { _, _ -> received++ }
+            val reference = simulatedTekdaqc.temperatureReference
+
+            messageBroadcaster.addAnalogChannelListener(simulatedTekdaqc, reference, listener)
+            messageBroadcaster.broadcastAnalogInputDataPoint(
+                    simulatedTekdaqc,
+                    AnalogInputCountData(reference.channelNumber, "", 1000L, 1000))
+            messageBroadcaster.broadcastAnalogInputDataPoint(
+                    simulatedTekdaqc,
+                    AnalogInputCountData(99, "", 1000L, 1000))
+
+            received shouldBe 1
+
+            messageBroadcaster.removeAnalogCountListener(simulatedTekdaqc, reference, listener)
+        }
     }
 })
\ No newline at end of file
@@ -0,0 +1,246 @@
+package com.tenkiv.tekdaqc.communication.streams
+
+import com.tenkiv.tekdaqc.communication.data_points.AnalogInputCountData
+import com.tenkiv.tekdaqc.hardware.Tekdaqc_RevD
+import com.tenkiv.tekdaqc.locator.getSimulatedLocatorResponse
+import io.kotlintest.matchers.shouldBe
+import io.kotlintest.matchers.shouldThrow
+import io.kotlintest.specs.ShouldSpec
+import java.util.Collections
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executor
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.function.Consumer
+
+/**
+ * Class to test channel publishers against the rules of the Reactive Streams specification.
+ */
+class ChannelPublisherSpec : ShouldSpec({
+
+    /**
+     * Source which is fed by hand and records whether it is attached.
+     */
+    class ManualSource {
+        var sink: Consumer<Int>? = null
+
+        fun publisher(bufferSize: Int, strategy: BackpressureStrategy, executor: Executor = Executor { it.run() }) =
+                ChannelPublisher<Int>(executor, bufferSize, strategy) { sink ->
+                    this.sink = sink
+                    Runnable { this.sink = null }
+                }
+
+        fun emit(vararg items: Int) = items.forEach { sink?.accept(it) }
+    }
+
+    /**
+     * Subscriber recording every signal it receives.
+     */
+    class RecordingSubscriber(private val initialRequest: Long = 0) : IChannelSubscriber<Int> {
+        val signals = Collections.synchronizedList(ArrayList<String>())
+        val items = Collections.synchronizedList(ArrayList<Int>())
+        var error: Throwable? = null
+        lateinit var subscription: IChannelSubscription
+
+        override fun onSubscribe(subscription: IChannelSubscription) {
+            signals.add("subscribe")
+            this.subscription = subscription
+            if (initialRequest > 0) subscription.request(initialRequest)
+        }
+
+        override fun onNext(item: Int) {
+            signals.add("next")
+            items.add(item)
+        }
+
+        override fun onError(throwable: Throwable) {
+            signals.add("error")
+            error = throwable
+        }
+
+        override fun onComplete() {
+            signals.add("complete")
+        }
+    }
+
+    "Channel Publisher Spec"{
+
+        should("Call onSubscribe before anything else (rule 1.9)") {
+            val source = ManualSource()
+            val subscriber = RecordingSubscriber(1)
+            source.publisher(4, BackpressureStrategy.BUFFER).subscribe(subscriber)
+            source.emit(1)
+
+            subscriber.signals shouldBe listOf("subscribe", "next")
+        }
+
+        should("Reject a null subscriber (rule 1.9)") {
+            val source = ManualSource()
+            shouldThrow<NullPointerException> {
+                source.publisher(4, BackpressureStrategy.BUFFER).subscribe(null)
+            }
+        }
+
+        should("Signal no more than requested (rule 1.1)") {
+            val source = ManualSource()
+            val subscriber = RecordingSubscriber()
+            source.publisher(8, BackpressureStrategy.BUFFER).subscribe(subscriber)
+
+            source.emit(1, 2, 3, 4)
+            subscriber.items shouldBe emptyList<Int>()
+            subscriber.subscription.request(3)
+            subscriber.items shouldBe listOf(1, 2, 3)
+            subscriber.subscription.request(5)
+            subscriber.items shouldBe listOf(1, 2, 3, 4)
+            source.emit(5)
+            subscriber.items shouldBe listOf(1, 2, 3, 4, 5)
+        }
+
+        should("Accumulate demand up to Long.MAX_VALUE (rule 3.17)") {
+            val source = ManualSource()
+            val subscriber = RecordingSubscriber()
+            source.publisher(8, BackpressureStrategy.BUFFER).subscribe(subscriber)
+
+            subscriber.subscription.request(Long.MAX_VALUE)
+            subscriber.subscription.request(Long.MAX_VALUE)
+            source.emit(1, 2, 3)
+            subscriber.items shouldBe listOf(1, 2, 3)
+        }
+
+        should("Signal onError for non-positive requests (rule 3.9)") {
+            val source = ManualSource()
+            val subscriber = RecordingSubscriber()
+            source.publisher(8, BackpressureStrategy.BUFFER).subscribe(subscriber)
+
+            subscriber.subscription.request(0)
+            (subscriber.error is IllegalArgumentException) shouldBe true
+            source.sink shouldBe null
+            source.emit(1)
+            subscriber.signals shouldBe listOf("subscribe", "error")
+        }
+
+        should("Stop signalling and release the listener once cancelled (rules 3.5, 3.7, 3.13)") {
+            val source = ManualSource()
+            val subscriber = RecordingSubscriber(1)
+            source.publisher(8, BackpressureStrategy.BUFFER).subscribe(subscriber)
+
+            source.emit(1, 2)
+            subscriber.subscription.cancel()
+            subscriber.subscription.cancel()
+            subscriber.subscription.request(5)
+            source.emit(3)
+
+            source.sink shouldBe null
+            subscriber.items shouldBe listOf(1)
+        }
+
+        should("Allow requests from within onNext without recursion (rules 2.3, 3.3)") {
+            val source = ManualSource()
+            val depth = AtomicInteger()
+            var maxDepth = 0
+            val items = ArrayList<Int>()
+            source.publisher(8, BackpressureStrategy.BUFFER).subscribe(object : IChannelSubscriber<Int> {
+                lateinit var subscription: IChannelSubscription
+
+                override fun onSubscribe(subscription: IChannelSubscription) {
+                    this.subscription = subscription
+                    subscription.request(1)
+                }
+
+                override fun onNext(item: Int) {
+                    maxDepth = maxOf(maxDepth, depth.incrementAndGet())
+                    items.add(item)
+                    subscription.request(1)
+                    depth.decrementAndGet()
+                }
+
+                override fun onError(throwable: Throwable) {}
+
+                override fun onComplete() {}
+            })
+
+            source.emit(1, 2, 3, 4)
+            items shouldBe listOf(1, 2, 3, 4)
+            maxDepth shouldBe 1
+        }
+
+        should("Fail a BUFFER subscriber which falls too far behind") {
+            val source = ManualSource()
+            val subscriber = RecordingSubscriber()
+            source.publisher(2, BackpressureStrategy.BUFFER).subscribe(subscriber)
+
+            source.emit(1, 2, 3)
+            (subscriber.error is IllegalStateException) shouldBe true
+            source.sink shouldBe null
+        }
+
+        should("Discard new samples for a DROP subscriber") {
+            val source = ManualSource()
+            val subscriber = RecordingSubscriber()
+            source.publisher(2, BackpressureStrategy.DROP).subscribe(subscriber)
+
+            source.emit(1, 2, 3, 4)
+            subscriber.subscription.request(10)
+            subscriber.items shouldBe listOf(1, 2)
+        }
+
+        should("Keep the latest samples for a LATEST subscriber") {
+            val source = ManualSource()
+            val subscriber = RecordingSubscriber()
+            source.publisher(1, BackpressureStrategy.LATEST).subscribe(subscriber)
+
+            source.emit(1, 2, 3, 4)
+            subscriber.subscription.request(10)
+            subscriber.items shouldBe listOf(4)
+        }
+
+        should("Signal serially from a thread pool (rule 1.3)") {
+            val pool = Executors.newFixedThreadPool(4)
+            val source = ManualSource()
+            val concurrent = AtomicInteger()
+            var overlapped = false
+            val received = CountDownLatch(10000)
+            source.publisher(10000, BackpressureStrategy.BUFFER, pool).subscribe(object : IChannelSubscriber<Int> {
+                override fun onSubscribe(subscription: IChannelSubscription) {
+                    subscription.request(Long.MAX_VALUE)
+                }
+
+                override fun onNext(item: Int) {
+                    if (concurrent.incrementAndGet() != 1) overlapped = true
+                    concurrent.decrementAndGet()
+                    received.countDown()
+                }
+
+                override fun onError(throwable: Throwable) {}
+
+                override fun onComplete() {}
+            })
+
+            for (i in 0 until 10000) source.emit(i)
+            received.await(5, TimeUnit.SECONDS) shouldBe true
+            overlapped shouldBe false
+            pool.shutdown()
+        }
+
+        should("Stream a board's counts with the Kotlin adapter") {
+            val tekdaqc = Tekdaqc_RevD(getSimulatedLocatorResponse())
+            val input = tekdaqc.getAnalogInput(4)
+            val counts = Collections.synchronizedList(ArrayList<Int>())
+            val received = CountDownLatch(3)
+
+            val subscription = input.countPublisher(16, BackpressureStrategy.BUFFER).subscribe(prefetch = 2) {
+                counts.add(it)
+                received.countDown()
+            }
+            for (count in 1..3) {
+                tekdaqc.messageBroadcaster.broadcastAnalogInputDataPoint(
+                        tekdaqc, AnalogInputCountData(4, null, count.toLong(), count))
+            }
+
+            received.await(5, TimeUnit.SECONDS) shouldBe true
+            counts shouldBe listOf(1, 2, 3)
+            subscription.cancel()
+        }
+    }
+})
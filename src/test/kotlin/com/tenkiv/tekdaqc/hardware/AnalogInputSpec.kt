@@ -0,0 +1,55 @@
+package com.tenkiv.tekdaqc.hardware
+
+import com.tenkiv.tekdaqc.communication.data_points.AnalogInputCountData
+import com.tenkiv.tekdaqc.communication.message.IPrimitiveVoltageListener
+import com.tenkiv.tekdaqc.locator.getSimulatedLocatorResponse
+import io.kotlintest.matchers.plusOrMinus
+import io.kotlintest.matchers.shouldBe
+import io.kotlintest.specs.ShouldSpec
+
+/**
+ * Class to test voltage conversion of analog inputs.
+ */
+class AnalogInputSpec : ShouldSpec({
+
+    fun expectedVolts(count: Int, gain: AAnalogInput.Gain, scaleMultiplier: Double) =
+            2.0 * 2.5 * (count / 8388607.0) * (1.0 / gain.gain) * scaleMultiplier
+
+    "Analog Input Spec"{
+
+        should("Track gain and analog scale changes") {
+            val tekdaqc = Tekdaqc_RevD(getSimulatedLocatorResponse())
+            val input = tekdaqc.getAnalogInput(0)
+
+            input.setGain(AAnalogInput.Gain.X1)
+            (input.voltsPerCount * 1000) shouldBe (expectedVolts(1000, AAnalogInput.Gain.X1, 1.0) plusOrMinus 1e-12)
+
+            input.setGain(AAnalogInput.Gain.X8)
+            (input.voltsPerCount * 1000) shouldBe (expectedVolts(1000, AAnalogInput.Gain.X8, 1.0) plusOrMinus 1e-12)
+
+            tekdaqc.analogScale = ATekdaqc.AnalogScale.ANALOG_SCALE_400V
+            val multiplier = tekdaqc.getAnalogScaleMultiplier(ATekdaqc.AnalogScale.ANALOG_SCALE_400V)
+            tekdaqc.convertAnalogInputDataToVoltage(AnalogInputCountData(0, null, 0L, 1000),
+                    ATekdaqc.AnalogScale.ANALOG_SCALE_400V) shouldBe
+                    (expectedVolts(1000, AAnalogInput.Gain.X8, multiplier) plusOrMinus 1e-9)
+        }
+
+        should("Deliver primitive voltages") {
+            val tekdaqc = Tekdaqc_RevD(getSimulatedLocatorResponse())
+            val input = tekdaqc.getAnalogInput(3).setGain(AAnalogInput.Gain.X2)
+            var received = Double.NaN
+            var receivedTimestamp = 0L
+            val listener = IPrimitiveVoltageListener { _, timestamp, volts ->
+                receivedTimestamp = timestamp
+                received = volts
+            }
+            input.addPrimitiveVoltageListener(listener)
+
+            tekdaqc.messageBroadcaster.broadcastAnalogInputDataPoint(tekdaqc, AnalogInputCountData(3, null, 42L, 5000))
+
+            receivedTimestamp shouldBe 42L
+            received shouldBe (expectedVolts(5000, AAnalogInput.Gain.X2, 1.0) plusOrMinus 1e-12)
+            input.removePrimitiveVoltageListener(listener)
+        }
+    }
+})
@@ -2,10 +2,12 @@ package com.tenkiv.tekdaqc.hardware
 
 import com.tenkiv.tekdaqc.*
 import com.tenkiv.tekdaqc.communication.data_points.AnalogInputCountData
+import com.tenkiv.tekdaqc.communication.executors.AParsingExecutor.ParsingOrder
 import com.tenkiv.tekdaqc.locator.getSimulatedLocatorResponse
 import io.kotlintest.matchers.shouldBe
 import io.kotlintest.matchers.shouldEqual
 import io.kotlintest.matchers.shouldNotBe
+import io.kotlintest.matchers.shouldThrow
 import io.kotlintest.specs.ShouldSpec
 
 /**
@@ -35,6 +37,17 @@ class TekdaqcSpec: ShouldSpec({
             tekdaqc.serialNumber shouldBe SERIAL
         }
 
+        should("Refuse to change the parsing order while connected"){
+            val connected = object : Tekdaqc_RevD(getSimulatedLocatorResponse()) {
+                init {
+                    isConnected = true
+                }
+            }
+
+            shouldThrow<IllegalStateException> { connected.parsingOrder = ParsingOrder.PER_BOARD }
+            connected.parsingOrder shouldBe ParsingOrder.PER_CHANNEL
+        }
+
         //TODO This needs a more in depth Simulated Tekdaqc
         /*should("Add values to a queue"){
 
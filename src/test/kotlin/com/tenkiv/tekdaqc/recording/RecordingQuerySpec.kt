@@ -0,0 +1,118 @@
+package com.tenkiv.tekdaqc.recording
+
+import com.tenkiv.tekdaqc.communication.message.ICountBatchListener
+import com.tenkiv.tekdaqc.hardware.Tekdaqc_RevD
+import com.tenkiv.tekdaqc.locator.getSimulatedLocatorResponse
+import io.kotlintest.matchers.shouldBe
+import io.kotlintest.matchers.shouldThrow
+import io.kotlintest.specs.ShouldSpec
+import java.io.File
+
+/**
+ * Class to test querying recordings by channel and board timestamp.
+ */
+class RecordingQuerySpec : ShouldSpec({
+
+    /**
+     * Record 20000 analog samples spread over five channels and several segments. Sample i is on channel i % 5, with
+     * a count of i and a board timestamp of 1000 + (i / 5) * 7.
+     */
+    fun record(directory: File) {
+        val recorder = SampleRecorder(directory, 2000 * 32)
+        for (i in 0 until 20000) recorder.onAnalogSample(i % 5, i.toLong(), 1000L + (i / 5) * 7, i)
+        recorder.close()
+    }
+
+    "Recording Query Spec"{
+
+        should("Read one channel within a time range") {
+            val root = createTempDir()
+            record(File(root, "00000000000000000000000000000001"))
+            val archive = RecordingArchive(root)
+            archive.serialNumbers shouldBe listOf("00000000000000000000000000000001")
+
+            val cursor = archive.query("00000000000000000000000000000001", RecordKind.ANALOG, 3, 8000, 11500)
+            val timestamps = LongArray(64)
+            val counts = IntArray(64)
+            val read = ArrayList<Int>()
+            var length = cursor.nextAnalog(timestamps, counts)
+            while (length > 0) {
+                for (i in 0 until length) {
+                    read.add(counts[i])
+                    timestamps[i] shouldBe 1000L + (counts[i] / 5) * 7
+                }
+                length = cursor.nextAnalog(timestamps, counts)
+            }
+
+            read shouldBe (1000..1500).map { it * 5 + 3 }
+            root.deleteRecursively()
+        }
+
+        should("Keep indexes of full segments only") {
+            val directory = createTempDir()
+            record(directory)
+            val reader = RecordingReader(directory)
+            val segments = reader.getSegments(RecordKind.ANALOG)
+            reader.query(RecordKind.ANALOG, 0, Long.MIN_VALUE, Long.MAX_VALUE).nextAnalog(LongArray(1), IntArray(1))
+            reader.query(RecordKind.ANALOG, 0, 1000, 1000).nextAnalog(LongArray(1), IntArray(1)) shouldBe 1
+
+            File(directory, RecordFormat.indexName(RecordKind.ANALOG, segments.first())).exists() shouldBe true
+            File(directory, RecordFormat.indexName(RecordKind.ANALOG, segments.last())).exists() shouldBe false
+
+            // A fresh reader loads the saved indexes and gives the same results
+            var total = 0L
+            val cursor = RecordingReader(directory).query(RecordKind.ANALOG, 2, Long.MIN_VALUE, Long.MAX_VALUE)
+            var length = cursor.nextAnalog(LongArray(100), IntArray(100))
+            while (length > 0) {
+                total += length
+                length = cursor.nextAnalog(LongArray(100), IntArray(100))
+            }
+            total shouldBe 4000L
+            directory.deleteRecursively()
+        }
+
+        should("Deliver batches to a batch listener") {
+            val directory = createTempDir()
+            record(directory)
+            val tekdaqc = Tekdaqc_RevD(getSimulatedLocatorResponse())
+            val input = tekdaqc.getAnalogInput(4)
+            var batches = 0
+            var samples = 0
+
+            RecordingReader(directory).readAnalogBatches(input, 1000, 1069, 4,
+                    ICountBatchListener { batchInput, _, counts, length ->
+                        batchInput shouldBe input
+                        (0 until length).forEach { counts[it] % 5 shouldBe 4 }
+                        ++batches
+                        samples += length
+                    }) shouldBe 10L
+
+            batches shouldBe 3
+            samples shouldBe 10
+            directory.deleteRecursively()
+        }
+
+        should("Read other kinds of samples") {
+            val directory = createTempDir()
+            val recorder = SampleRecorder(directory)
+            recorder.onDigitalSample(1, 0, 10, true)
+            recorder.onDigitalSample(1, 1, 20, false)
+            recorder.onPWMSample(0, 2, 30, 12.5, 3)
+            recorder.close()
+
+            val levels = BooleanArray(4)
+            RecordingReader(directory).query(RecordKind.DIGITAL, 1, 0, 100)
+                    .nextDigital(LongArray(4), levels) shouldBe 2
+            levels.take(2) shouldBe listOf(true, false)
+
+            val cursor = RecordingReader(directory).query(RecordKind.PWM, 0, 0, 100)
+            val percentages = DoubleArray(1)
+            val transitions = IntArray(1)
+            cursor.nextPWM(LongArray(1), percentages, transitions) shouldBe 1
+            percentages[0] shouldBe 12.5
+            transitions[0] shouldBe 3
+            shouldThrow<IllegalStateException> { cursor.nextAnalog(LongArray(1), IntArray(1)) }
+            directory.deleteRecursively()
+        }
+    }
+})
@@ -0,0 +1,71 @@
+package com.tenkiv.tekdaqc.recording
+
+import java.util.*
+
+/**
+ * Measures the encode and decode throughput of [SampleBlockCodec], and reports its compression ratio, on simulated
+ * streams sampled at 7500 samples per second with a microsecond board clock. This is not run as part of the test
+ * suite; run [main] directly.
+ *
+ * Arguments: [samples per block] [blocks]
+ */
+fun main(args: Array<String>) {
+    val blockSize = args.getOrNull(0)?.toInt() ?: 7500
+    val blocks = args.getOrNull(1)?.toInt() ?: 2000
+
+    val random = Random(42)
+    val timestamps = simulateTimestamps(random, blockSize)
+    val streams = linkedMapOf(
+            "analog, quiet" to simulateCounts(random, blockSize, 16),
+            "analog, noisy" to simulateCounts(random, blockSize, 4096),
+            "analog, full scale" to IntArray(blockSize) { random.nextInt(1 shl 24) - (1 shl 23) })
+
+    println(String.format("%-20s %10s %10s %14s %14s", "stream", "bytes", "ratio", "encode MS/s", "decode MS/s"))
+    for ((name, counts) in streams) {
+        val block = SampleBlockCodec.encodeAnalog(timestamps, counts, blockSize)
+        val decodedTimestamps = LongArray(blockSize)
+        val decodedCounts = IntArray(blockSize)
+
+        // Warm up before measuring
+        repeat(blocks / 10) {
+            SampleBlockCodec.encodeAnalog(timestamps, counts, blockSize)
+            SampleBlockCodec.decodeAnalog(block, decodedTimestamps, decodedCounts)
+        }
+
+        var begin = System.nanoTime()
+        repeat(blocks) { SampleBlockCodec.encodeAnalog(timestamps, counts, blockSize) }
+        val encodeNanos = System.nanoTime() - begin
+        begin = System.nanoTime()
+        repeat(blocks) { SampleBlockCodec.decodeAnalog(block, decodedTimestamps, decodedCounts) }
+        val decodeNanos = System.nanoTime() - begin
+
+        // Ratio against a primitive long timestamp and int count per sample
+        val samples = blockSize.toDouble() * blocks
+        println(String.format("%-20s %10d %9.2fx %14.1f %14.1f", name, block.size,
+                blockSize * 12.0 / block.size, samples * 1e3 / encodeNanos, samples * 1e3 / decodeNanos))
+    }
+
+    val levels = BooleanArray(blockSize) { (it / 750) % 2 == 0 }
+    val digital = SampleBlockCodec.encodeDigital(timestamps, levels, blockSize)
+    println(String.format("%-20s %10d %9.2fx", "digital", digital.size, blockSize * 9.0 / digital.size))
+}
+
+/**
+ * Timestamps 1/7500 s apart on a microsecond clock, alternating 133 and 134 ticks with occasional jitter.
+ */
+private fun simulateTimestamps(random: Random, size: Int): LongArray {
+    var timestamp = 1000000000L
+    return LongArray(size) {
+        timestamp += (if (it % 3 == 0) 134 else 133) + (if (random.nextInt(100) == 0) random.nextInt(21) - 10 else 0)
+        timestamp
+    }
+}
+
+/**
+ * 24 bit counts following a slow sine wave, with uniform noise of the given span.
+ */
+private fun simulateCounts(random: Random, size: Int, noise: Int): IntArray {
+    return IntArray(size) {
+        (2000000 * Math.sin(it * 2 * Math.PI / size)).toInt() + random.nextInt(noise) - noise / 2
+    }
+}
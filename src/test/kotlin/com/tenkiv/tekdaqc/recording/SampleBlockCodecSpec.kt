@@ -0,0 +1,90 @@
+package com.tenkiv.tekdaqc.recording
+
+import io.kotlintest.matchers.shouldBe
+import io.kotlintest.matchers.shouldThrow
+import io.kotlintest.specs.ShouldSpec
+import java.util.*
+
+/**
+ * Class to test compressing blocks of samples.
+ */
+class SampleBlockCodecSpec : ShouldSpec({
+
+    "Sample Block Codec Spec"{
+
+        should("Round trip analog samples") {
+            val random = Random(7)
+            val timestamps = LongArray(5000)
+            val counts = IntArray(5000)
+            var timestamp = 1000000L
+            for (i in 0 until counts.size) {
+                timestamp += if (i % 100 == 0) random.nextInt(10000).toLong() - 5000 else 133
+                timestamps[i] = timestamp
+                counts[i] = 8000000 + random.nextInt(64) - 32
+            }
+            counts[10] = Int.MIN_VALUE
+            counts[11] = Int.MAX_VALUE
+            timestamps[20] = Long.MIN_VALUE
+
+            val block = SampleBlockCodec.encodeAnalog(timestamps, counts, counts.size)
+            SampleBlockCodec.getKind(block) shouldBe RecordKind.ANALOG
+            SampleBlockCodec.getSampleCount(block) shouldBe counts.size
+
+            val decodedTimestamps = LongArray(counts.size)
+            val decodedCounts = IntArray(counts.size)
+            SampleBlockCodec.decodeAnalog(block, decodedTimestamps, decodedCounts) shouldBe counts.size
+            decodedTimestamps.toList() shouldBe timestamps.toList()
+            decodedCounts.toList() shouldBe counts.toList()
+        }
+
+        should("Compress a steady stream") {
+            val timestamps = LongArray(1000) { it * 133L }
+            val counts = IntArray(1000) { 4000 + it % 3 }
+            val block = SampleBlockCodec.encodeAnalog(timestamps, counts, counts.size)
+            // Well under the 12 bytes per sample of raw timestamps and counts
+            (block.size < counts.size) shouldBe true
+        }
+
+        should("Round trip digital samples") {
+            val timestamps = LongArray(77) { it * 10L }
+            val levels = BooleanArray(77) { it % 3 == 0 }
+            val block = SampleBlockCodec.encodeDigital(timestamps, levels, levels.size)
+
+            val decodedTimestamps = LongArray(77)
+            val decodedLevels = BooleanArray(77)
+            SampleBlockCodec.decodeDigital(block, decodedTimestamps, decodedLevels) shouldBe 77
+            decodedTimestamps.toList() shouldBe timestamps.toList()
+            decodedLevels.toList() shouldBe levels.toList()
+        }
+
+        should("Round trip PWM samples") {
+            val timestamps = LongArray(6) { it * 1000L }
+            val percentages = doubleArrayOf(0.0, 50.0, 50.0, 50.25, Double.NaN, 100.0)
+            val transitions = intArrayOf(0, 4, 8, 12, 12, 20)
+            val block = SampleBlockCodec.encodePWM(timestamps, percentages, transitions, 6)
+
+            val decodedPercentages = DoubleArray(6)
+            val decodedTransitions = IntArray(6)
+            SampleBlockCodec.decodePWM(block, LongArray(6), decodedPercentages, decodedTransitions) shouldBe 6
+            decodedPercentages.toList() shouldBe percentages.toList()
+            decodedTransitions.toList() shouldBe transitions.toList()
+        }
+
+        should("Round trip an empty block") {
+            val block = SampleBlockCodec.encodeAnalog(LongArray(0), IntArray(0), 0)
+            block.size shouldBe SampleBlockCodec.HEADER_SIZE
+            SampleBlockCodec.decodeAnalog(block, LongArray(0), IntArray(0)) shouldBe 0
+        }
+
+        should("Refuse mismatched blocks") {
+            val block = SampleBlockCodec.encodeDigital(LongArray(4), BooleanArray(4), 4)
+            shouldThrow<IllegalArgumentException> { SampleBlockCodec.decodeAnalog(block, LongArray(4), IntArray(4)) }
+            shouldThrow<IllegalArgumentException> {
+                SampleBlockCodec.decodeDigital(block, LongArray(3), BooleanArray(3))
+            }
+            shouldThrow<IllegalArgumentException> {
+                SampleBlockCodec.decodeDigital(block.copyOf(7), LongArray(4), BooleanArray(4))
+            }
+        }
+    }
+})
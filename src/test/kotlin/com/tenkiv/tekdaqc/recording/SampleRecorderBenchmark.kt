@@ -0,0 +1,55 @@
+package com.tenkiv.tekdaqc.recording
+
+import java.util.concurrent.CountDownLatch
+import kotlin.concurrent.thread
+
+/**
+ * Measures the sustained throughput of [SampleRecorder] when several threads record analog samples at once, each
+ * standing in for a board's parsing lane. This is not run as part of the test suite; run [main] directly.
+ *
+ * Arguments: [samples per thread] [segment size in MiB]
+ */
+fun main(args: Array<String>) {
+    val samples = args.getOrNull(0)?.toInt() ?: 4000000
+    val segmentBytes = (args.getOrNull(1)?.toInt() ?: 64) * 1024 * 1024
+
+    // Warm up before measuring
+    measure(2, samples / 10, segmentBytes)
+
+    for (threads in intArrayOf(1, 2, 4, 8)) {
+        val (recordsPerSecond, flushMillis) = measure(threads, samples, segmentBytes)
+        println(String.format("%2d threads %12.0f records/s %8.1f MB/s   %6d ms final flush",
+                threads, recordsPerSecond, recordsPerSecond * RecordFormat.RECORD_SIZE / 1e6, flushMillis))
+    }
+}
+
+/**
+ * Record [samples] analog samples from each of [threads] threads into a fresh recording.
+ *
+ * @return The aggregate records per second, and the time taken to flush the recording afterwards.
+ */
+private fun measure(threads: Int, samples: Int, segmentBytes: Int): Pair<Double, Long> {
+    val directory = createTempDir()
+    val recorder = SampleRecorder(directory, segmentBytes)
+    val start = CountDownLatch(1)
+    val done = CountDownLatch(threads)
+
+    repeat(threads) { index ->
+        thread(name = "Recorder $index") {
+            start.await()
+            for (i in 0 until samples) recorder.onAnalogSample(index, i.toLong(), i.toLong(), i)
+            done.countDown()
+        }
+    }
+
+    val begin = System.nanoTime()
+    start.countDown()
+    done.await()
+    val elapsed = System.nanoTime() - begin
+
+    val flushBegin = System.nanoTime()
+    recorder.close()
+    val flushMillis = (System.nanoTime() - flushBegin) / 1000000
+    directory.deleteRecursively()
+    return Pair(threads.toLong() * samples * 1e9 / elapsed, flushMillis)
+}
@@ -0,0 +1,96 @@
+package com.tenkiv.tekdaqc.recording
+
+import com.tenkiv.tekdaqc.communication.data_points.AnalogInputCountData
+import com.tenkiv.tekdaqc.communication.data_points.PWMInputData
+import com.tenkiv.tekdaqc.hardware.Tekdaqc_RevD
+import com.tenkiv.tekdaqc.locator.getSimulatedLocatorResponse
+import io.kotlintest.matchers.shouldBe
+import io.kotlintest.specs.ShouldSpec
+import java.io.File
+import java.io.RandomAccessFile
+
+/**
+ * Class to test recording samples to memory mapped segments.
+ */
+class SampleRecorderSpec : ShouldSpec({
+
+    /**
+     * Read every record of a kind as (channel, board timestamp, value, aux).
+     */
+    fun readAll(directory: File, kind: RecordKind): List<List<Long>> {
+        val records = ArrayList<List<Long>>()
+        RecordingReader(directory).read(kind, IRecordVisitor { channel, boardTimestamp, _, value, aux ->
+            records.add(listOf(channel.toLong(), boardTimestamp, value, aux.toLong()))
+        })
+        return records
+    }
+
+    "Sample Recorder Spec"{
+
+        should("Record each kind of sample") {
+            val directory = createTempDir()
+            val recorder = SampleRecorder(directory)
+            recorder.onAnalogSample(3, 0, 100, -1234)
+            recorder.onDigitalSample(7, 1, 101, true)
+            recorder.onPWMSample(2, 2, 102, 37.5, 9)
+            recorder.close()
+
+            readAll(directory, RecordKind.ANALOG) shouldBe listOf(listOf(3L, 100L, -1234L, 0L))
+            readAll(directory, RecordKind.DIGITAL) shouldBe listOf(listOf(7L, 101L, 1L, 0L))
+            val pwm = readAll(directory, RecordKind.PWM).single()
+            java.lang.Double.longBitsToDouble(pwm[2]) shouldBe 37.5
+            pwm[3] shouldBe 9L
+            directory.deleteRecursively()
+        }
+
+        should("Roll over to new segments") {
+            val directory = createTempDir()
+            // Room for the header and four records
+            val recorder = SampleRecorder(directory, 5 * 32)
+            for (i in 0 until 10) recorder.onAnalogSample(1, i.toLong(), i.toLong(), i)
+            recorder.close()
+
+            RecordingReader(directory).getSegments(RecordKind.ANALOG).toList() shouldBe listOf(0L, 1L, 2L)
+            readAll(directory, RecordKind.ANALOG).map { it[2] } shouldBe (0L until 10L).toList()
+            directory.deleteRecursively()
+        }
+
+        should("Recover after a torn record") {
+            val directory = createTempDir()
+            val interrupted = SampleRecorder(directory, 1024)
+            for (i in 0 until 3) interrupted.onAnalogSample(1, i.toLong(), i.toLong(), i)
+            interrupted.flush()
+
+            // Tear the record following the last complete one, as a crash part way through writing it would
+            val segment = File(directory, "analog-000000000000.seg")
+            RandomAccessFile(segment, "rw").use { file ->
+                file.seek(32L + 3 * 32 + 8)
+                file.writeLong(999)
+                file.seek(32L + 3 * 32)
+                file.writeInt(0xA5000000.toInt())
+            }
+
+            val resumed = SampleRecorder(directory, 1024)
+            resumed.onAnalogSample(1, 3, 3, 3)
+            resumed.close()
+
+            readAll(directory, RecordKind.ANALOG).map { it[2] } shouldBe listOf(0L, 1L, 2L, 3L)
+            directory.deleteRecursively()
+        }
+
+        should("Record samples broadcast by a Tekdaqc") {
+            val directory = createTempDir()
+            val tekdaqc = Tekdaqc_RevD(getSimulatedLocatorResponse())
+            val recorder = tekdaqc.startRecording(directory)
+
+            tekdaqc.messageBroadcaster.broadcastAnalogInputDataPoint(tekdaqc, AnalogInputCountData(4, null, 50, 500))
+            tekdaqc.messageBroadcaster.broadcastPWMInputDataPoint(tekdaqc, PWMInputData(1, null, 51, 10.0, 2))
+            tekdaqc.stopRecording()
+
+            readAll(recorder.directory, RecordKind.ANALOG) shouldBe listOf(listOf(4L, 50L, 500L, 0L))
+            readAll(recorder.directory, RecordKind.PWM).size shouldBe 1
+            recorder.hasFailed() shouldBe false
+            directory.deleteRecursively()
+        }
+    }
+})
@@ -0,0 +1,118 @@
+package com.tenkiv.tekdaqc.recording
+
+import com.tenkiv.tekdaqc.communication.ascii.message.parsing.ASCIIDataRecordDecoder
+import com.tenkiv.tekdaqc.communication.ascii.message.parsing.ASCIIMessageUtils
+import com.tenkiv.tekdaqc.communication.binary.BinaryProtocol
+import com.tenkiv.tekdaqc.communication.binary.executors.BinaryFrameSplitter
+import com.tenkiv.tekdaqc.communication.binary.message.parsing.BinaryFrameDecoder
+import com.tenkiv.tekdaqc.communication.executors.AParsingExecutor
+import com.tenkiv.tekdaqc.communication.executors.IDataRecordSink
+import com.tenkiv.tekdaqc.communication.executors.IRecordFramer
+import com.tenkiv.tekdaqc.communication.executors.RecordSplitter
+import com.tenkiv.tekdaqc.communication.message.ABoardMessage
+import java.io.File
+
+/**
+ * Feeds a [WireCapture] back through the record framing and parsers as fast as possible and reports the records
+ * parsed per second. Chunks are fed exactly as they were received, so the framing sees the same boundaries as the
+ * reading thread did. The capture is loaded into memory first so that only framing and parsing are measured. This
+ * is not run as part of the test suite; run [main] directly.
+ *
+ * Arguments: [capture file, or "-" for a generated capture] [ascii|binary] [runs]
+ */
+fun main(args: Array<String>) {
+    val path = args.getOrNull(0) ?: "-"
+    val binary = args.getOrNull(1).equals("binary", ignoreCase = true)
+    val runs = args.getOrNull(2)?.toInt() ?: 5
+
+    val file = if (path == "-") generateCapture() else File(path)
+    val chunks = ArrayList<ByteArray>()
+    WireCaptureReader(file).read(IWireChunkVisitor { _, data, offset, length ->
+        chunks.add(data.copyOfRange(offset, offset + length))
+    })
+    val bytes = chunks.fold(0L) { total, chunk -> total + chunk.size }
+    println(String.format("%d chunks, %.1f MB", chunks.size, bytes / (1024.0 * 1024.0)))
+
+    for (run in 0..runs) {
+        val parser = CountingParser(binary)
+        val framer: IRecordFramer = if (binary) BinaryFrameSplitter(parser) else RecordSplitter(parser)
+        val start = System.nanoTime()
+        for (chunk in chunks) framer.feed(chunk, 0, chunk.size)
+        framer.flush()
+        val elapsed = System.nanoTime() - start
+        // The first run is a warm up
+        if (run > 0) {
+            println(String.format("%12.0f records/s %12.0f samples/s %8.1f MB/s   (%d records, %d samples)",
+                    parser.records * 1e9 / elapsed, parser.samples * 1e9 / elapsed,
+                    bytes * 1e9 / elapsed / (1024 * 1024), parser.records, parser.samples))
+        }
+    }
+    if (path == "-") file.delete()
+}
+
+/**
+ * Parses each framed record on the framing thread, decoding data records to primitives and other messages through
+ * [ASCIIMessageUtils].
+ */
+private class CountingParser(private val binary: Boolean) : AParsingExecutor.IParsingListener, IDataRecordSink {
+
+    var records = 0L
+
+    var samples = 0L
+
+    override fun onRecordDetected(buffer: ByteArray, offset: Int, length: Int) {
+        ++records
+        val decoded = if (binary) {
+            BinaryFrameDecoder.decode(buffer, offset, length, records, this)
+        } else {
+            ASCIIDataRecordDecoder.decode(buffer, offset, length, records, this)
+        }
+        if (!decoded) {
+            val text = when {
+                !binary -> String(buffer, offset, length, Charsets.US_ASCII)
+                BinaryFrameDecoder.type(buffer, offset) == BinaryProtocol.TYPE_TEXT ->
+                    BinaryFrameDecoder.text(buffer, offset, length)
+                else -> null
+            }
+            val message = text?.let { ASCIIMessageUtils.parseMessage(it) }
+            if (message != null) ASCIIMessageUtils.returnMessage(message)
+        }
+    }
+
+    override fun onParsingComplete(message: ABoardMessage) {}
+
+    override fun onMessageDetected(message: String) {}
+
+    override fun onAnalogSample(channel: Int, sequence: Long, timestamp: Long, count: Int) {
+        ++samples
+    }
+
+    override fun onDigitalSample(channel: Int, sequence: Long, timestamp: Long, state: Boolean) {
+        ++samples
+    }
+
+    override fun onPWMSample(channel: Int, sequence: Long, timestamp: Long, percentageOn: Double,
+                             totalTransitions: Int) {
+        ++samples
+    }
+}
+
+/**
+ * Capture a stream of ASCII analog records on 32 channels, delivered in 1460 byte chunks as a board's TCP segments
+ * would be.
+ */
+private fun generateCapture(): File {
+    val file = createTempFile(suffix = ".cap")
+    val stream = StringBuilder()
+    for (i in 0 until 1000000) stream.append("?A${i % 32}\r\n${967711311300L + i},${i % 8388607}\u001E")
+    val bytes = stream.toString().toByteArray()
+    WireCapture(file, 64 * 1024 * 1024).use { capture ->
+        var offset = 0
+        while (offset < bytes.size) {
+            val length = minOf(1460, bytes.size - offset)
+            capture.append(bytes, offset, length)
+            offset += length
+        }
+    }
+    return file
+}
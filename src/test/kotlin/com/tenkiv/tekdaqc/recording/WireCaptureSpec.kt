@@ -0,0 +1,123 @@
+package com.tenkiv.tekdaqc.recording
+
+import com.tenkiv.tekdaqc.communication.executors.AParsingExecutor
+import com.tenkiv.tekdaqc.communication.executors.RecordSplitter
+import com.tenkiv.tekdaqc.communication.message.ABoardMessage
+import com.tenkiv.tekdaqc.hardware.ATekdaqc
+import com.tenkiv.tekdaqc.hardware.Tekdaqc_RevD
+import com.tenkiv.tekdaqc.locator.getSimulatedLocatorResponse
+import com.tenkiv.tekdaqc.telnet.client.ReplayTelnetConnection
+import io.kotlintest.matchers.shouldBe
+import io.kotlintest.specs.ShouldSpec
+import java.io.ByteArrayOutputStream
+import java.io.File
+
+/**
+ * Class to test capturing the raw bytes received from a board.
+ */
+class WireCaptureSpec : ShouldSpec({
+
+    /**
+     * Listener collecting the records framed from a stream.
+     */
+    class RecordCollector : AParsingExecutor.IParsingListener {
+        val records = ArrayList<String>()
+
+        override fun onParsingComplete(message: ABoardMessage) {}
+
+        override fun onMessageDetected(message: String) {
+            records.add(message)
+        }
+    }
+
+    "Wire Capture Spec"{
+
+        should("Capture chunks with their receive times") {
+            val file = createTempFile(suffix = ".cap")
+            val capture = WireCapture(file)
+            val before = System.currentTimeMillis()
+            capture.append("?A1\r\n10,".toByteArray(), 0, 8)
+            capture.append("xx5\u001E".toByteArray(), 2, 2)
+            capture.close()
+            capture.capturedBytes shouldBe 10L
+            capture.hasFailed() shouldBe false
+
+            val bytes = ByteArrayOutputStream()
+            val times = ArrayList<Long>()
+            WireCaptureReader(file).read(IWireChunkVisitor { receiveTime, data, offset, length ->
+                times.add(receiveTime)
+                bytes.write(data, offset, length)
+            }) shouldBe 10L
+
+            String(bytes.toByteArray()) shouldBe "?A1\r\n10,5\u001E"
+            times.size shouldBe 2
+            (times[0] >= before) shouldBe true
+            file.delete()
+        }
+
+        should("Record a gap instead of waiting when the buffer is full") {
+            val file = createTempFile(suffix = ".cap")
+            val capture = WireCapture(file, 64)
+            val chunk = ByteArray(40) { 'a'.toByte() }
+            // Without the writer keeping up, at most one chunk fits at a time
+            for (i in 0 until 1000) capture.append(chunk, 0, chunk.size)
+            capture.append(chunk, 0, 1)
+            capture.close()
+
+            var gaps = 0L
+            val read = WireCaptureReader(file).read(object : IWireChunkVisitor {
+                override fun onChunk(receiveTime: Long, data: ByteArray, offset: Int, length: Int) {}
+
+                override fun onGap(receiveTime: Long, droppedBytes: Int) {
+                    gaps += droppedBytes
+                }
+            })
+            (read + capture.droppedBytes) shouldBe 40001L
+            read shouldBe capture.capturedBytes
+            (gaps <= capture.droppedBytes) shouldBe true
+            file.delete()
+        }
+
+        should("Feed a capture back through the record splitter") {
+            val file = createTempFile(suffix = ".cap")
+            val capture = WireCapture(file)
+            val splitter = capture.tee(RecordSplitter(RecordCollector()))
+            val stream = "?A1\r\n10,5\u001E?D2\r\n11,H\u001E?A1\r\n12,6\u001E".toByteArray()
+            splitter.feed(stream, 0, 7)
+            splitter.feed(stream, 7, stream.size - 7)
+            capture.close()
+
+            val collector = RecordCollector()
+            WireCaptureReader(file).feed(RecordSplitter(collector)) shouldBe stream.size.toLong()
+            collector.records shouldBe listOf("?A1\r\n10,5", "?D2\r\n11,H", "?A1\r\n12,6")
+            file.delete()
+        }
+
+        should("Capture the stream of a connected Tekdaqc") {
+            val directory = createTempDir()
+            SampleRecorder(directory).use { recorder ->
+                for (i in 0 until 100) recorder.onAnalogSample(0, i.toLong(), i.toLong(), i)
+            }
+            val file = File(directory, "board.cap")
+            val capture = WireCapture(file)
+            val tekdaqc = Tekdaqc_RevD(getSimulatedLocatorResponse())
+            val replay = ReplayTelnetConnection(RecordingReader(directory), ReplayTelnetConnection.AS_FAST_AS_POSSIBLE)
+            tekdaqc.wireCapture = capture
+            tekdaqc.connectionFactory = replay.factory()
+            tekdaqc.connect(ATekdaqc.AnalogScale.ANALOG_SCALE_5V, ATekdaqc.CONNECTION_METHOD.ETHERNET)
+
+            val deadline = System.currentTimeMillis() + 10000
+            while (capture.capturedBytes < replay.bytesReplayed || !replay.isFinished) {
+                if (System.currentTimeMillis() > deadline) break
+                Thread.sleep(10)
+            }
+            tekdaqc.disconnect()
+            capture.close()
+
+            val collector = RecordCollector()
+            WireCaptureReader(file).feed(RecordSplitter(collector)) shouldBe replay.bytesReplayed
+            collector.records.size shouldBe 100
+            directory.deleteRecursively()
+        }
+    }
+})
@@ -0,0 +1,66 @@
+package com.tenkiv.tekdaqc.simulator
+
+import com.tenkiv.tekdaqc.communication.message.ICountListener
+import com.tenkiv.tekdaqc.hardware.ATekdaqc
+import com.tenkiv.tekdaqc.hardware.Tekdaqc_RevD
+import com.tenkiv.tekdaqc.locator.getSimulatedLocatorResponse
+import com.tenkiv.tekdaqc.telnet.client.ITekdaqcConnectionFactory
+import com.tenkiv.tekdaqc.telnet.client.SelectorTelnetConnection
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.LongAdder
+
+/**
+ * Connects a [Tekdaqc_RevD] to each of many simulated boards over the non-blocking transport, activates analog
+ * inputs and samples them continuously through the command queue, printing the rates sent and delivered each second.
+ * This is not run as part of the test suite; run [main] directly.
+ *
+ * Arguments: [boards] [seconds] [samples per second per input] [analog inputs per board]
+ */
+fun main(args: Array<String>) {
+    val boards = args.getOrNull(0)?.toInt() ?: 200
+    val seconds = args.getOrNull(1)?.toInt() ?: 60
+    val rate = args.getOrNull(2)?.toDouble() ?: 1000.0
+    val inputs = args.getOrNull(3)?.toInt() ?: 4
+
+    val params = SimulatorParams.Builder().apply {
+        setDiscoveryPort(0)
+        setAnalogRate(rate)
+    }.build()
+
+    TekdaqcSimulator(params).use { simulator ->
+        val delivered = LongAdder()
+        val tekdaqcs = simulator.addBoards(boards).map { board ->
+            val tekdaqc = Tekdaqc_RevD(getSimulatedLocatorResponse())
+            tekdaqc.connectionFactory = ITekdaqcConnectionFactory { _, _ ->
+                SelectorTelnetConnection(board.address.hostAddress, board.telnetPort,
+                        tekdaqc.executionRuntime.selector)
+            }
+            for (input in 0 until inputs) {
+                tekdaqc.addAnalogCountListener(ICountListener { _, _ -> delivered.increment() },
+                        tekdaqc.getAnalogInput(input))
+            }
+            tekdaqc.connect(ATekdaqc.AnalogScale.ANALOG_SCALE_5V, ATekdaqc.CONNECTION_METHOD.ETHERNET)
+            for (input in 0 until inputs) tekdaqc.getAnalogInput(input).activate()
+            tekdaqc.sample(0)
+            tekdaqc
+        }
+
+        var lastSent = simulator.samplesSent
+        var lastDelivered = delivered.sum()
+        for (second in 1..seconds) {
+            Thread.sleep(TimeUnit.SECONDS.toMillis(1))
+            val sent = simulator.samplesSent
+            val total = delivered.sum()
+            println(String.format("%4d s  %4d connected  %10d samples/s sent  %10d samples/s delivered  %8d dropped",
+                    second, simulator.connectedCount, sent - lastSent, total - lastDelivered,
+                    simulator.samplesDropped))
+            lastSent = sent
+            lastDelivered = total
+        }
+
+        tekdaqcs.forEach { it.disconnect() }
+        println(String.format("%d samples sent, %d delivered, %d dropped, %.1f MB sent",
+                simulator.samplesSent, delivered.sum(), simulator.samplesDropped,
+                simulator.bytesSent / (1024.0 * 1024.0)))
+    }
+}
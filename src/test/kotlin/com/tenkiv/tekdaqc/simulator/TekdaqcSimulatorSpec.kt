@@ -0,0 +1,203 @@
+package com.tenkiv.tekdaqc.simulator
+
+import com.tenkiv.tekdaqc.SERIAL
+import com.tenkiv.tekdaqc.communication.message.ICountListener
+import com.tenkiv.tekdaqc.communication.message.IDigitalChannelListener
+import com.tenkiv.tekdaqc.hardware.ATekdaqc
+import com.tenkiv.tekdaqc.hardware.Tekdaqc_RevD
+import com.tenkiv.tekdaqc.locator.Locator
+import com.tenkiv.tekdaqc.locator.LocatorParams
+import com.tenkiv.tekdaqc.locator.OnTekdaqcDiscovered
+import com.tenkiv.tekdaqc.locator.getSimulatedLocatorResponse
+import com.tenkiv.tekdaqc.telnet.client.EthernetTelnetConnection
+import com.tenkiv.tekdaqc.telnet.client.ITekdaqcConnectionFactory
+import com.tenkiv.tekdaqc.telnet.client.RawSocketTelnetConnection
+import io.kotlintest.matchers.shouldBe
+import io.kotlintest.specs.ShouldSpec
+import java.net.DatagramPacket
+import java.net.DatagramSocket
+import java.net.InetAddress
+import java.net.Socket
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+/**
+ * Class to test the simulated Tekdaqc server.
+ */
+class TekdaqcSimulatorSpec : ShouldSpec({
+
+    /**
+     * Parameters using ephemeral ports, so the tests do not depend on the Tekdaqc ports being free.
+     */
+    fun params(configure: SimulatorParams.Builder.() -> Unit = {}): SimulatorParams =
+            SimulatorParams.Builder().apply {
+                setDiscoveryPort(0)
+                setTelnetPort(0)
+                configure()
+            }.build()
+
+    /**
+     * Read records until one matching [predicate] arrives.
+     */
+    fun Socket.readUntil(predicate: (String) -> Boolean): List<String> {
+        val records = ArrayList<String>()
+        val pending = StringBuilder()
+        val buffer = ByteArray(4096)
+        while (records.none(predicate)) {
+            val read = getInputStream().read(buffer)
+            if (read < 0) break
+            pending.append(String(buffer, 0, read, Charsets.US_ASCII))
+            var end = pending.indexOf("\u001E")
+            while (end >= 0) {
+                records.add(pending.substring(0, end))
+                pending.delete(0, end + 1)
+                end = pending.indexOf("\u001E")
+            }
+        }
+        return records
+    }
+
+    "Tekdaqc Simulator Spec"{
+
+        should("Answer discovery for every board from its own address") {
+            TekdaqcSimulator(params()).use { simulator ->
+                val boards = simulator.addBoards(3)
+                DatagramSocket().use { socket ->
+                    socket.soTimeout = 2000
+                    val message = LocatorParams.DEFAULT_MESSAGE.toByteArray()
+                    socket.send(DatagramPacket(message, message.size, InetAddress.getLoopbackAddress(),
+                            simulator.discoveryPort))
+
+                    val responders = HashMap<String, String>()
+                    for (i in 0 until boards.size) {
+                        val packet = DatagramPacket(ByteArray(1024), 1024)
+                        socket.receive(packet)
+                        (packet.data.take(115).sumBy { it.toInt() } and 0xFF) shouldBe 0
+                        responders[packet.address.hostAddress] = String(packet.data, 4, 32, Charsets.US_ASCII)
+                    }
+                    responders shouldBe boards.associate { it.address.hostAddress to it.serialNumber }
+                }
+            }
+        }
+
+        should("Be discovered by the Locator on the same machine") {
+            TekdaqcSimulator(params()).use { simulator ->
+                val board = simulator.addBoards(1)[0]
+                val locator = Locator.instance.createUnsafeLocator(LocatorParams.Builder().build())
+                locator.setLocatorParams(LocatorParams.Builder().apply {
+                    setPort(simulator.discoveryPort)
+                    setTimeout(200)
+                }.build())
+                locator.enableLoopbackBroadcast = true
+                val located = CountDownLatch(1)
+                locator.addLocatorListener(object : OnTekdaqcDiscovered {
+                    override fun onTekdaqcResponse(tekdaqc: ATekdaqc) {}
+
+                    override fun onTekdaqcFirstLocated(tekdaqc: ATekdaqc) {
+                        located.countDown()
+                    }
+
+                    override fun onTekdaqcNoLongerLocated(tekdaqc: ATekdaqc) {}
+                })
+
+                locator.searchForTekdaqcs()
+                try {
+                    located.await(10, TimeUnit.SECONDS) shouldBe true
+                } finally {
+                    locator.cancelLocator()
+                }
+                locator.getTekdaqcForSerial(board.serialNumber)?.hostIP shouldBe board.address.hostAddress
+            }
+        }
+
+        should("Answer each command with a status or error message") {
+            TekdaqcSimulator(params()).use { simulator ->
+                val board = simulator.addBoard(SERIAL, InetAddress.getLoopbackAddress())
+                Socket(board.address, board.telnetPort).use { socket ->
+                    socket.soTimeout = 5000
+                    socket.getOutputStream().write(("ADD_ANALOG_INPUT --INPUT=3 --GAIN=1 --RATE=60 --BUFFER=ENABLED\r" +
+                            "BOGUS\r" +
+                            "READ_ANALOG_INPUT --INPUT=4 --NUMBER=1\r" +
+                            "READ_ANALOG_INPUT --INPUT=3 --NUMBER=2\r").toByteArray())
+
+                    val records = socket.readUntil { it.startsWith("?A3") && it.contains("\r\n") }
+                    records[0] shouldBe "Status Message\r\nMessage: ADD_ANALOG_INPUT COMMAND_SUCCESS\r\n"
+                    records[1] shouldBe "Error Message\r\nMessage: Unknown command: BOGUS\r\n"
+                    records[2] shouldBe
+                            "Error Message\r\nMessage: READ_ANALOG_INPUT failed: Input 4 has not been added.\r\n"
+                    records[3] shouldBe "Status Message\r\nMessage: READ_ANALOG_INPUT COMMAND_SUCCESS\r\n"
+                }
+                board.commandsReceived shouldBe 4L
+            }
+        }
+
+        should("Stop sampling when halted") {
+            TekdaqcSimulator(params {
+                setAnalogRate(1000.0)
+                setAnalogChannels(2)
+                setSampleOnConnect(true)
+            }).use { simulator ->
+                val board = simulator.addBoard(SERIAL, InetAddress.getLoopbackAddress())
+                Socket(board.address, board.telnetPort).use { socket ->
+                    socket.soTimeout = 5000
+                    socket.readUntil { it.startsWith("?A1") }
+                    socket.getOutputStream().write("HALT\r".toByteArray())
+                    socket.readUntil { it.startsWith("Status Message") }
+
+                    val sent = board.samplesSent
+                    Thread.sleep(100)
+                    board.samplesSent shouldBe sent
+                }
+            }
+        }
+
+        should("Drive a Tekdaqc through the command queue and parse path") {
+            TekdaqcSimulator(params { setAnalogRate(1000.0) }).use { simulator ->
+                val board = simulator.addBoard(SERIAL, InetAddress.getLoopbackAddress())
+                val tekdaqc = Tekdaqc_RevD(getSimulatedLocatorResponse())
+                tekdaqc.connectionFactory = ITekdaqcConnectionFactory { _, _ ->
+                    EthernetTelnetConnection(board.address.hostAddress, board.telnetPort)
+                }
+                val received = CountDownLatch(100)
+                tekdaqc.addAnalogCountListener(ICountListener { _, _ -> received.countDown() },
+                        tekdaqc.getAnalogInput(3))
+
+                tekdaqc.connect(ATekdaqc.AnalogScale.ANALOG_SCALE_5V, ATekdaqc.CONNECTION_METHOD.ETHERNET)
+                tekdaqc.getAnalogInput(3).activate()
+                tekdaqc.sample(0)
+
+                received.await(10, TimeUnit.SECONDS) shouldBe true
+                tekdaqc.disconnect()
+            }
+        }
+
+        should("Answer a Tekdaqc using the binary encoding in binary frames") {
+            TekdaqcSimulator(params {
+                setAnalogRate(1000.0)
+                setDigitalRate(1000.0)
+            }).use { simulator ->
+                val board = simulator.addBoard(SERIAL, InetAddress.getLoopbackAddress())
+                val tekdaqc = Tekdaqc_RevD(getSimulatedLocatorResponse())
+                tekdaqc.currentEncoding = ATekdaqc.COMMUNICATION_ENCODING.BINARY
+                tekdaqc.connectionFactory = ITekdaqcConnectionFactory { _, _ ->
+                    RawSocketTelnetConnection(board.address.hostAddress, board.telnetPort)
+                }
+                val analog = CountDownLatch(100)
+                val digital = CountDownLatch(100)
+                tekdaqc.addAnalogCountListener(ICountListener { _, _ -> analog.countDown() },
+                        tekdaqc.getAnalogInput(3))
+                tekdaqc.addDigitalChannelListener(IDigitalChannelListener { _, _ -> digital.countDown() },
+                        tekdaqc.getDigitalInput(2))
+
+                tekdaqc.connect(ATekdaqc.AnalogScale.ANALOG_SCALE_5V, ATekdaqc.CONNECTION_METHOD.ETHERNET)
+                tekdaqc.getAnalogInput(3).activate()
+                tekdaqc.getDigitalInput(2).activate()
+                tekdaqc.sample(0)
+
+                analog.await(10, TimeUnit.SECONDS) shouldBe true
+                digital.await(10, TimeUnit.SECONDS) shouldBe true
+                tekdaqc.disconnect()
+            }
+        }
+    }
+})
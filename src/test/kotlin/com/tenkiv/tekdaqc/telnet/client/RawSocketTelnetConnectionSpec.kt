@@ -0,0 +1,42 @@
+package com.tenkiv.tekdaqc.telnet.client
+
+import io.kotlintest.matchers.shouldBe
+import io.kotlintest.specs.ShouldSpec
+import java.net.ServerSocket
+import kotlin.concurrent.thread
+
+/**
+ * Class to test the raw socket connection.
+ */
+class RawSocketTelnetConnectionSpec : ShouldSpec({
+
+    "Raw Socket Telnet Connection Spec"{
+
+        should("Read data without Telnet negotiation") {
+            ServerSocket(0).use { server ->
+                val writer = thread {
+                    server.accept().use { socket ->
+                        val output = socket.getOutputStream()
+                        output.write(byteArrayOf(0xFF.toByte(), 0xFD.toByte(), 0x03))
+                        output.flush()
+                        output.write("?D1\r\n5,H".toByteArray())
+                        output.write(byteArrayOf(0xFF.toByte(), 0xFF.toByte()))
+                        socket.getInputStream().read()
+                    }
+                }
+
+                val connection = RawSocketTelnetConnection(
+                        "localhost", server.localPort, 64 * 1024, RawSocketTelnetConnection.DEFAULT_BUFFER_SIZE)
+                connection.isConnected shouldBe true
+                connection.outputStream.write("X".toByteArray())
+
+                connection.inputStream.readBytes().toList() shouldBe
+                        ("?D1\r\n5,H".toByteArray().toList() + 0xFF.toByte())
+                writer.join()
+
+                connection.disconnect()
+                connection.isConnected shouldBe false
+            }
+        }
+    }
+})
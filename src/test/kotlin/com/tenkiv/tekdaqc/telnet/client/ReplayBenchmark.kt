@@ -0,0 +1,51 @@
+package com.tenkiv.tekdaqc.telnet.client
+
+import com.tenkiv.tekdaqc.communication.message.ICountListener
+import com.tenkiv.tekdaqc.hardware.ATekdaqc
+import com.tenkiv.tekdaqc.hardware.Tekdaqc_RevD
+import com.tenkiv.tekdaqc.locator.getSimulatedLocatorResponse
+import com.tenkiv.tekdaqc.recording.RecordingReader
+import com.tenkiv.tekdaqc.recording.SampleRecorder
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+/**
+ * Measures how fast a recording replays through the read, parse and broadcast path of a [Tekdaqc_RevD] with one
+ * listener on every analog input. This is not run as part of the test suite; run [main] directly.
+ *
+ * Arguments: [samples recorded] [replay speed, or 0 for as fast as possible]
+ */
+fun main(args: Array<String>) {
+    val samples = args.getOrNull(0)?.toInt() ?: 2000000
+    val speed = args.getOrNull(1)?.toDouble()?.takeIf { it > 0 } ?: ReplayTelnetConnection.AS_FAST_AS_POSSIBLE
+    val channels = 32
+
+    val directory = createTempDir()
+    SampleRecorder(directory).use { recorder ->
+        for (i in 0 until samples) recorder.onAnalogSample(i % channels, i.toLong(), i.toLong(), i)
+    }
+
+    for (encoding in ATekdaqc.COMMUNICATION_ENCODING.values()) {
+        val tekdaqc = Tekdaqc_RevD(getSimulatedLocatorResponse())
+        tekdaqc.currentEncoding = encoding
+        val received = CountDownLatch(samples)
+        for (channel in 0 until channels) {
+            tekdaqc.addAnalogCountListener(ICountListener { _, _ -> received.countDown() },
+                    tekdaqc.getAnalogInput(channel))
+        }
+
+        val replay = ReplayTelnetConnection(RecordingReader(directory), speed, encoding)
+        tekdaqc.connectionFactory = replay.factory()
+        val begin = System.nanoTime()
+        tekdaqc.connect(ATekdaqc.AnalogScale.ANALOG_SCALE_5V, ATekdaqc.CONNECTION_METHOD.ETHERNET)
+        val complete = received.await(10, TimeUnit.MINUTES)
+        val elapsed = System.nanoTime() - begin
+        tekdaqc.disconnect()
+
+        println(String.format("%-7s %12.0f samples/s delivered   %12.0f samples/s replayed   %8.1f MB/s%s",
+                encoding, (samples - received.count) * 1e9 / elapsed, replay.samplesPerSecond,
+                replay.bytesReplayed / (replay.getElapsedTime(TimeUnit.NANOSECONDS) / 1e9) / (1024 * 1024),
+                if (complete) "" else "   (incomplete)"))
+    }
+    directory.deleteRecursively()
+}
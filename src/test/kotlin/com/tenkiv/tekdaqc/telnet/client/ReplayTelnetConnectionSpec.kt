@@ -0,0 +1,70 @@
+package com.tenkiv.tekdaqc.telnet.client
+
+import com.tenkiv.tekdaqc.communication.message.ICountListener
+import com.tenkiv.tekdaqc.hardware.ATekdaqc
+import com.tenkiv.tekdaqc.hardware.Tekdaqc_RevD
+import com.tenkiv.tekdaqc.locator.getSimulatedLocatorResponse
+import com.tenkiv.tekdaqc.recording.RecordingReader
+import com.tenkiv.tekdaqc.recording.SampleRecorder
+import io.kotlintest.matchers.shouldBe
+import io.kotlintest.specs.ShouldSpec
+import java.io.File
+import java.util.Collections
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+/**
+ * Class to test replaying recordings as a Tekdaqc connection.
+ */
+class ReplayTelnetConnectionSpec : ShouldSpec({
+
+    /**
+     * Record analog samples on channels 0 and 1, a digital sample and a PWM sample.
+     */
+    fun record(directory: File, samples: Int) {
+        val recorder = SampleRecorder(directory)
+        for (i in 0 until samples) recorder.onAnalogSample(i % 2, i.toLong(), 1000L + i, -i)
+        recorder.onDigitalSample(3, 0, 5000, true)
+        recorder.onPWMSample(2, 0, 6000, 12.5, 4)
+        recorder.close()
+    }
+
+    "Replay Telnet Connection Spec"{
+
+        should("Stream recorded samples as data records") {
+            val directory = createTempDir()
+            record(directory, 2)
+            val replay = ReplayTelnetConnection(RecordingReader(directory), ReplayTelnetConnection.AS_FAST_AS_POSSIBLE)
+
+            val text = String(replay.inputStream.readBytes(), Charsets.US_ASCII)
+            text shouldBe "?A0\r\n1000,0\u001E?A1\r\n1001,-1\u001E?D3\r\n5000,H\u001E?P2\r\n4,12.5\n6000\u001E"
+            replay.isFinished shouldBe true
+            replay.samplesReplayed shouldBe 4L
+            replay.bytesReplayed shouldBe text.length.toLong()
+            directory.deleteRecursively()
+        }
+
+        should("Drive a Tekdaqc through the read and parse path") {
+            val directory = createTempDir()
+            record(directory, 1000)
+            val tekdaqc = Tekdaqc_RevD(getSimulatedLocatorResponse())
+            val counts = Collections.synchronizedList(ArrayList<Int>())
+            val received = CountDownLatch(500)
+            tekdaqc.addAnalogCountListener(ICountListener { _, count ->
+                counts.add(count)
+                received.countDown()
+            }, tekdaqc.getAnalogInput(1))
+
+            val replay = ReplayTelnetConnection(RecordingReader(directory), ReplayTelnetConnection.AS_FAST_AS_POSSIBLE)
+            tekdaqc.connectionFactory = replay.factory()
+            tekdaqc.connect(ATekdaqc.AnalogScale.ANALOG_SCALE_5V, ATekdaqc.CONNECTION_METHOD.ETHERNET)
+
+            received.await(10, TimeUnit.SECONDS) shouldBe true
+            tekdaqc.disconnect()
+
+            counts shouldBe (0 until 500).map { -(it * 2 + 1) }
+            (replay.samplesPerSecond > 0) shouldBe true
+            directory.deleteRecursively()
+        }
+    }
+})
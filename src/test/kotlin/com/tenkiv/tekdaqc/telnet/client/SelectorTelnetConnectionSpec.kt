@@ -0,0 +1,81 @@
+package com.tenkiv.tekdaqc.telnet.client
+
+import com.tenkiv.tekdaqc.communication.executors.AParsingExecutor
+import com.tenkiv.tekdaqc.communication.executors.RecordSplitter
+import com.tenkiv.tekdaqc.communication.message.ABoardMessage
+import io.kotlintest.matchers.shouldBe
+import io.kotlintest.specs.ShouldSpec
+import java.net.ServerSocket
+import java.util.Collections
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Class to test the selector based connection.
+ */
+class SelectorTelnetConnectionSpec : ShouldSpec({
+
+    "Selector Telnet Connection Spec"{
+
+        should("Strip Telnet negotiation split across reads") {
+            val filter = TelnetCommandFilter()
+            val first = byteArrayOf('a'.toByte(), 0xFF.toByte(), 0xFB.toByte())
+            val second = byteArrayOf(0x01, 'b'.toByte(), 0xFF.toByte(), 0xFF.toByte(), 0xFF.toByte(), 0xFA.toByte(),
+                    0x18, 0x00, 0xFF.toByte(), 0xF0.toByte(), 'c'.toByte())
+
+            filter.filter(first, 0, first.size) shouldBe 1
+            first[0] shouldBe 'a'.toByte()
+            filter.filter(second, 0, second.size) shouldBe 3
+            second.copyOf(3) shouldBe byteArrayOf('b'.toByte(), 0xFF.toByte(), 'c'.toByte())
+        }
+
+        should("Read and write many boards on one thread") {
+            val boardCount = 4
+            val selector = TekdaqcSelector(1)
+            val servers = List(boardCount) { ServerSocket(0) }
+            val received = Collections.synchronizedList(ArrayList<String>())
+            val latch = CountDownLatch(boardCount * 2)
+            val bytesRead = AtomicInteger()
+            val commandsReceived = CountDownLatch(boardCount)
+
+            servers.forEachIndexed { index, server ->
+                Thread {
+                    server.accept().use { socket ->
+                        val output = socket.getOutputStream()
+                        output.write(byteArrayOf(0xFF.toByte(), 0xFB.toByte(), 0x01))
+                        output.write("?A$index\r\n100,1\u001E?A$index\r\n200,2\u001E".toByteArray())
+                        output.flush()
+                        if (socket.getInputStream().read() == 'X'.toInt()) commandsReceived.countDown()
+                    }
+                }.start()
+            }
+
+            val connections = servers.map {
+                SelectorTelnetConnection.factory(selector).createConnection("localhost", it.localPort)
+            }
+            connections.forEach {
+                (it as IStreamingTelnetConnection).startReading(RecordSplitter(object : AParsingExecutor.IParsingListener {
+                    override fun onParsingComplete(message: ABoardMessage) {}
+
+                    override fun onMessageDetected(message: String) {
+                        received.add(message)
+                        latch.countDown()
+                    }
+                }), java.util.function.IntConsumer { count -> bytesRead.addAndGet(count) })
+                it.outputStream.write("X".toByteArray())
+            }
+
+            latch.await(5, TimeUnit.SECONDS) shouldBe true
+            commandsReceived.await(5, TimeUnit.SECONDS) shouldBe true
+            received.size shouldBe boardCount * 2
+            received.contains("?A3\r\n200,2") shouldBe true
+            (bytesRead.get() >= boardCount * 23) shouldBe true
+
+            connections.forEach { it.disconnect() }
+            connections.forEach { it.isConnected shouldBe false }
+            selector.close()
+            servers.forEach { it.close() }
+        }
+    }
+})
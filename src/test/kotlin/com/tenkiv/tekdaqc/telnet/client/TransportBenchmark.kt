@@ -0,0 +1,155 @@
+package com.tenkiv.tekdaqc.telnet.client
+
+import com.tenkiv.tekdaqc.TEST_ANALOG_INPUT_DATA
+import java.io.IOException
+import java.net.ServerSocket
+import java.net.Socket
+import java.util.Arrays
+import kotlin.concurrent.thread
+
+/**
+ * Compares the throughput and round trip latency of the Ethernet transports against a local stand-in for the
+ * Tekdaqc's Telnet server. This is not run as part of the test suite; run [main] directly.
+ *
+ * Arguments: [megabytes streamed per run] [latency round trips per run]
+ */
+fun main(args: Array<String>) {
+    val megabytes = args.getOrNull(0)?.toInt() ?: 64
+    val roundTrips = args.getOrNull(1)?.toInt() ?: 10000
+
+    StandInServer(megabytes * 1024 * 1024L).use { server ->
+        val transports = linkedMapOf(
+                "TelnetClient" to ITekdaqcConnectionFactory { host, port -> EthernetTelnetConnection(host, port) },
+                "Raw socket" to RawSocketTelnetConnection.factory(
+                        RawSocketTelnetConnection.DEFAULT_BUFFER_SIZE, RawSocketTelnetConnection.DEFAULT_BUFFER_SIZE),
+                "Raw socket (256K buffers)" to RawSocketTelnetConnection.factory(256 * 1024, 256 * 1024))
+
+        for ((name, factory) in transports) {
+            try {
+                // Warm up before measuring
+                measureThroughput(factory, server.port)
+                measureLatency(factory, server.port, roundTrips / 10)
+
+                val bytesPerSecond = measureThroughput(factory, server.port)
+                val latencies = measureLatency(factory, server.port, roundTrips)
+                println(String.format("%-28s %10.1f MB/s   latency p50 %6.1f us   p99 %6.1f us",
+                        name, bytesPerSecond / (1024 * 1024),
+                        latencies[latencies.size / 2] / 1000.0,
+                        latencies[latencies.size * 99 / 100] / 1000.0))
+            } catch (e: IOException) {
+                println(String.format("%-28s failed: %s", name, e.message))
+            }
+        }
+    }
+}
+
+/**
+ * Stream the server's data through a connection.
+ *
+ * @return The read rate in bytes per second.
+ */
+private fun measureThroughput(factory: ITekdaqcConnectionFactory, port: Int): Double {
+    val connection = factory.createConnection("localhost", port)
+    val buffer = ByteArray(8192)
+    var total = 0L
+    val start = System.nanoTime()
+    connection.outputStream.apply { write(StandInServer.STREAM.toInt()); flush() }
+    val input = connection.inputStream
+    while (true) {
+        val read = input.read(buffer)
+        if (read < 0) break
+        total += read
+    }
+    val elapsed = System.nanoTime() - start
+    connection.disconnect()
+    return total * 1e9 / elapsed
+}
+
+/**
+ * Time single record request/response round trips through a connection.
+ *
+ * @return The sorted round trip times in nanoseconds.
+ */
+private fun measureLatency(factory: ITekdaqcConnectionFactory, port: Int, count: Int): LongArray {
+    val connection = factory.createConnection("localhost", port)
+    val output = connection.outputStream
+    val input = connection.inputStream
+    val buffer = ByteArray(256)
+    val latencies = LongArray(count)
+    for (i in 0 until count) {
+        val start = System.nanoTime()
+        output.write(StandInServer.PING.toInt())
+        output.flush()
+        do {
+            val read = input.read(buffer)
+            if (read < 0) throw IOException("Stand-in server closed the connection.")
+        } while (buffer[read - 1] != StandInServer.RECORD_SEPARATOR)
+        latencies[i] = System.nanoTime() - start
+    }
+    connection.disconnect()
+    Arrays.sort(latencies)
+    return latencies
+}
+
+/**
+ * Minimal stand-in for the Tekdaqc's Telnet server. Each connection either requests a stream of analog data records,
+ * or pings for one record at a time.
+ */
+private class StandInServer(private val streamLength: Long) : AutoCloseable {
+
+    companion object {
+        const val STREAM: Byte = 'S'.toByte()
+        const val PING: Byte = 'P'.toByte()
+        const val RECORD_SEPARATOR: Byte = 0x1E
+    }
+
+    private val server = ServerSocket(0)
+
+    private val record = (TEST_ANALOG_INPUT_DATA + "\u001E").toByteArray()
+
+    val port: Int
+        get() = server.localPort
+
+    init {
+        thread(isDaemon = true, name = "Stand-in Tekdaqc") {
+            while (!server.isClosed) {
+                val socket = try {
+                    server.accept()
+                } catch (e: IOException) {
+                    break
+                }
+                thread(isDaemon = true) { serve(socket) }
+            }
+        }
+    }
+
+    private fun serve(socket: Socket) {
+        socket.tcpNoDelay = true
+        socket.use {
+            val input = it.getInputStream()
+            val output = it.getOutputStream()
+            when (input.read().toByte()) {
+                STREAM -> {
+                    val chunk = ByteArray(64 * 1024 / record.size * record.size)
+                    for (i in 0 until chunk.size step record.size) System.arraycopy(record, 0, chunk, i, record.size)
+                    var remaining = streamLength
+                    while (remaining > 0) {
+                        val length = minOf(remaining, chunk.size.toLong()).toInt()
+                        output.write(chunk, 0, length)
+                        remaining -= length
+                    }
+                }
+                PING -> {
+                    do {
+                        output.write(record)
+                        output.flush()
+                    } while (input.read().toByte() == PING)
+                }
+            }
+        }
+    }
+
+    override fun close() {
+        server.close()
+    }
+}
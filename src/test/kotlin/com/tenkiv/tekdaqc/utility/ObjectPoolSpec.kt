@@ -0,0 +1,51 @@
+package com.tenkiv.tekdaqc.utility
+
+import io.kotlintest.matchers.shouldBe
+import io.kotlintest.matchers.shouldThrow
+import io.kotlintest.specs.ShouldSpec
+
+/**
+ * Class to test the object pool.
+ */
+class ObjectPoolSpec : ShouldSpec({
+
+    "Object Pool Spec"{
+
+        should("Reuse released instances") {
+            val pool = ObjectPool(2, { StringBuilder() }, { it.setLength(0) })
+
+            val first = pool.acquire().append("data")
+            pool.release(first)
+            val second = pool.acquire()
+
+            (second === first) shouldBe true
+            second.length shouldBe 0
+            pool.createdCount shouldBe 1L
+        }
+
+        should("Reject double release with leak detection") {
+            val pool = ObjectPool(2, { StringBuilder() }, null)
+            pool.setLeakDetection(true)
+
+            val instance = pool.acquire()
+            pool.outstandingCount shouldBe 1
+            pool.release(instance)
+            pool.outstandingCount shouldBe 0
+            shouldThrow<IllegalStateException> { pool.release(instance) }
+        }
+
+        should("Detect instances which are never released") {
+            val pool = ObjectPool(2, { ByteArray(1024) }, null)
+            pool.setLeakDetection(true)
+
+            repeat(10) { pool.acquire() }
+            var attempts = 0
+            while (pool.leakCount == 0L && attempts++ < 50) {
+                System.gc()
+                Thread.sleep(10)
+            }
+
+            (pool.leakCount > 0L) shouldBe true
+        }
+    }
+})